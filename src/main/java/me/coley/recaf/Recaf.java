@@ -3,6 +3,7 @@ package me.coley.recaf;
 import io.github.soc.directories.BaseDirectories;
 import me.coley.recaf.command.impl.Initializer;
 import me.coley.recaf.control.Controller;
+import me.coley.recaf.control.headless.BatchController;
 import me.coley.recaf.control.headless.HeadlessController;
 import me.coley.recaf.plugin.PluginsManager;
 import me.coley.recaf.plugin.api.EntryLoaderProviderPlugin;
@@ -35,6 +36,7 @@ public class Recaf {
 	public static final String DOC_URL = "https://col-e.github.io/Recaf-documentation/";
 	public static final int ASM_VERSION = Opcodes.ASM9;
 	private static Controller currentController;
+	private static final ThreadLocal<Workspace[]> isolatedWorkspace = new ThreadLocal<>();
 	private static Workspace currentWorkspace;
 	private static boolean initialized;
 	private static boolean headless;
@@ -104,7 +106,6 @@ public class Recaf {
 		if (commandLine.getUnmatchedArguments().size() > 0)
 			return;
 
-		headless = initializer.cli;
 		loadPlugins();
 		// Do version check
 		SelfUpdater.setController(initializer.getController());
@@ -138,7 +139,11 @@ public class Recaf {
 	 * 		New workspace.
 	 */
 	public static void setCurrentWorkspace(Workspace currentWorkspace) {
-		Recaf.currentWorkspace = currentWorkspace;
+		Workspace[] isolated = isolatedWorkspace.get();
+		if (isolated != null)
+			isolated[0] = currentWorkspace;
+		else
+			Recaf.currentWorkspace = currentWorkspace;
 	}
 
 	/**
@@ -148,9 +153,36 @@ public class Recaf {
 	 * @return Current workspace.
 	 */
 	public static Workspace getCurrentWorkspace() {
+		Workspace[] isolated = isolatedWorkspace.get();
+		if (isolated != null)
+			return isolated[0];
 		return currentWorkspace;
 	}
 
+	/**
+	 * Run an action where the current workspace is local to the calling thread.
+	 * Used to run multiple workspaces at once in batch mode.
+	 * <br>
+	 * The workspace is <b>not</b> visible to other threads the action hands work to, such as thread pools or
+	 * parallel streams. They see the global workspace instead, so such work must be given the workspace
+	 * explicitly, for instance through {@link me.coley.recaf.control.Controller#getWorkspace()}.
+	 *
+	 * @param action
+	 * 		Action to run.
+	 */
+	public static void runIsolated(Runnable action) {
+		Workspace[] previous = isolatedWorkspace.get();
+		isolatedWorkspace.set(new Workspace[1]);
+		try {
+			action.run();
+		} finally {
+			if (previous == null)
+				isolatedWorkspace.remove();
+			else
+				isolatedWorkspace.set(previous);
+		}
+	}
+
 	/**
 	 * @param controller
 	 * 		New controller.
@@ -158,7 +190,7 @@ public class Recaf {
 	public static void setController(Controller controller) {
 		if (currentController != null)
 			throw new IllegalStateException("Controller already set!");
-		headless = controller instanceof HeadlessController;
+		headless = controller instanceof HeadlessController || controller instanceof BatchController;
 		currentController = controller;
 	}
 
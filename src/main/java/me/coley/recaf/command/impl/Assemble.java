@@ -14,7 +14,6 @@ import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
 import picocli.CommandLine;
 import me.coley.recaf.workspace.Workspace;
-import me.coley.recaf.Recaf;
 import me.coley.recaf.plugin.PluginsManager;
 import me.coley.recaf.plugin.api.ClassVisitorPlugin;
 
@@ -92,7 +91,7 @@ public class Assemble extends ControllerCommand implements Callable<Assemble.Res
 		ClassUtil.copyMethodMetadata(old, generated);
 		node.methods.set(methodIndex, generated);
 		//Finalize changes
-		Workspace workspace = Recaf.getCurrentWorkspace();
+		Workspace workspace = getController().getWorkspace();
 		ClassWriter cw = workspace.createWriter(ClassWriter.COMPUTE_FRAMES);
 		ClassVisitor visitor = cw;
 		for (ClassVisitorPlugin visitorPlugin : PluginsManager.getInstance()
@@ -3,8 +3,8 @@ package me.coley.recaf.command.impl;
 import me.coley.recaf.command.ControllerCommand;
 import me.coley.recaf.plugin.PluginsManager;
 import me.coley.recaf.plugin.api.ExportInterceptorPlugin;
-import me.coley.recaf.util.IOUtil;
-import me.coley.recaf.util.VMUtil;
+import me.coley.recaf.util.ArchiveWriter;
+import me.coley.recaf.workspace.ArchiveResource;
 import me.coley.recaf.workspace.ClassResource;
 import me.coley.recaf.workspace.DirectoryResource;
 import me.coley.recaf.workspace.JavaResource;
@@ -13,24 +13,24 @@ import org.apache.commons.io.FileUtils;
 import org.objectweb.asm.ClassReader;
 import picocli.CommandLine;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.Callable;
-import java.util.jar.JarEntry;
-import java.util.jar.JarOutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 import static me.coley.recaf.util.CollectionUtil.copySet;
 import static me.coley.recaf.util.Log.info;
+import static me.coley.recaf.util.Log.warn;
 
 /**
  * Command for outputting workspace resources.
@@ -39,6 +39,8 @@ import static me.coley.recaf.util.Log.info;
  */
 @CommandLine.Command(name = "export", description = "Export workspace to a class/jar.")
 public class Export extends ControllerCommand implements Callable<Void> {
+	// Entries compressed ahead of the one being written, per thread
+	private static final int ENTRIES_AHEAD_PER_THREAD = 4;
 	@CommandLine.Parameters(index = "0",  description = "The output file.")
 	public File output;
 	@CommandLine.Option(names = { "--shadelibs" }, description = "Add library files to export.")
@@ -73,9 +75,14 @@ public class Export extends ControllerCommand implements Callable<Void> {
 		}
 		// Collect content to put into export archive
 		Map<String, byte[]> outContent = new TreeMap<>();
+		Map<String, Path> sources = new HashMap<>();
 		if (shadeLibs)
-			getWorkspace().getLibraries().forEach(lib -> put(outContent, lib));
+			getWorkspace().getLibraries().forEach(lib -> {
+				put(outContent, lib);
+				putSources(sources, lib);
+			});
 		put(outContent, primary);
+		putSources(sources, primary);
 		// Calculate modified classes
 		Set<String> modifiedClasses = new HashSet<>();
 		Set<String> modifiedResources = new HashSet<>();
@@ -92,7 +99,7 @@ public class Export extends ControllerCommand implements Callable<Void> {
 		if (output.isDirectory() && primary instanceof DirectoryResource)
 			writeDirectory(output, outContent);
 		else
-			writeArchive(compress, output, outContent);
+			writeArchive(compress, output, outContent, sources);
 		info("Saved to {}.\n - Modified classes: {}\n - Modified resources: {}",
 				output.getName(), modifiedClasses.size(), modifiedResources.size());
 		return null;
@@ -137,23 +144,79 @@ public class Export extends ControllerCommand implements Callable<Void> {
 	 * 		When the jar file cannot be written to.
 	 */
 	public static void writeArchive(boolean compress, File output, Map<String, byte[]> content) throws IOException {
-		String extension = IOUtil.getExtension(output.toPath());
-		// Use buffered streams, reduce overall file write operations
-		OutputStream os = new BufferedOutputStream(Files.newOutputStream(output.toPath()), 1048576);
-		try (ZipOutputStream jos = ("zip".equals(extension)) ? new ZipOutputStream(os) :
-				/* Let's assume it's a jar */ new JarOutputStream(os)) {
-			VMUtil.patchZipOutput(jos);
-			PluginsManager pluginsManager = PluginsManager.getInstance();
-			Set<String> dirsVisited = new HashSet<>();
-			// Contents is iterated in sorted order (because 'archiveContent' is TreeMap).
+		writeArchive(compress, output, content, Collections.emptyMap());
+	}
+
+	/**
+	 * Writes a map to an archive. Entries are compressed in parallel, then written in sorted order. Only a
+	 * bounded number of entries are compressed ahead of the one being written, so compressed data of the whole
+	 * archive is not held in memory at once.
+	 *
+	 * @param compress
+	 * 		Enable zip compression.
+	 * @param output
+	 * 		File location of jar.
+	 * @param content
+	 * 		Contents to write to location.
+	 * @param sources
+	 * 		Map of entry names to the archives they were loaded from. When the entry in the source archive
+	 * 		still matches the content, its compressed data is copied instead of compressing the content again.
+	 *
+	 * @throws IOException
+	 * 		When the jar file cannot be written to.
+	 */
+	public static void writeArchive(boolean compress, File output, Map<String, byte[]> content,
+									Map<String, Path> sources) throws IOException {
+		// Interceptors are run one at a time, plugins are not expected to be thread safe
+		Map<String, byte[]> intercepted = new TreeMap<>();
+		Collection<ExportInterceptorPlugin> interceptors =
+				PluginsManager.getInstance().ofType(ExportInterceptorPlugin.class);
+		for (Map.Entry<String, byte[]> entry : content.entrySet()) {
+			String key = entry.getKey();
+			byte[] out = entry.getValue();
+			for (ExportInterceptorPlugin interceptor : interceptors)
+				out = interceptor.intercept(key, out);
+			intercepted.put(key, out);
+		}
+		Map<Path, ArchiveWriter.Source> archives = new HashMap<>();
+		// Write to a temporary file when overwriting an archive entries are copied from
+		Path target = output.toPath();
+		boolean overwritesSource = false;
+		for (Path path : new HashSet<>(sources.values()))
+			if (Files.exists(target) && Files.exists(path) && Files.isSameFile(path, target))
+				overwritesSource = true;
+		Path destination = overwritesSource ?
+				Files.createTempFile(target.toAbsolutePath().getParent(), output.getName(), ".tmp") : target;
+		try (ArchiveWriter writer = new ArchiveWriter(destination)) {
+			for (Path path : new HashSet<>(sources.values())) {
+				try {
+					archives.put(path, new ArchiveWriter.Source(path));
+				} catch(IOException ex) {
+					warn("Cannot copy entries from '{}', they will be recompressed: {}", path, ex.getMessage());
+				}
+			}
+			// Compress entries in parallel
+			int method = compress ? ZipEntry.DEFLATED : ZipEntry.STORED;
+			int window = ForkJoinPool.getCommonPoolParallelism() * ENTRIES_AHEAD_PER_THREAD;
+			Deque<CompletableFuture<PreparedEntry>> pending = new ArrayDeque<>();
+			Iterator<Map.Entry<String, byte[]>> it = intercepted.entrySet().iterator();
+			// Contents is iterated in sorted order (because 'intercepted' is TreeMap).
 			// This allows us to insert directory entries before file entries of that directory occur.
-			CRC32 crc = new CRC32();
-			for (Map.Entry<String, byte[]> entry : content.entrySet()) {
-				String key = entry.getKey();
-				byte[] out = entry.getValue();
-				for (ExportInterceptorPlugin interceptor : pluginsManager.ofType(ExportInterceptorPlugin.class)) {
-					out = interceptor.intercept(key, out);
+			Set<String> dirsVisited = new HashSet<>();
+			while (it.hasNext() || !pending.isEmpty()) {
+				while (it.hasNext() && pending.size() < window) {
+					Map.Entry<String, byte[]> e = it.next();
+					ArchiveWriter.Source source = archives.get(sources.get(e.getKey()));
+					pending.add(CompletableFuture.supplyAsync(() -> prepare(e.getKey(), e.getValue(), method, source)));
+				}
+				PreparedEntry entry;
+				try {
+					entry = pending.poll().join();
+				} catch(CompletionException ex) {
+					pending.forEach(future -> future.cancel(false));
+					throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
 				}
+				String key = entry.name;
 				// Write directories for upcoming entries if necessary
 				// - Ugly, but does the job.
 				if (key.contains("/")) {
@@ -167,25 +230,67 @@ public class Export extends ControllerCommand implements Callable<Void> {
 						} else break;
 					} while (parent.contains("/"));
 					// Put directories in order of depth
-					for (String dir : toAdd) {
-						jos.putNextEntry(new JarEntry(dir));
-						jos.closeEntry();
-					}
+					for (String dir : toAdd)
+						writer.addDirectory(dir);
 				}
 				// Write entry content
-				crc.reset();
-				crc.update(out, 0, out.length);
-				JarEntry outEntry = new JarEntry(key);
-				outEntry.setMethod(compress ? ZipEntry.DEFLATED : ZipEntry.STORED);
-				if (!compress) {
-					outEntry.setSize(out.length);
-					outEntry.setCompressedSize(out.length);
-				}
-				outEntry.setCrc(crc.getValue());
-				jos.putNextEntry(outEntry);
-				jos.write(out);
-				jos.closeEntry();
+				if (entry.copy != null)
+					writer.copyEntry(entry.source, entry.copy);
+				else
+					writer.addEntry(key, method, entry.crc, entry.size, entry.data);
 			}
+		} catch(IOException | RuntimeException ex) {
+			if (overwritesSource)
+				Files.deleteIfExists(destination);
+			throw ex;
+		} finally {
+			for (ArchiveWriter.Source source : archives.values())
+				source.close();
+		}
+		if (overwritesSource)
+			Files.move(destination, target, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * @param name
+	 * 		Entry name.
+	 * @param data
+	 * 		Entry content.
+	 * @param method
+	 * 		Compression method to use.
+	 * @param source
+	 * 		Archive the entry was loaded from, may be {@code null}.
+	 *
+	 * @return Entry ready to be written.
+	 */
+	private static PreparedEntry prepare(String name, byte[] data, int method, ArchiveWriter.Source source) {
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length);
+		// Copy compressed data of unchanged entries
+		ArchiveWriter.Source.Entry original = source == null ? null : source.get(name);
+		if (original != null && original.matches(crc.getValue(), data.length, method))
+			return new PreparedEntry(name, source, original);
+		byte[] out = method == ZipEntry.DEFLATED ? ArchiveWriter.deflate(data) : data;
+		return new PreparedEntry(name, crc.getValue(), data.length, out);
+	}
+
+	private void putSources(Map<String, Path> sources, JavaResource res) {
+		if (!(res instanceof ArchiveResource))
+			return;
+		Path path = ((ArchiveResource) res).getPath();
+		// Modified entries are never copied from the source archive
+		Set<String> dirtyFiles = res.getDirtyFiles();
+		Set<String> dirtyClasses = res.getDirtyClasses();
+		for (String name : res.getFiles().keySet())
+			if (!dirtyFiles.contains(name))
+				sources.put(name, path);
+		for (String name : res.getClasses().keySet()) {
+			if (dirtyClasses.contains(name))
+				continue;
+			String entryName = name + ".class";
+			if (res instanceof WarResource)
+				entryName = WarResource.WAR_CLASS_PREFIX + entryName;
+			sources.put(entryName, path);
 		}
 	}
 
@@ -199,4 +304,34 @@ public class Export extends ControllerCommand implements Callable<Void> {
 			content.put(name, e.getValue());
 		}
 	}
+
+	/**
+	 * Archive entry that has been compressed, or can be copied from a source archive.
+	 */
+	private static class PreparedEntry {
+		private final String name;
+		private final long crc;
+		private final long size;
+		private final byte[] data;
+		private final ArchiveWriter.Source source;
+		private final ArchiveWriter.Source.Entry copy;
+
+		private PreparedEntry(String name, long crc, long size, byte[] data) {
+			this.name = name;
+			this.crc = crc;
+			this.size = size;
+			this.data = data;
+			this.source = null;
+			this.copy = null;
+		}
+
+		private PreparedEntry(String name, ArchiveWriter.Source source, ArchiveWriter.Source.Entry copy) {
+			this.name = name;
+			this.crc = 0;
+			this.size = 0;
+			this.data = null;
+			this.source = source;
+			this.copy = copy;
+		}
+	}
 }
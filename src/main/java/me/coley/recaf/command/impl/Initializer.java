@@ -6,6 +6,7 @@ import javafx.scene.control.ButtonType;
 import me.coley.recaf.Recaf;
 import me.coley.recaf.control.Controller;
 import me.coley.recaf.control.gui.GuiController;
+import me.coley.recaf.control.headless.BatchController;
 import me.coley.recaf.control.headless.HeadlessController;
 import me.coley.recaf.util.LangUtil;
 import me.coley.recaf.util.Log;
@@ -18,6 +19,7 @@ import picocli.CommandLine.Option;
 
 import java.net.URI;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
 
@@ -38,6 +40,13 @@ public class Initializer implements Runnable {
 	public Path input;
 	@Option(names = {"--script" }, description = "Script file to load for cli usage")
 	public Path script;
+	@Option(names = {"--batch" }, split = ",", description = "Input files to run the script against in " +
+			"parallel, each in its own workspace. Directories include all jars they contain")
+	public List<Path> batch;
+	@Option(names = {"--threads" }, description = "Number of batch inputs to process at a time")
+	public int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+	@Option(names = {"--batchlogs" }, description = "Directory to write a log file per batch input to")
+	public Path batchLogs;
 	@Option(names = { "--cli" }, description = "Run Recaf via CLI")
 	public boolean cli;
 	@Option(names = { "--instrument" }, description = "Indicates Recaf has been invoked as an agent")
@@ -54,7 +63,9 @@ public class Initializer implements Runnable {
 			SelfUpdater.disable();
 		// Setup controller
 		boolean headless = isHeadless();
-		if (headless)
+		if (batch != null)
+			controller = new BatchController(batch, script, threads, batchLogs);
+		else if (headless)
 			controller = new HeadlessController(input, script);
 		else
 			controller = new GuiController(input);
@@ -115,7 +126,7 @@ public class Initializer implements Runnable {
 	 * @return {@code true} when Recaf should not allocate a UI.
 	 */
 	private boolean isHeadless() {
-		return cli || script != null;
+		return cli || script != null || batch != null;
 	}
 
 	/**
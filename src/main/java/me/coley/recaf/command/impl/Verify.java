@@ -0,0 +1,34 @@
+package me.coley.recaf.command.impl;
+
+import me.coley.recaf.command.ControllerCommand;
+import me.coley.recaf.parse.bytecode.VerificationResult;
+import me.coley.recaf.parse.bytecode.WorkspaceVerifier;
+import picocli.CommandLine;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Command for verifying the bytecode of every method in the primary resource.
+ *
+ * @author Matt
+ */
+@CommandLine.Command(name = "verify", description = "Verify the bytecode of all methods in the primary resource.")
+public class Verify extends ControllerCommand implements Callable<VerificationResult> {
+	@CommandLine.Option(names = { "--full" },
+			description = "Verify all methods, including those unchanged since the last verification.")
+	public boolean full;
+	@CommandLine.Option(names = { "--threads" }, description = "Number of classes to verify at a time.")
+	public int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * @return Verification result of all methods in the primary resource.
+	 */
+	@Override
+	public VerificationResult call() {
+		WorkspaceVerifier verifier = getController().getWorkspaceVerifier();
+		if (full)
+			verifier.reset();
+		verifier.setThreads(threads);
+		return verifier.verify(getWorkspace());
+	}
+}
@@ -0,0 +1,448 @@
+package me.coley.recaf.compiler;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.util.Log;
+import me.coley.recaf.util.struct.ListeningMap;
+import me.coley.recaf.util.struct.Pair;
+import me.coley.recaf.workspace.EmptyResource;
+import me.coley.recaf.workspace.JavaResource;
+import me.coley.recaf.workspace.Workspace;
+import org.objectweb.asm.ClassReader;
+
+import javax.tools.Diagnostic;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.StandardJavaFileManager;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Recompiles many classes of the primary resource at once. Classes are grouped by the strongly connected
+ * components of their references to one another, so classes that depend on each other are compiled together.
+ * Components are compiled after the components they depend on, and independent components are compiled
+ * concurrently. The outputs are put into the primary resource only if every class compiles.
+ * <br>
+ * References are taken from the constant pools of the current definitions of the classes. Classes that are
+ * not yet in the workspace have no definition, so for those references are found by matching the simple
+ * names of the other classes against the source text.
+ *
+ * @author Matt
+ */
+public class BatchRecompiler {
+	private final Workspace workspace;
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * @param workspace
+	 * 		Workspace containing the classes to recompile.
+	 */
+	public BatchRecompiler(Workspace workspace) {
+		this.workspace = workspace;
+	}
+
+	/**
+	 * @param threads
+	 * 		Maximum number of components to compile at a time.
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * @param sources
+	 * 		Map of internal class names to their source code.
+	 *
+	 * @return Result of the recompilation. When {@link RecompileResult#isSuccess() successful} the
+	 * compiled classes have been put into the primary resource.
+	 */
+	public RecompileResult recompile(Map<String, String> sources) {
+		long start = System.currentTimeMillis();
+		RecompileResult result = new RecompileResult();
+		if (sources.isEmpty()) {
+			result.complete(0, 0, false);
+			return result;
+		}
+		Map<String, Set<String>> graph = createGraph(sources);
+		List<List<String>> components = getComponents(graph);
+		Map<String, Integer> componentIndices = new HashMap<>();
+		for (int i = 0; i < components.size(); i++)
+			for (String name : components.get(i))
+				componentIndices.put(name, i);
+		// Classes compiled by earlier components, visible to the components depending on them
+		JavaResource overlay = new OverlayResource();
+		List<JavaResource> classpath = new ArrayList<>();
+		classpath.add(overlay);
+		classpath.add(workspace.getPrimary());
+		classpath.addAll(workspace.getLibraries());
+		classpath.add(workspace.getPhantoms());
+		// Register indices before compiling so that listeners are not added while other threads are writing
+		for (JavaResource resource : classpath)
+			ClassPathIndex.of(resource);
+		JavaCompiler javac = JavacCompiler.getSystemCompiler();
+		String extraPath = JavacCompiler.getCompilerClasspathText();
+		// Standard file managers are not thread safe, so each is used by one compilation at a time
+		Queue<StandardJavaFileManager> fileManagers = new ConcurrentLinkedQueue<>();
+		ExecutorService service = Executors.newFixedThreadPool(Math.min(threads, components.size()),
+				new ThreadFactoryBuilder()
+						.setNameFormat("Recaf Recompile Thread #%d")
+						.setDaemon(true).build());
+		try {
+			List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+			for (int i = 0; i < components.size(); i++) {
+				List<String> component = components.get(i);
+				// Components are ordered after their dependencies, so their futures already exist
+				List<CompletableFuture<Boolean>> dependencies = new ArrayList<>();
+				for (int dependency : getDependencies(i, component, graph, componentIndices))
+					dependencies.add(futures.get(dependency));
+				futures.add(CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[0]))
+						.thenApplyAsync(v -> {
+							for (CompletableFuture<Boolean> dependency : dependencies) {
+								if (!dependency.join()) {
+									result.addSkipped(component);
+									return false;
+								}
+							}
+							StandardJavaFileManager fm = fileManagers.poll();
+							if (fm == null)
+								fm = javac.getStandardFileManager(null, Locale.getDefault(), UTF_8);
+							try {
+								return compile(javac, fm, extraPath, classpath, component, sources, result);
+							} finally {
+								fileManagers.add(fm);
+							}
+						}, service));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+		} finally {
+			service.shutdownNow();
+			for (StandardJavaFileManager fm : fileManagers) {
+				try {
+					fm.close();
+				} catch(IOException ex) {
+					Log.debug("Failed to close javac file manager: {}", ex.getMessage());
+				}
+			}
+		}
+		boolean success = result.isSuccess();
+		if (success)
+			merge(result.getClasses());
+		result.complete(components.size(), System.currentTimeMillis() - start, success);
+		return result;
+	}
+
+	/**
+	 * @param javac
+	 * 		Compiler to use.
+	 * @param fm
+	 * 		File manager to use.
+	 * @param extraPath
+	 * 		Additional classpath text.
+	 * @param classpath
+	 * 		Resources to compile against.
+	 * @param component
+	 * 		Names of classes to compile.
+	 * @param sources
+	 * 		Map of class names to their source code.
+	 * @param result
+	 * 		Result to record outputs and errors in.
+	 *
+	 * @return {@code true} when the component compiled.
+	 */
+	private boolean compile(JavaCompiler javac, StandardJavaFileManager fm, String extraPath,
+							List<JavaResource> classpath, List<String> component,
+							Map<String, String> sources, RecompileResult result) {
+		AtomicBoolean reported = new AtomicBoolean();
+		try {
+			JavacCompiler compiler = new JavacCompiler();
+			compiler.addToClassPath(classpath);
+			for (String name : component)
+				compiler.addUnit(name, sources.get(name));
+			compiler.options().lineNumbers = true;
+			compiler.options().variables = true;
+			compiler.options().sourceName = true;
+			compiler.options().setTarget(getTarget(component));
+			compiler.setCompileListener(diagnostic -> {
+				if (diagnostic.getKind() != Diagnostic.Kind.ERROR)
+					return;
+				reported.set(true);
+				result.addError(getSourceName(diagnostic, component), "Line " + diagnostic.getLineNumber() +
+						": " + diagnostic.getMessage(Locale.getDefault()));
+			});
+			if (compiler.compile(javac, fm, extraPath)) {
+				Map<String, byte[]> outputs = compiler.getUnits();
+				classpath.get(0).getClasses().putAll(outputs);
+				result.addClasses(outputs);
+				return true;
+			}
+		} catch(Throwable t) {
+			Log.error(t, "Failed to recompile: {}", component);
+		}
+		if (!reported.get())
+			result.addError(component.get(0), "Compilation failed");
+		return false;
+	}
+
+	/**
+	 * Put compiled classes into the primary resource, and create save states for them.
+	 *
+	 * @param outputs
+	 * 		Map of class names to compiled bytecode.
+	 */
+	private void merge(Map<String, byte[]> outputs) {
+		JavaResource primary = workspace.getPrimary();
+		ListeningMap<String, byte[]> classes = primary.getClasses();
+		synchronized(classes) {
+			for (Map.Entry<String, byte[]> e : outputs.entrySet()) {
+				boolean existing = classes.containsKey(e.getKey());
+				classes.put(e.getKey(), e.getValue());
+				// New classes are given their initial save state by the resource
+				if (existing)
+					primary.createClassSave(e.getKey());
+			}
+		}
+	}
+
+	/**
+	 * @param sources
+	 * 		Map of class names to their source code.
+	 *
+	 * @return Map of class names to the names of the other classes being compiled that they reference.
+	 */
+	private Map<String, Set<String>> createGraph(Map<String, String> sources) {
+		Map<String, Set<String>> graph = new TreeMap<>();
+		for (String name : sources.keySet())
+			graph.put(name, new TreeSet<>());
+		Set<String> units = graph.keySet();
+		// Inner classes contribute their references to the class whose source declares them
+		Map<String, byte[]> classes = workspace.getPrimary().getClasses();
+		Set<String> defined = new HashSet<>();
+		for (Map.Entry<String, byte[]> e : new ArrayList<>(classes.entrySet())) {
+			String owner = getUnit(e.getKey(), units);
+			if (owner == null)
+				continue;
+			defined.add(owner);
+			for (String reference : ClassUtil.getReferencedClasses(new ClassReader(e.getValue()))) {
+				String target = getUnit(reference, units);
+				if (target != null && !target.equals(owner))
+					graph.get(owner).add(target);
+			}
+		}
+		Set<String> added = new TreeSet<>(units);
+		added.removeAll(defined);
+		if (added.isEmpty())
+			return graph;
+		Map<String, List<String>> simpleNames = new HashMap<>();
+		for (String name : units)
+			simpleNames.computeIfAbsent(getSimpleName(name), k -> new ArrayList<>()).add(name);
+		for (Map.Entry<String, String> e : sources.entrySet()) {
+			String name = e.getKey();
+			boolean isAdded = added.contains(name);
+			for (String identifier : getIdentifiers(e.getValue())) {
+				List<String> targets = simpleNames.get(identifier);
+				if (targets == null)
+					continue;
+				for (String target : targets)
+					if (!target.equals(name) && (isAdded || added.contains(target)))
+						graph.get(name).add(target);
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * Find strongly connected components with Tarjan's algorithm. An explicit stack is used so that long
+	 * dependency chains do not overflow the thread's stack.
+	 *
+	 * @param graph
+	 * 		Map of class names to the classes they reference.
+	 *
+	 * @return Components of the graph, each ordered after the components it references.
+	 */
+	private static List<List<String>> getComponents(Map<String, Set<String>> graph) {
+		Map<String, Integer> indices = new HashMap<>();
+		Map<String, Integer> lowLinks = new HashMap<>();
+		Deque<String> stack = new ArrayDeque<>();
+		Set<String> onStack = new HashSet<>();
+		List<List<String>> components = new ArrayList<>();
+		for (String root : graph.keySet()) {
+			if (indices.containsKey(root))
+				continue;
+			Deque<Pair<String, Iterator<String>>> frames = new ArrayDeque<>();
+			indices.put(root, indices.size());
+			lowLinks.put(root, indices.get(root));
+			stack.push(root);
+			onStack.add(root);
+			frames.push(new Pair<>(root, graph.get(root).iterator()));
+			while (!frames.isEmpty()) {
+				Pair<String, Iterator<String>> frame = frames.peek();
+				String node = frame.getKey();
+				Iterator<String> edges = frame.getValue();
+				if (edges.hasNext()) {
+					String next = edges.next();
+					if (!indices.containsKey(next)) {
+						indices.put(next, indices.size());
+						lowLinks.put(next, indices.get(next));
+						stack.push(next);
+						onStack.add(next);
+						frames.push(new Pair<>(next, graph.get(next).iterator()));
+					} else if (onStack.contains(next)) {
+						lowLinks.put(node, Math.min(lowLinks.get(node), indices.get(next)));
+					}
+					continue;
+				}
+				frames.pop();
+				if (!frames.isEmpty()) {
+					String parent = frames.peek().getKey();
+					lowLinks.put(parent, Math.min(lowLinks.get(parent), lowLinks.get(node)));
+				}
+				if (lowLinks.get(node).equals(indices.get(node))) {
+					List<String> component = new ArrayList<>();
+					String member;
+					do {
+						member = stack.pop();
+						onStack.remove(member);
+						component.add(member);
+					} while (!member.equals(node));
+					Collections.sort(component);
+					components.add(component);
+				}
+			}
+		}
+		return components;
+	}
+
+	/**
+	 * @param index
+	 * 		Index of the component.
+	 * @param component
+	 * 		Names of classes in the component.
+	 * @param graph
+	 * 		Map of class names to the classes they reference.
+	 * @param componentIndices
+	 * 		Map of class names to the index of their component.
+	 *
+	 * @return Indices of the components the component references.
+	 */
+	private static Set<Integer> getDependencies(int index, List<String> component, Map<String, Set<String>> graph,
+												Map<String, Integer> componentIndices) {
+		Set<Integer> dependencies = new TreeSet<>();
+		for (String name : component)
+			for (String reference : graph.get(name)) {
+				int dependency = componentIndices.get(reference);
+				if (dependency != index)
+					dependencies.add(dependency);
+			}
+		return dependencies;
+	}
+
+	/**
+	 * @param component
+	 * 		Names of classes in the component.
+	 *
+	 * @return Highest version of the current definitions of the classes, limited to what javac supports.
+	 */
+	private JavacTargetVersion getTarget(List<String> component) {
+		int version = 0;
+		Map<String, byte[]> classes = workspace.getPrimary().getClasses();
+		for (String name : component) {
+			byte[] code = classes.get(name);
+			if (code != null)
+				version = Math.max(version, ClassUtil.getVersion(code));
+		}
+		JavacTargetVersion target = version == 0 ? JavacTargetVersion.V8 : JavacTargetVersion.fromClassMajor(version);
+		JavacTargetVersion min = JavacTargetVersion.getMinJavacSupport();
+		JavacTargetVersion max = JavacTargetVersion.getMaxJavacSupport();
+		if (min.ordinal() > target.ordinal())
+			target = min;
+		if (max.ordinal() < target.ordinal())
+			target = max;
+		return target;
+	}
+
+	/**
+	 * @param diagnostic
+	 * 		Compiler message.
+	 * @param component
+	 * 		Names of classes being compiled.
+	 *
+	 * @return Name of the class the message is about.
+	 */
+	private static String getSourceName(Diagnostic<? extends VirtualJavaFileObject> diagnostic,
+										List<String> component) {
+		if (diagnostic.getSource() == null)
+			return component.get(0);
+		// Path of the source file is the class name, prefixed with '/' and suffixed with the extension
+		String path = diagnostic.getSource().toUri().getPath();
+		return path.substring(1, path.length() - Kind.SOURCE.extension.length());
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 * @param units
+	 * 		Names of classes being compiled.
+	 *
+	 * @return Name of the class being compiled that declares the given class, or {@code null} if none do.
+	 */
+	private static String getUnit(String name, Set<String> units) {
+		if (units.contains(name))
+			return name;
+		int split = name.indexOf('$');
+		while (split > 0) {
+			String outer = name.substring(0, split);
+			if (units.contains(outer))
+				return outer;
+			split = name.indexOf('$', split + 1);
+		}
+		return null;
+	}
+
+	/**
+	 * @param name
+	 * 		Internal class name.
+	 *
+	 * @return Class name without the package.
+	 */
+	private static String getSimpleName(String name) {
+		return name.substring(name.lastIndexOf('/') + 1);
+	}
+
+	/**
+	 * @param source
+	 * 		Source code.
+	 *
+	 * @return Identifiers used in the source code.
+	 */
+	private static Set<String> getIdentifiers(String source) {
+		Set<String> identifiers = new HashSet<>();
+		int length = source.length();
+		int i = 0;
+		while (i < length) {
+			if (!Character.isJavaIdentifierStart(source.charAt(i))) {
+				i++;
+				continue;
+			}
+			int start = i++;
+			while (i < length && Character.isJavaIdentifierPart(source.charAt(i)))
+				i++;
+			identifiers.add(source.substring(start, i));
+		}
+		return identifiers;
+	}
+
+	/**
+	 * Resource holding compiled classes while the rest of a batch is compiled.
+	 * Written to by multiple compilation threads.
+	 */
+	private static final class OverlayResource extends EmptyResource {
+		@Override
+		protected Map<String, byte[]> copyMap(Map<String, byte[]> map) {
+			return new ConcurrentHashMap<>(map);
+		}
+	}
+}
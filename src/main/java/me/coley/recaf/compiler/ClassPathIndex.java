@@ -0,0 +1,110 @@
+package me.coley.recaf.compiler;
+
+import me.coley.recaf.util.struct.InternalBiConsumer;
+import me.coley.recaf.util.struct.InternalConsumer;
+import me.coley.recaf.util.struct.ListeningMap;
+import me.coley.recaf.workspace.JavaResource;
+
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Index of a resource's classes by package, for listing classpath packages to javac.
+ * The index is registered as a listener on the resource's class map, so it is kept up to date
+ * as classes are added and removed, and shared by all compilations using the resource.
+ *
+ * @author Matt
+ */
+final class ClassPathIndex implements InternalBiConsumer<String, byte[]> {
+	private final NavigableMap<String, Map<String, JavaFileObject>> packages = new ConcurrentSkipListMap<>();
+	private final ListeningMap<String, byte[]> classes;
+	private final Consumer<Object> removeListener;
+	private int size;
+
+	private ClassPathIndex(ListeningMap<String, byte[]> classes) {
+		this.classes = classes;
+		this.removeListener = InternalConsumer.internal(name -> remove((String) name));
+		rebuild();
+	}
+
+	/**
+	 * @param resource
+	 * 		Resource to index.
+	 *
+	 * @return Index of the resource's classes.
+	 */
+	static ClassPathIndex of(JavaResource resource) {
+		ListeningMap<String, byte[]> classes = resource.getClasses();
+		// The listener sets are safe to update concurrently, the lock only ensures one index is made per map
+		synchronized(classes) {
+			for (BiConsumer<String, byte[]> listener : classes.getPutListeners())
+				if (listener instanceof ClassPathIndex)
+					return (ClassPathIndex) listener;
+			ClassPathIndex index = new ClassPathIndex(classes);
+			classes.getPutListeners().add(index);
+			classes.getRemoveListeners().add(index.removeListener);
+			return index;
+		}
+	}
+
+	/**
+	 * @param packageName
+	 * 		Internal package name, ending with a {@code /} unless it is the default package.
+	 * @param recurse
+	 * 		Include classes of sub-packages.
+	 * @param results
+	 * 		Collection to add file objects of matching classes to.
+	 */
+	synchronized void list(String packageName, boolean recurse, Collection<JavaFileObject> results) {
+		// Rebuild if the map was modified without notifying listeners, such as by 'clear()'
+		if (size != classes.size())
+			rebuild();
+		if (!recurse) {
+			Map<String, JavaFileObject> files = packages.get(packageName);
+			if (files != null)
+				results.addAll(files.values());
+			return;
+		}
+		Map<String, Map<String, JavaFileObject>> matched = packageName.isEmpty() ? packages :
+				packages.subMap(packageName, true, packageName + Character.MAX_VALUE, false);
+		for (Map<String, JavaFileObject> files : matched.values())
+			results.addAll(files.values());
+	}
+
+	@Override
+	public synchronized void accept(String name, byte[] code) {
+		add(name);
+	}
+
+	private synchronized void remove(String name) {
+		Map<String, JavaFileObject> files = packages.get(packageOf(name));
+		if (files != null && files.remove(name) != null)
+			size--;
+	}
+
+	private void add(String name) {
+		Map<String, JavaFileObject> files = packages.computeIfAbsent(packageOf(name),
+				k -> new ConcurrentHashMap<>());
+		if (!files.containsKey(name)) {
+			// Content is fetched when javac reads the class, so updated classes do not need a new file object
+			files.put(name, new ResourceVirtualJavaFileObject(name, () -> classes.get(name), Kind.CLASS));
+			size++;
+		}
+	}
+
+	private synchronized void rebuild() {
+		packages.clear();
+		size = 0;
+		for (String name : new ArrayList<>(classes.keySet()))
+			add(name);
+	}
+
+	private static String packageOf(String name) {
+		return name.substring(0, name.lastIndexOf('/') + 1);
+	}
+}
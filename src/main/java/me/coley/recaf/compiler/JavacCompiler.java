@@ -1,6 +1,6 @@
 package me.coley.recaf.compiler;
 
-import com.google.common.collect.Sets;
+import com.google.common.collect.Lists;
 import me.coley.recaf.Recaf;
 import me.coley.recaf.util.IOUtil;
 import me.coley.recaf.util.Log;
@@ -15,7 +15,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -39,17 +38,32 @@ public class JavacCompiler {
 	 */
 	@SuppressWarnings("unchecked")
 	public boolean compile() {
-		JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
-		if (javac == null)
-			throw new IllegalStateException("No Java compiler is installed. Please use a JDK context when running.");
+		JavaCompiler javac = getSystemCompiler();
 		// file manager, used so that the unit map can have their definitions updated
 		// after compilation.
 		DiagnosticListener<? super JavaFileObject> lll = (DiagnosticListener<? super JavaFileObject>) (Object) listener;
 		JavaFileManager fmFallback = javac.getStandardFileManager(lll, Locale.getDefault(), UTF_8);
+		return compile(javac, fmFallback, getCompilerClasspathText());
+	}
+
+	/**
+	 * @param javac
+	 * 		Compiler to use.
+	 * @param fmFallback
+	 * 		File manager to use for files not provided by the classpath resources.
+	 * 		May be shared between compilations.
+	 * @param extraPath
+	 * 		Additional classpath text, see {@link #getCompilerClasspathText()}.
+	 *
+	 * @return Success of compilation.
+	 */
+	@SuppressWarnings("unchecked")
+	boolean compile(JavaCompiler javac, JavaFileManager fmFallback, String extraPath) {
+		DiagnosticListener<? super JavaFileObject> lll = (DiagnosticListener<? super JavaFileObject>) (Object) listener;
 		JavaFileManager fm = new VirtualFileManager(fmFallback);
 		// Add options
 		List<String> args = new ArrayList<>();
-		args.addAll(Arrays.asList("-classpath", getClassPathText()));
+		args.addAll(Arrays.asList("-classpath", getClassPathText(extraPath)));
 		if (VMUtil.getVmVersion() >= 9) {
 			// For Java 9 and later, use release instead of the source/target pair
 			args.addAll(Arrays.asList("--release", String.valueOf(this.options.getTarget().version())));
@@ -70,9 +84,25 @@ public class JavacCompiler {
 	}
 
 	/**
+	 * @return System java compiler.
+	 *
+	 * @throws IllegalStateException
+	 * 		When Recaf is not running on a JDK.
+	 */
+	static JavaCompiler getSystemCompiler() {
+		JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+		if (javac == null)
+			throw new IllegalStateException("No Java compiler is installed. Please use a JDK context when running.");
+		return javac;
+	}
+
+	/**
+	 * @param extraPath
+	 * 		Additional classpath text.
+	 *
 	 * @return Generated classpath.
 	 */
-	private String getClassPathText() {
+	private String getClassPathText(String extraPath) {
 		// ensure the default path is included
 		String pathDefault = System.getProperty("java.class.path");
 		StringBuilder sb = new StringBuilder(pathDefault);
@@ -82,9 +112,18 @@ public class JavacCompiler {
 			for (String path : pathItems)
 				sb.append(separator).append(path);
 		}
+		sb.append(extraPath);
+		return sb.toString();
+	}
 
-		try {
-			Stream<Path> paths = Files.walk(getCompilerClasspathDirectory());
+	/**
+	 * @return Classpath text of the jars in the {@link #getCompilerClasspathDirectory() compiler classpath directory}.
+	 * Each jar is prefixed with the path separator.
+	 */
+	static String getCompilerClasspathText() {
+		StringBuilder sb = new StringBuilder();
+		char separator = File.pathSeparatorChar;
+		try (Stream<Path> paths = Files.walk(getCompilerClasspathDirectory())) {
 			paths.filter(p -> p.toString().toLowerCase().endsWith(".jar"))
 					.filter(p -> p.toFile().length() < 10_000_000)
 					.forEach(p -> sb.append(separator).append(IOUtil.toString(p)));
@@ -204,19 +243,9 @@ public class JavacCompiler {
 			Iterable<JavaFileObject> list = super.list(location, packageName, kinds, recurse);
 			if ("CLASS_PATH".equals(location.getName()) && kinds.contains(Kind.CLASS)) {
 				String formatted = packageName.isEmpty() ? "" : packageName.replace('.', '/') + '/';
-				Set<JavaFileObject> result = Sets.newHashSet(list);
-				Predicate<String> check;
-				if (recurse) {
-					check = s -> s.startsWith(formatted);
-				} else {
-					check = s -> s.startsWith(formatted)
-							&& s.indexOf('/', formatted.length()) == -1;
-				}
-				classpath.stream()
-						.flatMap(x -> x.getClasses().entrySet().stream())
-						.filter(e -> check.test(e.getKey()))
-						.forEach(x -> result.add(new ResourceVirtualJavaFileObject(x.getKey(),
-								x.getValue(), Kind.CLASS)));
+				List<JavaFileObject> result = Lists.newArrayList(list);
+				for (JavaResource resource : classpath)
+					ClassPathIndex.of(resource).list(formatted, recurse, result);
 				return result;
 			}
 			return list;
@@ -0,0 +1,127 @@
+package me.coley.recaf.compiler;
+
+import me.coley.recaf.util.Log;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Keeps javac state warm between compilations. The compiler and its standard file manager are shared, so
+ * the JDK's class files and the jars on the classpath are only opened and indexed once. Classes provided by
+ * workspace resources are served through {@link ClassPathIndex}, which tracks changes by class.
+ * <br>
+ * The standard file manager is not thread safe, so compilations run one at a time.
+ *
+ * @author Matt
+ */
+public class JavacService {
+	private final AtomicBoolean warmedUp = new AtomicBoolean();
+	private final Map<Path, Long> classpathStamps = new HashMap<>();
+	private JavaCompiler javac;
+	private StandardJavaFileManager fileManager;
+	private String classpathText;
+	private long directoryStamp = -1;
+
+	/**
+	 * @param compiler
+	 * 		Compiler with units and classpath resources to compile.
+	 *
+	 * @return Success of compilation. Use {@link JavacCompiler#setCompileListener} to receive
+	 * information about failures.
+	 */
+	public synchronized boolean compile(JavacCompiler compiler) {
+		if (javac == null)
+			javac = JavacCompiler.getSystemCompiler();
+		// Reopen classpath jars if any of them changed
+		if (isClasspathStale())
+			closeFileManager();
+		if (fileManager == null) {
+			fileManager = javac.getStandardFileManager(null, Locale.getDefault(), UTF_8);
+			updateClasspath();
+		}
+		return compiler.compile(javac, fileManager, classpathText);
+	}
+
+	/**
+	 * Compile a trivial class so that javac's classes are loaded and the file manager is populated
+	 * before the first real compilation. Only the first call has any effect.
+	 */
+	public void warmup() {
+		if (!warmedUp.compareAndSet(false, true))
+			return;
+		try {
+			JavacCompiler compiler = new JavacCompiler();
+			compiler.addUnit("RecafWarmup", "public class RecafWarmup { Object o = new java.util.ArrayList<>(); }");
+			compile(compiler);
+		} catch(Throwable t) {
+			Log.debug("Failed to warm up javac: {}", t.getMessage());
+		}
+	}
+
+	/**
+	 * Release the shared file manager.
+	 */
+	public synchronized void shutdown() {
+		closeFileManager();
+	}
+
+	private boolean isClasspathStale() {
+		if (classpathText == null)
+			return true;
+		Path directory = JavacCompiler.getCompilerClasspathDirectory();
+		if (stamp(directory) != directoryStamp)
+			return true;
+		for (Map.Entry<Path, Long> e : classpathStamps.entrySet())
+			if (stamp(e.getKey()) != e.getValue())
+				return true;
+		return false;
+	}
+
+	private void updateClasspath() {
+		classpathText = JavacCompiler.getCompilerClasspathText();
+		directoryStamp = stamp(JavacCompiler.getCompilerClasspathDirectory());
+		classpathStamps.clear();
+		for (String item : classpathText.split(File.pathSeparator)) {
+			if (item.isEmpty())
+				continue;
+			Path path = new File(item).toPath();
+			classpathStamps.put(path, stamp(path));
+		}
+	}
+
+	private void closeFileManager() {
+		if (fileManager == null)
+			return;
+		try {
+			fileManager.close();
+		} catch(IOException ex) {
+			Log.debug("Failed to close javac file manager: {}", ex.getMessage());
+		}
+		fileManager = null;
+		classpathText = null;
+	}
+
+	/**
+	 * @param path
+	 * 		Some file.
+	 *
+	 * @return Value that changes when the file is modified, or {@code -1} if it cannot be read.
+	 */
+	private static long stamp(Path path) {
+		try {
+			return Files.getLastModifiedTime(path).toMillis() ^ Files.size(path);
+		} catch(IOException ex) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package me.coley.recaf.compiler;
+
+import java.util.*;
+
+/**
+ * Outcome of a {@link BatchRecompiler batch recompilation}.
+ *
+ * @author Matt
+ */
+public class RecompileResult {
+	private final Map<String, byte[]> classes = new TreeMap<>();
+	private final Map<String, List<String>> errors = new TreeMap<>();
+	private final Set<String> skipped = new TreeSet<>();
+	private int components;
+	private long time;
+	private boolean merged;
+
+	/**
+	 * @param outputs
+	 * 		Map of class names to compiled bytecode.
+	 */
+	synchronized void addClasses(Map<String, byte[]> outputs) {
+		classes.putAll(outputs);
+	}
+
+	/**
+	 * @param name
+	 * 		Name of class with the error.
+	 * @param message
+	 * 		Error message.
+	 */
+	synchronized void addError(String name, String message) {
+		errors.computeIfAbsent(name, k -> new ArrayList<>()).add(message);
+	}
+
+	/**
+	 * @param names
+	 * 		Names of classes that were not compiled because a dependency failed to compile.
+	 */
+	synchronized void addSkipped(Collection<String> names) {
+		skipped.addAll(names);
+	}
+
+	/**
+	 * @param components
+	 * 		Number of independently compiled groups.
+	 * @param time
+	 * 		Time in milliseconds the recompilation took.
+	 * @param merged
+	 * 		Whether the outputs were put into the primary resource.
+	 */
+	synchronized void complete(int components, long time, boolean merged) {
+		this.components = components;
+		this.time = time;
+		this.merged = merged;
+	}
+
+	/**
+	 * @return Map of class names to compiled bytecode, including inner classes.
+	 */
+	public synchronized Map<String, byte[]> getClasses() {
+		return new TreeMap<>(classes);
+	}
+
+	/**
+	 * @return Map of class names to the error messages reported for them.
+	 */
+	public synchronized Map<String, List<String>> getErrors() {
+		return new TreeMap<>(errors);
+	}
+
+	/**
+	 * @return Names of classes that were not compiled because a dependency failed to compile.
+	 */
+	public synchronized Set<String> getSkipped() {
+		return new TreeSet<>(skipped);
+	}
+
+	/**
+	 * @return Number of independently compiled groups of classes.
+	 */
+	public synchronized int getComponents() {
+		return components;
+	}
+
+	/**
+	 * @return Time in milliseconds the recompilation took.
+	 */
+	public synchronized long getTime() {
+		return time;
+	}
+
+	/**
+	 * @return {@code true} when the outputs were put into the primary resource.
+	 */
+	public synchronized boolean isMerged() {
+		return merged;
+	}
+
+	/**
+	 * @return {@code true} when every class compiled without errors.
+	 */
+	public synchronized boolean isSuccess() {
+		return errors.isEmpty() && skipped.isEmpty();
+	}
+}
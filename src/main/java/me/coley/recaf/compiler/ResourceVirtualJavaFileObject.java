@@ -3,6 +3,7 @@ package me.coley.recaf.compiler;
 import javax.tools.SimpleJavaFileObject;
 import java.io.*;
 import java.net.URI;
+import java.util.function.Supplier;
 
 /**
  * Java file extension that exposes
@@ -18,9 +19,9 @@ public class ResourceVirtualJavaFileObject extends SimpleJavaFileObject {
 	private final String resourceName;
 
 	/**
-	 * Resource content.
+	 * Resource content supplier.
 	 */
-	private final byte[] content;
+	private final Supplier<byte[]> content;
 
 	/**
 	 * @param resourceName
@@ -31,6 +32,19 @@ public class ResourceVirtualJavaFileObject extends SimpleJavaFileObject {
 	 * 		Kind of the resource.
 	 */
 	public ResourceVirtualJavaFileObject(String resourceName, byte[] content, Kind resourceKind) {
+		this(resourceName, () -> content, resourceKind);
+	}
+
+	/**
+	 * @param resourceName
+	 * 		Name of the resource.
+	 * @param content
+	 * 		Supplier of the current class content. Allows the file object to be reused after the
+	 * 		content is updated.
+	 * @param resourceKind
+	 * 		Kind of the resource.
+	 */
+	public ResourceVirtualJavaFileObject(String resourceName, Supplier<byte[]> content, Kind resourceKind) {
 		super(URI.create("memory://" + resourceName + resourceKind.extension),
 				resourceKind);
 		this.resourceName = resourceName;
@@ -47,6 +61,9 @@ public class ResourceVirtualJavaFileObject extends SimpleJavaFileObject {
 
 	@Override
 	public InputStream openInputStream() throws IOException {
-		return new ByteArrayInputStream(content);
+		byte[] value = content.get();
+		if (value == null)
+			throw new FileNotFoundException("Resource no longer exists: " + resourceName);
+		return new ByteArrayInputStream(value);
 	}
 }
\ No newline at end of file
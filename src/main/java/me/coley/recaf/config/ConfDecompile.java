@@ -42,6 +42,32 @@ public class ConfDecompile extends Config {
 	@Conf("decompile.timeout")
 	public long timeout = 9000;
 
+	/**
+	 * Megabytes the heap in use after garbage collection may grow by while decompiling a single class before
+	 * aborting the decompile process. Short-lived allocations do not count towards this. Disabled when {@code 0}.
+	 */
+	@Conf("decompile.memorybudget")
+	public long memoryBudget = 2048;
+
+	/**
+	 * Retry with another decompiler when the current one is aborted.
+	 */
+	@Conf("decompile.fallback")
+	public boolean fallback = true;
+
+	/**
+	 * Decompile classes likely to be opened next in the background.
+	 */
+	@Conf("decompile.prefetch")
+	public boolean prefetch = true;
+
+	/**
+	 * Kilobytes of bytecode above which classes are decompiled one method at a time.
+	 * Disabled when {@code 0}.
+	 */
+	@Conf("decompile.methodscope")
+	public long methodScope = 512;
+
 	// ============================ CFR OPTIONS ============================ //
 
 	// TODO: Add cfr options
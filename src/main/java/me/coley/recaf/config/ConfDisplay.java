@@ -82,6 +82,11 @@ public class ConfDisplay extends Config {
 	 */
 	@Conf("display.maxtreedepth")
 	public int maxTreeDepth = 30;
+	/**
+	 * Time in milliseconds to wait after the last change to an editor before restyling and checking it.
+	 */
+	@Conf("display.editordelay")
+	public int editorUpdateDelay = 50;
 
 	ConfDisplay() {
 		super("display");
@@ -2,7 +2,10 @@ package me.coley.recaf.control;
 
 import me.coley.recaf.Recaf;
 import me.coley.recaf.command.impl.*;
+import me.coley.recaf.compiler.JavacService;
 import me.coley.recaf.config.ConfigManager;
+import me.coley.recaf.decompile.DecompileService;
+import me.coley.recaf.parse.bytecode.WorkspaceVerifier;
 import me.coley.recaf.plugin.PluginsManager;
 import me.coley.recaf.plugin.api.CommandPlugin;
 import me.coley.recaf.plugin.api.ExitPlugin;
@@ -30,6 +33,9 @@ import static me.coley.recaf.util.Log.*;
 public abstract class Controller implements Runnable {
 	private final Map<Class<?>, Supplier<Callable<?>>> actions = new HashMap<>();
 	private final ConfigManager configs = new ConfigManager(Recaf.getDirectory("config"));
+	private final DecompileService decompileService = new DecompileService(this);
+	private final JavacService javacService = new JavacService();
+	private final WorkspaceVerifier workspaceVerifier = new WorkspaceVerifier();
 	private Workspace workspace;
 	protected Path initialWorkspace;
 
@@ -53,6 +59,8 @@ public abstract class Controller implements Runnable {
 			plugins.forEach(plugin -> plugin.onClosed(old));
 		}
 		this.workspace = workspace;
+		decompileService.reset();
+		workspaceVerifier.reset();
 		Recaf.setCurrentWorkspace(workspace);
 		plugins.forEach(plugin -> plugin.onOpened(workspace));
 	}
@@ -71,6 +79,27 @@ public abstract class Controller implements Runnable {
 		return configs;
 	}
 
+	/**
+	 * @return Service for running decompilers with timeouts and fallbacks.
+	 */
+	public DecompileService getDecompileService() {
+		return decompileService;
+	}
+
+	/**
+	 * @return Service for compiling java source with a warm compiler.
+	 */
+	public JavacService getJavacService() {
+		return javacService;
+	}
+
+	/**
+	 * @return Verifier for all methods of the workspace, which keeps results of unchanged methods between runs.
+	 */
+	public WorkspaceVerifier getWorkspaceVerifier() {
+		return workspaceVerifier;
+	}
+
 	@Override
 	public void run() {
 		// Load workspace
@@ -135,6 +164,7 @@ public abstract class Controller implements Runnable {
 		register(Decompile.class);
 		register(Assemble.class);
 		register(Export.class);
+		register(Verify.class);
 		register(Search.class);
 		register(Remap.class);
 		register(Help.class);
@@ -185,6 +215,14 @@ public abstract class Controller implements Runnable {
 		}
 	}
 
+	/**
+	 * Shutdown the services of this controller, releasing their threads and compiler resources.
+	 */
+	public void shutdownServices() {
+		decompileService.shutdown();
+		javacService.shutdown();
+	}
+
 	/**
 	 * Close Recaf.
 	 */
@@ -194,6 +232,7 @@ public abstract class Controller implements Runnable {
 				.ofType(ExitPlugin.class)
 				.forEach(plugin -> plugin.onExit(this));
 		config().save();
+		shutdownServices();
 		ThreadUtil.shutdown();
 		if (!InstrumentationResource.isActive()) {
 			System.exit(0);
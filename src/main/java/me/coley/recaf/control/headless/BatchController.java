@@ -0,0 +1,237 @@
+package me.coley.recaf.control.headless;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import me.coley.recaf.Recaf;
+import me.coley.recaf.control.Controller;
+import me.coley.recaf.util.Log;
+import me.coley.recaf.util.struct.Pair;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static me.coley.recaf.util.Log.*;
+
+/**
+ * Command line controller that runs a single script against many inputs. Each input is loaded into its own
+ * workspace, and inputs are processed concurrently on a bounded thread pool. Messages logged while running
+ * the script are collected per input. This includes messages of the input's decompile threads, but not those
+ * of threads shared by all inputs, such as the pools of {@link me.coley.recaf.util.ThreadUtil}.
+ * <br>
+ * Scripts may use {@code ${input}} for the path of the current input, and {@code ${name}} for its file name
+ * without the extension. This allows commands such as {@code export} to write a file per input.
+ *
+ * @author Matt
+ */
+public class BatchController extends Controller {
+	private static final ThreadLocal<BatchResult> CURRENT = new ThreadLocal<>();
+	private final Collection<Path> inputs;
+	private final Path script;
+	private final int threads;
+	private final Path logDirectory;
+
+	/**
+	 * @param inputs
+	 * 		Files to run the script against. Directories are expanded to the jar files they contain.
+	 * @param script
+	 * 		Script to run.
+	 * @param threads
+	 * 		Maximum number of inputs to process at a time.
+	 * @param logDirectory
+	 * 		Directory to write a log file per input to. May be {@code null} to skip writing logs.
+	 */
+	public BatchController(Collection<Path> inputs, Path script, int threads, Path logDirectory) {
+		super(null);
+		this.inputs = inputs;
+		this.script = script;
+		this.threads = Math.max(1, threads);
+		this.logDirectory = logDirectory;
+	}
+
+	@Override
+	public void run() {
+		super.run();
+		if (script == null)
+			throw new IllegalArgumentException("No script was provided for batch mode");
+		List<BatchResult> results = runBatch(expandInputs(inputs), HeadlessController.readScript(script));
+		// Summarize
+		int failed = 0;
+		for (BatchResult result : results) {
+			if (result.isSuccess()) {
+				info("{}: OK in {} ms ({} warnings)", result.getInput(), result.getTime(), result.getWarnings());
+			} else {
+				failed++;
+				String reason = result.getFailure() != null ? result.getFailure().toString() :
+						result.getErrors() + " errors";
+				error("{}: FAILED in {} ms - {}", result.getInput(), result.getTime(), reason);
+			}
+		}
+		info("Batch complete: {}/{} inputs succeeded", results.size() - failed, results.size());
+	}
+
+	/**
+	 * @param inputs
+	 * 		Files to run the script against.
+	 * @param lines
+	 * 		Script commands.
+	 *
+	 * @return Results for each input, in the same order as the inputs.
+	 */
+	public List<BatchResult> runBatch(List<Path> inputs, List<String> lines) {
+		List<BatchResult> results = inputs.stream().map(BatchResult::new).collect(Collectors.toList());
+		// Route messages logged by batch threads to the result of the input being processed
+		Consumer<String> traceRoute = route("TRACE");
+		Consumer<String> debugRoute = route("DEBUG");
+		Consumer<String> infoRoute = route("INFO");
+		Consumer<String> warnRoute = route("WARN");
+		Consumer<Pair<String, Throwable>> errorRoute = pair -> route("ERROR").accept(pair.getKey());
+		Log.traceConsumers.add(traceRoute);
+		Log.debugConsumers.add(debugRoute);
+		Log.infoConsumers.add(infoRoute);
+		Log.warnConsumers.add(warnRoute);
+		Log.errorConsumers.add(errorRoute);
+		ExecutorService service = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, inputs.size())),
+				new ThreadFactoryBuilder()
+						.setNameFormat("Recaf Batch Thread #%d")
+						.setDaemon(true).build());
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (BatchResult result : results)
+				futures.add(service.submit(() -> process(result, lines)));
+			for (Future<?> future : futures)
+				future.get();
+		} catch(InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch(ExecutionException ex) {
+			Log.error(ex.getCause(), "Batch thread encountered an error");
+		} finally {
+			service.shutdownNow();
+			Log.traceConsumers.remove(traceRoute);
+			Log.debugConsumers.remove(debugRoute);
+			Log.infoConsumers.remove(infoRoute);
+			Log.warnConsumers.remove(warnRoute);
+			Log.errorConsumers.remove(errorRoute);
+		}
+		return results;
+	}
+
+	/**
+	 * Run the script against a single input in a new workspace.
+	 *
+	 * @param result
+	 * 		Result to populate.
+	 * @param lines
+	 * 		Script commands.
+	 */
+	private void process(BatchResult result, List<String> lines) {
+		Path input = result.getInput();
+		long start = System.currentTimeMillis();
+		Throwable failure = null;
+		CURRENT.set(result);
+		HeadlessController controller = new HeadlessController(input, substitute(lines, input));
+		// Decompile threads belong to this input's controller, so they log to its result too
+		controller.getDecompileService().setTaskWrapper(action -> () -> {
+			CURRENT.set(result);
+			try {
+				action.run();
+			} finally {
+				CURRENT.remove();
+			}
+		});
+		try {
+			// Keep the workspace of this input from leaking into other batch threads
+			Recaf.runIsolated(() -> {
+				controller.setup();
+				controller.run();
+			});
+		} catch(Throwable t) {
+			failure = t;
+			Log.error(t, "Failed running script against: {}", input);
+		} finally {
+			controller.shutdownServices();
+			result.complete(System.currentTimeMillis() - start, failure);
+			CURRENT.remove();
+		}
+		writeLog(result);
+	}
+
+	/**
+	 * @param result
+	 * 		Result with log to write.
+	 */
+	private void writeLog(BatchResult result) {
+		if (logDirectory == null)
+			return;
+		Path file = logDirectory.resolve(result.getInput().getFileName() + ".log");
+		try {
+			Files.createDirectories(logDirectory);
+			Files.write(file, result.getLog(), StandardCharsets.UTF_8);
+		} catch(IOException ex) {
+			Log.error(ex, "Failed to write batch log: {}", file);
+		}
+	}
+
+	/**
+	 * @param level
+	 * 		Log level name.
+	 *
+	 * @return Consumer that adds messages to the result of the input the current thread is processing.
+	 */
+	private static Consumer<String> route(String level) {
+		return message -> {
+			BatchResult result = CURRENT.get();
+			if (result != null)
+				result.log(level, message);
+		};
+	}
+
+	/**
+	 * @param lines
+	 * 		Script commands.
+	 * @param input
+	 * 		Current input.
+	 *
+	 * @return Script commands with input variables replaced.
+	 */
+	private static List<String> substitute(List<String> lines, Path input) {
+		String path = input.toString();
+		String name = input.getFileName().toString();
+		int ext = name.lastIndexOf('.');
+		if (ext > 0)
+			name = name.substring(0, ext);
+		List<String> substituted = new ArrayList<>(lines.size());
+		for (String line : lines)
+			substituted.add(line.replace("${input}", path).replace("${name}", name));
+		return substituted;
+	}
+
+	/**
+	 * @param inputs
+	 * 		Input files and directories.
+	 *
+	 * @return Input files, with directories replaced by the jar files they contain.
+	 */
+	private static List<Path> expandInputs(Collection<Path> inputs) {
+		List<Path> expanded = new ArrayList<>();
+		for (Path input : inputs) {
+			if (!Files.isDirectory(input)) {
+				expanded.add(input);
+				continue;
+			}
+			try (Stream<Path> stream = Files.list(input)) {
+				stream.filter(path -> path.getFileName().toString().toLowerCase().endsWith(".jar"))
+						.sorted()
+						.forEach(expanded::add);
+			} catch(IOException ex) {
+				Log.error(ex, "Failed to list batch inputs in: {}", input);
+			}
+		}
+		return expanded;
+	}
+}
@@ -0,0 +1,101 @@
+package me.coley.recaf.control.headless;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of running a script against a single input in batch mode.
+ *
+ * @author Matt
+ */
+public class BatchResult {
+	private final List<String> log = new ArrayList<>();
+	private final Path input;
+	private int warnings;
+	private int errors;
+	private long time;
+	private Throwable failure;
+
+	/**
+	 * @param input
+	 * 		Input file the script was run against.
+	 */
+	BatchResult(Path input) {
+		this.input = input;
+	}
+
+	/**
+	 * @param level
+	 * 		Log level.
+	 * @param message
+	 * 		Logged message.
+	 */
+	synchronized void log(String level, String message) {
+		if (level.equals("WARN"))
+			warnings++;
+		else if (level.equals("ERROR"))
+			errors++;
+		log.add(level + ": " + message);
+	}
+
+	/**
+	 * @param time
+	 * 		Time in milliseconds the script took to run.
+	 * @param failure
+	 * 		Exception that stopped the script, or {@code null} if it ran to completion.
+	 */
+	synchronized void complete(long time, Throwable failure) {
+		this.time = time;
+		this.failure = failure;
+	}
+
+	/**
+	 * @return Input file the script was run against.
+	 */
+	public Path getInput() {
+		return input;
+	}
+
+	/**
+	 * @return Messages logged while running the script.
+	 */
+	public synchronized List<String> getLog() {
+		return new ArrayList<>(log);
+	}
+
+	/**
+	 * @return Number of warnings logged while running the script.
+	 */
+	public synchronized int getWarnings() {
+		return warnings;
+	}
+
+	/**
+	 * @return Number of errors logged while running the script.
+	 */
+	public synchronized int getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return Time in milliseconds the script took to run.
+	 */
+	public synchronized long getTime() {
+		return time;
+	}
+
+	/**
+	 * @return Exception that stopped the script, or {@code null} if it ran to completion.
+	 */
+	public synchronized Throwable getFailure() {
+		return failure;
+	}
+
+	/**
+	 * @return {@code true} when the script ran to completion without logging errors.
+	 */
+	public synchronized boolean isSuccess() {
+		return failure == null && errors == 0;
+	}
+}
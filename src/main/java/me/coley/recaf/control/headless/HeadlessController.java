@@ -30,6 +30,7 @@ public class HeadlessController extends Controller {
 	private final Map<String, Class<?>> lookup = new HashMap<>();
 	private final Map<Class<?>, Consumer<?>> handlers = new HashMap<>();
 	private final Path script;
+	private final List<String> scriptLines;
 	private boolean running = true;
 	private JLineAdapter jline;
 
@@ -44,23 +45,34 @@ public class HeadlessController extends Controller {
 	public HeadlessController(Path workspace, Path script) {
 		super(workspace);
 		this.script = script;
+		this.scriptLines = null;
+	}
+
+	/**
+	 * @param workspace
+	 * 		Initial workspace path. Can point to a file to load <i>(class, jar)</i> or a workspace
+	 * 		configuration <i>(json)</i>.
+	 * @param scriptLines
+	 * 		Script commands to run. The commands will be executed then the controller finishes.
+	 */
+	HeadlessController(Path workspace, List<String> scriptLines) {
+		super(workspace);
+		this.script = null;
+		this.scriptLines = scriptLines;
 	}
 
 	@Override
 	public void run() {
 		super.run();
 		// Start
-		if(script != null) {
+		if(script != null || scriptLines != null) {
 			// Script means no user input
 			if(getWorkspace() == null)
 				throw new IllegalArgumentException("No workspace was provided");
 			//Parse script
-			List<String> lines;
-			try {
-				lines = Files.readAllLines(script, StandardCharsets.UTF_8);
-			} catch(IOException ex) {
-				throw new IllegalArgumentException("Script file could not be read: " + script, ex);
-			}
+			List<String> lines = scriptLines;
+			if (lines == null)
+				lines = readScript(script);
 			// Run script
 			for(String line : lines)
 				handle(line);
@@ -75,6 +87,20 @@ public class HeadlessController extends Controller {
 		}
 	}
 
+	/**
+	 * @param script
+	 * 		Path to script file.
+	 *
+	 * @return Lines of the script.
+	 */
+	static List<String> readScript(Path script) {
+		try {
+			return Files.readAllLines(script, StandardCharsets.UTF_8);
+		} catch(IOException ex) {
+			throw new IllegalArgumentException("Script file could not be read: " + script, ex);
+		}
+	}
+
 	/**
 	 * Handle user input string.
 	 *
@@ -224,6 +250,12 @@ public class HeadlessController extends Controller {
 		});
 		registerHandler(LoadWorkspace.class, this::setWorkspace);
 		registerHandler(Decompile.class, Log::info);
+		registerHandler(Verify.class, v -> {
+			if (v.isSuccess())
+				info("{}", v);
+			else
+				error("{}", v);
+		});
 		registerHandler(Search.ClassInheritance.class, printResults);
 		registerHandler(Search.ClassName.class, printResults);
 		registerHandler(Search.Member.class, printResults);
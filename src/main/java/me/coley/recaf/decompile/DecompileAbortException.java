@@ -0,0 +1,57 @@
+package me.coley.recaf.decompile;
+
+/**
+ * Exception for decompile tasks that were forcibly stopped by the {@link DecompileService}.
+ *
+ * @author Matt
+ */
+public class DecompileAbortException extends Exception {
+	private final DecompileImpl impl;
+	private final Reason reason;
+
+	/**
+	 * @param impl
+	 * 		Decompiler that was aborted.
+	 * @param reason
+	 * 		Reason for the task being aborted.
+	 * @param message
+	 * 		Description of the abort.
+	 */
+	public DecompileAbortException(DecompileImpl impl, Reason reason, String message) {
+		super(message);
+		this.impl = impl;
+		this.reason = reason;
+	}
+
+	/**
+	 * @return Decompiler that was aborted.
+	 */
+	public DecompileImpl getImpl() {
+		return impl;
+	}
+
+	/**
+	 * @return Reason for the task being aborted.
+	 */
+	public Reason getReason() {
+		return reason;
+	}
+
+	/**
+	 * Reasons for aborting a decompile task.
+	 */
+	public enum Reason {
+		/**
+		 * The decompiler did not finish within the configured timeout.
+		 */
+		TIMEOUT,
+		/**
+		 * The heap in use grew by more than the configured memory budget while the decompiler ran.
+		 */
+		MEMORY,
+		/**
+		 * The task was cancelled by the caller.
+		 */
+		CANCELLED
+	}
+}
@@ -0,0 +1,186 @@
+package me.coley.recaf.decompile;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import me.coley.recaf.config.ConfDecompile;
+
+/**
+ * Cache of decompiled classes. Entries are tied to the exact bytecode array they were generated from,
+ * so any update to a class <i>(Which replaces the array in the resource)</i> invalidates its entries.
+ * <br>
+ * Method-scoped decompilations are cached separately from whole classes, along with the method body
+ * fragments extracted from them. See {@link MethodFragments}.
+ *
+ * @author Matt
+ */
+public class DecompileCache {
+	private static final long MAX_CHARS = 32L * 1024L * 1024L;
+	private final Cache<String, Entry> cache = CacheBuilder.newBuilder()
+			.maximumWeight(MAX_CHARS)
+			.<String, Entry>weigher((key, entry) -> entry.text.length())
+			.build();
+
+	/**
+	 * @param name
+	 * 		Name of the class.
+	 * @param impl
+	 * 		Requested decompiler.
+	 * @param config
+	 * 		Current decompiler config.
+	 * @param code
+	 * 		Current bytecode of the class.
+	 *
+	 * @return Cached decompilation, or {@code null} if no up-to-date decompilation is cached.
+	 */
+	public DecompileResult get(String name, DecompileImpl impl, ConfDecompile config, byte[] code) {
+		return get(name, null, impl, config, code);
+	}
+
+	/**
+	 * @param name
+	 * 		Name of the class.
+	 * @param member
+	 * 		Key of the method the decompilation was scoped to, or {@code null} for the whole class.
+	 * @param impl
+	 * 		Requested decompiler.
+	 * @param config
+	 * 		Current decompiler config.
+	 * @param code
+	 * 		Current bytecode of the class.
+	 *
+	 * @return Cached decompilation, or {@code null} if no up-to-date decompilation is cached.
+	 */
+	public DecompileResult get(String name, String member, DecompileImpl impl, ConfDecompile config, byte[] code) {
+		Entry entry = getEntry(key(name, member, impl, config), code);
+		return entry == null ? null : entry.result;
+	}
+
+	/**
+	 * @param name
+	 * 		Name of the class.
+	 * @param member
+	 * 		Key of the method.
+	 * @param impl
+	 * 		Requested decompiler.
+	 * @param config
+	 * 		Current decompiler config.
+	 * @param code
+	 * 		Current bytecode of the class.
+	 *
+	 * @return Cached decompiled method body, or {@code null} if no up-to-date body is cached.
+	 */
+	public String getFragment(String name, String member, DecompileImpl impl, ConfDecompile config, byte[] code) {
+		Entry entry = getEntry(fragmentKey(name, member, impl, config), code);
+		return entry == null ? null : entry.text;
+	}
+
+	private Entry getEntry(String key, byte[] code) {
+		if (code == null)
+			return null;
+		Entry entry = cache.getIfPresent(key);
+		if (entry == null || entry.code != code)
+			return null;
+		return entry;
+	}
+
+	/**
+	 * @param impl
+	 * 		Decompiler that generated the result.
+	 * @param config
+	 * 		Decompiler config used to generate the result.
+	 * @param code
+	 * 		Bytecode of the class the result was generated from.
+	 * @param result
+	 * 		Decompilation to cache.
+	 */
+	public void put(DecompileImpl impl, ConfDecompile config, byte[] code, DecompileResult result) {
+		put(null, impl, config, code, result);
+	}
+
+	/**
+	 * @param member
+	 * 		Key of the method the decompilation was scoped to, or {@code null} for the whole class.
+	 * @param impl
+	 * 		Decompiler that generated the result.
+	 * @param config
+	 * 		Decompiler config used to generate the result.
+	 * @param code
+	 * 		Bytecode of the class the result was generated from.
+	 * @param result
+	 * 		Decompilation to cache.
+	 */
+	public void put(String member, DecompileImpl impl, ConfDecompile config, byte[] code, DecompileResult result) {
+		if (code == null)
+			return;
+		cache.put(key(result.getName(), member, impl, config), new Entry(code, result.getText(), result));
+	}
+
+	/**
+	 * @param name
+	 * 		Name of the class.
+	 * @param member
+	 * 		Key of the method.
+	 * @param impl
+	 * 		Decompiler that generated the body.
+	 * @param config
+	 * 		Decompiler config used to generate the body.
+	 * @param code
+	 * 		Bytecode of the class the body was generated from.
+	 * @param fragment
+	 * 		Decompiled method body to cache.
+	 */
+	public void putFragment(String name, String member, DecompileImpl impl, ConfDecompile config, byte[] code,
+							String fragment) {
+		if (code == null)
+			return;
+		cache.put(fragmentKey(name, member, impl, config), new Entry(code, fragment, null));
+	}
+
+	/**
+	 * @param name
+	 * 		Name of the class.
+	 * @param impl
+	 * 		Requested decompiler.
+	 * @param config
+	 * 		Current decompiler config.
+	 * @param code
+	 * 		Current bytecode of the class.
+	 *
+	 * @return {@code true} when an up-to-date decompilation is cached.
+	 */
+	public boolean contains(String name, DecompileImpl impl, ConfDecompile config, byte[] code) {
+		return get(name, impl, config, code) != null;
+	}
+
+	/**
+	 * Remove all cached decompilations.
+	 */
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	private static String key(String name, String member, DecompileImpl impl, ConfDecompile config) {
+		// Include options that change the output of all decompilers
+		String key = impl.name() + ':' + config.stripDebug + ':' + config.showSynthetic + ':' + name;
+		return member == null ? key : key + '#' + member;
+	}
+
+	private static String fragmentKey(String name, String member, DecompileImpl impl, ConfDecompile config) {
+		return key(name, member, impl, config) + "#fragment";
+	}
+
+	/**
+	 * Decompiled text paired with the bytecode it was generated from.
+	 */
+	private static class Entry {
+		private final byte[] code;
+		private final String text;
+		private final DecompileResult result;
+
+		private Entry(byte[] code, String text, DecompileResult result) {
+			this.code = code;
+			this.text = text;
+			this.result = result;
+		}
+	}
+}
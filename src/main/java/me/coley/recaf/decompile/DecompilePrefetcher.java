@@ -0,0 +1,175 @@
+package me.coley.recaf.decompile;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.util.Log;
+import me.coley.recaf.util.struct.Pair;
+import me.coley.recaf.workspace.JavaResource;
+import org.objectweb.asm.ClassReader;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Speculatively decompiles classes the user is likely to open next, so that they are already in the
+ * {@link DecompileCache} when requested. Work is only started while the {@link DecompileService} is idle
+ * and there are idle cores, one class at a time.
+ *
+ * @author Matt
+ */
+public class DecompilePrefetcher {
+	private static final OperatingSystemMXBean OS_BEAN = ManagementFactory.getOperatingSystemMXBean();
+	private static final int CORES = Runtime.getRuntime().availableProcessors();
+	private static final int MAX_QUEUED = 64;
+	private static final int MAX_SIBLINGS = 16;
+	private static final long INTERVAL = 200;
+	private final Deque<Pair<String, DecompileImpl>> queue = new ArrayDeque<>();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactoryBuilder()
+					.setNameFormat("Recaf Decompile Prefetcher")
+					.setDaemon(true).build());
+	private final DecompileService service;
+	private Future<?> tick;
+	private Pair<String, DecompileImpl> currentRequest;
+	private CompletableFuture<DecompileResult> current;
+
+	/**
+	 * @param service
+	 * 		Service to run decompilers with.
+	 */
+	DecompilePrefetcher(DecompileService service) {
+		this.service = service;
+	}
+
+	/**
+	 * Queue classes for background decompilation. Newer requests are handled before older ones.
+	 *
+	 * @param names
+	 * 		Names of classes to decompile, most relevant first.
+	 * @param impl
+	 * 		Decompiler to use.
+	 */
+	public synchronized void prefetch(Collection<String> names, DecompileImpl impl) {
+		List<String> list = new ArrayList<>(names);
+		for (ListIterator<String> it = list.listIterator(list.size()); it.hasPrevious(); ) {
+			Pair<String, DecompileImpl> request = new Pair<>(it.previous(), impl);
+			queue.remove(request);
+			queue.addFirst(request);
+		}
+		while (queue.size() > MAX_QUEUED)
+			queue.removeLast();
+		if (tick == null && !queue.isEmpty())
+			tick = scheduler.scheduleWithFixedDelay(this::tick, INTERVAL, INTERVAL, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Queue classes related to the given class for background decompilation.
+	 * This includes classes referenced by the class, and classes in the same package.
+	 * The related classes are collected on the prefetch thread.
+	 *
+	 * @param resource
+	 * 		Resource containing the class.
+	 * @param name
+	 * 		Name of the class.
+	 * @param impl
+	 * 		Decompiler to use.
+	 */
+	public void prefetchRelated(JavaResource resource, String name, DecompileImpl impl) {
+		scheduler.execute(() -> {
+			try {
+				prefetch(collectRelated(resource, name), impl);
+			} catch(Throwable t) {
+				Log.error(t, "Failed to collect classes related to '{}' for prefetching", name);
+			}
+		});
+	}
+
+	private static Set<String> collectRelated(JavaResource resource, String name) {
+		Map<String, byte[]> classes = resource.getClasses();
+		byte[] code = classes.get(name);
+		if (code == null)
+			return Collections.emptySet();
+		Set<String> related = new LinkedHashSet<>();
+		for (String ref : ClassUtil.getReferencedClasses(new ClassReader(code)))
+			if (classes.containsKey(ref))
+				related.add(ref);
+		int sep = name.lastIndexOf('/');
+		String pkg = name.substring(0, sep + 1);
+		int siblings = 0;
+		for (String other : classes.keySet()) {
+			if (siblings >= MAX_SIBLINGS)
+				break;
+			if (other.startsWith(pkg) && other.indexOf('/', pkg.length()) < 0 && related.add(other))
+				siblings++;
+		}
+		related.remove(name);
+		return related;
+	}
+
+	/**
+	 * Drop queued classes and abort the current background decompilation.
+	 */
+	public synchronized void cancel() {
+		queue.clear();
+		if (current != null)
+			current.cancel(true);
+		current = null;
+		currentRequest = null;
+	}
+
+	/**
+	 * Called when a decompilation is requested by the user. If there are no free decompile threads,
+	 * the current background decompilation is aborted and re-queued.
+	 */
+	synchronized void yieldToForeground() {
+		if (current == null || current.isDone())
+			return;
+		current.cancel(true);
+		queue.addFirst(currentRequest);
+		current = null;
+		currentRequest = null;
+	}
+
+	/**
+	 * Stop the prefetch thread.
+	 */
+	void shutdown() {
+		scheduler.shutdownNow();
+	}
+
+	private synchronized void tick() {
+		try {
+			if (current != null && !current.isDone())
+				return;
+			current = null;
+			currentRequest = null;
+			if (queue.isEmpty()) {
+				tick.cancel(false);
+				tick = null;
+				return;
+			}
+			if (!service.isIdle() || !hasIdleCore())
+				return;
+			Pair<String, DecompileImpl> request;
+			while ((request = queue.pollFirst()) != null) {
+				if (service.isCached(request.getKey(), request.getValue()))
+					continue;
+				currentRequest = request;
+				current = service.decompileInBackground(request.getKey(), request.getValue());
+				break;
+			}
+		} catch(Throwable t) {
+			Log.error(t, "Decompile prefetcher encountered an error");
+		}
+	}
+
+	private static boolean hasIdleCore() {
+		double load = OS_BEAN.getSystemLoadAverage();
+		// Load average is not available on all platforms
+		if (load < 0)
+			return true;
+		return load < CORES - 1;
+	}
+}
@@ -0,0 +1,69 @@
+package me.coley.recaf.decompile;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Output of a decompile task run by the {@link DecompileService}.
+ *
+ * @author Matt
+ */
+public class DecompileResult {
+	private final String name;
+	private final DecompileImpl impl;
+	private final String text;
+	private final List<DecompileAbortException> aborted;
+
+	/**
+	 * @param name
+	 * 		Name of the decompiled class.
+	 * @param impl
+	 * 		Decompiler that generated the text.
+	 * @param text
+	 * 		Decompiled text of the class.
+	 * @param aborted
+	 * 		Prior attempts with other decompilers that were aborted.
+	 */
+	public DecompileResult(String name, DecompileImpl impl, String text, List<DecompileAbortException> aborted) {
+		this.name = name;
+		this.impl = impl;
+		this.text = text;
+		this.aborted = aborted;
+	}
+
+	/**
+	 * @return Name of the decompiled class.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return Decompiler that generated the text.
+	 * May differ from the requested decompiler if a fallback was used.
+	 */
+	public DecompileImpl getImpl() {
+		return impl;
+	}
+
+	/**
+	 * @return Decompiled text of the class.
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * @return Prior attempts with other decompilers that were aborted.
+	 */
+	public List<DecompileAbortException> getAborted() {
+		return Collections.unmodifiableList(aborted);
+	}
+
+	/**
+	 * @return {@code true} when the text was generated by a fallback decompiler.
+	 */
+	public boolean isFallback() {
+		return !aborted.isEmpty();
+	}
+}
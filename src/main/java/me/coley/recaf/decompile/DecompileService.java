@@ -0,0 +1,679 @@
+package me.coley.recaf.decompile;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import me.coley.recaf.config.ConfDecompile;
+import me.coley.recaf.control.Controller;
+import me.coley.recaf.decompile.DecompileAbortException.Reason;
+import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.util.Log;
+import me.coley.recaf.util.struct.Pair;
+import me.coley.recaf.workspace.Workspace;
+import org.objectweb.asm.ClassReader;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Runs decompilers on dedicated worker threads. Running tasks are watched for exceeding the configured
+ * timeout and memory budget. Tasks exceeding either are aborted and, if enabled, retried with another
+ * {@link DecompileImpl}. Successful results are kept in a {@link DecompileCache}.
+ * <br>
+ * The memory budget limits the heap that is still in use after garbage collection, not the amount a
+ * decompiler allocates, as decompilers create a lot of short-lived garbage. The JVM does not track which
+ * thread holds on to the heap, so growth is attributed to the running task that allocated the most.
+ * <br>
+ * Decompilers do not check for interruption, so cancellation is cooperative: class lookups made by
+ * decompilers call {@link #checkCancelled()}. Decompilers that are stuck and never look up another class
+ * are abandoned after a grace period. Their threads are left to finish on their own, as stopping them could
+ * leave state shared between decompilers corrupted, and the worker pool is grown to replace them until then.
+ *
+ * @author Matt
+ */
+public class DecompileService {
+	private static final ThreadLocal<Attempt> CURRENT = new ThreadLocal<>();
+	private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = createAllocationBean();
+	private static final List<MemoryPoolMXBean> HEAP_POOLS = getHeapPools();
+	private static final long WATCHDOG_INTERVAL = 50;
+	private static final long ABANDON_GRACE_PERIOD = 2000;
+	private static final long MEGABYTE = 1024L * 1024L;
+	private final Set<Attempt> running = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean watching = new AtomicBoolean();
+	// Collection count at which the heap was last in use by a task aborted for exceeding its budget
+	private long releaseCollections = -1;
+	private final DecompileCache cache = new DecompileCache();
+	private final DecompilePrefetcher prefetcher = new DecompilePrefetcher(this);
+	private final Controller controller;
+	private final Function<DecompileImpl, Decompiler<?>> factory;
+	private final ThreadPoolExecutor workers;
+	private final ScheduledExecutorService watchdog;
+	private final Executor async = command -> ForkJoinPool.commonPool().execute(wrap(command));
+	private volatile UnaryOperator<Runnable> taskWrapper = UnaryOperator.identity();
+
+	/**
+	 * @param controller
+	 * 		Controller with configuration to pull from and the workspace to pull classes from.
+	 */
+	public DecompileService(Controller controller) {
+		this(controller, impl -> impl.create(controller));
+	}
+
+	/**
+	 * @param controller
+	 * 		Controller with configuration to pull from and the workspace to pull classes from.
+	 * @param factory
+	 * 		Function creating a new decompiler instance for each attempt.
+	 */
+	public DecompileService(Controller controller, Function<DecompileImpl, Decompiler<?>> factory) {
+		this.controller = controller;
+		this.factory = factory;
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		this.workers = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+				new ThreadFactoryBuilder()
+						.setNameFormat("Recaf Decompile Thread #%d")
+						.setDaemon(true).build());
+		this.workers.allowCoreThreadTimeOut(true);
+		this.watchdog = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder()
+						.setNameFormat("Recaf Decompile Watchdog")
+						.setDaemon(true).build());
+	}
+
+	/**
+	 * Decompile a class using the configured timeout, memory budget, and fallback behavior.
+	 *
+	 * @param name
+	 * 		Name of the class to decompile.
+	 * @param impl
+	 * 		Decompiler to use.
+	 *
+	 * @return Future of the decompilation. Completes exceptionally with a {@link DecompileAbortException}
+	 * when all attempts were aborted. Cancelling the future aborts the running decompiler.
+	 */
+	public CompletableFuture<DecompileResult> decompile(String name, DecompileImpl impl) {
+		ConfDecompile config = controller.config().decompile();
+		return decompile(name, fallbackOrder(impl), config.timeout, config.memoryBudget * MEGABYTE);
+	}
+
+	/**
+	 * @param name
+	 * 		Name of the class to decompile.
+	 * @param order
+	 * 		Decompilers to try, in order. The next decompiler is only used when the prior one is aborted.
+	 * @param timeout
+	 * 		Time in milliseconds each decompiler is given before being aborted.
+	 * @param memoryBudget
+	 * 		Number of bytes of heap each decompiler may keep in use before being aborted. Disabled when {@code 0}.
+	 *
+	 * @return Future of the decompilation. Completes exceptionally with a {@link DecompileAbortException}
+	 * when all attempts were aborted. Cancelling the future aborts the running decompiler.
+	 */
+	public CompletableFuture<DecompileResult> decompile(String name, Collection<DecompileImpl> order,
+														long timeout, long memoryBudget) {
+		return submit(name, null, code -> Collections.emptyMap(), order, timeout, memoryBudget, false);
+	}
+
+	/**
+	 * Decompile a single method of a class. The bodies of all other methods in the class are replaced
+	 * with stubs beforehand, which keeps decompile times of very large classes proportional to the
+	 * method being viewed. The decompiled body of the method, and of lambdas it declares, are cached for use
+	 * in {@link #decompileFragments(String, DecompileImpl)}. If the bodies cannot be located in the output,
+	 * the whole class is decompiled instead.
+	 *
+	 * @param name
+	 * 		Name of the class to decompile.
+	 * @param impl
+	 * 		Decompiler to use.
+	 * @param methodName
+	 * 		Name of the method to decompile.
+	 * @param methodDesc
+	 * 		Descriptor of the method to decompile.
+	 *
+	 * @return Future of the decompilation, containing the whole class with only the given method's body
+	 * decompiled, or all bodies decompiled if the method could not be decompiled on its own.
+	 */
+	public CompletableFuture<DecompileResult> decompileMethod(String name, DecompileImpl impl,
+															  String methodName, String methodDesc) {
+		ConfDecompile config = controller.config().decompile();
+		byte[] code = getCode(name);
+		if (code == null)
+			throw new IllegalArgumentException("No such class to decompile: " + name);
+		DecompileResult whole = cache.get(name, impl, config, code);
+		if (whole != null)
+			return CompletableFuture.completedFuture(whole);
+		String member = MethodFragments.key(methodName, methodDesc);
+		// Stubbing rewrites the class, so it is done by the task rather than the caller
+		CompletableFuture<DecompileResult> future = submit(name, member,
+				stubbed -> Collections.singletonMap(name, MethodFragments.stubBodies(stubbed, methodName, methodDesc)),
+				fallbackOrder(impl), config.timeout, config.memoryBudget * MEGABYTE, false);
+		AtomicReference<CompletableFuture<DecompileResult>> fallback = new AtomicReference<>();
+		// Callers are completed after the fragments are cached, so they can assemble them right away.
+		// The output is parsed asynchronously, as the result may already be complete on the UI thread.
+		CompletableFuture<DecompileResult> cached = future.thenComposeAsync(result -> {
+			// Fragments are kept by the decompiler that produced them, which differs from the requested
+			// one when falling back
+			if (cache.getFragment(name, member, result.getImpl(), config, code) != null)
+				return CompletableFuture.completedFuture(result);
+			Map<String, String> fragments =
+					MethodFragments.extractFragments(result.getText(), code, methodName, methodDesc);
+			if (fragments != null) {
+				fragments.forEach((key, fragment) ->
+						cache.putFragment(name, key, result.getImpl(), config, code, fragment));
+				return CompletableFuture.completedFuture(result);
+			}
+			Log.warn("Could not locate body of '{}.{}' in decompiled output, decompiling the whole class",
+					name, member);
+			fallback.set(decompile(name, impl));
+			return fallback.get();
+		}, async);
+		// Propagate cancellation to the decompilations
+		cached.whenComplete((value, error) -> {
+			if (!cached.isCancelled())
+				return;
+			future.cancel(true);
+			CompletableFuture<DecompileResult> current = fallback.get();
+			if (current != null)
+				current.cancel(true);
+		});
+		return cached;
+	}
+
+	/**
+	 * Decompile a class with all method bodies replaced with stubs, then fill in the bodies of methods
+	 * previously decompiled by {@link #decompileMethod(String, DecompileImpl, String, String)}.
+	 *
+	 * @param name
+	 * 		Name of the class to decompile.
+	 * @param impl
+	 * 		Decompiler to use.
+	 *
+	 * @return Future of the decompilation, containing the whole class with only the bodies of
+	 * previously decompiled methods. If the whole class has been decompiled already, that is used instead.
+	 */
+	public CompletableFuture<DecompileResult> decompileFragments(String name, DecompileImpl impl) {
+		ConfDecompile config = controller.config().decompile();
+		byte[] code = getCode(name);
+		if (code == null)
+			throw new IllegalArgumentException("No such class to decompile: " + name);
+		DecompileResult whole = cache.get(name, impl, config, code);
+		if (whole != null)
+			return CompletableFuture.completedFuture(whole);
+		CompletableFuture<DecompileResult> skeleton = submit(name, MethodFragments.ALL_STUBBED,
+				stubbed -> Collections.singletonMap(name, MethodFragments.stubBodies(stubbed, null, null)),
+				fallbackOrder(impl), config.timeout, config.memoryBudget * MEGABYTE, false);
+		// Assembled asynchronously, as the skeleton may already be complete on the UI thread
+		CompletableFuture<DecompileResult> assembled = skeleton.thenApplyAsync(result -> {
+			Map<String, String> fragments = new HashMap<>();
+			// Only use fragments of the decompiler that produced the skeleton, so their style matches
+			for (Pair<String, String> method : ClassUtil.getMethodDefs(new ClassReader(code))) {
+				String member = MethodFragments.key(method.getKey(), method.getValue());
+				String fragment = cache.getFragment(name, member, result.getImpl(), config, code);
+				if (fragment != null)
+					fragments.put(member, fragment);
+			}
+			String text = MethodFragments.assemble(result.getText(), fragments);
+			return new DecompileResult(name, result.getImpl(), text, result.getAborted());
+		}, async);
+		// Propagate cancellation to the skeleton decompilation
+		assembled.whenComplete((value, error) -> {
+			if (assembled.isCancelled())
+				skeleton.cancel(true);
+		});
+		return assembled;
+	}
+
+	/**
+	 * Decompile a class at a low priority, only adding the result to the cache.
+	 *
+	 * @param name
+	 * 		Name of the class to decompile.
+	 * @param impl
+	 * 		Decompiler to use.
+	 *
+	 * @return Future of the decompilation.
+	 */
+	CompletableFuture<DecompileResult> decompileInBackground(String name, DecompileImpl impl) {
+		ConfDecompile config = controller.config().decompile();
+		return submit(name, null, code -> Collections.emptyMap(), Collections.singletonList(impl),
+				config.timeout, config.memoryBudget * MEGABYTE, true);
+	}
+
+	private Collection<DecompileImpl> fallbackOrder(DecompileImpl impl) {
+		Queue<DecompileImpl> order = new ArrayDeque<>();
+		order.add(impl);
+		if (controller.config().decompile().fallback)
+			for (DecompileImpl other : DecompileImpl.values())
+				if (other != impl)
+					order.add(other);
+		return order;
+	}
+
+	/**
+	 * @param name
+	 * 		Name of the class to decompile.
+	 * @param member
+	 * 		Key of the method the decompilation is scoped to, or {@code null} for the whole class.
+	 * @param overrides
+	 * 		Function creating the classes to show the decompiler in place of the workspace's, from the current
+	 * 		bytecode of the class. Called on the worker thread.
+	 * @param order
+	 * 		Decompilers to try, in order.
+	 * @param timeout
+	 * 		Time in milliseconds each decompiler is given before being aborted.
+	 * @param memoryBudget
+	 * 		Number of bytes of heap each decompiler may keep in use before being aborted.
+	 * @param background
+	 * 		{@code true} to run at a low priority.
+	 *
+	 * @return Future of the decompilation.
+	 */
+	private CompletableFuture<DecompileResult> submit(String name, String member,
+													  Function<byte[], Map<String, byte[]>> overrides,
+													  Collection<DecompileImpl> order, long timeout,
+													  long memoryBudget, boolean background) {
+		if (order.isEmpty())
+			throw new IllegalArgumentException("No decompiler given to decompile: " + name);
+		// Check for an existing decompilation of the current bytecode
+		ConfDecompile config = controller.config().decompile();
+		DecompileImpl impl = order.iterator().next();
+		byte[] code = getCode(name);
+		DecompileResult cached = cache.get(name, member, impl, config, code);
+		if (cached != null)
+			return CompletableFuture.completedFuture(cached);
+		if (watching.compareAndSet(false, true))
+			watchdog.scheduleWithFixedDelay(wrap(this::checkBudgets), WATCHDOG_INTERVAL, WATCHDOG_INTERVAL,
+					TimeUnit.MILLISECONDS);
+		// Background work should not delay decompiles requested by the user
+		if (!background && workers.getActiveCount() >= workers.getMaximumPoolSize())
+			prefetcher.yieldToForeground();
+		Task task = new Task(name, member, code, config, overrides, order, timeout, memoryBudget, background);
+		task.next();
+		return task.result;
+	}
+
+	/**
+	 * @param name
+	 * 		Name of the class.
+	 * @param impl
+	 * 		Requested decompiler.
+	 *
+	 * @return {@code true} when an up-to-date decompilation of the class is cached.
+	 */
+	public boolean isCached(String name, DecompileImpl impl) {
+		return cache.contains(name, impl, controller.config().decompile(), getCode(name));
+	}
+
+	/**
+	 * @return {@code true} when no decompile tasks are running or waiting to run.
+	 */
+	public boolean isIdle() {
+		return running.isEmpty() && workers.getQueue().isEmpty();
+	}
+
+	/**
+	 * @return Cache of decompiled classes.
+	 */
+	public DecompileCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * @return Scheduler for speculative background decompilation.
+	 */
+	public DecompilePrefetcher getPrefetcher() {
+		return prefetcher;
+	}
+
+	/**
+	 * Cancel background work and clear the cache.
+	 * Called when the workspace changes.
+	 */
+	public void reset() {
+		prefetcher.cancel();
+		cache.clear();
+	}
+
+	/**
+	 * @param taskWrapper
+	 * 		Function wrapping all work the service runs on other threads. Used to carry thread-local context
+	 * 		of the thread that owns the service, such as the input a batch is processing, to those threads.
+	 */
+	public void setTaskWrapper(UnaryOperator<Runnable> taskWrapper) {
+		this.taskWrapper = taskWrapper;
+	}
+
+	/**
+	 * Shutdown the decompile threads.
+	 */
+	public void shutdown() {
+		prefetcher.shutdown();
+		workers.shutdownNow();
+		watchdog.shutdownNow();
+	}
+
+	/**
+	 * Called by decompiler hooks <i>(Such as class lookups)</i> to abort work on the current thread
+	 * if the task it belongs to has been aborted.
+	 *
+	 * @throws CancellationException
+	 * 		When the current thread's decompile task has been aborted.
+	 */
+	public static void checkCancelled() {
+		Attempt attempt = CURRENT.get();
+		if (attempt != null && attempt.cancelled)
+			throw new CancellationException("Decompile of '" + attempt.task.name + "' was aborted");
+	}
+
+	private Runnable wrap(Runnable action) {
+		return taskWrapper.apply(action);
+	}
+
+	private byte[] getCode(String name) {
+		Workspace workspace = controller.getWorkspace();
+		return workspace == null ? null : workspace.getRawClass(name);
+	}
+
+	/**
+	 * Abort any attempts that have exceeded their budgets.
+	 */
+	private void checkBudgets() {
+		try {
+			long now = System.currentTimeMillis();
+			for (Attempt attempt : running) {
+				if (attempt.thread != null && now - attempt.start > attempt.task.timeout)
+					attempt.abort(Reason.TIMEOUT, "Timed out after " + attempt.task.timeout + " ms");
+			}
+			checkHeap();
+		} catch(Throwable t) {
+			Log.error(t, "Decompile watchdog encountered an error");
+		}
+	}
+
+	/**
+	 * Abort the attempt most likely responsible for the heap growing past an attempt's budget.
+	 */
+	private void checkHeap() {
+		// Heap held by an aborted attempt is only released once it stops and the next collection has run
+		long collections = collectionCount();
+		for (Attempt attempt : running)
+			if (attempt.reason == Reason.MEMORY)
+				releaseCollections = collections;
+		if (collections <= releaseCollections)
+			return;
+		long live = liveHeapBytes();
+		Attempt culprit = null;
+		long culpritAllocated = -1;
+		boolean exceeded = false;
+		for (Attempt attempt : running) {
+			Thread thread = attempt.thread;
+			if (thread == null || attempt.done.get())
+				continue;
+			long budget = attempt.task.memoryBudget;
+			if (budget > 0 && live - attempt.startLive > budget)
+				exceeded = true;
+			long allocated = allocatedBytes(thread) - attempt.startAllocated;
+			if (allocated > culpritAllocated) {
+				culprit = attempt;
+				culpritAllocated = allocated;
+			}
+		}
+		if (exceeded && culprit != null)
+			culprit.abort(Reason.MEMORY, "Heap in use grew by more than " +
+					(culprit.task.memoryBudget / MEGABYTE) + " MB");
+	}
+
+	/**
+	 * @param thread
+	 * 		Some thread.
+	 *
+	 * @return Total bytes allocated by the thread, or {@code 0} if the JVM does not support tracking allocations.
+	 */
+	private static long allocatedBytes(Thread thread) {
+		if (ALLOCATION_BEAN == null)
+			return 0;
+		return Math.max(0, ALLOCATION_BEAN.getThreadAllocatedBytes(thread.getId()));
+	}
+
+	/**
+	 * @return Bytes of heap in use after the most recent garbage collection, or {@code 0} if the JVM does not
+	 * report it.
+	 */
+	private static long liveHeapBytes() {
+		long used = 0;
+		for (MemoryPoolMXBean pool : HEAP_POOLS) {
+			MemoryUsage usage = pool.getCollectionUsage();
+			if (usage != null)
+				used += usage.getUsed();
+		}
+		return used;
+	}
+
+	/**
+	 * @return Number of garbage collections run so far.
+	 */
+	private static long collectionCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+			count += Math.max(0, bean.getCollectionCount());
+		return count;
+	}
+
+	/**
+	 * Change the number of worker threads, used to replace threads of abandoned attempts.
+	 *
+	 * @param delta
+	 * 		Number of threads to add, or remove if negative.
+	 */
+	private synchronized void resizeWorkers(int delta) {
+		int size = workers.getCorePoolSize() + delta;
+		// The maximum may not be lower than the core size at any point
+		if (delta > 0) {
+			workers.setMaximumPoolSize(size);
+			workers.setCorePoolSize(size);
+		} else {
+			workers.setCorePoolSize(size);
+			workers.setMaximumPoolSize(size);
+		}
+	}
+
+	private static List<MemoryPoolMXBean> getHeapPools() {
+		List<MemoryPoolMXBean> pools = new ArrayList<>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported())
+				pools.add(pool);
+		if (pools.isEmpty())
+			Log.warn("Heap usage after collection unavailable, decompile memory budgets are disabled");
+		return pools;
+	}
+
+	private static com.sun.management.ThreadMXBean createAllocationBean() {
+		try {
+			java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (bean instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+				if (allocationBean.isThreadAllocatedMemorySupported()) {
+					allocationBean.setThreadAllocatedMemoryEnabled(true);
+					return allocationBean;
+				}
+			}
+		} catch(Throwable t) {
+			Log.warn("Thread allocation tracking unavailable, heap growth is not attributed to a specific decompile");
+		}
+		return null;
+	}
+
+	/**
+	 * Decompilation of a class, which may span multiple attempts with different decompilers.
+	 */
+	private class Task {
+		private final CompletableFuture<DecompileResult> result = new CompletableFuture<>();
+		private final List<DecompileAbortException> aborted = new ArrayList<>();
+		private final Queue<DecompileImpl> order;
+		private final DecompileImpl requested;
+		private final Function<byte[], Map<String, byte[]>> overrideFactory;
+		private Map<String, byte[]> overrides;
+		private final String name;
+		private final String member;
+		private final byte[] code;
+		private final ConfDecompile config;
+		private final long timeout;
+		private final long memoryBudget;
+		private final boolean background;
+		private volatile Attempt attempt;
+
+		private Task(String name, String member, byte[] code, ConfDecompile config,
+					 Function<byte[], Map<String, byte[]>> overrideFactory, Collection<DecompileImpl> order,
+					 long timeout, long memoryBudget, boolean background) {
+			this.name = name;
+			this.member = member;
+			this.code = code;
+			this.config = config;
+			this.overrideFactory = overrideFactory;
+			this.order = new ArrayDeque<>(order);
+			this.requested = this.order.peek();
+			this.timeout = timeout;
+			this.memoryBudget = memoryBudget;
+			this.background = background;
+			// Propagate cancellation of the result to the running attempt
+			result.whenComplete((value, error) -> {
+				Attempt current = attempt;
+				if (result.isCancelled() && current != null)
+					current.abort(Reason.CANCELLED, "Cancelled");
+			});
+		}
+
+		/**
+		 * @return Classes to show the decompiler in place of the workspace's. Created by the first attempt and
+		 * shared with fallback attempts.
+		 */
+		private synchronized Map<String, byte[]> getOverrides() {
+			if (overrides == null)
+				overrides = overrideFactory.apply(code);
+			return overrides;
+		}
+
+		private void next() {
+			Attempt next = new Attempt(this, order.poll());
+			attempt = next;
+			workers.execute(wrap(next));
+		}
+
+		private void onComplete(Attempt from, String text) {
+			DecompileResult value = new DecompileResult(name, from.impl, text, aborted);
+			// Cached before completing so dependents of the result find it in the cache. Results are kept by the
+			// decompiler that produced them, and by the requested one so the aborted attempts are not repeated.
+			cache.put(member, from.impl, config, code, value);
+			if (requested != from.impl)
+				cache.put(member, requested, config, code, value);
+			result.complete(value);
+		}
+
+		private void onError(Throwable t) {
+			result.completeExceptionally(t);
+		}
+
+		private void onAbort(DecompileAbortException ex) {
+			aborted.add(ex);
+			if (ex.getReason() != Reason.CANCELLED && !order.isEmpty() && !result.isDone()) {
+				Log.debug("Decompile of '{}' with {} aborted: {} - Falling back to: {}",
+						name, ex.getImpl(), ex.getMessage(), order.peek());
+				next();
+			} else {
+				result.completeExceptionally(ex);
+			}
+		}
+	}
+
+	/**
+	 * Single run of a decompiler on a worker thread.
+	 */
+	private class Attempt implements Runnable {
+		private final AtomicBoolean done = new AtomicBoolean();
+		private final Task task;
+		private final DecompileImpl impl;
+		private volatile Thread thread;
+		private volatile boolean cancelled;
+		private volatile boolean abandoned;
+		private volatile long start;
+		private volatile long startAllocated;
+		private volatile long startLive;
+		private volatile Reason reason;
+
+		private Attempt(Task task, DecompileImpl impl) {
+			this.task = task;
+			this.impl = impl;
+		}
+
+		@Override
+		public void run() {
+			// Skip if aborted before being started
+			if (done.get())
+				return;
+			Thread current = Thread.currentThread();
+			if (task.background)
+				current.setPriority(Thread.MIN_PRIORITY);
+			start = System.currentTimeMillis();
+			startAllocated = allocatedBytes(current);
+			startLive = liveHeapBytes();
+			thread = current;
+			CURRENT.set(this);
+			running.add(this);
+			try {
+				// The instance is only used for this attempt, so an abandoned instance is never used again
+				Decompiler<?> decompiler = factory.apply(impl);
+				decompiler.getClassOverrides().putAll(task.getOverrides());
+				String text = decompiler.decompile(task.name);
+				if (done.compareAndSet(false, true))
+					task.onComplete(this, text);
+			} catch(Throwable t) {
+				// Errors caused by being aborted are ignored, the abort has already been reported
+				if (done.compareAndSet(false, true))
+					task.onError(t);
+			} finally {
+				running.remove(this);
+				CURRENT.remove();
+				synchronized(this) {
+					thread = null;
+					if (abandoned) {
+						Log.debug("Abandoned decompiler {} finished with '{}'", impl, task.name);
+						resizeWorkers(-1);
+					}
+				}
+				// Clear interrupt flag and priority so the pooled thread can be reused
+				Thread.interrupted();
+				current.setPriority(Thread.NORM_PRIORITY);
+			}
+		}
+
+		private void abort(Reason reason, String message) {
+			if (!done.compareAndSet(false, true))
+				return;
+			this.reason = reason;
+			cancelled = true;
+			Thread current = thread;
+			if (current != null) {
+				current.interrupt();
+				watchdog.schedule(wrap(() -> abandon(current)), ABANDON_GRACE_PERIOD, TimeUnit.MILLISECONDS);
+			}
+			task.onAbort(new DecompileAbortException(impl, reason, message));
+		}
+
+		private synchronized void abandon(Thread target) {
+			// Only abandon the thread if it is still running this attempt
+			if (thread != target)
+				return;
+			Log.warn("Decompiler {} did not respond to cancellation of '{}', abandoning its thread", impl, task.name);
+			abandoned = true;
+			running.remove(this);
+			resizeWorkers(1);
+		}
+	}
+}
@@ -15,6 +15,7 @@ import java.util.*;
 public abstract class Decompiler<OptionType> {
 	private final Controller controller;
 	private final Map<String, OptionType> defaultOptions;
+	private final Map<String, byte[]> classOverrides = new HashMap<>();
 	private Map<String, OptionType> options;
 
 	/**
@@ -58,6 +59,13 @@ public abstract class Decompiler<OptionType> {
 		return defaultOptions;
 	}
 
+	/**
+	 * @return Map of class names to bytecode to decompile instead of the workspace's bytecode.
+	 */
+	public Map<String, byte[]> getClassOverrides() {
+		return classOverrides;
+	}
+
 	/**
 	 * @return Map of the default decompiler options.
 	 */
@@ -0,0 +1,300 @@
+package me.coley.recaf.decompile;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.Position;
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.*;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import me.coley.recaf.Recaf;
+import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.util.struct.Pair;
+import org.objectweb.asm.*;
+
+import java.util.*;
+
+/**
+ * Utilities for method-scoped decompilation. Method bodies can be replaced with stubs so that decompilers
+ * only process the bodies of interest. Bodies decompiled this way can later be spliced into a decompilation
+ * of the class where all bodies were replaced.
+ * <br>
+ * Each stub throws an exception with a marker message that identifies the method, so the stub can be
+ * located in decompiled text regardless of how the decompiler renders the method declaration.
+ *
+ * @author Matt
+ */
+public class MethodFragments {
+	/**
+	 * Member key used for decompilations where all method bodies are stubbed.
+	 */
+	public static final String ALL_STUBBED = "*";
+	private static final String STUB_PREFIX = "recaf$stub:";
+	private static final String STUB_EXCEPTION = "java/lang/IllegalStateException";
+
+	/**
+	 * @param name
+	 * 		Method name.
+	 * @param desc
+	 * 		Method descriptor.
+	 *
+	 * @return Key of the method, used to identify fragments.
+	 */
+	public static String key(String name, String desc) {
+		return name + desc;
+	}
+
+	/**
+	 * Replace method bodies with stubs. Abstract and native methods, and the static initializer of enums
+	 * are left as-is. Lambda bodies declared by the kept method are also kept, so they can be inlined by
+	 * the decompiler.
+	 *
+	 * @param code
+	 * 		Class bytecode.
+	 * @param keepName
+	 * 		Name of the method to keep the body of. May be {@code null} to stub all bodies.
+	 * @param keepDesc
+	 * 		Descriptor of the method to keep the body of.
+	 *
+	 * @return Class bytecode with method bodies replaced by stubs.
+	 */
+	public static byte[] stubBodies(byte[] code, String keepName, String keepDesc) {
+		ClassReader reader = new ClassReader(code);
+		boolean isEnum = (reader.getAccess() & Opcodes.ACC_ENUM) != 0;
+		String lambdaPrefix = keepName == null ? null : "lambda$" + lambdaOwnerName(keepName) + "$";
+		ClassWriter cw = new ClassWriter(0);
+		reader.accept(new ClassVisitor(Recaf.ASM_VERSION, cw) {
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+											 String[] exceptions) {
+				MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+				boolean keep = (access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) != 0 ||
+						(isEnum && name.equals("<clinit>")) ||
+						(name.equals(keepName) && desc.equals(keepDesc)) ||
+						(lambdaPrefix != null && name.startsWith(lambdaPrefix));
+				if (keep)
+					return mv;
+				return new StubMethodVisitor(mv, access, name, desc);
+			}
+		}, 0);
+		return cw.toByteArray();
+	}
+
+	/**
+	 * @param text
+	 * 		Decompiled class, where all but one method body were stubbed by
+	 *        {@link #stubBodies(byte[], String, String)}.
+	 * @param code
+	 * 		Bytecode of the class before it was stubbed.
+	 * @param keepName
+	 * 		Name of the method whose body was kept.
+	 * @param keepDesc
+	 * 		Descriptor of the method whose body was kept.
+	 *
+	 * @return Map of method keys to the text of their bodies, for the kept method and the lambdas it declares
+	 * that the decompiler did not inline. {@code null} if the text could not be parsed, the kept method's body
+	 * was not found, or bodies of other methods were not stubbed.
+	 */
+	public static Map<String, String> extractFragments(String text, byte[] code, String keepName, String keepDesc) {
+		List<Body> bodies = getBodies(text);
+		if (bodies == null)
+			return null;
+		// Lambda names are unique within a class, so their descriptors can be found by name alone
+		String lambdaPrefix = "lambda$" + lambdaOwnerName(keepName) + "$";
+		Map<String, String> lambdas = new HashMap<>();
+		for (Pair<String, String> method : ClassUtil.getMethodDefs(new ClassReader(code)))
+			if (method.getKey().startsWith(lambdaPrefix))
+				lambdas.put(method.getKey(), method.getValue());
+		int[] lines = lineOffsets(text);
+		Map<String, String> fragments = new HashMap<>();
+		for (Body body : bodies) {
+			String fragment = slice(text, lines, body.range);
+			if (fragment.contains(STUB_PREFIX))
+				continue;
+			String key;
+			if (body.name.equals(keepName))
+				key = key(keepName, keepDesc);
+			else if (lambdas.containsKey(body.name))
+				key = key(body.name, lambdas.get(body.name));
+			else
+				return null;
+			if (fragments.put(key, fragment) != null)
+				return null;
+		}
+		return fragments.containsKey(key(keepName, keepDesc)) ? fragments : null;
+	}
+
+	/**
+	 * @param text
+	 * 		Decompiled class.
+	 *
+	 * @return {@code true} when the text contains bodies stubbed by {@link #stubBodies(byte[], String, String)}.
+	 */
+	public static boolean hasStubs(String text) {
+		return text.contains(STUB_PREFIX);
+	}
+
+	/**
+	 * @param skeleton
+	 * 		Decompiled class, where all method bodies were stubbed by
+	 *        {@link #stubBodies(byte[], String, String)}.
+	 * @param fragments
+	 * 		Map of method keys to method body text, from {@link #extractFragments(String, byte[], String, String)}.
+	 *
+	 * @return Text of the class with stubs replaced by the given fragments.
+	 * Stubs without a matching fragment are left as-is.
+	 */
+	public static String assemble(String skeleton, Map<String, String> fragments) {
+		if (fragments.isEmpty())
+			return skeleton;
+		List<Body> bodies = getBodies(skeleton);
+		if (bodies == null)
+			return skeleton;
+		int[] lines = lineOffsets(skeleton);
+		// Replace from the end of the text so that earlier offsets stay valid
+		bodies.sort(Comparator.comparing((Body body) -> body.range.begin).reversed());
+		StringBuilder sb = new StringBuilder(skeleton);
+		for (Body body : bodies) {
+			Range range = body.range;
+			int start = offset(lines, range.begin);
+			int end = offset(lines, range.end) + 1;
+			String key = getStubKey(skeleton.substring(start, end));
+			String fragment = key == null ? null : fragments.get(key);
+			if (fragment != null)
+				sb.replace(start, end, fragment);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @param body
+	 * 		Text of a method body.
+	 *
+	 * @return Key of the method the stub was generated for, or {@code null} if the body is not a stub.
+	 */
+	private static String getStubKey(String body) {
+		int start = body.indexOf(STUB_PREFIX);
+		if (start < 0)
+			return null;
+		start += STUB_PREFIX.length();
+		int end = body.indexOf('"', start);
+		return end < 0 ? null : body.substring(start, end);
+	}
+
+	/**
+	 * @param text
+	 * 		Decompiled class.
+	 *
+	 * @return Method, constructor and static initializer bodies declared directly in the first type of the text.
+	 * {@code null} if the text could not be parsed.
+	 */
+	private static List<Body> getBodies(String text) {
+		ParserConfiguration config = new ParserConfiguration()
+				.setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_16);
+		ParseResult<CompilationUnit> result = new JavaParser(config).parse(text);
+		if (!result.isSuccessful() || !result.getResult().isPresent())
+			return null;
+		CompilationUnit unit = result.getResult().get();
+		if (unit.getTypes().isEmpty())
+			return null;
+		List<Body> bodies = new ArrayList<>();
+		for (BodyDeclaration<?> member : unit.getType(0).getMembers()) {
+			Optional<BlockStmt> body = Optional.empty();
+			String name = null;
+			if (member instanceof MethodDeclaration) {
+				body = ((MethodDeclaration) member).getBody();
+				name = ((MethodDeclaration) member).getNameAsString();
+			} else if (member instanceof ConstructorDeclaration) {
+				body = Optional.of(((ConstructorDeclaration) member).getBody());
+				name = "<init>";
+			} else if (member instanceof InitializerDeclaration && ((InitializerDeclaration) member).isStatic()) {
+				body = Optional.of(((InitializerDeclaration) member).getBody());
+				name = "<clinit>";
+			}
+			String bodyName = name;
+			body.flatMap(BlockStmt::getRange).ifPresent(range -> bodies.add(new Body(bodyName, range)));
+		}
+		return bodies;
+	}
+
+	private static String slice(String text, int[] lines, Range range) {
+		return text.substring(offset(lines, range.begin), offset(lines, range.end) + 1);
+	}
+
+	private static int offset(int[] lines, Position position) {
+		// Positions are 1-indexed
+		return lines[position.line - 1] + position.column - 1;
+	}
+
+	private static int[] lineOffsets(String text) {
+		List<Integer> offsets = new ArrayList<>();
+		offsets.add(0);
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n')
+				i++;
+			if (c == '\r' || c == '\n')
+				offsets.add(i + 1);
+		}
+		return offsets.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private static String lambdaOwnerName(String name) {
+		// Javac names lambdas in initializers after "new" and "static"
+		if (name.equals("<init>"))
+			return "new";
+		if (name.equals("<clinit>"))
+			return "static";
+		return name;
+	}
+
+	/**
+	 * Range of a body in decompiled text, and the name of the method it belongs to.
+	 */
+	private static class Body {
+		private final String name;
+		private final Range range;
+
+		private Body(String name, Range range) {
+			this.name = name;
+			this.range = range;
+		}
+	}
+
+	/**
+	 * Method visitor that replaces the code of a method with a stub that throws a marked exception.
+	 */
+	private static class StubMethodVisitor extends MethodVisitor {
+		private final MethodVisitor target;
+		private final String key;
+		private final int locals;
+
+		private StubMethodVisitor(MethodVisitor target, int access, String name, String desc) {
+			super(Recaf.ASM_VERSION, target);
+			this.target = target;
+			this.key = key(name, desc);
+			int argSize = Type.getArgumentsAndReturnSizes(desc) >> 2;
+			// Argument size includes the implicit 'this'
+			this.locals = (access & Opcodes.ACC_STATIC) != 0 ? argSize - 1 : argSize;
+		}
+
+		@Override
+		public void visitCode() {
+			super.visitCode();
+			super.visitTypeInsn(Opcodes.NEW, STUB_EXCEPTION);
+			super.visitInsn(Opcodes.DUP);
+			super.visitLdcInsn(STUB_PREFIX + key);
+			super.visitMethodInsn(Opcodes.INVOKESPECIAL, STUB_EXCEPTION, "<init>", "(Ljava/lang/String;)V", false);
+			super.visitInsn(Opcodes.ATHROW);
+			super.visitMaxs(3, locals);
+			// Drop the original code
+			mv = null;
+		}
+
+		@Override
+		public void visitEnd() {
+			target.visitEnd();
+		}
+	}
+}
@@ -61,7 +61,7 @@ public class CfrDecompiler extends Decompiler<String> {
 
 	@Override
 	public String decompile(String name) {
-		ClassSource source = new ClassSource(getController());
+		ClassSource source = new ClassSource(getController(), getClassOverrides());
 		SinkFactoryImpl sink = new SinkFactoryImpl();
 		CfrDriver driver = new CfrDriver.Builder()
 				.withClassFileSource(source)
@@ -1,6 +1,7 @@
 package me.coley.recaf.decompile.cfr;
 
 import me.coley.recaf.control.Controller;
+import me.coley.recaf.decompile.DecompileService;
 import me.coley.recaf.util.ClassUtil;
 import org.benf.cfr.reader.api.ClassFileSource;
 import org.benf.cfr.reader.bytecode.analysis.parse.utils.Pair;
@@ -14,6 +15,7 @@ import java.util.*;
  */
 public class ClassSource implements ClassFileSource {
 	private final Controller controller;
+	private final Map<String, byte[]> overrides;
 
 	/**
 	 * Constructs a CFR class source.
@@ -22,7 +24,20 @@ public class ClassSource implements ClassFileSource {
 	 * 		Controller with workspace to pull classes from.
 	 */
 	public ClassSource(Controller controller) {
+		this(controller, Collections.emptyMap());
+	}
+
+	/**
+	 * Constructs a CFR class source.
+	 *
+	 * @param controller
+	 * 		Controller with workspace to pull classes from.
+	 * @param overrides
+	 * 		Map of class names to bytecode to use instead of the workspace's bytecode.
+	 */
+	public ClassSource(Controller controller, Map<String, byte[]> overrides) {
 		this.controller = controller;
+		this.overrides = overrides;
 	}
 
 	@Override
@@ -41,8 +56,11 @@ public class ClassSource implements ClassFileSource {
 	@Override
 	@SuppressWarnings("deprecation")
 	public Pair<byte[], String> getClassFileContent(String inputPath) {
+		DecompileService.checkCancelled();
 		String className = inputPath.substring(0, inputPath.indexOf(".class"));
-		byte[] code = controller.getWorkspace().getRawClass(className);
+		byte[] code = overrides.get(className);
+		if (code == null)
+			code = controller.getWorkspace().getRawClass(className);
 		// Strip debug if config says so
 		if (controller.config().decompile().stripDebug)
 			code = ClassUtil.stripDebugForDecompile(code);
@@ -60,6 +60,8 @@ public class FernFlowerAccessor implements IDecompiledData {
 	/**
 	 * @param workspace
 	 * 		Recaf workspace to pull classes from.
+	 * @param overrides
+	 * 		Map of class names to bytecode to use instead of the workspace's bytecode.
 	 *
 	 * @throws IOException
 	 * 		Thrown if a class cannot be read.
@@ -69,8 +71,9 @@ public class FernFlowerAccessor implements IDecompiledData {
 	 * 		Thrown if FernFlower can't read the class.
 	 * 		<i>(IE: It fails on newer Java class files)</i>
 	 */
-	public void addWorkspace(Workspace workspace) throws IOException, ReflectiveOperationException {
-		structContext.addWorkspace(workspace);
+	public void addWorkspace(Workspace workspace, Map<String, byte[]> overrides)
+			throws IOException, ReflectiveOperationException {
+		structContext.addWorkspace(workspace, overrides);
 	}
 
 	/**
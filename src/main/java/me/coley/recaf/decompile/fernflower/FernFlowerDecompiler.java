@@ -2,6 +2,7 @@ package me.coley.recaf.decompile.fernflower;
 
 import me.coley.recaf.config.ConfDecompile;
 import me.coley.recaf.control.Controller;
+import me.coley.recaf.decompile.DecompileService;
 import me.coley.recaf.decompile.Decompiler;
 import me.coley.recaf.util.ClassUtil;
 import me.coley.recaf.workspace.Workspace;
@@ -30,9 +31,6 @@ public class FernFlowerDecompiler extends Decompiler<Object> {
 	 */
 	public FernFlowerDecompiler(Controller controller) {
 		super(controller);
-		// Initial setup for the given controller
-		if (controller.getWorkspace() != null)
-			setup(controller.getWorkspace());
 	}
 
 	@Override
@@ -57,7 +55,8 @@ public class FernFlowerDecompiler extends Decompiler<Object> {
 		Workspace workspace = getController().getWorkspace();
 		// Rerun setup if the workspace has changed.
 		// This is required because FernFlower builds a cache of all classes as a custom node structure...
-		if (workspace != lastWorkspace)
+		// Setup is deferred until now so that class overrides can be registered beforehand.
+		if (decompiler == null || workspace != lastWorkspace)
 			setup(workspace);
 		// Dump class content
 		return decompiler.decompile(name);
@@ -71,10 +70,13 @@ public class FernFlowerDecompiler extends Decompiler<Object> {
 	 */
 	private void setup(Workspace workspace) {
 		IBytecodeProvider provider = (externalPath, internalPath) -> {
+			DecompileService.checkCancelled();
 			if(internalPath != null) {
 				String className = internalPath.substring(0, internalPath.indexOf(".class"));
 				ConfDecompile config = getController().config().decompile();
-				byte[] code = workspace.getRawClass(className);
+				byte[] code = getClassOverrides().get(className);
+				if (code == null)
+					code = workspace.getRawClass(className);
 				if (config.stripDebug)
 					code = ClassUtil.stripDebugForDecompile(code);
 				return code;
@@ -84,7 +86,7 @@ public class FernFlowerDecompiler extends Decompiler<Object> {
 		};
 		decompiler = new FernFlowerAccessor(provider, DUMMY_COLLECTOR, getOptions(), LOGGER);
 		try {
-			decompiler.addWorkspace(workspace);
+			decompiler.addWorkspace(workspace, getClassOverrides());
 			decompiler.analyze();
 		} catch(IOException ex) {
 			throw new IllegalStateException("Failed to load inputs for FernFlower!", ex);
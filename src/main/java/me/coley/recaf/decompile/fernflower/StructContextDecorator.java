@@ -36,6 +36,8 @@ public class StructContextDecorator extends StructContext {
 	/**
 	 * @param workspace
 	 * 		Recaf workspace to pull classes from.
+	 * @param overrides
+	 * 		Map of class names to bytecode to use instead of the workspace's bytecode.
 	 *
 	 * @throws IOException
 	 * 		Thrown if a class cannot be read.
@@ -43,19 +45,19 @@ public class StructContextDecorator extends StructContext {
 	 * 		Thrown if FernFlower can't read the class.
 	 * 		<i>(IE: It fails on newer Java class files)</i>
 	 */
-	public void addWorkspace(Workspace workspace) throws IOException {
+	public void addWorkspace(Workspace workspace, Map<String, byte[]> overrides) throws IOException {
 		// Add primary resource classes
-		addResource(workspace.getPrimary());
+		addResource(workspace.getPrimary(), overrides);
 		for (JavaResource resource : workspace.getLibraries())
-			addResource(resource);
+			addResource(resource, overrides);
 	}
 
-	private void addResource(JavaResource resource) throws IOException {
+	private void addResource(JavaResource resource, Map<String, byte[]> overrides) throws IOException {
 		// Iterate resource class entries
 		for (Map.Entry<String, byte[]> entry : copySet(resource.getClasses().entrySet())) {
 			String name = entry.getKey();
 			String simpleName = name.substring(name.lastIndexOf('/') + 1);
-			byte[] code = entry.getValue();
+			byte[] code = overrides.getOrDefault(name, entry.getValue());
 			addData(name, simpleName, code, true);
 		}
 	}
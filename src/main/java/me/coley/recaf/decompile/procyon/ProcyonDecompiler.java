@@ -60,7 +60,7 @@ public final class ProcyonDecompiler extends Decompiler<Boolean> {
     @Override
     public String decompile(String name) {
         ITypeLoader loader = new ComposedTypeLoader(Arrays.asList(
-                new RecafTypeLoader(getController()), new InputTypeLoader()
+                new RecafTypeLoader(getController(), getClassOverrides()), new InputTypeLoader()
         ));
         Map<String, Boolean> options = getOptions();
         DecompilerSettings settings = new DecompilerSettings();
@@ -3,8 +3,11 @@ package me.coley.recaf.decompile.procyon;
 import com.strobel.assembler.metadata.Buffer;
 import com.strobel.assembler.metadata.ITypeLoader;
 import me.coley.recaf.control.Controller;
+import me.coley.recaf.decompile.DecompileService;
 import me.coley.recaf.util.ClassUtil;
 
+import java.util.Map;
+
 /**
  * Type loader that lookup classes from current workspace
  *
@@ -12,14 +15,19 @@ import me.coley.recaf.util.ClassUtil;
  */
 final class RecafTypeLoader implements ITypeLoader {
     private final Controller controller;
+    private final Map<String, byte[]> overrides;
 
-    RecafTypeLoader(Controller controller) {
+    RecafTypeLoader(Controller controller, Map<String, byte[]> overrides) {
         this.controller = controller;
+        this.overrides = overrides;
     }
 
     @Override
     public boolean tryLoadType(String name, Buffer buffer) {
-        byte[] code = controller.getWorkspace().getRawClass(name);
+        DecompileService.checkCancelled();
+        byte[] code = overrides.get(name);
+        if (code == null)
+            code = controller.getWorkspace().getRawClass(name);
         if (controller.config().decompile().stripDebug)
             code = ClassUtil.stripDebugForDecompile(code);
         if (code == null) return false;
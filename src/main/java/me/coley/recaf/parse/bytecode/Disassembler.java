@@ -9,20 +9,29 @@ import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static org.objectweb.asm.tree.AbstractInsnNode.*;
 
 /**
  * Method instruction disassembler.
+ * <br>
+ * Lines are written directly to an {@link Appendable} sink as they are generated, using a single line
+ * builder that is reused for every line. Instances can be reused for multiple members.
  *
  * @author Matt
  */
 public class Disassembler {
+	private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+	private static final ThreadLocal<Disassembler> INSN_DISASSEMBLER = ThreadLocal.withInitial(Disassembler::new);
 	private final Map<LabelNode, String> labelToName = new HashMap<>();
-	private final List<String> out = new ArrayList<>();
+	private final Map<Integer, List<LocalVariableNode>> indexToVars = new HashMap<>();
 	private final Set<Integer> paramVariables = new HashSet<>();
+	private final StringBuilder line = new StringBuilder();
+	private Appendable sink;
+	private int lines;
 	private Comments comments;
 	private MethodNode method;
 	private boolean useIndyAlias = true;
@@ -35,9 +44,50 @@ public class Disassembler {
 	 * @return Text of method instructions.
 	 */
 	public String disassemble(MethodNode method) {
+		StringBuilder sb = new StringBuilder(estimateLength(method));
+		try {
+			disassemble(method, sb);
+		} catch(IOException ex) {
+			// Not thrown by StringBuilder
+			throw new UncheckedIOException(ex);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @param method
+	 * 		Method to disassemble.
+	 * @param sink
+	 * 		Destination of the text of method instructions. Lines are separated by {@code '\n'}.
+	 *
+	 * @throws IOException
+	 * 		When the sink cannot be written to.
+	 */
+	public void disassemble(MethodNode method, Appendable sink) throws IOException {
 		setup(method);
-		visit(method);
-		return String.join("\n", out);
+		write(sink, () -> visit(method));
+	}
+
+	/**
+	 * Disassemble a window of a method's instructions, without the method definition and other
+	 * declarations before the instructions. Names of labels and variables are the same as in the
+	 * disassembly of the full method.
+	 *
+	 * @param method
+	 * 		Method to disassemble.
+	 * @param from
+	 * 		Index of the first instruction to include.
+	 * @param to
+	 * 		Index after the last instruction to include.
+	 * @param sink
+	 * 		Destination of the text of the instructions. Lines are separated by {@code '\n'}.
+	 *
+	 * @throws IOException
+	 * 		When the sink cannot be written to.
+	 */
+	public void disassemble(MethodNode method, int from, int to, Appendable sink) throws IOException {
+		setup(method);
+		write(sink, () -> visitInstructions(method, from, to));
 	}
 
 	/**
@@ -47,8 +97,27 @@ public class Disassembler {
 	 * @return Text of field definition.
 	 */
 	public String disassemble(FieldNode field) {
-		visit(field);
-		return String.join("\n", out);
+		StringBuilder sb = new StringBuilder();
+		try {
+			disassemble(field, sb);
+		} catch(IOException ex) {
+			// Not thrown by StringBuilder
+			throw new UncheckedIOException(ex);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @param field
+	 * 		Field to disassemble.
+	 * @param sink
+	 * 		Destination of the text of the field definition. Lines are separated by {@code '\n'}.
+	 *
+	 * @throws IOException
+	 * 		When the sink cannot be written to.
+	 */
+	public void disassemble(FieldNode field, Appendable sink) throws IOException {
+		write(sink, () -> visit(field));
 	}
 
 
@@ -62,6 +131,10 @@ public class Disassembler {
 
 	private void setup(MethodNode value) {
 		this.method = value;
+		labelToName.clear();
+		indexToVars.clear();
+		paramVariables.clear();
+		doInsertIndyAlias = false;
 		comments = new Comments(value);
 		// Ensure there is a label before the first variable instruction and after the last usage.
 		enforceLabelRanges(value);
@@ -74,16 +147,19 @@ public class Disassembler {
 			throw new IllegalArgumentException("Method instructions list is null!");
 		// Generate initial names for the labels
 		int i = 0;
-		String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
-		for(AbstractInsnNode insn : value.instructions.toArray())
+		for(AbstractInsnNode insn = value.instructions.getFirst(); insn != null; insn = insn.getNext())
 			if(insn instanceof LabelNode) {
 				LabelNode lbl = (LabelNode) insn;
-				labelToName.put(lbl, StringUtil.generateName(alphabet, i++));
+				labelToName.put(lbl, StringUtil.generateName(ALPHABET, i++));
 			} else if (insn instanceof InvokeDynamicInsnNode) {
 				InvokeDynamicInsnNode indy = (InvokeDynamicInsnNode) insn;
 				if(useIndyAlias && HandleParser.DEFAULT_HANDLE.equals(indy.bsm))
 					doInsertIndyAlias = true;
 			}
+		// Group variables by index, so variable instructions do not have to check every variable
+		if (value.localVariables != null)
+			for (LocalVariableNode lvn : value.localVariables)
+				indexToVars.computeIfAbsent(lvn.index, k -> new ArrayList<>()).add(lvn);
 		// Generate variable names
 		if(!AccessFlag.isStatic(value.access))
 			paramVariables.add(0);
@@ -124,43 +200,51 @@ public class Disassembler {
 					new NameAST(0,0,name)));
 			paramVar += arg.getSize();
 		}
-		out.add(def.print());
+		emit(def.print());
 		// Visit signature
 		if (value.signature != null)
-			out.add("SIGNATURE " + value.signature);
+			emit(newLine().append("SIGNATURE ").append(value.signature));
 		// Visit aliases
 		if(doInsertIndyAlias) {
-			StringBuilder line = new StringBuilder("ALIAS H_META \"");
+			StringBuilder line = newLine().append("ALIAS H_META \"");
 			visitHandle(line, HandleParser.DEFAULT_HANDLE, true);
 			line.append('"');
-			out.add(line.toString());
+			emit(line);
 		}
 		// Visit exceptions
 		if(value.exceptions != null)
 			for(String type : value.exceptions)
-				out.add("THROWS " + type);
+				emit(newLine().append("THROWS ").append(type));
 		// Visit try-catches
 		if (value.tryCatchBlocks != null)
 			for (TryCatchBlockNode block : value.tryCatchBlocks) {
 				String start = labelToName.get(block.start);
 				String end = labelToName.get(block.end);
 				String handler = labelToName.get(block.handler);
-				if (block.type != null)
-					out.add(String.format("TRY %s %s CATCH(%s) %s", start, end, block.type, handler));
-				else
-					out.add(String.format("TRY %s %s CATCH(*) %s", start, end, handler));
+				emit(newLine().append("TRY ").append(start).append(' ').append(end)
+						.append(" CATCH(").append(block.type != null ? block.type : "*").append(") ").append(handler));
 			}
 		// Visit instructions
-		int offset = 0;
-		for (AbstractInsnNode insn : value.instructions.toArray()) {
-			// Prepend comments if found
-			appendComment(offset);
-			// Append instruction
-			appendLine(insn);
-			offset++;
+		visitInstructions(value, 0, value.instructions.size());
+	}
+
+	private void visitInstructions(MethodNode value, int from, int to) {
+		int size = value.instructions.size();
+		from = Math.max(0, from);
+		to = Math.min(size, to);
+		if (from < to) {
+			int offset = from;
+			for (AbstractInsnNode insn = value.instructions.get(from); offset < to; insn = insn.getNext()) {
+				// Prepend comments if found
+				appendComment(offset);
+				// Append instruction
+				appendLine(insn);
+				offset++;
+			}
 		}
 		// Append final comment if found
-		appendComment(offset);
+		if (to == size)
+			appendComment(size);
 	}
 
 	private void visit(FieldNode value) {
@@ -171,13 +255,13 @@ public class Disassembler {
 		for (AccessFlag flag : AccessFlag.values())
 			if (flag.getTypes().contains(AccessFlag.Type.FIELD) && (value.access & flag.getMask()) == flag.getMask())
 				def.getModifiers().add(new DefinitionModifierAST(0, 0, flag.getName().toUpperCase()));
-		out.add(def.print());
+		emit(def.print());
 		// Visit signature
 		if (value.signature != null)
-			out.add("SIGNATURE " + value.signature);
+			emit(newLine().append("SIGNATURE ").append(value.signature));
 		// Visit default-value
 		if(value.value != null) {
-			StringBuilder line = new StringBuilder("VALUE ");
+			StringBuilder line = newLine().append("VALUE ");
 			Object o = value.value;
 			if(o instanceof String) {
 				String str = o.toString();
@@ -196,12 +280,16 @@ public class Disassembler {
 				line.append(o).append('F');
 			} else
 				line.append(o);
-			out.add(line.toString());
+			emit(line);
 		}
 	}
 
 	private void appendLine(AbstractInsnNode insn) {
-		StringBuilder line = new StringBuilder(OpcodeUtil.opcodeToName(insn.getOpcode()));
+		emit(render(insn));
+	}
+
+	private StringBuilder render(AbstractInsnNode insn) {
+		StringBuilder line = newLine().append(OpcodeUtil.opcodeToName(insn.getOpcode()));
 		switch(insn.getType()) {
 			case INSN:
 				break;
@@ -253,14 +341,80 @@ public class Disassembler {
 			default:
 				throw new IllegalStateException("Unknown instruction type: " + insn.getType());
 		}
-		out.add(line.toString());
+		return line;
 	}
 
 	private void appendComment(int offset) {
 		String prefix = "// ";
 		String comment = comments.get(offset);
-		if (comment != null)
-			out.add(prefix + String.join("\n" + prefix, comment.split("\n")));
+		if (comment != null) {
+			// Trailing line breaks are dropped
+			int end = comment.length();
+			while (end > 0 && comment.charAt(end - 1) == '\n')
+				end--;
+			StringBuilder line = newLine().append(prefix);
+			for (int i = 0; i < end; i++) {
+				char c = comment.charAt(i);
+				line.append(c);
+				if (c == '\n')
+					line.append(prefix);
+			}
+			emit(line);
+		}
+	}
+
+	/**
+	 * @return Shared line builder, cleared for a new line.
+	 */
+	private StringBuilder newLine() {
+		line.setLength(0);
+		return line;
+	}
+
+	/**
+	 * @param text
+	 * 		Line to write to the sink.
+	 */
+	private void emit(CharSequence text) {
+		try {
+			if (lines++ > 0)
+				sink.append('\n');
+			sink.append(text);
+		} catch(IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * @param sink
+	 * 		Destination of lines emitted by the action.
+	 * @param action
+	 * 		Action emitting lines.
+	 *
+	 * @throws IOException
+	 * 		When the sink cannot be written to.
+	 */
+	private void write(Appendable sink, Runnable action) throws IOException {
+		this.sink = sink;
+		this.lines = 0;
+		try {
+			action.run();
+		} catch(UncheckedIOException ex) {
+			throw ex.getCause();
+		} finally {
+			this.sink = null;
+		}
+	}
+
+	/**
+	 * @param method
+	 * 		Method to disassemble.
+	 *
+	 * @return Rough length of the method's disassembly.
+	 */
+	private static int estimateLength(MethodNode method) {
+		int size = method.instructions == null ? 0 : method.instructions.size();
+		return 128 + size * 24;
 	}
 
 	private void visitIntInsn(StringBuilder line, IntInsnNode insn) {
@@ -435,26 +589,34 @@ public class Disassembler {
 	 * @return Text of instruction.
 	 */
 	public static String insn(AbstractInsnNode insn) {
-		Disassembler d = new Disassembler();
-		// Populate label names if necessary for the given instruction type
-		int type = insn.getType();
-		boolean dbg = type == LABEL || type == LINE;
-		boolean ref = type == JUMP_INSN  || type == LOOKUPSWITCH_INSN || type == TABLESWITCH_INSN;
-		if (dbg || ref) {
-			int i = 0;
-			String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
-			AbstractInsnNode tmp = InsnUtil.getFirst(insn);
-			while(tmp != null) {
-				if(insn instanceof LabelNode) {
-					LabelNode lbl = (LabelNode) insn;
-					d.labelToName.put(lbl, StringUtil.generateName(alphabet, i++));
-				}
-				tmp = tmp.getNext();
-			}
+		// A disassembler is kept per thread to reuse its line builder. Label names are cleared after each
+		// call, so they are never stale and do not keep the last method's labels alive.
+		Disassembler d = INSN_DISASSEMBLER.get();
+		d.method = null;
+		try {
+			// Populate label names if necessary for the given instruction type
+			int type = insn.getType();
+			boolean dbg = type == LABEL || type == LINE;
+			boolean ref = type == JUMP_INSN  || type == LOOKUPSWITCH_INSN || type == TABLESWITCH_INSN;
+			if (dbg || ref)
+				d.nameLabels(InsnUtil.getFirst(insn));
+			// Disassemble the single insn
+			return d.render(insn).toString();
+		} finally {
+			d.labelToName.clear();
 		}
-		// Disassemble the single insn
-		d.appendLine(insn);
-		return d.out.get(0);
+	}
+
+	/**
+	 * @param first
+	 * 		First instruction of a method.
+	 */
+	private void nameLabels(AbstractInsnNode first) {
+		labelToName.clear();
+		int i = 0;
+		for (AbstractInsnNode insn = first; insn != null; insn = insn.getNext())
+			if (insn instanceof LabelNode)
+				labelToName.put((LabelNode) insn, StringUtil.generateName(ALPHABET, i++));
 	}
 
 	// ======================================================================= //
@@ -469,14 +631,16 @@ public class Disassembler {
 		int varIndex = ((insn instanceof VarInsnNode) ?
 				((VarInsnNode) insn).var : ((IincInsnNode) insn).var);
 		if (method != null && method.localVariables != null) {
-			int insnPos = InsnUtil.index(insn);
-			List<LocalVariableNode> list =  method.localVariables.stream()
-					.filter(v -> varIndex == v.index)
-					.collect(Collectors.toList());
-			String name = list.stream()
-					.filter(v -> insnPos >= InsnUtil.index(v.start) - 1 && insnPos <= InsnUtil.index(v.end) + 1)
-					.map(v -> v.name)
-					.findFirst().orElse(String.valueOf(varIndex));
+			InsnList instructions = method.instructions;
+			int insnPos = instructions.indexOf(insn);
+			String name = null;
+			for (LocalVariableNode v : indexToVars.getOrDefault(varIndex, Collections.emptyList()))
+				if (insnPos >= instructions.indexOf(v.start) - 1 && insnPos <= instructions.indexOf(v.end) + 1) {
+					name = v.name;
+					break;
+				}
+			if (name == null)
+				name = String.valueOf(varIndex);
 			// Override slot-0 for non-static methods to ALWAYS be 'this' just in case
 			// an obfuscator has renamed the variable
 			if (!AccessFlag.isStatic(method.access) && varIndex == 0)
@@ -494,9 +658,8 @@ public class Disassembler {
 	 */
 	private String firstVarByIndex(int index) {
 		if (method != null && method.localVariables != null) {
-			return method.localVariables.stream()
-					.filter(v -> v.index == index)
-					.min(Comparator.comparingInt(a -> InsnUtil.index(a.start)))
+			return indexToVars.getOrDefault(index, Collections.emptyList()).stream()
+					.min(Comparator.comparingInt(a -> method.instructions.indexOf(a.start)))
 					.map(v -> v.name)
 					.orElse(String.valueOf(index));
 		}
@@ -0,0 +1,147 @@
+package me.coley.recaf.parse.bytecode;
+
+import me.coley.recaf.parse.bytecode.ast.*;
+import me.coley.recaf.parse.bytecode.exception.ASTParseException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AST parser that keeps the results of each line between parses. Only lines that changed since the previous
+ * parse are parsed again, and nodes of unchanged lines are copied to the new tree. Unchanged lines after an
+ * inserted or removed line are moved to their new line numbers instead of being parsed again. Lines using aliases
+ * are also parsed again when the declared aliases change.
+ *
+ * @author Matt
+ */
+public class IncrementalParser {
+	private String[] lines = new String[0];
+	private Object[] results = new Object[0];
+	private String aliasKey = "";
+	private boolean structureChanged = true;
+	private int reparsed;
+
+	/**
+	 * @param text
+	 * 		Text to visit.
+	 *
+	 * @return Parse result wrapper of generated AST.
+	 */
+	public synchronized ParseResult<RootAST> parse(String text) {
+		String[] newLines = Parse.split(text);
+		Map<String, String> aliases = Parse.parseAliases(newLines);
+		String newAliasKey = aliases.toString();
+		boolean aliasesChanged = !newAliasKey.equals(aliasKey);
+		// Lines before and after the edited region are kept, even when lines were inserted or removed
+		int prefix = 0;
+		int max = Math.min(newLines.length, lines.length);
+		while(prefix < max && isReusable(newLines[prefix], lines[prefix], aliasesChanged))
+			prefix++;
+		int suffix = 0;
+		max -= prefix;
+		while(suffix < max && isReusable(newLines[newLines.length - 1 - suffix],
+				lines[lines.length - 1 - suffix], aliasesChanged))
+			suffix++;
+		int shift = newLines.length - lines.length;
+		// Each result is the line's AST, its parse problem, or null for empty lines
+		Object[] newResults = new Object[newLines.length];
+		System.arraycopy(results, 0, newResults, 0, prefix);
+		List<Object> oldEdited = new ArrayList<>();
+		for(int i = prefix; i < lines.length - suffix; i++)
+			if(results[i] != null)
+				oldEdited.add(results[i]);
+		List<Object> newEdited = new ArrayList<>();
+		for(int i = prefix; i < newLines.length - suffix; i++) {
+			Object result;
+			try {
+				result = Parse.parseLine(i + 1, newLines[i], aliases);
+			} catch(ASTParseException ex) {
+				result = ex;
+			}
+			newResults[i] = result;
+			if(result != null)
+				newEdited.add(result);
+		}
+		boolean changed = oldEdited.size() != newEdited.size();
+		for(int i = 0; i < oldEdited.size() && !changed; i++)
+			changed = !isEquivalent(oldEdited.get(i), newEdited.get(i));
+		for(int i = newLines.length - suffix; i < newLines.length; i++) {
+			Object old = results[i - shift];
+			newResults[i] = shift == 0 ? old : moveTo(old, i + 1);
+			// Nodes that moved to other lines are changes, as problems are reported by line
+			if(shift != 0 && old != null)
+				changed = true;
+		}
+		lines = newLines;
+		results = newResults;
+		aliasKey = newAliasKey;
+		structureChanged = changed;
+		reparsed = newLines.length - suffix - prefix;
+		// Build the new tree, reused nodes are copied as nodes of the previous tree must keep their links
+		RootAST root = new RootAST();
+		List<ASTParseException> problems = new ArrayList<>();
+		for(int i = 0; i < newResults.length; i++) {
+			Object result = newResults[i];
+			if(result instanceof AST) {
+				AST ast = (AST) result;
+				if(ast.getParent() != null) {
+					ast = ast.copy(ast.getLine());
+					newResults[i] = ast;
+				}
+				root.addChild(ast);
+			} else if(result != null) {
+				problems.add((ASTParseException) result);
+			}
+		}
+		return new ParseResult<>(root, problems);
+	}
+
+	/**
+	 * @return {@code true} when the last parse produced a different AST than the parse before it.
+	 * Changes to whitespace that do not affect the parsed nodes are not counted.
+	 */
+	public synchronized boolean isStructureChanged() {
+		return structureChanged;
+	}
+
+	/**
+	 * @return Number of lines parsed by the last parse.
+	 */
+	public synchronized int getReparsedLines() {
+		return reparsed;
+	}
+
+	/**
+	 * Forget the results of previous parses.
+	 */
+	public synchronized void reset() {
+		lines = new String[0];
+		results = new Object[0];
+		aliasKey = "";
+		structureChanged = true;
+	}
+
+	private static boolean isReusable(String line, String old, boolean aliasesChanged) {
+		return line.equals(old) && !(aliasesChanged && line.contains("${"));
+	}
+
+	private static Object moveTo(Object result, int line) {
+		if(result instanceof AST)
+			return ((AST) result).copy(line);
+		if(result instanceof ASTParseException) {
+			ASTParseException ex = (ASTParseException) result;
+			return new ASTParseException((Exception) ex.getCause(), line, ex.getMessage());
+		}
+		return result;
+	}
+
+	private static boolean isEquivalent(Object old, Object current) {
+		if(old == null || current == null)
+			return old == current;
+		// Lines with problems are always treated as changes so that the problems are reported
+		if(!(old instanceof AST) || !(current instanceof AST) || old.getClass() != current.getClass())
+			return false;
+		return ((AST) old).print().equals(((AST) current).print());
+	}
+}
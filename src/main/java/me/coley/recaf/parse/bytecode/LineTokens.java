@@ -0,0 +1,120 @@
+package me.coley.recaf.parse.bytecode;
+
+import java.util.Arrays;
+
+/**
+ * Whitespace separated tokens of a line, found in a single pass over the line.
+ * Tokens are stored as offsets into the line and are only copied into strings when requested.
+ *
+ * @author Matt
+ */
+public final class LineTokens {
+	private final String line;
+	private int[] bounds = new int[8];
+	private int count;
+
+	private LineTokens(String line) {
+		this.line = line;
+		int length = line.length();
+		int i = 0;
+		while (i < length) {
+			if (isWhitespace(line.charAt(i))) {
+				i++;
+				continue;
+			}
+			int start = i;
+			while (i < length && !isWhitespace(line.charAt(i)))
+				i++;
+			if (count * 2 == bounds.length)
+				bounds = Arrays.copyOf(bounds, bounds.length * 2);
+			bounds[count * 2] = start;
+			bounds[count * 2 + 1] = i;
+			count++;
+		}
+	}
+
+	/**
+	 * @param line
+	 * 		Line of text.
+	 *
+	 * @return Tokens of the line.
+	 */
+	public static LineTokens of(String line) {
+		return new LineTokens(line);
+	}
+
+	/**
+	 * @return Line the tokens were read from.
+	 */
+	public String getLine() {
+		return line;
+	}
+
+	/**
+	 * @return Number of tokens.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * @param index
+	 * 		Token index.
+	 *
+	 * @return Offset of the token's first character in the line.
+	 */
+	public int start(int index) {
+		check(index);
+		return bounds[index * 2];
+	}
+
+	/**
+	 * @param index
+	 * 		Token index.
+	 *
+	 * @return Offset after the token's last character in the line.
+	 */
+	public int end(int index) {
+		check(index);
+		return bounds[index * 2 + 1];
+	}
+
+	/**
+	 * @param index
+	 * 		Token index.
+	 *
+	 * @return Text of the token.
+	 */
+	public String get(int index) {
+		return line.substring(start(index), end(index));
+	}
+
+	/**
+	 * @param index
+	 * 		Token index.
+	 * @param text
+	 * 		Text to compare to, ignoring case.
+	 *
+	 * @return {@code true} if the token matches the text.
+	 */
+	public boolean is(int index, String text) {
+		int start = start(index);
+		int length = end(index) - start;
+		return length == text.length() && line.regionMatches(true, start, text, 0, length);
+	}
+
+	/**
+	 * @param c
+	 * 		Some character.
+	 *
+	 * @return {@code true} for characters matched by the {@code \s} regex character class.
+	 */
+	public static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+	}
+
+	private void check(int index) {
+		if (index < 0 || index >= count)
+			throw new IndexOutOfBoundsException("Token " + index + " of " + count);
+	}
+}
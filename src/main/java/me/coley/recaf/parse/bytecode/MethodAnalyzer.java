@@ -7,13 +7,26 @@ import me.coley.analysis.TypeResolver;
 import me.coley.analysis.util.TypeUtil;
 import me.coley.recaf.Recaf;
 import me.coley.recaf.graph.inheritance.HierarchyGraph;
+import me.coley.recaf.workspace.Workspace;
 import org.objectweb.asm.Type;
 
+import java.util.*;
+import java.util.stream.Collectors;
+
 /**
  * {@link SimAnalyzer} extension that implements a {@link #createTypeChecker() type checker}
  * using Recaf's workspaces.
+ * <br>
+ * Hierarchy lookups are memoized for the lifetime of the analyzer, since the same types are compared
+ * repeatedly while frames are merged. Create a new analyzer to pick up changes to the workspace.
+ * Analyzers of many methods may share their lookups by passing the same maps to
+ * {@link #MethodAnalyzer(SimInterpreter, HierarchyGraph, Map, Map)}.
  */
 public class MethodAnalyzer extends SimAnalyzer {
+	private final HierarchyGraph graph;
+	private final Workspace workspace;
+	private final Map<String, Set<String>> parents;
+	private final Map<String, Optional<String>> commonTypes;
 
 	/**
 	 * Create method analyzer.
@@ -22,14 +35,35 @@ public class MethodAnalyzer extends SimAnalyzer {
 	 * 		Interpreter to use.
 	 */
 	public MethodAnalyzer(SimInterpreter interpreter) {
+		this(interpreter, null, new HashMap<>(), new HashMap<>());
+	}
+
+	/**
+	 * Create method analyzer with shared hierarchy lookups.
+	 *
+	 * @param interpreter
+	 * 		Interpreter to use.
+	 * @param graph
+	 * 		Hierarchy to check types against, or {@code null} for the hierarchy of the current workspace.
+	 * 		The current workspace is looked up when the analyzer is created, so the analyzer may be used on
+	 * 		threads other than the one creating it.
+	 * @param parents
+	 * 		Cache of class names to all of their parents. Must be thread safe if shared between threads.
+	 * @param commonTypes
+	 * 		Cache of class name pairs to their common parent. Must be thread safe if shared between threads.
+	 */
+	public MethodAnalyzer(SimInterpreter interpreter, HierarchyGraph graph,
+							Map<String, Set<String>> parents, Map<String, Optional<String>> commonTypes) {
 		super(interpreter);
+		this.graph = graph;
+		this.workspace = graph == null ? Recaf.getCurrentWorkspace() : null;
+		this.parents = parents;
+		this.commonTypes = commonTypes;
 	}
 
 	@Override
 	protected TypeChecker createTypeChecker() {
-		return (parent, child) -> getGraph()
-				.getAllParents(child.getInternalName())
-					.anyMatch(n -> n != null && n.equals(parent.getInternalName()));
+		return (parent, child) -> getParents(child.getInternalName()).contains(parent.getInternalName());
 	}
 
 	@Override
@@ -37,7 +71,7 @@ public class MethodAnalyzer extends SimAnalyzer {
 		return new TypeResolver() {
 			@Override
 			public Type common(Type type1, Type type2) {
-				String common = getGraph().getCommon(type1.getInternalName(), type2.getInternalName());
+				String common = getCommon(type1.getInternalName(), type2.getInternalName());
 				if (common != null)
 					return Type.getObjectType(common);
 				return TypeUtil.OBJECT_TYPE;
@@ -45,7 +79,7 @@ public class MethodAnalyzer extends SimAnalyzer {
 
 			@Override
 			public Type commonException(Type type1, Type type2) {
-				String common = getGraph().getCommon(type1.getInternalName(), type2.getInternalName());
+				String common = getCommon(type1.getInternalName(), type2.getInternalName());
 				if (common != null)
 					return Type.getObjectType(common);
 				return TypeUtil.EXCEPTION_TYPE;
@@ -53,7 +87,44 @@ public class MethodAnalyzer extends SimAnalyzer {
 		};
 	}
 
-	private static HierarchyGraph getGraph() {
+	/**
+	 * @param name
+	 * 		Internal class name.
+	 *
+	 * @return All parents of the class.
+	 */
+	private Set<String> getParents(String name) {
+		Set<String> set = parents.get(name);
+		if (set == null) {
+			set = getGraph().getAllParents(name).filter(Objects::nonNull).collect(Collectors.toSet());
+			parents.put(name, set);
+		}
+		return set;
+	}
+
+	/**
+	 * @param first
+	 * 		First internal class name.
+	 * @param second
+	 * 		Second internal class name.
+	 *
+	 * @return Common parent of the classes, or {@code null} if unknown.
+	 */
+	private String getCommon(String first, String second) {
+		String key = first + ' ' + second;
+		Optional<String> common = commonTypes.get(key);
+		if (common == null) {
+			common = Optional.ofNullable(getGraph().getCommon(first, second));
+			commonTypes.put(key, common);
+		}
+		return common.orElse(null);
+	}
+
+	private HierarchyGraph getGraph() {
+		if (graph != null)
+			return graph;
+		if (workspace != null)
+			return workspace.getHierarchyGraph();
 		return Recaf.getCurrentWorkspace().getHierarchyGraph();
 	}
 }
@@ -3,11 +3,13 @@ package me.coley.recaf.parse.bytecode;
 import me.coley.recaf.config.ConfAssembler;
 import me.coley.analysis.value.AbstractValue;
 import me.coley.recaf.control.Controller;
+import me.coley.recaf.graph.inheritance.HierarchyGraph;
 import me.coley.recaf.parse.bytecode.ast.*;
 import me.coley.recaf.parse.bytecode.exception.ASTParseException;
 import me.coley.recaf.parse.bytecode.exception.AssemblerException;
 import me.coley.recaf.parse.bytecode.exception.VerifierException;
 import me.coley.recaf.util.AccessFlag;
+import me.coley.recaf.workspace.Workspace;
 import org.objectweb.asm.tree.*;
 import org.objectweb.asm.tree.analysis.Frame;
 
@@ -135,7 +137,10 @@ public class MethodAssembler implements Assembler<MethodNode> {
 	 * 		Wrapped verification exception.
 	 */
 	private MethodVerifier verify(MethodNode generated) throws VerifierException {
-		MethodVerifier verifier = new MethodVerifier(this, declaringType);
+		// Use the controller's workspace rather than the current one, which is local to a thread in batch mode
+		Workspace workspace = controller.getWorkspace();
+		HierarchyGraph graph = workspace == null ? null : workspace.getHierarchyGraph();
+		MethodVerifier verifier = new MethodVerifier(this, declaringType, graph);
 		verifier.verify(generated);
 		return verifier;
 	}
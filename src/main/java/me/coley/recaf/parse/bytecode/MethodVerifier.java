@@ -2,10 +2,13 @@ package me.coley.recaf.parse.bytecode;
 
 import me.coley.analysis.SimInterpreter;
 import me.coley.analysis.value.AbstractValue;
+import me.coley.recaf.graph.inheritance.HierarchyGraph;
 import me.coley.recaf.parse.bytecode.exception.VerifierException;
 import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.analysis.*;
 
+import java.util.HashMap;
+
 /**
  * Basic method analyzer.
  *
@@ -22,9 +25,11 @@ class MethodVerifier extends MethodAnalyzer {
 	 * 		Assembler responsible assembling the method.
 	 * @param currentType
 	 * 		Declaring type of method to be analyzed.
+	 * @param graph
+	 * 		Hierarchy to check types against, or {@code null} for the hierarchy of the current workspace.
 	 */
-	MethodVerifier(MethodAssembler assembler, String currentType) {
-		super(new SimInterpreter());
+	MethodVerifier(MethodAssembler assembler, String currentType, HierarchyGraph graph) {
+		super(new SimInterpreter(), graph, new HashMap<>(), new HashMap<>());
 		this.currentType = currentType;
 		this.assembler = assembler;
 		this.setSkipDeadCodeBlocks(false);
@@ -15,6 +15,7 @@ import java.util.function.Supplier;
  * @author Matt
  */
 public class Parse {
+	private static final String ALIAS = "ALIAS";
 	private static final Map<Integer, Supplier<AbstractParser>> insnTypeToParser = new HashMap<>();
 
 	static {
@@ -43,54 +44,14 @@ public class Parse {
 	public static ParseResult<RootAST> parse(String text) {
 		List<ASTParseException> problems = new ArrayList<>();
 		RootAST root = new RootAST();
-		int lineNo = 0;
-		String[] lines = text.split("[\n\r]");
-		// Collect aliases
-		List<AliasAST> aliases = new ArrayList<>();
-		for(String line : lines) {
-			lineNo++;
-			// Skip empty lines
-			if(line.trim().isEmpty())
-				continue;
-			// Check for alias
-			String token = line.trim().split("\\s")[0].toUpperCase();
-			try {
-				if (token.equals("ALIAS")) {
-					// Why? Because we want to support aliases-in-aliases when they
-					// are defined in order.
-					String lineCopy = line;
-					for (AliasAST alias : aliases)
-						lineCopy = lineCopy.replace("${" + alias.getName().getName() + "}",
-								alias.getValue().getValue());
-					// Parse alias
-					aliases.add((AliasAST) getParser(lineNo, token).visit(lineNo, lineCopy));
-				}
-			} catch(ClassCastException | ASTParseException ex) {
-				/* ignored, we will collect the error on the second pass */
-			}
-		}
+		String[] lines = split(text);
+		Map<String, String> aliases = parseAliases(lines);
 		// Parse again
-		lineNo = 0;
-		for(String line : lines) {
-			lineNo++;
-			// Skip empty lines
-			String trim = line.trim();
-			if(trim.isEmpty())
-				continue;
-			// Determine parse action from starting token
-			String token = trim.split("\\s")[0].toUpperCase();
+		for(int i = 0; i < lines.length; i++) {
 			try {
-				AbstractParser parser = getParser(lineNo, token);
-				if(parser == null)
-					throw new ASTParseException(lineNo, "Unknown identifier: " + token);
-				// Apply aliases
-				String lineCopy = line;
-				for (AliasAST alias : aliases)
-					lineCopy = lineCopy.replace("${" + alias.getName().getName() + "}",
-							alias.getValue().getValue());
-				// Parse and add to root
-				AST ast = parser.visit(lineNo, lineCopy);
-				root.addChild(ast);
+				AST ast = parseLine(i + 1, lines[i], aliases);
+				if(ast != null)
+					root.addChild(ast);
 			} catch(ASTParseException ex) {
 				problems.add(ex);
 			}
@@ -98,6 +59,124 @@ public class Parse {
 		return new ParseResult<>(root, problems);
 	}
 
+	/**
+	 * @param text
+	 * 		Text to split.
+	 *
+	 * @return Lines of the text. Both {@code \n} and {@code \r} end a line, and trailing empty lines are dropped.
+	 */
+	static String[] split(String text) {
+		List<String> lines = new ArrayList<>();
+		int start = 0;
+		for(int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if(c == '\n' || c == '\r') {
+				lines.add(text.substring(start, i));
+				start = i + 1;
+			}
+		}
+		lines.add(text.substring(start));
+		int end = lines.size();
+		while(end > 0 && lines.get(end - 1).isEmpty())
+			end--;
+		return lines.subList(0, end).toArray(new String[0]);
+	}
+
+	/**
+	 * @param lines
+	 * 		Lines of text.
+	 *
+	 * @return Map of alias names to values, declared in the text.
+	 */
+	static Map<String, String> parseAliases(String[] lines) {
+		Map<String, String> aliases = new LinkedHashMap<>();
+		for(int i = 0; i < lines.length; i++) {
+			String line = lines[i];
+			// Check for alias, without copying lines that are not aliases
+			int start = 0;
+			while(start < line.length() && LineTokens.isWhitespace(line.charAt(start)))
+				start++;
+			int end = start + ALIAS.length();
+			if(!line.regionMatches(true, start, ALIAS, 0, ALIAS.length()) ||
+					(end < line.length() && !LineTokens.isWhitespace(line.charAt(end))))
+				continue;
+			try {
+				// Why? Because we want to support aliases-in-aliases when they
+				// are defined in order.
+				String lineCopy = applyAliases(line, aliases);
+				// Parse alias
+				AliasAST alias = (AliasAST) getParser(i + 1, ALIAS).visit(i + 1, lineCopy);
+				aliases.putIfAbsent(alias.getName().getName(), alias.getValue().getValue());
+			} catch(ClassCastException | ASTParseException ex) {
+				/* ignored, we will collect the error on the second pass */
+			}
+		}
+		return aliases;
+	}
+
+	/**
+	 * @param lineNo
+	 * 		Line number.
+	 * @param line
+	 * 		Text of the line.
+	 * @param aliases
+	 * 		Map of alias names to values, declared in the text.
+	 *
+	 * @return AST of the line, or {@code null} if the line is empty.
+	 *
+	 * @throws ASTParseException
+	 * 		When the line did not follow the expected format.
+	 */
+	static AST parseLine(int lineNo, String line, Map<String, String> aliases) throws ASTParseException {
+		// Skip empty lines
+		String trim = line.trim();
+		if(trim.isEmpty())
+			return null;
+		// Determine parse action from starting token
+		String token = getToken(trim);
+		AbstractParser parser = getParser(lineNo, token);
+		if(parser == null)
+			throw new ASTParseException(lineNo, "Unknown identifier: " + token);
+		// Apply aliases, parse and add to root
+		return parser.visit(lineNo, applyAliases(line, aliases));
+	}
+
+	/**
+	 * @param trim
+	 * 		Trimmed line of text.
+	 *
+	 * @return Upper case token the line starts with.
+	 */
+	static String getToken(String trim) {
+		int end = 0;
+		while(end < trim.length() && !LineTokens.isWhitespace(trim.charAt(end)))
+			end++;
+		return trim.substring(0, end).toUpperCase();
+	}
+
+	/**
+	 * Replace alias references, one alias at a time in the order they were declared. Values referencing aliases
+	 * declared after them are expanded by those later replacements.
+	 *
+	 * @param line
+	 * 		Text of the line.
+	 * @param aliases
+	 * 		Map of alias names to values, in declaration order.
+	 *
+	 * @return Line with references to declared aliases replaced by their values.
+	 */
+	static String applyAliases(String line, Map<String, String> aliases) {
+		if(aliases.isEmpty() || !line.contains("${"))
+			return line;
+		for(Map.Entry<String, String> alias : aliases.entrySet()) {
+			line = line.replace("${" + alias.getKey() + "}", alias.getValue());
+			// Replacements can only introduce references through values, so stop once none are left
+			if(!line.contains("${"))
+				break;
+		}
+		return line;
+	}
+
 	/**
 	 * @param lineNo
 	 * 		Line the token appears on.
@@ -122,7 +201,7 @@ public class Parse {
 			return new ThrowsParser();
 		if(token.equals("TRY"))
 			return new TryCatchParser();
-		if(token.equals("ALIAS"))
+		if(token.equals(ALIAS))
 			return new AliasDeclarationParser();
 		if(token.equals("SIGNATURE"))
 			return new SignatureParser();
@@ -0,0 +1,182 @@
+package me.coley.recaf.parse.bytecode;
+
+import java.util.*;
+
+/**
+ * Outcome of a {@link WorkspaceVerifier workspace verification}.
+ *
+ * @author Matt
+ */
+public class VerificationResult {
+	private final List<Failure> failures = new ArrayList<>();
+	private int classes;
+	private int verified;
+	private int reused;
+	private long time;
+
+	/**
+	 * @param failure
+	 * 		Method that failed verification.
+	 */
+	synchronized void addFailure(Failure failure) {
+		failures.add(failure);
+	}
+
+	/**
+	 * @param classes
+	 * 		Number of classes checked.
+	 * @param verified
+	 * 		Number of methods analyzed.
+	 * @param reused
+	 * 		Number of methods whose results were kept from the last run.
+	 * @param time
+	 * 		Time in milliseconds the verification took.
+	 */
+	synchronized void complete(int classes, int verified, int reused, long time) {
+		this.classes = classes;
+		this.verified = verified;
+		this.reused = reused;
+		this.time = time;
+		failures.sort(Comparator.comparing(Failure::toString));
+	}
+
+	/**
+	 * @return Methods that failed verification, ordered by class and method.
+	 */
+	public synchronized List<Failure> getFailures() {
+		return new ArrayList<>(failures);
+	}
+
+	/**
+	 * @return Number of classes checked.
+	 */
+	public synchronized int getClasses() {
+		return classes;
+	}
+
+	/**
+	 * @return Number of methods analyzed in this run.
+	 */
+	public synchronized int getVerified() {
+		return verified;
+	}
+
+	/**
+	 * @return Number of methods that were unchanged since the last run, and kept their previous results.
+	 */
+	public synchronized int getReused() {
+		return reused;
+	}
+
+	/**
+	 * @return Time in milliseconds the verification took.
+	 */
+	public synchronized long getTime() {
+		return time;
+	}
+
+	/**
+	 * @return {@code true} when every method passed verification.
+	 */
+	public synchronized boolean isSuccess() {
+		return failures.isEmpty();
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Verified ").append(classes).append(" classes in ").append(time).append("ms, ")
+				.append(verified).append(" methods analyzed, ").append(reused).append(" unchanged, ")
+				.append(failures.size()).append(" failed");
+		for (Failure failure : failures)
+			sb.append('\n').append(failure);
+		return sb.toString();
+	}
+
+	/**
+	 * Verification failure of a single method.
+	 */
+	public static class Failure {
+		private final String owner;
+		private final String name;
+		private final String desc;
+		private final int instruction;
+		private final int line;
+		private final String message;
+
+		/**
+		 * @param owner
+		 * 		Internal name of the class declaring the method.
+		 * @param name
+		 * 		Method name.
+		 * @param desc
+		 * 		Method descriptor.
+		 * @param instruction
+		 * 		Index of the failing instruction, or {@code -1} if unknown.
+		 * @param line
+		 * 		Source line of the failing instruction, or {@code -1} if unknown.
+		 * @param message
+		 * 		Reason for the failure.
+		 */
+		Failure(String owner, String name, String desc, int instruction, int line, String message) {
+			this.owner = owner;
+			this.name = name;
+			this.desc = desc;
+			this.instruction = instruction;
+			this.line = line;
+			this.message = message;
+		}
+
+		/**
+		 * @return Internal name of the class declaring the method.
+		 */
+		public String getOwner() {
+			return owner;
+		}
+
+		/**
+		 * @return Method name.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return Method descriptor.
+		 */
+		public String getDesc() {
+			return desc;
+		}
+
+		/**
+		 * @return Index of the failing instruction, or {@code -1} if unknown.
+		 */
+		public int getInstruction() {
+			return instruction;
+		}
+
+		/**
+		 * @return Source line of the failing instruction, or {@code -1} if the method has no line numbers.
+		 */
+		public int getLine() {
+			return line;
+		}
+
+		/**
+		 * @return Reason for the failure.
+		 */
+		public String getMessage() {
+			return message;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(owner).append('.').append(name).append(desc);
+			if (instruction >= 0)
+				sb.append(" @ insn ").append(instruction);
+			if (line >= 0)
+				sb.append(" (line ").append(line).append(')');
+			return sb.append(": ").append(message).toString();
+		}
+	}
+}
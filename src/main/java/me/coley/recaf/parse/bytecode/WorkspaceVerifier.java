@@ -0,0 +1,264 @@
+package me.coley.recaf.parse.bytecode;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import me.coley.analysis.SimInterpreter;
+import me.coley.recaf.graph.inheritance.HierarchyGraph;
+import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.workspace.Workspace;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.*;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+
+/**
+ * Verifies every method of a workspace's primary resource. Classes are verified concurrently, and all
+ * analyzers of a run share their hierarchy lookups.
+ * <br>
+ * Results are kept between runs. Methods whose code did not change since the last run keep their previous
+ * result instead of being analyzed again. Since verification depends on the class hierarchy, all results
+ * are discarded when a class is added, removed, or has its parents changed.
+ *
+ * @author Matt
+ */
+public class WorkspaceVerifier {
+	private static final String INSN_PREFIX = "Error at instruction ";
+	private Map<String, ClassState> states = new HashMap<>();
+	private Map<String, String> hierarchy = Collections.emptyMap();
+	private Workspace workspace;
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * @param threads
+	 * 		Maximum number of classes to verify at a time.
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Forget the results of previous runs.
+	 */
+	public synchronized void reset() {
+		states = new HashMap<>();
+		hierarchy = Collections.emptyMap();
+		workspace = null;
+	}
+
+	/**
+	 * @param workspace
+	 * 		Workspace with the classes to verify.
+	 *
+	 * @return Verification result of all methods in the primary resource.
+	 */
+	public synchronized VerificationResult verify(Workspace workspace) {
+		long start = System.currentTimeMillis();
+		Map<String, byte[]> classes = new HashMap<>(workspace.getPrimary().getClasses());
+		Map<String, String> newHierarchy = getHierarchy(classes);
+		if (workspace != this.workspace || !newHierarchy.equals(hierarchy))
+			states = new HashMap<>();
+		this.workspace = workspace;
+		this.hierarchy = newHierarchy;
+		VerificationResult result = new VerificationResult();
+		if (classes.isEmpty()) {
+			result.complete(0, 0, 0, System.currentTimeMillis() - start);
+			return result;
+		}
+		HierarchyGraph graph = workspace.getHierarchyGraph();
+		Map<String, Set<String>> parents = new ConcurrentHashMap<>();
+		Map<String, Optional<String>> commonTypes = new ConcurrentHashMap<>();
+		Map<String, ClassState> previous = states;
+		Map<String, ClassState> current = new ConcurrentHashMap<>();
+		ExecutorService service = Executors.newFixedThreadPool(Math.min(threads, classes.size()),
+				new ThreadFactoryBuilder()
+						.setNameFormat("Recaf Verify Thread #%d")
+						.setDaemon(true).build());
+		try {
+			List<CompletableFuture<Void>> futures = new ArrayList<>();
+			for (Map.Entry<String, byte[]> e : classes.entrySet()) {
+				String name = e.getKey();
+				byte[] value = e.getValue();
+				futures.add(CompletableFuture.runAsync(() -> current.put(name,
+						verifyClass(name, value, previous.get(name), graph, parents, commonTypes)), service));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+		} finally {
+			service.shutdownNow();
+		}
+		states = new HashMap<>(current);
+		int verified = 0;
+		int reused = 0;
+		for (ClassState state : current.values()) {
+			verified += state.verified;
+			reused += state.methods.size() - state.verified;
+			for (MethodState method : state.methods.values())
+				if (method.failure != null)
+					result.addFailure(method.failure);
+		}
+		result.complete(classes.size(), verified, reused, System.currentTimeMillis() - start);
+		return result;
+	}
+
+	private static ClassState verifyClass(String name, byte[] value, ClassState previous, HierarchyGraph graph,
+			Map<String, Set<String>> parents, Map<String, Optional<String>> commonTypes) {
+		long classHash = hash(value);
+		if (previous != null && previous.hash == classHash)
+			return new ClassState(classHash, previous.methods, 0);
+		Map<String, MethodState> methods = new HashMap<>();
+		ClassNode node;
+		try {
+			node = ClassUtil.getNode(new ClassReader(value), ClassReader.SKIP_FRAMES);
+		} catch(Exception ex) {
+			methods.put("", new MethodState(classHash, new VerificationResult.Failure(name, "", "", -1, -1,
+					"Failed to read class: (" + ex.getClass().getSimpleName() + ") " + ex.getMessage())));
+			return new ClassState(classHash, methods, 1);
+		}
+		int verified = 0;
+		for (MethodNode method : node.methods) {
+			String key = method.name + method.desc;
+			long methodHash = hash(method);
+			MethodState old = previous == null ? null : previous.methods.get(key);
+			if (old != null && old.hash == methodHash) {
+				methods.put(key, old);
+				continue;
+			}
+			methods.put(key, new MethodState(methodHash, verifyMethod(node.name, method, graph, parents, commonTypes)));
+			verified++;
+		}
+		return new ClassState(classHash, methods, verified);
+	}
+
+	private static VerificationResult.Failure verifyMethod(String owner, MethodNode method, HierarchyGraph graph,
+			Map<String, Set<String>> parents, Map<String, Optional<String>> commonTypes) {
+		if (method.instructions.size() == 0)
+			return null;
+		MethodAnalyzer analyzer = new MethodAnalyzer(new SimInterpreter(), graph, parents, commonTypes);
+		analyzer.setSkipDeadCodeBlocks(false);
+		try {
+			analyzer.analyze(owner, method);
+			return null;
+		} catch(AnalyzerException ex) {
+			// Thrown on verify failure.
+			int index = ex.node == null ? -1 : method.instructions.indexOf(ex.node);
+			if (index == -1)
+				index = getIndexFromMessage(ex.getMessage());
+			return new VerificationResult.Failure(owner, method.name, method.desc, index,
+					getLine(method, index), ex.getMessage());
+		} catch(Exception ex) {
+			// IndexOutOfBoundsException: When local variables are messed up
+			return new VerificationResult.Failure(owner, method.name, method.desc, -1, -1,
+					"Verifier crashed: (" + ex.getClass().getSimpleName() + ") " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * ASM does not always include the failing node, even when the index is given in the message.
+	 *
+	 * @param message
+	 * 		Analyzer error message.
+	 *
+	 * @return Instruction index in the message, or {@code -1} if not included.
+	 */
+	private static int getIndexFromMessage(String message) {
+		if (message == null)
+			return -1;
+		int start = message.indexOf(INSN_PREFIX);
+		if (start < 0)
+			return -1;
+		start += INSN_PREFIX.length();
+		int end = message.indexOf(':', start);
+		if (end <= start)
+			return -1;
+		try {
+			return Integer.parseInt(message.substring(start, end));
+		} catch(NumberFormatException ex) {
+			return -1;
+		}
+	}
+
+	/**
+	 * @param method
+	 * 		Method containing the instruction.
+	 * @param index
+	 * 		Instruction index.
+	 *
+	 * @return Source line of the instruction, or {@code -1} if unknown.
+	 */
+	private static int getLine(MethodNode method, int index) {
+		if (index < 0 || index >= method.instructions.size())
+			return -1;
+		for (AbstractInsnNode insn = method.instructions.get(index); insn != null; insn = insn.getPrevious())
+			if (insn instanceof LineNumberNode)
+				return ((LineNumberNode) insn).line;
+		return -1;
+	}
+
+	/**
+	 * @param classes
+	 * 		Map of class names to bytecode.
+	 *
+	 * @return Map of class names to their parents.
+	 */
+	private static Map<String, String> getHierarchy(Map<String, byte[]> classes) {
+		Map<String, String> hierarchy = new HashMap<>();
+		for (Map.Entry<String, byte[]> e : classes.entrySet()) {
+			ClassReader reader = new ClassReader(e.getValue());
+			hierarchy.put(e.getKey(), reader.getSuperName() + ' ' + String.join(" ", reader.getInterfaces()));
+		}
+		return hierarchy;
+	}
+
+	/**
+	 * Methods are written on their own so that the hash does not depend on the constant pool of the class.
+	 *
+	 * @param method
+	 * 		Some method.
+	 *
+	 * @return Hash of the method's bytecode.
+	 */
+	private static long hash(MethodNode method) {
+		ClassWriter writer = new ClassWriter(0);
+		writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "Verify", null, "java/lang/Object", null);
+		method.accept(writer);
+		writer.visitEnd();
+		return hash(writer.toByteArray());
+	}
+
+	private static long hash(byte[] value) {
+		CRC32 crc = new CRC32();
+		crc.update(value);
+		return ((long) Arrays.hashCode(value) << 32) ^ crc.getValue();
+	}
+
+	/**
+	 * Results of a class from the last run.
+	 */
+	private static class ClassState {
+		private final long hash;
+		private final Map<String, MethodState> methods;
+		private final int verified;
+
+		private ClassState(long hash, Map<String, MethodState> methods, int verified) {
+			this.hash = hash;
+			this.methods = methods;
+			this.verified = verified;
+		}
+	}
+
+	/**
+	 * Result of a method from the last run.
+	 */
+	private static class MethodState {
+		private final long hash;
+		private final VerificationResult.Failure failure;
+
+		private MethodState(long hash, VerificationResult.Failure failure) {
+			this.hash = hash;
+			this.failure = failure;
+		}
+	}
+}
@@ -136,6 +136,14 @@ public abstract class AST {
 	 */
 	public abstract String print();
 
+	/**
+	 * @param line
+	 * 		Line number the copy is written on.
+	 *
+	 * @return Copy of this node and its children on the given line, not linked to a parent or siblings.
+	 */
+	public abstract AST copy(int line);
+
 	@Override
 	public String toString() {
 		return print();
@@ -55,4 +55,9 @@ public class AliasAST extends InsnAST {
 	public void compile(MethodCompilation compilation) throws AssemblerException {
 		// No-op: this is not compilable.
 	}
+
+	@Override
+	public AliasAST copy(int line) {
+		return new AliasAST(line, getStart(), getOpcode().copy(line), name.copy(line), value.copy(line));
+	}
 }
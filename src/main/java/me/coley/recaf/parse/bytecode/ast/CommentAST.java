@@ -41,4 +41,9 @@ public class CommentAST extends AST implements Compilable {
 	public void compile(MethodCompilation compilation) throws AssemblerException {
 		compilation.addComment(comment.trim());
 	}
+
+	@Override
+	public CommentAST copy(int line) {
+		return new CommentAST(line, getStart(), comment);
+	}
 }
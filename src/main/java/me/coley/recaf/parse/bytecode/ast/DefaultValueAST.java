@@ -51,4 +51,9 @@ public class DefaultValueAST extends AST {
 			value = ((HandleAST) content).compile();
 		return value;
 	}
+
+	@Override
+	public DefaultValueAST copy(int line) {
+		return new DefaultValueAST(line, getStart(), content.copy(line));
+	}
 }
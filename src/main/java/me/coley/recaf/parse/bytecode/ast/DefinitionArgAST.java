@@ -50,4 +50,9 @@ public class DefinitionArgAST extends AST implements VariableReference {
 	public String print() {
 		return getDesc().print() + " " + getVariableName().print();
 	}
+
+	@Override
+	public DefinitionArgAST copy(int line) {
+		return new DefinitionArgAST(line, getStart(), desc.copy(line), name.copy(line));
+	}
 }
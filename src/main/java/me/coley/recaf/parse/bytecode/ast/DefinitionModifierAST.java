@@ -41,4 +41,9 @@ public class DefinitionModifierAST extends AST {
 	public String print() {
 		return name;
 	}
+
+	@Override
+	public DefinitionModifierAST copy(int line) {
+		return new DefinitionModifierAST(line, getStart(), name);
+	}
 }
@@ -41,4 +41,9 @@ public class DescAST extends AST {
 	public String print() {
 		return desc;
 	}
+
+	@Override
+	public DescAST copy(int line) {
+		return new DescAST(line, getStart(), desc);
+	}
 }
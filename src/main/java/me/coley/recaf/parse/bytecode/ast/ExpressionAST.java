@@ -41,4 +41,9 @@ public class ExpressionAST extends AST implements Compilable {
 	public void compile(MethodCompilation compilation) throws AssemblerException {
 		compilation.addExpression(expression, this);
 	}
+
+	@Override
+	public ExpressionAST copy(int line) {
+		return new ExpressionAST(line, getStart(), expression);
+	}
 }
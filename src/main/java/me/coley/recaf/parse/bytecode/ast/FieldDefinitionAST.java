@@ -60,4 +60,21 @@ public class FieldDefinitionAST extends DefinitionAST {
 		String modifiersStr = getModifiers().stream().map(AST::print).collect(joining(" "));
 		return "DEFINE " + modifiersStr + " " + getType().print() + " " + getName().print();
 	}
+
+	@Override
+	public FieldDefinitionAST copy(int line) {
+		FieldDefinitionAST copy = new FieldDefinitionAST(line, getStart(), name.copy(line), type.copy(line));
+		// Children are added by the parser, so they are copied in their original order
+		for (AST child : getChildren()) {
+			if (child == name)
+				copy.addChild(copy.getName());
+			else if (child == type)
+				copy.addChild(copy.getType());
+			else if (child instanceof DefinitionModifierAST)
+				copy.addModifier(((DefinitionModifierAST) child).copy(line));
+			else
+				copy.addChild(child.copy(line));
+		}
+		return copy;
+	}
 }
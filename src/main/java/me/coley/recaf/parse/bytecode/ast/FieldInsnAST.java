@@ -69,4 +69,10 @@ public class FieldInsnAST extends InsnAST {
 		compilation.addInstruction(new FieldInsnNode(getOpcode().getOpcode(), getOwner().getType(),
 				getName().getName(), getDesc().getDesc()), this);
 	}
+
+	@Override
+	public FieldInsnAST copy(int line) {
+		return new FieldInsnAST(line, getStart(), getOpcode().copy(line), owner.copy(line),
+				name.copy(line), desc.copy(line));
+	}
 }
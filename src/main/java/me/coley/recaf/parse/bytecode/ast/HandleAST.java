@@ -82,4 +82,9 @@ public class HandleAST extends AST {
 		return new Handle(getTag().getTag(), getOwner().getUnescapedType(), getName().getUnescapedName(),
 				getDesc().getUnescapedDesc(), getTag().getTag() == Opcodes.H_INVOKEINTERFACE);
 	}
+
+	@Override
+	public HandleAST copy(int line) {
+		return new HandleAST(line, getStart(), tag.copy(line), owner.copy(line), name.copy(line), desc.copy(line));
+	}
 }
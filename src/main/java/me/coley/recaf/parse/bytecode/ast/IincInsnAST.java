@@ -61,4 +61,9 @@ public class IincInsnAST extends InsnAST implements VariableReference {
 		compilation.addInstruction(new IincInsnNode(getVariableIndex(compilation.getVariableNameCache()),
 				getIncrement().getIntValue()), this);
 	}
+
+	@Override
+	public IincInsnAST copy(int line) {
+		return new IincInsnAST(line, getStart(), getOpcode().copy(line), variable.copy(line), incr.copy(line));
+	}
 }
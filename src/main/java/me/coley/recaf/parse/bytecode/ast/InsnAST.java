@@ -40,4 +40,9 @@ public class InsnAST extends AST implements Instruction {
 	public void compile(MethodCompilation compilation) throws AssemblerException {
 		compilation.addInstruction(new InsnNode(getOpcode().getOpcode()), this);
 	}
+
+	@Override
+	public InsnAST copy(int line) {
+		return new InsnAST(line, getStart(), getOpcode().copy(line));
+	}
 }
@@ -50,4 +50,9 @@ public class IntInsnAST extends InsnAST {
 	public void compile(MethodCompilation compilation) throws AssemblerException {
 		compilation.addInstruction(new IntInsnNode(getOpcode().getOpcode(), getValue().getIntValue()), this);
 	}
+
+	@Override
+	public IntInsnAST copy(int line) {
+		return new IntInsnAST(line, getStart(), getOpcode().copy(line), value.copy(line));
+	}
 }
@@ -5,6 +5,7 @@ import me.coley.recaf.parse.bytecode.exception.AssemblerException;
 import org.objectweb.asm.tree.*;
 import org.objectweb.asm.Type;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -105,4 +106,13 @@ public class InvokeDynamicAST extends InsnAST {
 		compilation.addInstruction(new InvokeDynamicInsnNode(getName().getUnescapedName(), getDesc().getUnescapedDesc(),
 				getHandle().compile(), convertedArgs), this);
 	}
+
+	@Override
+	public InvokeDynamicAST copy(int line) {
+		List<AST> argsCopy = new ArrayList<>(args.size());
+		for (AST arg : args)
+			argsCopy.add(arg.copy(line));
+		return new InvokeDynamicAST(line, getStart(), getOpcode().copy(line), name.copy(line), desc.copy(line),
+				handle.copy(line), argsCopy);
+	}
 }
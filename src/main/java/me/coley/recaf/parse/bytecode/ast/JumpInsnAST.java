@@ -56,4 +56,9 @@ public class JumpInsnAST extends InsnAST implements FlowController {
 	public List<String> targets() {
 		return Collections.singletonList(getLabel().getName());
 	}
+
+	@Override
+	public JumpInsnAST copy(int line) {
+		return new JumpInsnAST(line, getStart(), getOpcode().copy(line), label.copy(line));
+	}
 }
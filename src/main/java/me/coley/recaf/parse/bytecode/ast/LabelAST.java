@@ -41,4 +41,9 @@ public class LabelAST extends AST implements Compilable {
 	public void compile(MethodCompilation compilation) throws AssemblerException {
 		compilation.addInstruction(compilation.getLabel(getName().getName()), this);
 	}
+
+	@Override
+	public LabelAST copy(int line) {
+		return new LabelAST(line, getStart(), name.copy(line));
+	}
 }
@@ -54,4 +54,9 @@ public class LdcInsnAST extends InsnAST {
 			value = ((HandleAST) content).compile();
 		compilation.addInstruction(new LdcInsnNode(value), this);
 	}
+
+	@Override
+	public LdcInsnAST copy(int line) {
+		return new LdcInsnAST(line, getStart(), getOpcode().copy(line), content.copy(line));
+	}
 }
@@ -57,4 +57,9 @@ public class LineInsnAST extends InsnAST {
 		compilation.addInstruction(new LineNumberNode(getLineNumber().getIntValue(),
 				compilation.getLabel(getLabel().getName())), this);
 	}
+
+	@Override
+	public LineInsnAST copy(int line) {
+		return new LineInsnAST(line, getStart(), getOpcode().copy(line), label.copy(line), lineNumber.copy(line));
+	}
 }
@@ -5,6 +5,7 @@ import me.coley.recaf.parse.bytecode.exception.AssemblerException;
 import org.objectweb.asm.tree.*;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -90,4 +91,11 @@ public class LookupSwitchInsnAST extends InsnAST implements FlowController {
 		targets.addAll(getMapping().values().stream().map(NameAST::getName).collect(Collectors.toList()));
 		return targets;
 	}
+
+	@Override
+	public LookupSwitchInsnAST copy(int line) {
+		Map<NumberAST, NameAST> mappingCopy = new LinkedHashMap<>();
+		mapping.forEach((k, v) -> mappingCopy.put(k.copy(line), v.copy(line)));
+		return new LookupSwitchInsnAST(line, getStart(), getOpcode().copy(line), mappingCopy, dfltLabel.copy(line));
+	}
 }
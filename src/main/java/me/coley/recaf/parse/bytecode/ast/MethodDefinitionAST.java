@@ -98,4 +98,23 @@ public class MethodDefinitionAST extends DefinitionAST {
 		String ret = getReturnType().print();
 		return "DEFINE " + modifiersStr + " " + getName().print() + "(" + argumentsStr + ")" + ret;
 	}
+
+	@Override
+	public MethodDefinitionAST copy(int line) {
+		MethodDefinitionAST copy = new MethodDefinitionAST(line, getStart(), name.copy(line), retType.copy(line));
+		// Children are added by the parser, so they are copied in their original order
+		for (AST child : getChildren()) {
+			if (child == name)
+				copy.addChild(copy.getName());
+			else if (child == retType)
+				copy.addChild(copy.getReturnType());
+			else if (child instanceof DefinitionModifierAST)
+				copy.addModifier(((DefinitionModifierAST) child).copy(line));
+			else if (child instanceof DefinitionArgAST)
+				copy.addArgument(((DefinitionArgAST) child).copy(line));
+			else
+				copy.addChild(child.copy(line));
+		}
+		return copy;
+	}
 }
@@ -69,4 +69,10 @@ public class MethodInsnAST extends InsnAST {
 		compilation.addInstruction(new MethodInsnNode(getOpcode().getOpcode(), getOwner().getType(),
 				getName().getName(), getDesc().getDesc()), this);
 	}
+
+	@Override
+	public MethodInsnAST copy(int line) {
+		return new MethodInsnAST(line, getStart(), getOpcode().copy(line), owner.copy(line),
+				name.copy(line), desc.copy(line));
+	}
 }
@@ -57,4 +57,9 @@ public class MultiArrayInsnAST extends InsnAST {
 		compilation.addInstruction(new MultiANewArrayInsnNode(getDesc().getDesc(),
 				getDimensions().getIntValue()), this);
 	}
+
+	@Override
+	public MultiArrayInsnAST copy(int line) {
+		return new MultiArrayInsnAST(line, getStart(), getOpcode().copy(line), desc.copy(line), dims.copy(line));
+	}
 }
@@ -42,4 +42,9 @@ public class NameAST extends AST {
 	public String print() {
 		return name;
 	}
+
+	@Override
+	public NameAST copy(int line) {
+		return new NameAST(line, getStart(), name);
+	}
 }
@@ -66,4 +66,9 @@ public class NumberAST extends AST {
 			suffix = "F";
 		return val + suffix;
 	}
+
+	@Override
+	public NumberAST copy(int line) {
+		return new NumberAST(line, getStart(), value);
+	}
 }
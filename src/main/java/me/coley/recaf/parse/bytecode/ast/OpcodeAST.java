@@ -41,4 +41,9 @@ public class OpcodeAST extends AST {
 	public String print() {
 		return name;
 	}
+
+	@Override
+	public OpcodeAST copy(int line) {
+		return new OpcodeAST(line, getStart(), name);
+	}
 }
@@ -31,4 +31,13 @@ public class RootAST extends AST {
 	public String print() {
 		return getChildren().stream().map(AST::print).collect(Collectors.joining("\n"));
 	}
+
+	@Override
+	public RootAST copy(int line) {
+		RootAST copy = new RootAST();
+		// Children keep their own lines
+		for (AST child : getChildren())
+			copy.addChild(child.copy(child.getLine()));
+		return copy;
+	}
 }
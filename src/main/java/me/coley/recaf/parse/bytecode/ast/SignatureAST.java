@@ -32,4 +32,9 @@ public class SignatureAST extends AST {
 	public String print() {
 		return "SIGNATURE " + signature;
 	}
+
+	@Override
+	public SignatureAST copy(int line) {
+		return new SignatureAST(line, getStart(), signature);
+	}
 }
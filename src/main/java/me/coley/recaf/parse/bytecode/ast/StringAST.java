@@ -41,4 +41,9 @@ public class StringAST extends AST {
 	public String print() {
 		return "\"" + value + "\"";
 	}
+
+	@Override
+	public StringAST copy(int line) {
+		return new StringAST(line, getStart(), value);
+	}
 }
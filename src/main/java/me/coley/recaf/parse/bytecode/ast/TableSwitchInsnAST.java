@@ -104,4 +104,13 @@ public class TableSwitchInsnAST extends InsnAST implements FlowController {
 		targets.addAll(getLabels().stream().map(NameAST::getName).collect(Collectors.toList()));
 		return targets;
 	}
+
+	@Override
+	public TableSwitchInsnAST copy(int line) {
+		List<NameAST> labelsCopy = new ArrayList<>(labels.size());
+		for (NameAST label : labels)
+			labelsCopy.add(label.copy(line));
+		return new TableSwitchInsnAST(line, getStart(), getOpcode().copy(line), rangeMin.copy(line),
+				rangeMax.copy(line), labelsCopy, dfltLabel.copy(line));
+	}
 }
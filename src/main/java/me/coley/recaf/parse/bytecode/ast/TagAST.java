@@ -57,4 +57,9 @@ public class TagAST extends AST {
 	public String print() {
 		return name;
 	}
+
+	@Override
+	public TagAST copy(int line) {
+		return new TagAST(line, getStart(), name);
+	}
 }
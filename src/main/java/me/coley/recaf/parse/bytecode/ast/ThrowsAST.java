@@ -33,4 +33,9 @@ public class ThrowsAST extends AST {
 	public String print() {
 		return "THROWS " + type.print();
 	}
+
+	@Override
+	public ThrowsAST copy(int line) {
+		return new ThrowsAST(line, getStart(), type.copy(line));
+	}
 }
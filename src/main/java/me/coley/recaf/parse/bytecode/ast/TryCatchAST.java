@@ -71,4 +71,10 @@ public class TryCatchAST extends AST {
 		return "TRY " + lblStart.getName() + " " + lblEnd.getName() +
 				" CATCH(" + type.getType() + ") " + lblHandler.getName();
 	}
+
+	@Override
+	public TryCatchAST copy(int line) {
+		return new TryCatchAST(line, getStart(), lblStart.copy(line), lblEnd.copy(line), type.copy(line),
+				lblHandler.copy(line));
+	}
 }
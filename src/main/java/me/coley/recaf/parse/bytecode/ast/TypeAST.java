@@ -41,4 +41,9 @@ public class TypeAST extends AST {
 	public String print() {
 		return type;
 	}
+
+	@Override
+	public TypeAST copy(int line) {
+		return new TypeAST(line, getStart(), type);
+	}
 }
@@ -44,4 +44,9 @@ public class TypeInsnAST extends InsnAST {
 	public void compile(MethodCompilation compilation) throws AssemblerException {
 		compilation.addInstruction(new TypeInsnNode(getOpcode().getOpcode(), getType().getType()), this);
 	}
+
+	@Override
+	public TypeInsnAST copy(int line) {
+		return new TypeInsnAST(line, getStart(), getOpcode().copy(line), type.copy(line));
+	}
 }
@@ -68,4 +68,9 @@ public class VarInsnAST extends InsnAST implements VariableReference {
 		compilation.addInstruction(new VarInsnNode(getOpcode().getOpcode(),
 				getVariableIndex(compilation.getVariableNameCache())), this);
 	}
+
+	@Override
+	public VarInsnAST copy(int line) {
+		return new VarInsnAST(line, getStart(), getOpcode().copy(line), variable.copy(line));
+	}
 }
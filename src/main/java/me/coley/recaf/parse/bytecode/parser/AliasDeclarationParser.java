@@ -2,6 +2,7 @@ package me.coley.recaf.parse.bytecode.parser;
 
 import me.coley.recaf.parse.bytecode.exception.ASTParseException;
 import me.coley.recaf.parse.bytecode.AbstractParser;
+import me.coley.recaf.parse.bytecode.LineTokens;
 import me.coley.recaf.parse.bytecode.ast.*;
 
 /**
@@ -13,18 +14,18 @@ public class AliasDeclarationParser extends AbstractParser<AliasAST> {
 	@Override
 	public AliasAST visit(int lineNo, String line) throws ASTParseException {
 		try {
-			String[] trim = line.trim().split("\\s+");
-			if (trim.length < 2)
+			LineTokens tokens = LineTokens.of(line);
+			if (tokens.size() < 2)
 				throw new ASTParseException(lineNo, "Not enough paramters");
-			int start = line.indexOf(trim[0]);
+			int start = tokens.start(0);
 			// op
 			OpcodeParser opParser = new OpcodeParser();
-			opParser.setOffset(line.indexOf(trim[0]));
-			OpcodeAST op = opParser.visit(lineNo, trim[0]);
+			opParser.setOffset(tokens.start(0));
+			OpcodeAST op = opParser.visit(lineNo, tokens.get(0));
 			// name
 			NameParser nameParser = new NameParser(this);
-			nameParser.setOffset(line.indexOf(trim[1]));
-			NameAST name = nameParser.visit(lineNo, trim[1]);
+			nameParser.setOffset(tokens.start(1));
+			NameAST name = nameParser.visit(lineNo, tokens.get(1));
 			// content
 			StringParser stringParser = new StringParser();
 			stringParser.setOffset(line.indexOf("\""));
@@ -4,17 +4,21 @@ import me.coley.recaf.parse.bytecode.exception.ASTParseException;
 import me.coley.recaf.parse.bytecode.AbstractParser;
 import me.coley.recaf.parse.bytecode.ast.*;
 
+import java.util.regex.Pattern;
+
 /**
  * {@link DefinitionArgAST} parser.
  *
  * @author Matt
  */
 public class ArgParser extends AbstractParser<DefinitionArgAST> {
+	private static final Pattern TYPE_AND_NAME = Pattern.compile(".+\\s+.+");
+
 	@Override
 	public DefinitionArgAST visit(int lineNo, String line) throws ASTParseException {
 		try {
 			String trim = line.trim();
-			if (!trim.matches(".+\\s+.+"))
+			if (!TYPE_AND_NAME.matcher(trim).matches())
 				throw new IllegalStateException();
 			int start = line.indexOf(trim);
 			String[] split = trim.split("\\s+");
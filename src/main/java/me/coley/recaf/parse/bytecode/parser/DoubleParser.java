@@ -4,26 +4,31 @@ import me.coley.recaf.parse.bytecode.exception.ASTParseException;
 import me.coley.recaf.parse.bytecode.AbstractParser;
 import me.coley.recaf.parse.bytecode.ast.NumberAST;
 
+import java.util.regex.Pattern;
+
 /**
  * {@link NumberAST} parser for doubles.
  *
  * @author Matt
  */
 public class DoubleParser extends AbstractParser<NumberAST> {
+	private static final Pattern STANDARD = Pattern.compile("-?[.\\d]+[Dd]?");
+	private static final Pattern EXPONENT = Pattern.compile("-?[\\d.]+(?:[eE]-?\\d+)?[dD]?");
+
 	@Override
 	public NumberAST visit(int lineNo, String line) throws ASTParseException {
 		try {
 			String trim = line.trim();
 			// Check standard numbers, then exponential form form if that fails
 			int start = line.indexOf(trim);
-			if(!trim.matches("-?[.\\d]+[Dd]?"))
+			if(!STANDARD.matcher(trim).matches())
 				if (trim.equals("Infinity"))
 					return new NumberAST(lineNo, getOffset() + start, Double.POSITIVE_INFINITY);
 				else if (trim.equals("-Infinity"))
 					return new NumberAST(lineNo, getOffset() + start, Double.NEGATIVE_INFINITY);
 				else if (trim.equals("NaN"))
 					return new NumberAST(lineNo, getOffset() + start, Double.NaN);
-				else if (!trim.matches("-?[\\d.]+(?:[eE]-?\\d+)?[dD]?"))
+				else if (!EXPONENT.matcher(trim).matches())
 					throw new ASTParseException(lineNo, "Invalid double: " + trim);
 			return new NumberAST(lineNo, getOffset() + start, Double.valueOf(trim));
 		} catch(Exception ex) {
@@ -17,16 +17,16 @@ public class FieldInsnParser extends AbstractParser<FieldInsnAST> {
 	@Override
 	public FieldInsnAST visit(int lineNo, String line) throws ASTParseException {
 		try {
-			String[] trim = line.trim().split("\\s+");
-			if (trim.length < 3)
+			LineTokens tokens = LineTokens.of(line);
+			if (tokens.size() < 3)
 				throw new ASTParseException(lineNo, "Not enough parameters");
-			int start = line.indexOf(trim[0]);
+			int start = tokens.start(0);
 			// op
 			OpcodeParser opParser = new OpcodeParser();
-			opParser.setOffset(line.indexOf(trim[0]));
-			OpcodeAST op = opParser.visit(lineNo, trim[0]);
+			opParser.setOffset(tokens.start(0));
+			OpcodeAST op = opParser.visit(lineNo, tokens.get(0));
 			// owner & name
-			String typeAndName = trim[1];
+			String typeAndName = tokens.get(1);
 			int dot = typeAndName.indexOf('.');
 			if (dot == -1)
 				throw new ASTParseException(lineNo, "Format error: expecting '<Owner>.<Name> <Desc>'" +
@@ -35,7 +35,7 @@ public class FieldInsnParser extends AbstractParser<FieldInsnAST> {
 			String nameS = typeAndName.substring(dot + 1);
 			// owner
 			TypeParser typeParser = new TypeParser();
-			typeParser.setOffset(line.indexOf(typeAndName));
+			typeParser.setOffset(tokens.start(1));
 			TypeAST owner = typeParser.visit(lineNo, typeS);
 			// name
 			NameParser nameParser = new NameParser(this);
@@ -43,8 +43,8 @@ public class FieldInsnParser extends AbstractParser<FieldInsnAST> {
 			NameAST name = nameParser.visit(lineNo, nameS);
 			// desc
 			DescParser descParser = new DescParser();
-			descParser.setOffset(line.lastIndexOf(trim[2]));
-			DescAST desc = descParser.visit(lineNo, trim[2]);
+			descParser.setOffset(tokens.start(2));
+			DescAST desc = descParser.visit(lineNo, tokens.get(2));
 			return new FieldInsnAST(lineNo, start, op, owner, name, desc);
 		} catch(Exception ex) {
 			throw new ASTParseException(ex, lineNo, "Bad format for field instruction");
@@ -4,25 +4,33 @@ import me.coley.recaf.parse.bytecode.exception.ASTParseException;
 import me.coley.recaf.parse.bytecode.AbstractParser;
 import me.coley.recaf.parse.bytecode.ast.NumberAST;
 
+import java.util.regex.Pattern;
+
 /**
  * {@link NumberAST} parser for floats.
  *
  * @author Matt
  */
 public class FloatParser extends AbstractParser<NumberAST> {
+	private static final Pattern STANDARD = Pattern.compile("-?[.\\d]+[Ff]?");
+	private static final Pattern POSITIVE_INFINITY = Pattern.compile("Infinity[Ff]");
+	private static final Pattern NEGATIVE_INFINITY = Pattern.compile("-Infinity[Ff]");
+	private static final Pattern NAN = Pattern.compile("NaN[Ff]");
+	private static final Pattern EXPONENT = Pattern.compile("-?[\\d.]+(?:[eE]-?\\d+)?[Ff]?");
+
 	@Override
 	public NumberAST visit(int lineNo, String line) throws ASTParseException {
 		try {
 			String trim = line.trim();
 			int start = line.indexOf(trim);
-			if(!trim.matches("-?[.\\d]+[Ff]?"))
-				if (trim.matches("Infinity[Ff]"))
+			if(!STANDARD.matcher(trim).matches())
+				if (POSITIVE_INFINITY.matcher(trim).matches())
 					return new NumberAST(lineNo, getOffset() + start, Float.POSITIVE_INFINITY);
-				else if (trim.matches("-Infinity[Ff]"))
+				else if (NEGATIVE_INFINITY.matcher(trim).matches())
 					return new NumberAST(lineNo, getOffset() + start, Float.NEGATIVE_INFINITY);
-				else if (trim.matches("NaN[Ff]"))
+				else if (NAN.matcher(trim).matches())
 					return new NumberAST(lineNo, getOffset() + start, Float.NaN);
-				else if (!trim.matches("-?[\\d.]+(?:[eE]-?\\d+)?[Ff]?"))
+				else if (!EXPONENT.matcher(trim).matches())
 					throw new ASTParseException(lineNo, "Invalid float: " + trim);
 			return new NumberAST(lineNo, getOffset() + start, Float.valueOf(trim));
 		} catch(Exception ex) {
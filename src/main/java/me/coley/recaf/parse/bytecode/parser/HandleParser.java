@@ -27,16 +27,16 @@ public class HandleParser extends AbstractParser<HandleAST> {
 	@Override
 	public HandleAST visit(int lineNo, String line) throws ASTParseException {
 		try {
-			String[] trim = line.trim().split("\\s+");
-			if (trim.length < 2)
+			LineTokens tokens = LineTokens.of(line);
+			if (tokens.size() < 2)
 				throw new ASTParseException(lineNo, "Not enough paramters");
-			int start = line.indexOf(trim[0]);
+			int start = tokens.start(0);
 			// op
 			TagParser opParser = new TagParser();
-			opParser.setOffset(line.indexOf(trim[0]));
-			TagAST tag = opParser.visit(lineNo, trim[0]);
+			opParser.setOffset(tokens.start(0));
+			TagAST tag = opParser.visit(lineNo, tokens.get(0));
 			// owner & name & desc
-			String data = trim[1];
+			String data = tokens.get(1);
 			int dot = data.indexOf('.');
 			if (dot == -1)
 				throw new ASTParseException(lineNo, "Format error: Missing '.' after owner type");
@@ -52,7 +52,7 @@ public class HandleParser extends AbstractParser<HandleAST> {
 			String descS = data.substring(descSplit);
 			// owner
 			TypeParser typeParser = new TypeParser();
-			typeParser.setOffset(line.indexOf(data));
+			typeParser.setOffset(tokens.start(1));
 			TypeAST owner = typeParser.visit(lineNo, typeS);
 			// name
 			NameParser nameParser = new NameParser(this);
@@ -16,22 +16,22 @@ public class IincInsnParser extends AbstractParser<IincInsnAST> {
 	@Override
 	public IincInsnAST visit(int lineNo, String line) throws ASTParseException {
 		try {
-			String[] trim = line.trim().split("\\s+");
-			if (trim.length < 3)
+			LineTokens tokens = LineTokens.of(line);
+			if (tokens.size() < 3)
 				throw new ASTParseException(lineNo, "Not enough paramters");
-			int start = line.indexOf(trim[0]);
+			int start = tokens.start(0);
 			// op
 			OpcodeParser opParser = new OpcodeParser();
-			opParser.setOffset(line.indexOf(trim[0]));
-			OpcodeAST op = opParser.visit(lineNo, trim[0]);
+			opParser.setOffset(tokens.start(0));
+			OpcodeAST op = opParser.visit(lineNo, tokens.get(0));
 			// variable
 			NameParser nameParser = new NameParser(this);
-			nameParser.setOffset(line.indexOf(trim[1]));
-			NameAST variable = nameParser.visit(lineNo, trim[1]);
+			nameParser.setOffset(tokens.start(1));
+			NameAST variable = nameParser.visit(lineNo, tokens.get(1));
 			// incr
 			IntParser numParser = new IntParser();
-			numParser.setOffset(line.indexOf(trim[2]));
-			NumberAST incr = numParser.visit(lineNo, trim[2]);
+			numParser.setOffset(tokens.start(2));
+			NumberAST incr = numParser.visit(lineNo, tokens.get(2));
 			return new IincInsnAST(lineNo, start, op, variable, incr);
 		} catch(Exception ex) {
 			throw new ASTParseException(ex, lineNo, "Bad format for increment instruction");
@@ -2,6 +2,7 @@ package me.coley.recaf.parse.bytecode.parser;
 
 import me.coley.recaf.parse.bytecode.exception.ASTParseException;
 import me.coley.recaf.parse.bytecode.AbstractParser;
+import me.coley.recaf.parse.bytecode.LineTokens;
 import me.coley.recaf.parse.bytecode.ast.*;
 import me.coley.recaf.util.TypeUtil;
 import org.objectweb.asm.Opcodes;
@@ -16,22 +17,22 @@ public class IntInsnParser extends AbstractParser<IntInsnAST> {
 	@Override
 	public IntInsnAST visit(int lineNo, String line) throws ASTParseException {
 		try {
-			String[] trim = line.trim().split("\\s+");
-			if (trim.length < 2)
+			LineTokens tokens = LineTokens.of(line);
+			if (tokens.size() < 2)
 				throw new ASTParseException(lineNo, "Not enough paramters");
-			int start = line.indexOf(trim[0]);
+			int start = tokens.start(0);
 			// op
 			OpcodeParser opParser = new OpcodeParser();
-			opParser.setOffset(line.indexOf(trim[0]));
-			OpcodeAST op = opParser.visit(lineNo, trim[0]);
+			opParser.setOffset(tokens.start(0));
+			OpcodeAST op = opParser.visit(lineNo, tokens.get(0));
 			// TODO: For NEWARRAY, using types instead of magic number values would be intuitive
-			String valueStr = trim[1];
-			int valueStrStart = line.indexOf(valueStr);
+			String valueStr = tokens.get(1);
+			int valueStrStart = tokens.start(1);
 			NumberAST num = null;
 			if (op.getOpcode() == Opcodes.NEWARRAY) {
 				// Type to value
 				DescParser descParser = new DescParser();
-				descParser.setOffset(line.indexOf(valueStr));
+				descParser.setOffset(tokens.start(1));
 				DescAST desc = descParser.visit(lineNo, valueStr);
 				if (!TypeUtil.isPrimitiveDesc(desc.getDesc())) {
 					throw new ASTParseException(lineNo, "Expected primitive descriptor for NEWARRAY");
@@ -4,17 +4,21 @@ import me.coley.recaf.parse.bytecode.exception.ASTParseException;
 import me.coley.recaf.parse.bytecode.AbstractParser;
 import me.coley.recaf.parse.bytecode.ast.*;
 
+import java.util.regex.Pattern;
+
 /**
  * {@link NumberAST} parser for integers.
  *
  * @author Matt
  */
 public class IntParser extends AbstractParser<NumberAST> {
+	private static final Pattern INT = Pattern.compile("-?\\d+");
+
 	@Override
 	public NumberAST visit(int lineNo, String line) throws ASTParseException {
 		try {
 			String trim = line.trim();
-			if(!trim.matches("-?\\d+"))
+			if(!INT.matcher(trim).matches())
 				throw new ASTParseException(lineNo, "Invalid integer: " + trim);
 			int start = line.indexOf(trim);
 			return new NumberAST(lineNo, getOffset() + start, Integer.valueOf(trim));
@@ -6,6 +6,7 @@ import me.coley.recaf.parse.bytecode.exception.ASTParseException;
 import me.coley.recaf.util.RegexUtil;
 
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * {@link InvokeDynamicAST} parser.
@@ -13,8 +14,15 @@ import java.util.*;
  * @author Matt
  */
 public class InvokeDynamicParser extends AbstractParser<InvokeDynamicAST> {
-	private static String BRACKET_WRAPPING = "\\w*\\[.+]";
-	private static String BRACKET_WRAPPING_OR_EMPTY = "\\w*\\[.*]";
+	private static final Pattern BRACKET_WRAPPING = Pattern.compile("\\w*\\[.+]");
+	private static final Pattern BRACKET_WRAPPING_OR_EMPTY = Pattern.compile("\\w*\\[.*]");
+	private static final Pattern INT = Pattern.compile("-?\\d+");
+	private static final Pattern LONG = Pattern.compile("-?\\d+[LlJj]?");
+	private static final Pattern FLOAT = Pattern.compile("-?\\d+\\.\\d+[Ff]?");
+	private static final Pattern DOUBLE = Pattern.compile("-?\\d+\\.\\d+[Dd]?");
+	private static final Pattern SPLIT_PARTS = Pattern.compile("\\s+(?=.*\\[(?=.*\\[))");
+	private static final Pattern SPLIT_HANDLE_ARGS = Pattern.compile("(?<=\\])\\s+(?=.*\\[)");
+	private static final Pattern SPLIT_ARGS = Pattern.compile(",\\s*(?=([^\\\"]*\\\"[^\\\"]*\\\")*[^\\\"]*$)");
 
 	@Override
 	public InvokeDynamicAST visit(int lineNo, String line) throws ASTParseException {
@@ -22,7 +30,7 @@ public class InvokeDynamicParser extends AbstractParser<InvokeDynamicAST> {
 			// Split here:
 			//              v    v    v
 			// INVOKEDYNAMIC name desc handle[...] args[...]
-			String[] trim = line.trim().split("\\s+(?=.*\\[(?=.*\\[))");
+			String[] trim = SPLIT_PARTS.split(line.trim());
 			if (trim.length < 4)
 				throw new ASTParseException(lineNo, "Not enough paramters");
 			// 0 = op
@@ -43,11 +51,11 @@ public class InvokeDynamicParser extends AbstractParser<InvokeDynamicAST> {
 			DescAST desc = descParser.visit(lineNo, trim[2]);
 			// handle & args
 			// - Split space between handle and args
-			trim = line.substring(RegexUtil.indexOf("(?:(?<=\\s)handle|handle|\\s)\\[\\s*H_", line))
-					.split("(?<=\\])\\s+(?=.*\\[)");
+			trim = SPLIT_HANDLE_ARGS.split(line.substring(
+					RegexUtil.indexOf("(?:(?<=\\s)handle|handle|\\s)\\[\\s*H_", line)));
 			// handle
 			String handleS = trim[0];
-			if (!handleS.matches(BRACKET_WRAPPING))
+			if (!BRACKET_WRAPPING.matcher(handleS).matches())
 				throw new ASTParseException(lineNo, "Invalid handle, require wrapping in '[' and ']'");
 			handleS = handleS.substring(handleS.indexOf('[') + 1, handleS.indexOf(']'));
 			HandleParser handleParser = new HandleParser();
@@ -55,14 +63,14 @@ public class InvokeDynamicParser extends AbstractParser<InvokeDynamicAST> {
 			HandleAST handle = handleParser.visit(lineNo, handleS);
 			// args
 			String argsS = trim[1];
-			if (!argsS.matches(BRACKET_WRAPPING_OR_EMPTY))
+			if (!BRACKET_WRAPPING_OR_EMPTY.matcher(argsS).matches())
 				throw new ASTParseException(lineNo, "Invalid args, require wrapping in '[' and ']'");
 			argsS = argsS.substring(argsS.indexOf('[') + 1, argsS.lastIndexOf(']'));
 			// if the args has a string with commas, this will break...
 			// we'll fix that whenever it happens
 			List<AST> args = new ArrayList<>();
 			if (!argsS.isEmpty()) {
-				String[] argsSplit = argsS.split(",\\s*(?=([^\\\"]*\\\"[^\\\"]*\\\")*[^\\\"]*$)");
+				String[] argsSplit = SPLIT_ARGS.split(argsS);
 				for(String arg : argsSplit) {
 					AST ast = parseArg(lineNo, arg);
 					if(ast == null)
@@ -91,15 +99,15 @@ public class InvokeDynamicParser extends AbstractParser<InvokeDynamicAST> {
 		AbstractParser parser = null;
 		if(arg.contains("\""))
 			parser = new StringParser();
-		else if(arg.matches("-?\\d+"))
+		else if(INT.matcher(arg).matches())
 			parser = new IntParser();
-		else if(arg.matches("-?\\d+[LlJj]?"))
+		else if(LONG.matcher(arg).matches())
 			parser = new LongParser();
-		else if(arg.matches("-?\\d+\\.\\d+[Ff]?"))
+		else if(FLOAT.matcher(arg).matches())
 			parser = new FloatParser();
-		else if(arg.matches("-?\\d+\\.\\d+[Dd]?"))
+		else if(DOUBLE.matcher(arg).matches())
 			parser = new DoubleParser();
-		else if(arg.matches(BRACKET_WRAPPING)) {
+		else if(BRACKET_WRAPPING.matcher(arg).matches()) {
 			parser = new HandleParser();
 			arg = arg.substring(arg.indexOf('[') + 1, arg.indexOf(']'));
 		} else
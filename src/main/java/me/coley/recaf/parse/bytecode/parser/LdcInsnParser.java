@@ -6,6 +6,7 @@ import me.coley.recaf.parse.bytecode.exception.ASTParseException;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * {@link TypeAST} parser.
@@ -13,6 +14,12 @@ import java.util.List;
  * @author Matt
  */
 public class LdcInsnParser extends AbstractParser<LdcInsnAST> {
+	private static final Pattern FLOAT = Pattern.compile("-?(?:(?:Infinity|NaN)|-?(?:\\d+\\.\\d+))[Ff]");
+	private static final Pattern FLOAT_EXPONENT = Pattern.compile("-?[\\d.]+[eE](?:-?\\d+)?[Ff]");
+	private static final Pattern LONG = Pattern.compile("-?\\d+[LlJj]");
+	private static final Pattern DOUBLE = Pattern.compile("-?(?:Infinity|NaN)|-?(?:\\d+\\.\\d+[Dd]?)");
+	private static final Pattern DOUBLE_EXPONENT = Pattern.compile("-?[\\d.]+[eE](?:-?\\d+)?[dD]?");
+
 	@Override
 	public LdcInsnAST visit(int lineNo, String line) throws ASTParseException {
 		try {
@@ -42,19 +49,19 @@ public class LdcInsnParser extends AbstractParser<LdcInsnAST> {
 				DescParser parser = new DescParser();
 				parser.setOffset(ti + space + 1);
 				ast = parser.visit(lineNo, content);
-			} else if(content.matches("-?(?:(?:Infinity|NaN)|-?(?:\\d+\\.\\d+))[Ff]") ||
-					content.matches("-?[\\d.]+[eE](?:-?\\d+)?[Ff]")) {
+			} else if(FLOAT.matcher(content).matches() ||
+					FLOAT_EXPONENT.matcher(content).matches()) {
 				// Float
 				FloatParser parser = new FloatParser();
 				parser.setOffset(ti + space + 1);
 				ast = parser.visit(lineNo, content);
-			} else if(content.matches("-?\\d+[LlJj]")) {
+			} else if(LONG.matcher(content).matches()) {
 				// Long
 				LongParser parser = new LongParser();
 				parser.setOffset(ti + space + 1);
 				ast = parser.visit(lineNo, content);
-			} else if(content.matches("-?(?:Infinity|NaN)|-?(?:\\d+\\.\\d+[Dd]?)") ||
-					content.matches("-?[\\d.]+[eE](?:-?\\d+)?[dD]?")) {
+			} else if(DOUBLE.matcher(content).matches() ||
+					DOUBLE_EXPONENT.matcher(content).matches()) {
 				// Double
 				DoubleParser parser = new DoubleParser();
 				parser.setOffset(ti + space + 1);
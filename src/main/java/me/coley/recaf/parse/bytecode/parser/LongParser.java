@@ -4,18 +4,23 @@ import me.coley.recaf.parse.bytecode.exception.ASTParseException;
 import me.coley.recaf.parse.bytecode.AbstractParser;
 import me.coley.recaf.parse.bytecode.ast.NumberAST;
 
+import java.util.regex.Pattern;
+
 /**
  * {@link NumberAST} parser for longs.
  *
  * @author Matt
  */
 public class LongParser extends AbstractParser<NumberAST> {
+	private static final Pattern STANDARD = Pattern.compile("-?\\d+[LlJj]?");
+	private static final Pattern EXPONENT = Pattern.compile("-?[\\d.]+(?:[eE]-?\\d+)?[LlJj]?");
+
 	@Override
 	public NumberAST visit(int lineNo, String line) throws ASTParseException {
 		try {
 			String trim = line.trim();
-			if(!trim.matches("-?\\d+[LlJj]?"))
-				if (!trim.matches("-?[\\d.]+(?:[eE]-?\\d+)?[LlJj]?"))
+			if(!STANDARD.matcher(trim).matches())
+				if (!EXPONENT.matcher(trim).matches())
 					throw new ASTParseException(lineNo, "Invalid long: " + trim);
 			char last = trim.charAt(trim.length() - 1);
 			if (!(last > '0' && last < '9'))
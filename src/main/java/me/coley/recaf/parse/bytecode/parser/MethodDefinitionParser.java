@@ -6,6 +6,7 @@ import me.coley.recaf.parse.bytecode.exception.ASTParseException;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * {@link MethodDefinitionAST} parser.
@@ -13,11 +14,13 @@ import java.util.List;
  * @author Matt
  */
 public class MethodDefinitionParser extends AbstractParser<MethodDefinitionAST> {
+	private static final Pattern DEFINITION = Pattern.compile(".+(.*).+");
+
 	@Override
 	public MethodDefinitionAST visit(int lineNo, String line) throws ASTParseException {
 		try {
 			String trim = line.trim();
-			if(!trim.matches(".+(.*).+"))
+			if(!DEFINITION.matcher(trim).matches())
 				throw new ASTParseException(lineNo, "Bad format for DEFINE, bad method descriptor");
 			// Fetch the name first, even though it appears after the access modifiers
 			String name = trim.substring(0, trim.indexOf('('));
@@ -16,22 +16,22 @@ public class MultiArrayParser extends AbstractParser<MultiArrayInsnAST> {
 	@Override
 	public MultiArrayInsnAST visit(int lineNo, String line) throws ASTParseException {
 		try {
-			String[] trim = line.trim().split("\\s+");
-			if (trim.length < 2)
+			LineTokens tokens = LineTokens.of(line);
+			if (tokens.size() < 2)
 				throw new ASTParseException(lineNo, "Not enough paramters");
-			int start = line.indexOf(trim[0]);
+			int start = tokens.start(0);
 			// op
 			OpcodeParser opParser = new OpcodeParser();
-			opParser.setOffset(line.indexOf(trim[0]));
-			OpcodeAST op = opParser.visit(lineNo, trim[0]);
+			opParser.setOffset(tokens.start(0));
+			OpcodeAST op = opParser.visit(lineNo, tokens.get(0));
 			// desc
 			DescParser descParser = new DescParser();
-			descParser.setOffset(line.indexOf(trim[1]));
-			DescAST type = descParser.visit(lineNo, trim[1]);
+			descParser.setOffset(tokens.start(1));
+			DescAST type = descParser.visit(lineNo, tokens.get(1));
 			// dims
 			IntParser numParser = new IntParser();
-			numParser.setOffset(line.indexOf(trim[2]));
-			NumberAST dims = numParser.visit(lineNo, trim[2]);
+			numParser.setOffset(tokens.start(2));
+			NumberAST dims = numParser.visit(lineNo, tokens.get(2));
 			return new MultiArrayInsnAST(lineNo, start, op, type, dims);
 		} catch(Exception ex) {
 			throw new ASTParseException(ex, lineNo, "Bad format for MultiANewArray instruction");
@@ -2,6 +2,7 @@ package me.coley.recaf.parse.bytecode.parser;
 
 import me.coley.recaf.parse.bytecode.exception.ASTParseException;
 import me.coley.recaf.parse.bytecode.AbstractParser;
+import me.coley.recaf.parse.bytecode.LineTokens;
 import me.coley.recaf.parse.bytecode.ParseResult;
 import me.coley.recaf.parse.bytecode.ast.RootAST;
 import me.coley.recaf.parse.bytecode.ast.SignatureAST;
@@ -19,14 +20,14 @@ public class SignatureParser extends AbstractParser<SignatureAST> {
 	@Override
 	public SignatureAST visit(int lineNo, String line) throws ASTParseException {
 		try {
-			String[] trim = line.trim().split("\\s+");
-			if (trim.length < 2)
+			LineTokens tokens = LineTokens.of(line);
+			if (tokens.size() < 2)
 				throw new ASTParseException(lineNo, "Not enough paramters");
-			String sig = trim[1];
+			String sig = tokens.get(1);
 			// TODO: Verify signature?
 			//  - Technically you can put in garbage data in here...
 			// Create AST
-			int start = line.indexOf(sig);
+			int start = tokens.start(1);
 			return new SignatureAST(lineNo, getOffset() + start, sig);
 		} catch(Exception ex) {
 			throw new ASTParseException(ex, lineNo, "Bad format for descriptor");
@@ -16,18 +16,18 @@ public class TypeInsnParser extends AbstractParser<TypeInsnAST> {
 	@Override
 	public TypeInsnAST visit(int lineNo, String line) throws ASTParseException {
 		try {
-			String[] trim = line.trim().split("\\s+");
-			if (trim.length < 2)
+			LineTokens tokens = LineTokens.of(line);
+			if (tokens.size() < 2)
 				throw new ASTParseException(lineNo, "Not enough paramters");
-			int start = line.indexOf(trim[0]);
+			int start = tokens.start(0);
 			// op
 			OpcodeParser opParser = new OpcodeParser();
-			opParser.setOffset(line.indexOf(trim[0]));
-			OpcodeAST op = opParser.visit(lineNo, trim[0]);
+			opParser.setOffset(tokens.start(0));
+			OpcodeAST op = opParser.visit(lineNo, tokens.get(0));
 			// type
 			TypeParser typeParser = new TypeParser();
-			typeParser.setOffset(line.indexOf(trim[1]));
-			TypeAST type = typeParser.visit(lineNo, trim[1]);
+			typeParser.setOffset(tokens.start(1));
+			TypeAST type = typeParser.visit(lineNo, tokens.get(1));
 			return new TypeInsnAST(lineNo, start, op, type);
 		} catch(Exception ex) {
 			throw new ASTParseException(ex, lineNo, "Bad format for type instruction");
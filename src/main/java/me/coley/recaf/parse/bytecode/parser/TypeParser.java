@@ -9,6 +9,7 @@ import me.coley.recaf.util.EscapeUtil;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * {@link TypeAST} parser.
@@ -16,6 +17,9 @@ import java.util.List;
  * @author Matt
  */
 public class TypeParser extends AbstractParser<TypeAST> {
+	private static final Pattern NO_WHITESPACE = Pattern.compile("\\S+");
+	private static final Pattern NO_ARRAY_CHARS = Pattern.compile("[^\\[;]+");
+
 	@Override
 	public TypeAST visit(int lineNo, String line) throws ASTParseException {
 		try {
@@ -23,13 +27,13 @@ public class TypeParser extends AbstractParser<TypeAST> {
 			trim = EscapeUtil.unescape(trim);
 			if (trim.charAt(0) == '[') {
 				// Handle array types
-				if (!trim.matches("\\S+"))
+				if (!NO_WHITESPACE.matcher(trim).matches())
 					throw new ASTParseException(lineNo, "Name cannot contain whitespace characters");
 			} else {
 				// Handle normal types, cannot have any '[' or ';' in it
-				if(!trim.matches("[^\\[;]+"))
+				if(!NO_ARRAY_CHARS.matcher(trim).matches())
 					throw new ASTParseException(lineNo, "Contains illegal characters");
-				if (!trim.matches("\\S+"))
+				if (!NO_WHITESPACE.matcher(trim).matches())
 					throw new ASTParseException(lineNo, "Name cannot contain whitespace characters");
 			}
 			int start = line.indexOf(trim);
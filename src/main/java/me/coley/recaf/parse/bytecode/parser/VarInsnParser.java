@@ -16,18 +16,18 @@ public class VarInsnParser extends AbstractParser<VarInsnAST> {
 	@Override
 	public VarInsnAST visit(int lineNo, String line) throws ASTParseException {
 		try {
-			String[] trim = line.trim().split("\\s+");
-			if (trim.length < 2)
+			LineTokens tokens = LineTokens.of(line);
+			if (tokens.size() < 2)
 				throw new ASTParseException(lineNo, "Not enough paramters");
-			int start = line.indexOf(trim[0]);
+			int start = tokens.start(0);
 			// op
 			OpcodeParser opParser = new OpcodeParser();
-			opParser.setOffset(line.indexOf(trim[0]));
-			OpcodeAST op = opParser.visit(lineNo, trim[0]);
+			opParser.setOffset(tokens.start(0));
+			OpcodeAST op = opParser.visit(lineNo, tokens.get(0));
 			// variable
 			NameParser nameParser = new NameParser(this);
-			nameParser.setOffset(line.indexOf(trim[1]));
-			NameAST variable = nameParser.visit(lineNo, trim[1]);
+			nameParser.setOffset(tokens.start(1));
+			NameAST variable = nameParser.visit(lineNo, tokens.get(1));
 			return new VarInsnAST(lineNo, start, op, variable);
 		} catch(Exception ex) {
 			throw new ASTParseException(ex, lineNo, "Bad format for var instruction");
@@ -7,20 +7,41 @@ import com.github.javaparser.symbolsolver.reflectionmodel.ReflectionClassDeclara
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 import javassist.*;
 import me.coley.recaf.util.StringUtil;
+import me.coley.recaf.util.struct.ListeningMap;
+import me.coley.recaf.workspace.JavaResource;
 import me.coley.recaf.workspace.Workspace;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static com.github.javaparser.symbolsolver.javassistmodel.JavassistFactory.toTypeDeclaration;
 
 /**
  * Type resolver that uses a Recaf workspace as a classpath.
+ * <br>
+ * Results are cached by name, including names that could not be resolved. The cache is cleared when
+ * classes of the workspace's resources are added, updated, or removed, and when libraries are added.
+ * Since resources notify their listeners before a class is written, cached results also remember the code
+ * they were made from, and are solved again if the workspace's resources no longer hold that code. Classes of
+ * the classpath and phantom classes are not listened to or checked, as they do not change while the workspace
+ * is open.
  *
  * @author Matt
  */
 public class WorkspaceTypeResolver implements TypeSolver {
 	private final TypeSolver childSolver = new ReflectionTypeSolver(false);
-	private final ClassPool classPool = new ClassPool(false);
+	private final Map<String, Resolution> cache = new ConcurrentHashMap<>();
+	private final Set<JavaResource> listened = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final AtomicBoolean dirty = new AtomicBoolean();
+	private final BiConsumer<String, byte[]> putListener = (name, value) -> dirty.set(true);
+	private final Consumer<Object> removeListener = name -> dirty.set(true);
+	private volatile List<JavaResource> resources = Collections.emptyList();
+	private volatile boolean closed;
+	private ClassPool classPool;
 	private Workspace workspace;
 	private TypeSolver parent;
 
@@ -30,8 +51,7 @@ public class WorkspaceTypeResolver implements TypeSolver {
 	 */
 	public WorkspaceTypeResolver(Workspace workspace) {
 		this.workspace = workspace;
-		classPool.appendClassPath(new WorkspaceClassPath(workspace));
-		classPool.appendSystemPath();
+		reset();
 	}
 
 	@Override
@@ -42,25 +62,153 @@ public class WorkspaceTypeResolver implements TypeSolver {
 	@Override
 	public void setParent(TypeSolver parent) {
 		this.parent = parent;
+		// Declarations are created with the root solver
+		dirty.set(true);
 	}
 
 	@Override
 	public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+		if (dirty.getAndSet(false) || isResourcesChanged())
+			reset();
+		Resolution resolution = cache.get(name);
+		if (resolution != null && isCurrent(resolution))
+			return resolution.ref;
+		// Class pools are not thread safe
+		synchronized (this) {
+			resolution = cache.get(name);
+			if (resolution != null && !isCurrent(resolution)) {
+				// Solved while a class was being written, the pool may hold the old code too
+				reset();
+				resolution = null;
+			}
+			if (resolution == null) {
+				resolution = solve(name);
+				cache.put(name, resolution);
+			}
+			return resolution.ref;
+		}
+	}
+
+	/**
+	 * Stops listening to the workspace's resources. Should be called once the resolver is replaced, so that
+	 * the resources do not keep it alive. Results are still checked against the workspace afterwards.
+	 */
+	public synchronized void close() {
+		closed = true;
+		for (JavaResource resource : listened)
+			detach(resource);
+		listened.clear();
+	}
+
+	/**
+	 * Clears cached results, and starts listening to any new resources of the workspace.
+	 * Listeners are not internal, so they remain when resources are refreshed.
+	 */
+	private synchronized void reset() {
+		cache.clear();
+		// Classes made by the pool may refer to other classes it cached, so the pool is replaced too
+		classPool = new ClassPool(false);
+		classPool.appendClassPath(new WorkspaceClassPath(workspace));
+		classPool.appendSystemPath();
+		List<JavaResource> resources = new ArrayList<>();
+		resources.add(workspace.getPrimary());
+		resources.addAll(workspace.getLibraries());
+		this.resources = resources;
+		if (closed)
+			return;
+		// Resources removed from the workspace should not keep the resolver alive
+		Set<JavaResource> current = Collections.newSetFromMap(new IdentityHashMap<>());
+		current.addAll(resources);
+		for (Iterator<JavaResource> it = listened.iterator(); it.hasNext(); ) {
+			JavaResource resource = it.next();
+			if (!current.contains(resource)) {
+				detach(resource);
+				it.remove();
+			}
+		}
+		for (JavaResource resource : resources) {
+			if (!listened.add(resource))
+				continue;
+			ListeningMap<String, byte[]> classes = resource.getClasses();
+			classes.getPutListeners().add(putListener);
+			classes.getRemoveListeners().add(removeListener);
+		}
+	}
+
+	private void detach(JavaResource resource) {
+		ListeningMap<String, byte[]> classes = resource.getClasses();
+		classes.getPutListeners().remove(putListener);
+		classes.getRemoveListeners().remove(removeListener);
+	}
+
+	/**
+	 * @param resolution
+	 * 		Cached result.
+	 *
+	 * @return {@code true} when the workspace's resources still hold the code the result was made from.
+	 */
+	private boolean isCurrent(Resolution resolution) {
+		List<String> names = resolution.names;
+		for (int i = 0; i < names.size(); i++) {
+			// Only the last name can have been found in the workspace
+			byte[] expected = i == names.size() - 1 ? resolution.code : null;
+			if (getResourceClass(names.get(i)) != expected)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @param name
+	 * 		Internal class name.
+	 *
+	 * @return Code of the class in the primary resource or a library, or {@code null} if none of them hold it.
+	 */
+	private byte[] getResourceClass(String name) {
+		for (JavaResource resource : resources) {
+			byte[] code = resource.getClasses().get(name);
+			if (code != null)
+				return code;
+		}
+		return null;
+	}
+
+	/**
+	 * @return {@code true} when the workspace's resources differ from the ones the cache was built with.
+	 */
+	private boolean isResourcesChanged() {
+		List<JavaResource> known = resources;
+		List<JavaResource> libraries = workspace.getLibraries();
+		if (known.size() != libraries.size() + 1 || known.get(0) != workspace.getPrimary())
+			return true;
+		for (int i = 0; i < libraries.size(); i++)
+			if (known.get(i + 1) != libraries.get(i))
+				return true;
+		return false;
+	}
+
+	private Resolution solve(String name) {
+		List<String> names = new ArrayList<>();
 		try {
 			// The default resolve seems to infinite loop on Object, but this doesn't.
 			// IDK, JavaParser is weird.
 			if (name.equals("java.lang.Object"))
-				return SymbolReference.solved(new ReflectionClassDeclaration(Object.class, getRoot()));
+				return new Resolution(SymbolReference.solved(new ReflectionClassDeclaration(Object.class,
+						getRoot())), names, null);
 			// JavaParser has no understanding of the difference between
 			// a package separator and an inner class separator...
 			// I mean, its designed to mimic source-level constructs but this is still disappointing...
 			// I would like to not have to have a loop like this here for performance reasons.
 			String internal = name.replace('.','/');
 			do {
-				if (workspace.hasClass(internal)) {
-					InputStream is = new ByteArrayInputStream(workspace.getRawClass(internal));
+				names.add(internal);
+				byte[] code = workspace.getRawClass(internal);
+				if (code != null) {
+					InputStream is = new ByteArrayInputStream(code);
 					ResolvedReferenceTypeDeclaration dec = toTypeDeclaration(classPool.makeClass(is), getRoot());
-					return SymbolReference.solved(dec);
+					// Only code of the workspace's resources is checked, classpath lookups may return new copies
+					byte[] checked = getResourceClass(internal) == code ? code : null;
+					return new Resolution(SymbolReference.solved(dec), names, checked);
 				} else {
 					internal = StringUtil.replaceLast(internal, "/", "$");
 				}
@@ -68,6 +216,24 @@ public class WorkspaceTypeResolver implements TypeSolver {
 		} catch(IOException ex) {
 			throw new IllegalStateException("Failed to resolve type: " + name, ex);
 		}
-		return childSolver.tryToSolveType(name);
+		return new Resolution(childSolver.tryToSolveType(name), names, null);
+	}
+
+	/**
+	 * Result of a lookup, with the workspace classes it was solved from.
+	 */
+	private static class Resolution {
+		private final SymbolReference<ResolvedReferenceTypeDeclaration> ref;
+		// Internal names looked up in the workspace, in order
+		private final List<String> names;
+		// Code of the last name, or null if no name was found in the workspace's resources
+		private final byte[] code;
+
+		private Resolution(SymbolReference<ResolvedReferenceTypeDeclaration> ref, List<String> names,
+						   byte[] code) {
+			this.ref = ref;
+			this.names = names;
+			this.code = code;
+		}
 	}
 }
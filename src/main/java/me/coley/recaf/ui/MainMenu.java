@@ -1,6 +1,7 @@
 package me.coley.recaf.ui;
 
 import javafx.scene.Node;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.SeparatorMenuItem;
@@ -79,10 +80,13 @@ public class MainMenu extends MenuBar {
 		updateRecent();
 		if (InstrumentationResource.isActive()) {
 			// Agent file menu
+			CheckMenuItem hotPatch = new CheckMenuItem(translate("ui.menubar.file.agenthotpatch"));
+			hotPatch.selectedProperty().addListener((ob, old, selected) -> setHotPatching(selected));
 			mFile.getItems().addAll(
 					new ActionMenuItem(translate("ui.menubar.file.addlib"), this::addLibrary),
 					new ActionMenuItem(translate("ui.menubar.file.saveapp"), this::saveApplication),
-					new ActionMenuItem(translate("ui.menubar.file.agentexport"), this::saveAgent));
+					new ActionMenuItem(translate("ui.menubar.file.agentexport"), this::saveAgent),
+					hotPatch);
 		} else {
 			// Normal file menu
 			mFile.getItems().add(
@@ -534,6 +538,18 @@ public class MainMenu extends MenuBar {
 		}
 	}
 
+	/**
+	 * @param hotPatching
+	 * 		{@code true} to apply changes to the current application as they are made.
+	 */
+	private void setHotPatching(boolean hotPatching) {
+		try {
+			InstrumentationResource.getInstance().setHotPatching(hotPatching);
+		} catch(Throwable t) {
+			error(t, "Failed to toggle hot-patching");
+		}
+	}
+
 	/**
 	 * Save the current workspace to a file.
 	 */
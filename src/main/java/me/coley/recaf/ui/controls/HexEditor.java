@@ -10,12 +10,13 @@ import javafx.beans.property.*;
 import javafx.util.Callback;
 import javafx.util.converter.DefaultStringConverter;
 import me.coley.recaf.util.ThreadUtil;
+import me.coley.recaf.util.struct.ByteOverlay;
 
 import java.util.Arrays;
-import java.util.function.Consumer;
 
 /**
- * Hex editor control.
+ * Hex editor control. Rows are only created for the visible portion of the content, and edits are kept in an
+ * overlay so the edited array is not copied or modified until the changes are requested.
  *
  * @author Matt
  */
@@ -29,15 +30,14 @@ public class HexEditor extends BorderPane {
 	private final TableViewExtra<?> tveContent = new TableViewExtra<>(contentTable);
 	private final TableViewExtra<?> tveOffset = new TableViewExtra<>(offsetTable);
 	private final TableViewExtra<?> tveText = new TableViewExtra<>(textTable);
-	private byte[] content;
-	private Consumer<byte[]> contentCallback;
+	private ByteOverlay content;
 
 	/**
 	 * @param array
 	 * 		Content to edit.
 	 */
 	public HexEditor(byte[] array) {
-		content = array;
+		content = new ByteOverlay(array);
 		DummyList dummy = new DummyList();
 		TableColumn<Integer, String> offsetColumn = new TableColumn<>("Offset");
 		TableColumn<Integer, String> textColumn = new TableColumn<>("Text");
@@ -53,9 +53,9 @@ public class HexEditor extends BorderPane {
 			int row = cellData.getValue();
 			StringBuilder sb = new StringBuilder();
 			for (int i = row * COLS_PER_LINE; i < ((row + 1) * COLS_PER_LINE); i++){
-				if(i >= content.length)
+				if(i >= content.size())
 					break;
-				char c = (char) content[i];
+				char c = (char) content.get(i);
 				// http://www.techdictionary.com/ascii.html
 				// - 0x20: space
 				// - 0x7E: tilde
@@ -99,7 +99,7 @@ public class HexEditor extends BorderPane {
 			contentColumn.setCellValueFactory(cellData -> {
 				int row = cellData.getValue();
 				int index = (row * COLS_PER_LINE) + columnCopy;
-				int value = index >= content.length ? INVALID : content[index];
+				int value = index >= content.size() ? INVALID : content.get(index);
 				if(value == INVALID)
 					return new SimpleStringProperty();
 				return new SimpleStringProperty(hex(value));
@@ -157,9 +157,7 @@ public class HexEditor extends BorderPane {
 	}
 
 	private void updateContent(int index, byte value) {
-		content[index] = value;
-		if (contentCallback != null)
-			contentCallback.accept(content);
+		content.set(index, value);
 	}
 
 	private void refresh() {
@@ -168,18 +166,21 @@ public class HexEditor extends BorderPane {
 	}
 
 	/**
-	 * @param contentCallback
-	 * 		Called when the content is modified.
+	 * @return {@code true} if the content has been modified.
 	 */
-	public void setContentCallback(Consumer<byte[]> contentCallback) {
-		this.contentCallback = contentCallback;
+	public boolean isModified() {
+		return content.isModified();
 	}
 
 	/**
-	 * @return Array being modified.
+	 * Creates a new array with the modifications applied. The editor continues editing from the new array.
+	 *
+	 * @return Modified content.
 	 */
 	public byte[] getContent() {
-		return content;
+		byte[] array = content.toArray();
+		content = new ByteOverlay(array);
+		return array;
 	}
 
 	/**
@@ -248,7 +249,7 @@ public class HexEditor extends BorderPane {
 		public int size() {
 			// We add DUMMY_PAD_LINES to the actual length so the table has a final "dummy" line.
 			// This allows the entire table to be visible with out scroll sync hack.
-			return DUMMY_PAD_LINES + (int) Math.ceil(content.length / (double) COLS_PER_LINE);
+			return DUMMY_PAD_LINES + (int) Math.ceil(content.size() / (double) COLS_PER_LINE);
 		}
 
 		@Override
@@ -96,6 +96,10 @@ public class ConfigPane extends ColumnPane {
 		editorOverrides.put("decompile.stripdebug", Toggle::new);
 		editorOverrides.put("decompile.showname", Toggle::new);
 		editorOverrides.put("decompile.timeout", (w) -> new NumberSlider<>(controller, w, 1_000, 20_000, 1_000));
+		editorOverrides.put("decompile.memorybudget", (w) -> new NumberSlider<>(controller, w, 0, 8_192, 1_024));
+		editorOverrides.put("decompile.fallback", Toggle::new);
+		editorOverrides.put("decompile.prefetch", Toggle::new);
+		editorOverrides.put("decompile.methodscope", (w) -> new NumberSlider<>(controller, w, 0, 4_096, 512));
 		hideUnsupported = true;
 		setupConfigControls(config);
 	}
@@ -3,6 +3,7 @@ package me.coley.recaf.ui.controls.pane;
 import javafx.geometry.Orientation;
 import javafx.scene.Node;
 import javafx.scene.control.*;
+import me.coley.recaf.config.ConfDecompile;
 import me.coley.recaf.control.Controller;
 import me.coley.recaf.control.gui.GuiController;
 import me.coley.recaf.search.*;
@@ -30,6 +31,7 @@ import static me.coley.recaf.util.LangUtil.translate;
  */
 @SuppressWarnings("unchecked")
 public class SearchPane extends SplitPane {
+	private static final int MAX_PREFETCH = 16;
 	private final Map<String, Input> inputMap = new HashMap<>();
 	private final TreeView tree = new TreeView();
 	private final Runnable searchAction;
@@ -177,6 +179,31 @@ public class SearchPane extends SplitPane {
 				)));
 		tree.setRoot(new SearchRootItem(workspace.getPrimary(), results, params));
 		JavaResourceTree.recurseOpen(tree.getRoot());
+		prefetchResults(controller, results);
+	}
+
+	/**
+	 * Queue classes of the first few results for background decompilation.
+	 *
+	 * @param controller
+	 * 		Controller for the workspace.
+	 * @param results
+	 * 		Search results.
+	 */
+	private void prefetchResults(Controller controller, List<SearchResult> results) {
+		ConfDecompile config = controller.config().decompile();
+		if (!config.prefetch)
+			return;
+		Set<String> names = new LinkedHashSet<>();
+		for (SearchResult result : results) {
+			if (names.size() >= MAX_PREFETCH)
+				break;
+			Context<?> context = result.getContext();
+			while (context.getParent() != null)
+				context = context.getParent();
+			names.add(((Context.ClassContext) context).getName());
+		}
+		controller.getDecompileService().getPrefetcher().prefetch(names, config.decompiler);
 	}
 
 	private SearchCollector buildDefinitionSearch(Workspace workspace) {
@@ -33,6 +33,7 @@ public class BytecodeEditorPane extends EditorPane<BytecodeErrorHandling, Byteco
 	private BytecodeStackHelper stackHelper;
 	private BytecodeLocalHelper localHelper;
 	private IconView errorGraphic;
+	private final IncrementalParser parser = new IncrementalParser();
 	private ParseResult<RootAST> lastParse;
 	protected final String className;
 	protected final boolean isMethod;
@@ -63,14 +64,18 @@ public class BytecodeEditorPane extends EditorPane<BytecodeErrorHandling, Byteco
 				new MethodAssembler(className, controller) : new FieldAssembler();
 
 		setOnCodeChange(text -> getErrorHandler().onCodeChange(() -> {
-			// Reset current cache
-			currentField = null;
-			currentMethod = null;
-			// Setup assembler & context handling
-			ParseResult<RootAST> result = Parse.parse(getText());
+			// Setup assembler & context handling, only lines that changed are parsed again
+			ParseResult<RootAST> result = parser.parse(getText());
 			if (result.isSuccess())
 				contextHandler.setAST(result.getRoot());
 			lastParse = result;
+			// Skip reassembly & verification if the edit did not change what was last assembled
+			boolean assembled = isMethod ? currentMethod != null : currentField != null;
+			if (assembled && !parser.isStructureChanged())
+				return;
+			// Reset current cache
+			currentField = null;
+			currentMethod = null;
 			if(isMethod) {
 				MethodAssembler assembler = (MethodAssembler) ass;
 				if (controller.config().assembler().useExistingData) {
@@ -16,6 +16,7 @@ import me.coley.recaf.ui.controls.IconView;
 import me.coley.recaf.util.*;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.analysis.Frame;
 
 /**
@@ -29,6 +30,8 @@ public class BytecodeStackHelper extends SplitPane {
 	private final ListView<Integer> stack = new ListView<>();
 	private Frame<AbstractValue> currentFrame;
 	private MethodAssembler assembler;
+	private MethodNode analyzedMethod;
+	private Frame<AbstractValue>[] analyzedFrames;
 	private int insnIndex;
 
 	/**
@@ -80,10 +83,12 @@ public class BytecodeStackHelper extends SplitPane {
 		int tmp = insnIndex;
 		insnIndex = -1;
 		// Find most recent selected item
+		MethodNode method = assembler.getLastCompile();
 		while(line > 0 && insnIndex == -1) {
 			AbstractInsnNode insn = assembler.getInsn(line);
+			// The instruction list caches indices, so repeated lookups do not walk the list
 			if (insn != null)
-				insnIndex = InsnUtil.index(insn);
+				insnIndex = method != null ? method.instructions.indexOf(insn) : InsnUtil.index(insn);
 			line--;
 		}
 		// Update if line changed
@@ -135,10 +140,16 @@ public class BytecodeStackHelper extends SplitPane {
 		Frame<AbstractValue>[] frames = assembler.getFrames();
 		if (frames == null && isVerifyDisabled()) {
 			// Generate the frames since the assembler didn't.
+			// Keep them until the method is assembled again, rather than analyzing on every line change.
+			MethodNode method = assembler.getLastCompile();
+			if (method == analyzedMethod)
+				return analyzedFrames;
+			analyzedMethod = method;
+			analyzedFrames = null;
 			try {
 				MethodAnalyzer analyzer = new MethodAnalyzer(new SimInterpreter());
 				analyzer.setSkipDeadCodeBlocks(false);
-				frames = analyzer.analyze(assembler.getDeclaringType(), assembler.getLastCompile());
+				frames = analyzedFrames = analyzer.analyze(assembler.getDeclaringType(), method);
 			} catch(Throwable t) {
 				// We will allow failures. Users should enable verification for more information.
 			}
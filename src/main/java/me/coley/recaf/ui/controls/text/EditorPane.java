@@ -14,7 +14,7 @@ import javafx.scene.shape.Polygon;
 import me.coley.recaf.control.gui.GuiController;
 import me.coley.recaf.ui.controls.SearchBar;
 import me.coley.recaf.ui.controls.text.model.*;
-import me.coley.recaf.util.ThreadUtil;
+import me.coley.recaf.util.CoalescingScheduler;
 import me.coley.recaf.util.struct.Pair;
 import org.fxmisc.flowless.VirtualizedScrollPane;
 import org.fxmisc.richtext.CodeArea;
@@ -37,6 +37,7 @@ import java.util.function.*;
  * @author Matt
  */
 public class EditorPane<E extends ErrorHandling, C extends ContextHandling> extends BorderPane {
+	private static final int DEFAULT_VISIBLE_LENGTH = 8192;
 	protected final GuiController controller;
 	protected final CodeArea codeArea = new CodeArea();
 	protected final C contextHandler;
@@ -44,6 +45,7 @@ public class EditorPane<E extends ErrorHandling, C extends ContextHandling> exte
 	protected final ErrorList errorList = new ErrorList(this);
 	protected final SplitPane split;
 	private final SearchBar search = new SearchBar(codeArea::getText);
+	private final CoalescingScheduler updateScheduler;
 	private Consumer<String> onCodeChange;
 	private E errHandler;
 
@@ -58,6 +60,7 @@ public class EditorPane<E extends ErrorHandling, C extends ContextHandling> exte
 	public EditorPane(GuiController controller, Language language, BiFunction<GuiController, CodeArea, C> handlerFunc) {
 		this.controller = controller;
 		this.contextHandler = handlerFunc.apply(controller, codeArea);
+		this.updateScheduler = new CoalescingScheduler(controller.config().display().editorUpdateDelay);
 		getStyleClass().add("editor-pane");
 		setupCodeArea(language);
 		setupSearch();
@@ -90,15 +93,28 @@ public class EditorPane<E extends ErrorHandling, C extends ContextHandling> exte
 			return hbox;
 		};
 		Platform.runLater(() -> codeArea.setParagraphGraphicFactory(decorationFactory));
-		LanguageStyler styler = new LanguageStyler(language);
+		IncrementalStyler styler = new IncrementalStyler(language);
 		codeArea.richChanges()
 				.filter(ch -> !ch.isPlainTextIdentity())
 				.filter(ch -> !ch.getInserted().equals(ch.getRemoved()))
-				.subscribe(change -> ThreadUtil.runSupplyConsumer(() -> {
-					if(onCodeChange != null)
-						onCodeChange.accept(codeArea.getText());
-					return styler.computeStyle(codeArea.getText());
-				}, computedStyle -> codeArea.setStyleSpans(0, computedStyle)));
+				.subscribe(change -> {
+					String text = codeArea.getText();
+					styler.submit(text, change.getPosition(), change.getRemovalEnd() - change.getPosition(),
+							change.getInsertionEnd() - change.getPosition());
+					int priorityEnd = getVisibleEnd();
+					// Only the last change of a burst is handled, the styler processes all changes at once
+					updateScheduler.schedule(generation -> {
+						// Updates are applied in the order they are given, and skipped if already outdated
+						styler.process(priorityEnd, update -> Platform.runLater(() -> {
+							if(!styler.isCurrent(update))
+								return;
+							codeArea.setStyleSpans(update.getOffset(), update.getSpans());
+							styler.applied(update);
+						}));
+						if(onCodeChange != null && updateScheduler.isCurrent(generation))
+							onCodeChange.accept(text);
+					});
+				});
 		// So, tabs are hard-coded to be 8-characters wide visually until JavaFX 14
 		// Its not great, but using 4 actual spaces is a good enough solution.
 		InputMap<KeyEvent> im = InputMap.consume(
@@ -108,6 +124,17 @@ public class EditorPane<E extends ErrorHandling, C extends ContextHandling> exte
 		Nodes.addInputMap(codeArea, im);
 	}
 
+	/**
+	 * @return Offset of the end of the last visible paragraph. If the area has not been shown yet, the first
+	 * {@link #DEFAULT_VISIBLE_LENGTH characters} are assumed to be visible.
+	 */
+	private int getVisibleEnd() {
+		if(codeArea.getVisibleParagraphs().isEmpty())
+			return Math.min(codeArea.getLength(), DEFAULT_VISIBLE_LENGTH);
+		int paragraph = codeArea.lastVisibleParToAllParIndex();
+		return codeArea.getAbsolutePosition(paragraph, codeArea.getParagraphLength(paragraph));
+	}
+
 	private void setupSearch() {
 		setOnKeyPressed(e -> {
 			if(controller.config().keys().find.match(e)) {
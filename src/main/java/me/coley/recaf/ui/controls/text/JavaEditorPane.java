@@ -60,6 +60,9 @@ public class JavaEditorPane extends EditorPane<JavaErrorHandling, JavaContextHan
 			else if(controller.config().keys().rename.match(e))
 				contextHandler.openRenameInput();
 		});
+		// Load javac ahead of time so the first save is not delayed by it
+		if (resource.isPrimary() && canCompile())
+			ThreadUtil.run(() -> controller.getJavacService().warmup());
 	}
 
 	private void parseCode() throws SourceCodeException {
@@ -120,7 +123,7 @@ public class JavaEditorPane extends EditorPane<JavaErrorHandling, JavaContextHan
 			classVersion = maxSupportedVersion;
 		javac.options().setTarget(classVersion);
 		javac.setCompileListener(getErrorHandler());
-		if (javac.compile())
+		if (controller.getJavacService().compile(javac))
 			return javac.getUnits();
 		else
 			throw new IllegalStateException("Failed compile due to compilation errors");
@@ -0,0 +1,485 @@
+package me.coley.recaf.ui.controls.text.model;
+
+import jregex.Matcher;
+import org.fxmisc.richtext.model.StyleSpans;
+import org.fxmisc.richtext.model.StyleSpansBuilder;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Styler that keeps the styled regions of the text between changes. Only the lines around a change are
+ * matched again, starting from the end of the last region before the line preceding the change. If that line
+ * starts inside a region spanning multiple lines, such as a block comment, matching starts before that region
+ * instead. Matching stops once it finds a region after the change that is the same as before the change, since
+ * the rest of the text will match the same way it did before.
+ * <br>
+ * Each region also records if the text between it and the previous region has a match that continues past the
+ * end of its line without being completed, such as a comment that is never closed. A change further down may
+ * complete it, so the text is first matched again from each such gap before the change, until a region is found
+ * that is the same as before.
+ * <br>
+ * Changes are {@link #submit(String, int, int, int) submitted} in the order they are made, and are
+ * {@link #process(int, Consumer) processed} in batches. The resulting updates must be applied in the order
+ * they are given, and {@link #applied(Update) confirmed} once applied, so that ranges of updates that became
+ * outdated before they could be applied are styled again by the next update.
+ *
+ * @author Matt
+ */
+public class IncrementalStyler {
+	private final Queue<Change> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicLong submitted = new AtomicLong();
+	private final LanguageStyler styler;
+	private volatile long applied = -1;
+	private long processed = -1;
+	private Tokens tokens;
+	private int length;
+	private int pendingStart = -1;
+	private int pendingEnd;
+
+	/**
+	 * @param language
+	 * 		Language with rules to apply to text.
+	 */
+	public IncrementalStyler(Language language) {
+		this.styler = new LanguageStyler(language);
+	}
+
+	/**
+	 * @param text
+	 * 		Text after the change.
+	 * @param position
+	 * 		Offset of the change.
+	 * @param removed
+	 * 		Length of the removed text.
+	 * @param inserted
+	 * 		Length of the inserted text.
+	 */
+	public void submit(String text, int position, int removed, int inserted) {
+		queue.add(new Change(submitted.getAndIncrement(), text, position, removed, inserted));
+	}
+
+	/**
+	 * Restyles the text of all submitted changes.
+	 *
+	 * @param priorityEnd
+	 * 		Offset in the text to give an early update for, such as the end of the visible text.
+	 * @param consumer
+	 * 		Consumer of style updates. Is not called if there are no changes to process.
+	 */
+	public synchronized void process(int priorityEnd, Consumer<Update> consumer) {
+		Change change = null;
+		for(Change next; (next = queue.poll()) != null; )
+			change = change == null ? next : change.merge(next);
+		if(change == null)
+			return;
+		// Drop the pending range if the last update was applied
+		if(applied == processed)
+			pendingStart = -1;
+		processed = change.id;
+		String text = change.text;
+		Matcher matcher = styler.matcher(text);
+		int[] range;
+		if(tokens == null || length + change.delta() != text.length()) {
+			tokens = new Tokens();
+			pendingStart = -1;
+			range = rescan(change, matcher, 0, 0, 0, 0, priorityEnd, consumer);
+		} else {
+			// Resume matching after the last region before the line preceding the change.
+			// The region found first may start on an earlier line, and is then matched again from its start.
+			int keep = tokens.indexAfter(lineStart(text, lineStart(text, change.position) - 1));
+			int resyncStart = change.position + change.inserted;
+			range = null;
+			boolean matchedChange = false;
+			// Matches left open before that may now be completed, so they are matched again first
+			int open = tokens.nextOpen(0, keep);
+			while(open >= 0) {
+				int size = tokens.size;
+				int[] openRange = rescan(change, matcher, start(open), open, keep, resyncStart, priorityEnd, consumer);
+				// Unless the same regions were found again
+				if(openRange[2] < 0 || openRange[1] > openRange[0])
+					range = union(range, openRange);
+				if(openRange[2] < 0) {
+					matchedChange = true;
+					break;
+				}
+				keep += tokens.size - size;
+				open = tokens.nextOpen(openRange[2] + 1, keep);
+			}
+			if(!matchedChange)
+				range = union(range, rescan(change, matcher, start(keep), keep, keep, resyncStart, priorityEnd,
+						consumer));
+		}
+		length = text.length();
+		if(pendingStart < 0) {
+			pendingStart = range[0];
+			pendingEnd = range[1];
+		} else {
+			if(pendingEnd > change.position) {
+				pendingStart = Math.min(pendingStart, change.position);
+				pendingEnd = Math.max(pendingEnd, change.position + change.removed) + change.delta();
+			}
+			pendingStart = Math.min(pendingStart, range[0]);
+			pendingEnd = Math.min(Math.max(pendingEnd, range[1]), length);
+		}
+		StyleSpans<Collection<String>> spans = tokens.toSpans(pendingStart, pendingEnd);
+		if(spans != null)
+			consumer.accept(new Update(change.id, pendingStart, spans, false));
+	}
+
+	/**
+	 * @param update
+	 * 		Update that was applied.
+	 */
+	public void applied(Update update) {
+		if(!update.partial)
+			applied = update.id;
+	}
+
+	/**
+	 * @param update
+	 * 		Some update.
+	 *
+	 * @return {@code true} if no changes were submitted since the changes of the update.
+	 */
+	public boolean isCurrent(Update update) {
+		return update.id == submitted.get() - 1;
+	}
+
+	/**
+	 * Forget the styles of the previous text.
+	 */
+	public synchronized void reset() {
+		tokens = null;
+		pendingStart = -1;
+	}
+
+	/**
+	 * Match the text again, replacing the current regions from the start offset up to the first match that is
+	 * the same as a current region.
+	 *
+	 * @param change
+	 * 		Change with the text to match.
+	 * @param matcher
+	 * 		Matcher over the text.
+	 * @param start
+	 * 		Offset to start matching at. Must be the end of a current region, or zero.
+	 * @param keep
+	 * 		Number of current regions before the start offset.
+	 * @param limit
+	 * 		Number of current regions before the change. A match that is the same as one of these also ends
+	 * 		matching, as the text after it is the same up to the change.
+	 * @param resyncStart
+	 * 		Offset after which a match that is the same as a current region ends matching.
+	 * 		Current regions past the change are compared by their offset before the change.
+	 * @param priorityEnd
+	 * 		Offset to give an early update for.
+	 * @param consumer
+	 * 		Consumer of the early update.
+	 *
+	 * @return Range of regions that were matched, followed by the index of the region before the change that
+	 * ended matching, or {@code -1} if matching went past the change.
+	 */
+	private int[] rescan(Change change, Matcher matcher, int start, int keep, int limit, int resyncStart,
+						 int priorityEnd, Consumer<Update> consumer) {
+		String text = change.text;
+		Tokens old = tokens;
+		// Offsets of current regions are before the change
+		int delta = change.delta();
+		int shiftStart = change.position + change.inserted;
+		Tokens scanned = new Tokens();
+		int[] resync = {-1};
+		boolean[] flushed = {priorityEnd <= start};
+		int[] last = {start};
+		styler.scan(matcher, start, (s, e, styleClass) -> {
+			int i = -1;
+			if(s >= resyncStart) {
+				int shift = s >= shiftStart ? delta : 0;
+				i = Arrays.binarySearch(old.starts, keep, old.size, s - shift);
+				if(i >= 0 && (old.ends[i] != e - shift || !old.styles[i].equals(styleClass)))
+					i = -1;
+			} else if(keep < limit) {
+				i = Arrays.binarySearch(old.starts, keep, limit, s);
+				if(i >= 0 && (old.ends[i] != e || !old.styles[i].equals(styleClass)))
+					i = -1;
+			}
+			// Rules before the one that matched may be left open at the start of the region too,
+			// which can only be told apart from the region itself if it stays on its line
+			int lineEnd = text.indexOf('\n', s);
+			boolean open = styler.isOpen(text, last[0], lineEnd < 0 || lineEnd >= e ? s + 1 : s);
+			if(i >= 0) {
+				// The text before the region was matched again
+				old.open[i] = open;
+				resync[0] = i;
+				return false;
+			}
+			if(!flushed[0] && s >= priorityEnd) {
+				flushed[0] = true;
+				StyleSpans<Collection<String>> spans = scanned.toSpans(start, s);
+				if(spans != null)
+					consumer.accept(new Update(change.id, start, spans, true));
+			}
+			scanned.add(s, e, styleClass, open);
+			last[0] = e;
+			return true;
+		});
+		int end = text.length();
+		int oldEnd = old.size;
+		int next = -1;
+		if(resync[0] >= 0 && resync[0] < limit) {
+			// Regions from the resync onwards are as before. Those past the change are moved when it is matched.
+			// Nothing changed if the region found first is the same as before.
+			oldEnd = resync[0];
+			end = scanned.size == 0 && oldEnd == keep ? start : old.starts[oldEnd];
+			next = keep + scanned.size;
+		} else if(resync[0] >= 0) {
+			// Regions from the resync onwards are past the change
+			oldEnd = resync[0];
+			end = old.starts[oldEnd] + delta;
+		}
+		old.replace(keep, oldEnd, scanned, next < 0 ? delta : 0);
+		length = text.length();
+		return new int[]{start, end, next};
+	}
+
+	/**
+	 * @param range
+	 * 		Some range, or {@code null}.
+	 * @param other
+	 * 		Another range.
+	 *
+	 * @return Range covering both.
+	 */
+	private static int[] union(int[] range, int[] other) {
+		if(range == null)
+			return other;
+		return new int[]{Math.min(range[0], other[0]), Math.max(range[1], other[1])};
+	}
+
+	/**
+	 * @param index
+	 * 		Index of a current region.
+	 *
+	 * @return Offset of the end of the region before it, or zero.
+	 */
+	private int start(int index) {
+		return index == 0 ? 0 : tokens.ends[index - 1];
+	}
+
+	/**
+	 * @param text
+	 * 		Some text.
+	 * @param offset
+	 * 		Offset in the text.
+	 *
+	 * @return Offset of the start of the line containing the given offset.
+	 */
+	private static int lineStart(String text, int offset) {
+		if(offset <= 0)
+			return 0;
+		return text.lastIndexOf('\n', offset - 1) + 1;
+	}
+
+	/**
+	 * Styles for a range of the text.
+	 */
+	public static class Update {
+		private final long id;
+		private final int offset;
+		private final StyleSpans<Collection<String>> spans;
+		private final boolean partial;
+
+		private Update(long id, int offset, StyleSpans<Collection<String>> spans, boolean partial) {
+			this.id = id;
+			this.offset = offset;
+			this.spans = spans;
+			this.partial = partial;
+		}
+
+		/**
+		 * @return Offset in the text to apply the styles at.
+		 */
+		public int getOffset() {
+			return offset;
+		}
+
+		/**
+		 * @return Styles to apply.
+		 */
+		public StyleSpans<Collection<String>> getSpans() {
+			return spans;
+		}
+
+		/**
+		 * @return {@code true} if the update only covers the priority range, and will be followed by the
+		 * full update.
+		 */
+		public boolean isPartial() {
+			return partial;
+		}
+	}
+
+	/**
+	 * Submitted change to the text.
+	 */
+	private static class Change {
+		private final long id;
+		private final String text;
+		private final int position;
+		private final int removed;
+		private final int inserted;
+
+		private Change(long id, String text, int position, int removed, int inserted) {
+			this.id = id;
+			this.text = text;
+			this.position = position;
+			this.removed = removed;
+			this.inserted = inserted;
+		}
+
+		private int delta() {
+			return inserted - removed;
+		}
+
+		/**
+		 * @param next
+		 * 		Change made after this one.
+		 *
+		 * @return Single change covering both changes.
+		 */
+		private Change merge(Change next) {
+			int start = Math.min(position, next.position);
+			int end = position + inserted;
+			// End of the combined change, in the text before this change
+			int oldEnd = Math.max(position + removed, next.position + next.removed - delta());
+			int newEnd = Math.max(end, next.position + next.removed) + next.delta();
+			return new Change(next.id, next.text, start, oldEnd - start, newEnd - start);
+		}
+	}
+
+	/**
+	 * Ordered styled regions.
+	 */
+	private static class Tokens {
+		private int[] starts = new int[16];
+		private int[] ends = new int[16];
+		private String[] styles = new String[16];
+		// If the text between the previous region and a region has a match that is left open
+		private boolean[] open = new boolean[16];
+		private int size;
+
+		private void add(int start, int end, String style, boolean open) {
+			ensureCapacity(size + 1);
+			starts[size] = start;
+			ends[size] = end;
+			styles[size] = style;
+			this.open[size] = open;
+			size++;
+		}
+
+		/**
+		 * Replaces a range of regions in place, so the regions around it are not copied.
+		 *
+		 * @param from
+		 * 		Index of the first region to replace.
+		 * @param to
+		 * 		Index after the last region to replace.
+		 * @param with
+		 * 		Regions to insert instead.
+		 * @param delta
+		 * 		Offset to move the regions after the range by.
+		 */
+		private void replace(int from, int to, Tokens with, int delta) {
+			int tail = size - to;
+			int newSize = from + with.size + tail;
+			ensureCapacity(newSize);
+			int tailStart = from + with.size;
+			System.arraycopy(starts, to, starts, tailStart, tail);
+			System.arraycopy(ends, to, ends, tailStart, tail);
+			System.arraycopy(styles, to, styles, tailStart, tail);
+			System.arraycopy(open, to, open, tailStart, tail);
+			System.arraycopy(with.starts, 0, starts, from, with.size);
+			System.arraycopy(with.ends, 0, ends, from, with.size);
+			System.arraycopy(with.styles, 0, styles, from, with.size);
+			System.arraycopy(with.open, 0, open, from, with.size);
+			if(delta != 0) {
+				for(int i = tailStart; i < newSize; i++) {
+					starts[i] += delta;
+					ends[i] += delta;
+				}
+			}
+			Arrays.fill(styles, newSize, Math.max(newSize, size), null);
+			size = newSize;
+		}
+
+		private void ensureCapacity(int capacity) {
+			if(capacity <= starts.length)
+				return;
+			capacity = Math.max(capacity, starts.length * 2);
+			starts = Arrays.copyOf(starts, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			styles = Arrays.copyOf(styles, capacity);
+			open = Arrays.copyOf(open, capacity);
+		}
+
+		/**
+		 * @param from
+		 * 		Index of the first region to check.
+		 * @param to
+		 * 		Index after the last region to check.
+		 *
+		 * @return Index of the first region in the range with a match left open before it, or {@code -1} if none.
+		 */
+		private int nextOpen(int from, int to) {
+			for(int i = from; i < to; i++)
+				if(open[i])
+					return i;
+			return -1;
+		}
+
+		/**
+		 * @param offset
+		 * 		Offset in the text.
+		 *
+		 * @return Index of the first region ending after the offset.
+		 */
+		private int indexAfter(int offset) {
+			int low = 0;
+			int high = size;
+			while(low < high) {
+				int mid = (low + high) >>> 1;
+				if(ends[mid] <= offset)
+					low = mid + 1;
+				else
+					high = mid;
+			}
+			return low;
+		}
+
+		/**
+		 * @param from
+		 * 		Start of the range.
+		 * @param to
+		 * 		End of the range.
+		 *
+		 * @return Styles of the range, or {@code null} if the range is empty.
+		 */
+		private StyleSpans<Collection<String>> toSpans(int from, int to) {
+			if(to <= from)
+				return null;
+			StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
+			int last = from;
+			for(int i = indexAfter(from); i < size && starts[i] < to; i++) {
+				int start = Math.max(starts[i], from);
+				int end = Math.min(ends[i], to);
+				spansBuilder.add(Collections.emptyList(), start - last);
+				spansBuilder.add(Collections.singleton(styles[i]), end - start);
+				last = end;
+			}
+			spansBuilder.add(Collections.emptyList(), to - last);
+			return spansBuilder.create();
+		}
+	}
+}
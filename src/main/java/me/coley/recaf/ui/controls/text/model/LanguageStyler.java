@@ -8,13 +8,18 @@ import org.fxmisc.richtext.model.StyleSpans;
 import org.fxmisc.richtext.model.StyleSpansBuilder;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility for applying a given theme to some text based on the given language rule-set.
+ * <br>
+ * The combined pattern of a language's rules is compiled once per language, and shared by all stylers
+ * of the language.
  *
  * @author Matt
  */
 public class LanguageStyler {
+	private static final Map<Language, CompiledRules> COMPILED = new ConcurrentHashMap<>();
 	private Language language;
 
 	/**
@@ -34,58 +39,169 @@ public class LanguageStyler {
 	 * @return Stylized regions of the text <i>(via css tags)</i>.
 	 */
 	public StyleSpans<Collection<String>> computeStyle(String text) {
-		Matcher matcher = getPattern().matcher(text);
-		int lastKwEnd = 0;
 		StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
+		int[] lastKwEnd = {0};
+		scan(matcher(text), 0, (start, end, styleClass) -> {
+			spansBuilder.add(Collections.emptyList(), start - lastKwEnd[0]);
+			spansBuilder.add(Collections.singleton(styleClass), end - start);
+			lastKwEnd[0] = end;
+			return true;
+		});
+		spansBuilder.add(Collections.emptyList(), text.length() - lastKwEnd[0]);
+		return spansBuilder.create();
+	}
+
+	/**
+	 * @param text
+	 * 		Text to apply styles to.
+	 *
+	 * @return Matcher of the rules over the text, which can be scanned from different offsets without copying
+	 * the text again.
+	 */
+	Matcher matcher(String text) {
+		return getRules().pattern.matcher(text);
+	}
+
+	/**
+	 * Find styled regions of the text.
+	 *
+	 * @param matcher
+	 * 		Matcher over the text, see {@link #matcher(String)}.
+	 * @param from
+	 * 		Offset in the text to start matching at.
+	 * @param visitor
+	 * 		Visitor of found regions, in order.
+	 */
+	void scan(Matcher matcher, int from, TokenVisitor visitor) {
+		CompiledRules rules = getRules();
+		matcher.setPosition(from);
 		try {
 			while(matcher.find()) {
-				String styleClass = getClassFromGroup(matcher);
+				String styleClass = rules.getClassFromGroup(matcher);
 				if(styleClass == null)
 					styleClass = "text";
-				spansBuilder.add(Collections.emptyList(), matcher.start() - lastKwEnd);
-				spansBuilder.add(Collections.singleton(styleClass), matcher.end() - matcher.start());
-				lastKwEnd = matcher.end();
+				if(!visitor.visit(matcher.start(), matcher.end(), styleClass))
+					return;
 			}
 		} catch(NullPointerException npe) {
 			// There was once some odd behavior in 'matcher.find()' which caused NPE...
 			// This seems to have been fixed, but we will check for regressions
 			Log.error(npe, "Error occurred when computing styles:");
 		}
-		spansBuilder.add(Collections.emptyList(), text.length() - lastKwEnd);
-		return spansBuilder.create();
+	}
+
+	/**
+	 * Check text for matches that are left open, such as a comment that is never closed. Changes to the text
+	 * after the line of such a match may complete it.
+	 *
+	 * @param text
+	 * 		Text to check.
+	 * @param from
+	 * 		Offset of the start of the range. The range has no regions, other than one at its end that ends
+	 * 		on the line it starts on.
+	 * @param to
+	 * 		Offset of the end of the range.
+	 *
+	 * @return {@code true} if a match starting in the range continues past the end of its line without being
+	 * completed there.
+	 */
+	boolean isOpen(String text, int from, int to) {
+		Matcher matcher = null;
+		while(from < to) {
+			int lineEnd = text.indexOf('\n', from);
+			lineEnd = lineEnd < 0 ? text.length() : lineEnd + 1;
+			// Matches that need more text than the rest of the line are reported as incomplete
+			String line = text.substring(from, lineEnd);
+			if(matcher == null)
+				matcher = matcher(line);
+			else
+				matcher.setTarget(line);
+			while(matcher.find(Matcher.ACCEPT_INCOMPLETE)) {
+				int start = matcher.start();
+				if(start >= to - from || start >= line.length())
+					break;
+				if(matcher.end() == line.length()) {
+					matcher.setPosition(start);
+					if(!matcher.find(Matcher.ANCHOR_START) || matcher.end() != line.length())
+						return true;
+				}
+			}
+			from = lineEnd;
+		}
+		return false;
 	}
 
 	/**
 	 * @return Compiled regex pattern from {@link #getRules() all existing rules}.
 	 */
 	public Pattern getPattern() {
-		if(getRules().isEmpty())
-			return RegexUtil.pattern("({EMPTY}EMPTY)");
-		StringBuilder sb = new StringBuilder();
-		for(Rule rule : getRules())
-			sb.append("({" + rule.getPatternGroupName() + "}" + rule.getPattern() + ")|");
-		return RegexUtil.pattern(sb.substring(0, sb.length() - 1));
+		return getRules().pattern;
 	}
 
 	/**
-	 * @return List of language rules.
+	 * @return Compiled rules of the language.
 	 */
-	private List<Rule> getRules() {
-		return language.getRules();
+	private CompiledRules getRules() {
+		return COMPILED.computeIfAbsent(language, CompiledRules::new);
 	}
 
 	/**
-	 * Fetch the CSS class name to use based on the matched group.
-	 *
-	 * @param matcher
-	 * 		Matcher that has found a group.
-	 *
-	 * @return CSS class name <i>(Raw name of regex rule)</i>
+	 * Visitor of styled regions.
+	 */
+	interface TokenVisitor {
+		/**
+		 * @param start
+		 * 		Start offset of the region.
+		 * @param end
+		 * 		End offset of the region.
+		 * @param styleClass
+		 * 		CSS class name of the region.
+		 *
+		 * @return {@code true} to continue matching, {@code false} to stop.
+		 */
+		boolean visit(int start, int end, String styleClass);
+	}
+
+	/**
+	 * Combined pattern of a language's rules, with the group of each rule looked up in advance.
 	 */
-	private String getClassFromGroup(Matcher matcher) {
-		for(Rule rule : getRules())
-			if(matcher.group(rule.getPatternGroupName()) != null)
-				return rule.getName();
-		return null;
+	private static class CompiledRules {
+		private final Pattern pattern;
+		private final int[] groups;
+		private final String[] names;
+
+		private CompiledRules(Language language) {
+			List<Rule> rules = language.getRules();
+			groups = new int[rules.size()];
+			names = new String[rules.size()];
+			if(rules.isEmpty()) {
+				pattern = RegexUtil.pattern("({EMPTY}EMPTY)");
+				return;
+			}
+			StringBuilder sb = new StringBuilder();
+			for(Rule rule : rules)
+				sb.append("({" + rule.getPatternGroupName() + "}" + rule.getPattern() + ")|");
+			pattern = RegexUtil.pattern(sb.substring(0, sb.length() - 1));
+			for(int i = 0; i < rules.size(); i++) {
+				Rule rule = rules.get(i);
+				groups[i] = pattern.groupId(rule.getPatternGroupName());
+				names[i] = rule.getName();
+			}
+		}
+
+		/**
+		 * Fetch the CSS class name to use based on the matched group.
+		 *
+		 * @param matcher
+		 * 		Matcher that has found a group.
+		 *
+		 * @return CSS class name <i>(Raw name of regex rule)</i>
+		 */
+		private String getClassFromGroup(Matcher matcher) {
+			for(int i = 0; i < groups.length; i++)
+				if(matcher.isCaptured(groups[i]))
+					return names[i];
+			return null;
+		}
 	}
 }
@@ -15,6 +15,10 @@ public class DirectoryItem extends BaseItem implements Comparable<DirectoryItem>
 	private final Map<String, DirectoryItem> localToDir = new HashMap<>();
 	private final Map<String, DirectoryItem> localToLeaf = new HashMap<>();
 	private final String local;
+	// Lazily populated directories
+	private FolderItem folder;
+	private String prefix;
+	private boolean loaded = true;
 
 
 	/**
@@ -30,18 +34,69 @@ public class DirectoryItem extends BaseItem implements Comparable<DirectoryItem>
 
 	@Override
 	public void removeSourceChild(TreeItem<JavaResource> child) {
-		boolean isClass = child instanceof ClassItem;
-		boolean isDir = child instanceof PackageItem;
-		if (isClass || isDir) {
+		if (child instanceof DirectoryItem) {
 			String childLocal = ((DirectoryItem) child).local;
-			if (isClass)
-				localToLeaf.remove(childLocal);
-			else
-				localToDir.remove(childLocal);
+			localToLeaf.remove(childLocal, child);
+			localToDir.remove(childLocal, child);
 		}
 		super.removeSourceChild(child);
 	}
 
+	@Override
+	public boolean isLeaf() {
+		// Directories are only created for names, so there are children to populate
+		return loaded && super.isLeaf();
+	}
+
+	/**
+	 * Mark the directory to be populated by the folder when first expanded or looked up.
+	 *
+	 * @param folder
+	 * 		Folder that populates the directory.
+	 * @param prefix
+	 * 		Display path prefix of names in the directory.
+	 */
+	void setLazy(FolderItem folder, String prefix) {
+		this.folder = folder;
+		this.prefix = prefix;
+		this.loaded = false;
+		expandedProperty().addListener((ob, old, expanded) -> {
+			if (expanded)
+				load();
+		});
+	}
+
+	/**
+	 * @return {@code true} if the children of the directory have been created.
+	 */
+	boolean isLoaded() {
+		return loaded;
+	}
+
+	/**
+	 * @return Display path prefix of names in the directory.
+	 */
+	String getPrefix() {
+		return prefix;
+	}
+
+	/**
+	 * @return Folder that populates the directory.
+	 */
+	FolderItem getFolder() {
+		return folder;
+	}
+
+	/**
+	 * Create the children of the directory, if not yet created.
+	 */
+	private void load() {
+		if (loaded)
+			return;
+		loaded = true;
+		folder.load(this);
+	}
+
 
 	/**
 	 * Used for display.
@@ -79,11 +134,46 @@ public class DirectoryItem extends BaseItem implements Comparable<DirectoryItem>
 	 * @return Child item by local name.
 	 */
 	public DirectoryItem getChild(String local, boolean isLeaf) {
+		load();
+		return getLoadedChild(local, isLeaf);
+	}
+
+	/**
+	 * @param local
+	 * 		Local name of child.
+	 * @param isLeaf
+	 * 		Does the local name belong to a leaf.
+	 *
+	 * @return Child item by local name, without populating the directory.
+	 */
+	DirectoryItem getLoadedChild(String local, boolean isLeaf) {
 		if (isLeaf)
 			return localToLeaf.get(local);
 		return localToDir.get(local);
 	}
 
+	/**
+	 * Add the children of a populated directory.
+	 *
+	 * @param directories
+	 * 		Child directories.
+	 * @param leaves
+	 * 		Child leaves.
+	 */
+	void addChildren(List<DirectoryItem> directories, List<DirectoryItem> leaves) {
+		List<DirectoryItem> children = new ArrayList<>(directories.size() + leaves.size());
+		for (DirectoryItem child : directories) {
+			localToDir.put(child.local, child);
+			children.add(child);
+		}
+		for (DirectoryItem child : leaves) {
+			localToLeaf.put(child.local, child);
+			children.add(child);
+		}
+		Collections.sort(children);
+		addSourceChildren(children);
+	}
+
 	/**
 	 * A path is specified as multiple local names joined by '/'.
 	 *
@@ -2,6 +2,7 @@ package me.coley.recaf.ui.controls.tree;
 
 import java.lang.reflect.Field;
 import java.util.Arrays;
+import java.util.List;
 import java.util.function.Predicate;
 
 import javafx.beans.binding.Bindings;
@@ -90,6 +91,16 @@ public class FilterableTreeItem<T> extends TreeItem<T> {
 		sourceChildren.add(index, item);
 	}
 
+	/**
+	 * Add unfiltered children to this item, in a single change.
+	 *
+	 * @param items
+	 * 		Sorted child items to add. The item should not have any children yet.
+	 */
+	public void addSourceChildren(List<? extends TreeItem<T>> items) {
+		sourceChildren.addAll(items);
+	}
+
 	/**
 	 * Remove an unfiltered child from this item.
 	 *
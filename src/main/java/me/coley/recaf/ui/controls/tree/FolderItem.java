@@ -0,0 +1,201 @@
+package me.coley.recaf.ui.controls.tree;
+
+import me.coley.recaf.Recaf;
+import me.coley.recaf.workspace.JavaResource;
+
+import java.util.*;
+
+/**
+ * Tree item containing a directory structure of names. Directory items are only populated when first
+ * expanded or looked up, using a sorted index of the names.
+ *
+ * @author Matt
+ */
+public abstract class FolderItem extends DirectoryItem {
+	// Display path to full name
+	private final NavigableMap<String, String> paths = new TreeMap<>();
+	private final int maxDepth = Recaf.getController().config().display().maxTreeDepth;
+
+	/**
+	 * @param resource
+	 * 		The resource associated with the item.
+	 * @param local
+	 * 		Display name of the folder.
+	 * @param names
+	 * 		Names to display in the folder.
+	 */
+	public FolderItem(JavaResource resource, String local, Collection<String> names) {
+		super(resource, local);
+		for(String name : names)
+			paths.putIfAbsent(getDisplayPath(name), name);
+		setLazy(this, "");
+	}
+
+	/**
+	 * @param local
+	 * 		Local name of the directory.
+	 * @param path
+	 * 		Display path of the directory.
+	 *
+	 * @return New directory item.
+	 */
+	protected abstract DirectoryItem createDirectory(String local, String path);
+
+	/**
+	 * @param local
+	 * 		Local name of the item.
+	 * @param name
+	 * 		Full name of the item.
+	 *
+	 * @return New leaf item.
+	 */
+	protected abstract DirectoryItem createLeaf(String local, String name);
+
+	/**
+	 * Add a name to the folder. Items are only created if the directory the name belongs in is populated.
+	 *
+	 * @param name
+	 * 		Full name of the item.
+	 */
+	public void add(String name) {
+		String path = getDisplayPath(name);
+		if(paths.putIfAbsent(path, name) != null)
+			return;
+		DirectoryItem item = this;
+		String[] parts = path.split("/");
+		for(int i = 0; i < parts.length; i++) {
+			// Directories that are not populated will include the name when they are
+			if(!item.isLoaded())
+				return;
+			String part = parts[i];
+			boolean isLeaf = i == parts.length - 1;
+			DirectoryItem child = item.getLoadedChild(part, isLeaf);
+			if(child == null) {
+				child = isLeaf ? createLeaf(part, name) : createLazyDirectory(part, item.getPrefix() + part);
+				item.addChild(part, child, isLeaf);
+			}
+			item = child;
+		}
+	}
+
+	/**
+	 * Remove a name from the folder. Only items that have been created are updated.
+	 *
+	 * @param name
+	 * 		Full name of the item.
+	 */
+	public void remove(String name) {
+		String path = getDisplayPath(name);
+		if(!name.equals(paths.get(path)))
+			return;
+		paths.remove(path);
+		DirectoryItem item = this;
+		String[] parts = path.split("/");
+		for(int i = 0; i < parts.length; i++) {
+			if(!item.isLoaded()) {
+				// Remove the directory if it no longer contains anything
+				if(item != this && !hasEntries(item.getPrefix()))
+					prune(item);
+				return;
+			}
+			item = item.getLoadedChild(parts[i], i == parts.length - 1);
+			if(item == null)
+				return;
+		}
+		prune(item);
+	}
+
+	/**
+	 * @param name
+	 * 		Full name of the item.
+	 *
+	 * @return Item of the name, populating the directories leading to it. {@code null} if not in the folder.
+	 */
+	public DirectoryItem getItem(String name) {
+		return getDeepChild(getDisplayPath(name));
+	}
+
+	/**
+	 * Populate the children of a directory.
+	 *
+	 * @param directory
+	 * 		Directory in this folder.
+	 */
+	void load(DirectoryItem directory) {
+		String prefix = directory.getPrefix();
+		List<DirectoryItem> leaves = new ArrayList<>();
+		List<DirectoryItem> directories = new ArrayList<>();
+		String key = paths.ceilingKey(prefix);
+		while(key != null && key.startsWith(prefix)) {
+			String rest = key.substring(prefix.length());
+			int slash = rest.indexOf('/');
+			if(slash < 0) {
+				leaves.add(createLeaf(rest, paths.get(key)));
+				key = paths.higherKey(key);
+			} else {
+				String part = rest.substring(0, slash);
+				directories.add(createLazyDirectory(part, prefix + part));
+				// Skip past all names in the directory, '0' comes after '/'
+				key = paths.ceilingKey(prefix + part + '0');
+			}
+		}
+		directory.addChildren(directories, leaves);
+	}
+
+	private DirectoryItem createLazyDirectory(String local, String path) {
+		DirectoryItem directory = createDirectory(local, path);
+		directory.setLazy(this, path + '/');
+		return directory;
+	}
+
+	/**
+	 * @param prefix
+	 * 		Display path prefix of a directory.
+	 *
+	 * @return {@code true} if there are names in the directory.
+	 */
+	private boolean hasEntries(String prefix) {
+		String key = paths.ceilingKey(prefix);
+		return key != null && key.startsWith(prefix);
+	}
+
+	/**
+	 * Remove an item, and any directories that become empty.
+	 *
+	 * @param item
+	 * 		Item to remove.
+	 */
+	private void prune(DirectoryItem item) {
+		BaseItem parent = (BaseItem) item.getParent();
+		if(parent == null)
+			return;
+		parent.removeSourceChild(item);
+		// Remove directories if needed
+		while(parent.isLeaf() && parent != this) {
+			BaseItem parentOfParent = (BaseItem) parent.getParent();
+			parentOfParent.removeSourceChild(parent);
+			parent = parentOfParent;
+		}
+	}
+
+	/**
+	 * Directory structures that are obnoxiously long have their middle section pruned.
+	 *
+	 * @param name
+	 * 		Full name of the item.
+	 *
+	 * @return Path of the item in the folder.
+	 */
+	String getDisplayPath(String name) {
+		List<String> parts = new ArrayList<>(Arrays.asList(name.split("/")));
+		if(parts.size() > maxDepth) {
+			// We keep only elements between
+			// [0..maxDepth-1] and the last part
+			String lastPart = parts.get(parts.size() - 1);
+			parts = new ArrayList<>(parts.subList(0, maxDepth - 1));
+			parts.add("...");
+			parts.add(lastPart);
+		}
+		return String.join("/", parts);
+	}
+}
@@ -4,9 +4,14 @@ import javafx.scene.control.*;
 import javafx.scene.input.*;
 import javafx.scene.layout.BorderPane;
 import me.coley.recaf.control.gui.GuiController;
+import me.coley.recaf.util.CoalescingScheduler;
 import me.coley.recaf.util.LangUtil;
+import me.coley.recaf.util.struct.InternalBiConsumer;
+import me.coley.recaf.util.struct.InternalConsumer;
 import me.coley.recaf.workspace.JavaResource;
 
+import java.util.*;
+
 /**
  * Tree representation of a given {@link JavaResource resource}.
  *
@@ -14,9 +19,16 @@ import me.coley.recaf.workspace.JavaResource;
  */
 @SuppressWarnings("unchecked")
 public class JavaResourceTree extends BorderPane {
+	private static final int SEARCH_DELAY = 100;
+	private static final int MAX_EXPANDED_MATCHES = 200;
+	private final CoalescingScheduler searchScheduler = new CoalescingScheduler(SEARCH_DELAY);
 	private final GuiController controller;
+	private final JavaResource resource;
 	private final TextField search;
 	private final TreeView tree;
+	private volatile boolean indexDirty = true;
+	private List<String>[] pendingNames;
+	private NameIndex[] indices;
 
 	/**
 	 * @param controller
@@ -26,6 +38,12 @@ public class JavaResourceTree extends BorderPane {
 	 */
 	public JavaResourceTree(GuiController controller, JavaResource resource) {
 		this.controller = controller;
+		this.resource = resource;
+		// Update the search index when the content changes
+		resource.getClasses().getPutListeners().add(InternalBiConsumer.internal((k, v) -> indexDirty = true));
+		resource.getClasses().getRemoveListeners().add(InternalConsumer.internal(k -> indexDirty = true));
+		resource.getFiles().getPutListeners().add(InternalBiConsumer.internal((k, v) -> indexDirty = true));
+		resource.getFiles().getRemoveListeners().add(InternalConsumer.internal(k -> indexDirty = true));
 		// Tree display
 		tree = new TreeView();
 		tree.setCellFactory(e -> new JavaResourceCell());
@@ -55,6 +73,7 @@ public class JavaResourceTree extends BorderPane {
 
 	/**
 	 * Filter items in the tree that match <i>(contains)</i> the given text.
+	 * Matches are found off the UI thread, and only the latest search is applied.
 	 *
 	 * @param text
 	 * 		Text to search with.
@@ -65,23 +84,93 @@ public class JavaResourceTree extends BorderPane {
 		//  - Support for actions, for example:
 		//    - "enum:true com/" - search enums in com packages
 		//    - "ext:json xyz" - search for whatever ending in ".json"
+		if(text.isEmpty()) {
+			// Empty predicate -> Show everything.
+			searchScheduler.cancel();
+			root.predicateProperty().set(null);
+			return;
+		}
+		if(indexDirty) {
+			// Copy names on the UI thread, since that is where the tree updates the resource
+			indexDirty = false;
+			List<String> classNames = new ArrayList<>(resource.getClasses().keySet());
+			List<String> fileNames = new ArrayList<>(resource.getFiles().keySet());
+			synchronized(this) {
+				pendingNames = new List[]{classNames, fileNames};
+			}
+		}
+		ClassFolderItem classFolder = root.getClassFolder();
+		FileFolderItem fileFolder = root.getFileFolder();
+		searchScheduler.schedule(() -> {
+			NameIndex[] indices = getIndices();
+			return new Matches[]{new Matches(classFolder, indices[0].search(text)),
+					new Matches(fileFolder, indices[1].search(text))};
+		}, matches -> applySearch(root, matches[0], matches[1]));
+	}
+
+	/**
+	 * @return Indices of class and file names, built from the latest copy of the names.
+	 */
+	private synchronized NameIndex[] getIndices() {
+		if(pendingNames != null) {
+			indices = new NameIndex[]{new NameIndex(pendingNames[0]), new NameIndex(pendingNames[1])};
+			pendingNames = null;
+		}
+		return indices;
+	}
+
+	/**
+	 * Show only the matched items in a single update of the tree.
+	 *
+	 * @param root
+	 * 		Root item of the tree.
+	 * @param classes
+	 * 		Matched classes.
+	 * @param files
+	 * 		Matched files.
+	 */
+	private void applySearch(RootItem root, Matches classes, Matches files) {
+		FolderItem classFolder = root.getClassFolder();
 		root.predicateProperty().set(item -> {
-			// Empty predicate -> Simple return.
-			if(text.isEmpty())
-				return true;
-			// Check for content match
-			boolean match = false;
 			if(item instanceof ClassItem)
-				match = ((ClassItem) item).getClassName().contains(text);
+				return classes.names.contains(((ClassItem) item).getClassName());
 			else if(item instanceof FileItem)
-				match = ((FileItem) item).getFileName().contains(text);
-			// Expand items that match, hide those that do not.
-			if(match)
-				((DirectoryItem) item).expandParents();
-			else
-				item.setExpanded(false);
-			return match;
+				return files.names.contains(((FileItem) item).getFileName());
+			else if(item instanceof DirectoryItem && !((DirectoryItem) item).isLoaded()) {
+				// Directories are not populated to be filtered, they are shown if they contain a match
+				DirectoryItem directory = (DirectoryItem) item;
+				Matches matches = directory.getFolder() == classFolder ? classes : files;
+				return matches.isInDirectory(directory.getPrefix());
+			}
+			return false;
 		});
+		// Only create and expand up to the first matches, doing so for broad searches is slow
+		List<DirectoryItem> items = getItems(classFolder, classes.sorted, MAX_EXPANDED_MATCHES);
+		items.addAll(getItems(root.getFileFolder(), files.sorted, MAX_EXPANDED_MATCHES - items.size()));
+		for(DirectoryItem item : items)
+			item.expandParents();
+	}
+
+	/**
+	 * @param folder
+	 * 		Folder containing the items.
+	 * @param names
+	 * 		Names of items.
+	 * @param max
+	 * 		Maximum number of items to create.
+	 *
+	 * @return Items of the first names.
+	 */
+	private static List<DirectoryItem> getItems(FolderItem folder, List<String> names, int max) {
+		List<DirectoryItem> items = new ArrayList<>();
+		if(folder == null)
+			return items;
+		for(int i = 0; i < names.size() && items.size() < max; i++) {
+			DirectoryItem item = folder.getItem(names.get(i));
+			if(item != null)
+				items.add(item);
+		}
+		return items;
 	}
 
 	private void onClick(MouseEvent e) {
@@ -170,4 +259,33 @@ public class JavaResourceTree extends BorderPane {
 		if(item.getChildren().size() == 1)
 			recurseOpen((TreeItem) item.getChildren().get(0));
 	}
+
+	/**
+	 * Matched names of a folder, prepared off the UI thread.
+	 */
+	private static class Matches {
+		private final List<String> sorted;
+		private final Set<String> names;
+		// Display paths of the names, to check which directories contain matches
+		private final NavigableSet<String> paths = new TreeSet<>();
+
+		private Matches(FolderItem folder, List<String> sorted) {
+			this.sorted = sorted;
+			this.names = new HashSet<>(sorted);
+			if(folder != null)
+				for(String name : sorted)
+					paths.add(folder.getDisplayPath(name));
+		}
+
+		/**
+		 * @param prefix
+		 * 		Display path prefix of a directory.
+		 *
+		 * @return {@code true} if a match is in the directory.
+		 */
+		private boolean isInDirectory(String prefix) {
+			String path = paths.ceiling(prefix);
+			return path != null && path.startsWith(prefix);
+		}
+	}
 }
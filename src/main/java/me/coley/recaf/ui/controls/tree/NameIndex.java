@@ -0,0 +1,112 @@
+package me.coley.recaf.ui.controls.tree;
+
+import java.util.*;
+
+/**
+ * Index of names for substring searches. Each name is indexed by every three character sequence it contains,
+ * so a search only needs to check names that contain all sequences of the searched text.
+ *
+ * @author Matt
+ */
+class NameIndex {
+	private static final int GRAM = 3;
+	private final String[] names;
+	private final Map<Long, int[]> postings = new HashMap<>();
+
+	/**
+	 * @param names
+	 * 		Names to index.
+	 */
+	NameIndex(Collection<String> names) {
+		this.names = names.toArray(new String[0]);
+		Arrays.sort(this.names);
+		Map<Long, Postings> building = new HashMap<>();
+		for(int i = 0; i < this.names.length; i++) {
+			String name = this.names[i];
+			for(int j = 0; j + GRAM <= name.length(); j++)
+				building.computeIfAbsent(gram(name, j), gram -> new Postings()).add(i);
+		}
+		building.forEach((gram, list) -> postings.put(gram, Arrays.copyOf(list.values, list.size)));
+	}
+
+	/**
+	 * @param text
+	 * 		Text to search for.
+	 *
+	 * @return Sorted names containing the text.
+	 */
+	List<String> search(String text) {
+		List<String> results = new ArrayList<>();
+		if(text.length() < GRAM) {
+			for(String name : names)
+				if(name.contains(text))
+					results.add(name);
+			return results;
+		}
+		// Intersect the names of each sequence, starting with the rarest
+		List<int[]> lists = new ArrayList<>();
+		for(int j = 0; j + GRAM <= text.length(); j++) {
+			int[] list = postings.get(gram(text, j));
+			if(list == null)
+				return results;
+			lists.add(list);
+		}
+		lists.sort(Comparator.comparingInt(list -> list.length));
+		int[] candidates = lists.get(0).clone();
+		int count = candidates.length;
+		for(int k = 1; k < lists.size() && count > 0; k++)
+			count = intersect(candidates, count, lists.get(k));
+		// Sequences may be in a different order in the name, so check the full text
+		for(int i = 0; i < count; i++) {
+			String name = names[candidates[i]];
+			if(name.contains(text))
+				results.add(name);
+		}
+		return results;
+	}
+
+	/**
+	 * @param candidates
+	 * 		Sorted values, intersected in place.
+	 * @param count
+	 * 		Number of candidate values.
+	 * @param list
+	 * 		Sorted values to intersect with.
+	 *
+	 * @return Number of remaining candidates.
+	 */
+	private static int intersect(int[] candidates, int count, int[] list) {
+		int kept = 0;
+		int j = 0;
+		for(int i = 0; i < count && j < list.length; i++) {
+			int value = candidates[i];
+			while(j < list.length && list[j] < value)
+				j++;
+			if(j < list.length && list[j] == value)
+				candidates[kept++] = value;
+		}
+		return kept;
+	}
+
+	private static Long gram(String text, int offset) {
+		return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) |
+				text.charAt(offset + 2);
+	}
+
+	/**
+	 * Growable list of name indices.
+	 */
+	private static class Postings {
+		private int[] values = new int[4];
+		private int size;
+
+		private void add(int value) {
+			// Names are added in order, so a repeated sequence of the same name is the last entry
+			if(size > 0 && values[size - 1] == value)
+				return;
+			if(size == values.length)
+				values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+		}
+	}
+}
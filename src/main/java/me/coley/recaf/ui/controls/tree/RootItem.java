@@ -26,26 +26,12 @@ public class RootItem extends BaseItem {
 			// Register listeners and update if the classes update
 			resource.getClasses().getRemoveListeners().add(InternalConsumer.internal(r -> {
 				String name = r.toString();
-				DirectoryItem di = classes.getDeepChild(name);
-				if (di != null) {
-					Platform.runLater(() -> {
-						BaseItem parent = (BaseItem) di.getParent();
-						if(parent != null) {
-							parent.removeSourceChild(di);
-							// Remove directories if needed
-							while(parent.isLeaf() && !(parent instanceof ClassFolderItem)) {
-								BaseItem parentOfParent = (BaseItem) parent.getParent();
-								parentOfParent.removeSourceChild(parent);
-								parent = parentOfParent;
-							}
-						}
-					});
-				}
+				Platform.runLater(() -> classes.remove(name));
 			}));
 			resource.getClasses().getPutListeners().add(InternalBiConsumer.internal((k, v) -> {
 				// Put includes updates, so only "add" the class when it doesn't already exist
 				if (!resource.getClasses().containsKey(k))
-					Platform.runLater(() -> classes.addClass(k));
+					Platform.runLater(() -> classes.add(k));
 			}));
 		}
 		// files sub-folder
@@ -54,30 +40,30 @@ public class RootItem extends BaseItem {
 			// Register listeners and update if the files update
 			resource.getFiles().getRemoveListeners().add(InternalConsumer.internal(r -> {
 				String name = r.toString();
-				DirectoryItem di = files.getDeepChild(name);
-				if (di != null) {
-					Platform.runLater(() -> {
-						BaseItem parent = (BaseItem) di.getParent();
-						if(parent != null) {
-							parent.removeSourceChild(di);
-							// Remove directories if needed
-							while(parent.isLeaf() && !(parent instanceof FileFolderItem)) {
-								BaseItem parentOfParent = (BaseItem) parent.getParent();
-								parentOfParent.removeSourceChild(parent);
-								parent = parentOfParent;
-							}
-						}
-					});
-				}
+				Platform.runLater(() -> files.remove(name));
 			}));
 			resource.getFiles().getPutListeners().add(InternalBiConsumer.internal((k, v) -> {
 				// Put includes updates, so only "add" the file when it doesn't already exist
 				if (!resource.getFiles().containsKey(k))
-					Platform.runLater(() -> files.addFile(k));
+					Platform.runLater(() -> files.add(k));
 			}));
 		}
 		// TODO: Sub-folders for these?
 		//  - docs
 		//  - sources
 	}
+
+	/**
+	 * @return Item containing classes, or {@code null} if the resource has no classes.
+	 */
+	public ClassFolderItem getClassFolder() {
+		return classes;
+	}
+
+	/**
+	 * @return Item containing files, or {@code null} if the resource has no files.
+	 */
+	public FileFolderItem getFileFolder() {
+		return files;
+	}
 }
\ No newline at end of file
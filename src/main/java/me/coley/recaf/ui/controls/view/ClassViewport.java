@@ -4,7 +4,11 @@ import javafx.application.Platform;
 import javafx.scene.input.KeyEvent;
 import me.coley.recaf.config.ConfigManager;
 import me.coley.recaf.control.gui.GuiController;
+import me.coley.recaf.decompile.DecompileAbortException;
 import me.coley.recaf.decompile.DecompileImpl;
+import me.coley.recaf.decompile.DecompileResult;
+import me.coley.recaf.decompile.DecompileService;
+import me.coley.recaf.decompile.MethodFragments;
 import me.coley.recaf.plugin.PluginKeybinds;
 import me.coley.recaf.ui.controls.ClassEditor;
 import me.coley.recaf.ui.controls.FontSlider;
@@ -13,6 +17,7 @@ import me.coley.recaf.ui.controls.popup.SuggestionWindow;
 import me.coley.recaf.ui.controls.node.ClassNodeEditorPane;
 import me.coley.recaf.ui.controls.text.JavaEditorPane;
 import me.coley.recaf.util.*;
+import me.coley.recaf.util.struct.Pair;
 import me.coley.recaf.workspace.History;
 import me.coley.recaf.workspace.JavaResource;
 import org.fxmisc.richtext.CodeArea;
@@ -22,8 +27,9 @@ import org.objectweb.asm.tree.ClassNode;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
-import java.util.function.Supplier;
 
 /**
  * Multi-view wrapper for classes in resources.
@@ -33,6 +39,8 @@ import java.util.function.Supplier;
 public class ClassViewport extends EditorViewport {
 	private ClassMode overrideMode;
 	private DecompileImpl overrideDecompiler;
+	private CompletableFuture<DecompileResult> pendingDecompile;
+	private Pair<String, String> scopedMethod;
 	private double lastScrollX;
 	private double lastScrollY;
 
@@ -98,7 +106,6 @@ public class ClassViewport extends EditorViewport {
 				// Fetch decompiler
 
 				DecompileImpl decompiler = getDecompiler();
-				long timeout = controller.config().decompile().timeout;
 				boolean showSuggestions = controller.config().display().suggestClassWithErrors;
 				// Get or create pane
 				String initialText = "// Decompiling class: " + path + "\n" +
@@ -116,19 +123,8 @@ public class ClassViewport extends EditorViewport {
 					setCenter(pane);
 				}
 				pane.setEditable(pane.canCompile() && resource.isPrimary());
-				// Actions
-				Supplier<String> supplier = () -> {
-					// SUPPLIER: Fetch decompiled code
-					String decompilerPrefix = (controller.config().decompile().showName ?
-							"// Decompiled with: " + decompiler.getNameAndVersion() + "\n" : "");
-					byte[] clazz = controller.getWorkspace().getRawClass(path);
-					int version = ClassUtil.getVersion(clazz) - ClassUtil.VERSION_OFFSET;
-					String classVersionPrefix = "// Class Version: " + version + "\n";
-					String decompile = decompilerPrefix + classVersionPrefix +
-							decompiler.create(controller).decompile(path);
-					return EscapeUtil.unescapeUnicode(decompile);
-				};
 				JavaEditorPane finalPane = pane;
+				Pair<String, String> member = scopedMethod;
 				Consumer<String> consumer = decompile -> {
 					// CONSUMER: Set decompiled text and check for errors
 					// Update text
@@ -158,12 +154,16 @@ public class ClassViewport extends EditorViewport {
 								}
 							});
 						}
+						// Jump to the method the decompile was scoped to
+						if (member != null)
+							ThreadUtil.runJfxDelayed(errorCheckDelay, () ->
+									finalPane.selectMember(member.getKey(), member.getValue()));
 					});
 				};
-				Runnable timeoutAction = () -> {
+				Consumer<DecompileAbortException> timeoutAction = abort -> {
 					// TIMEOUT: Suggest another decompiler
 					Platform.runLater(() -> {
-						finalPane.appendText("// \n// Timed out after " + timeout + " ms\n// \n" +
+						finalPane.appendText("// \n// " + abort.getMessage() + "\n// \n" +
 								"// Suggestion: Change the decompiler or switch the class mode to " +
 								ClassMode.TABLE.name());
 					});
@@ -194,8 +194,27 @@ public class ClassViewport extends EditorViewport {
 						finalPane.forgetHistory();
 					});
 				};
-				// Run actions
-				ThreadUtil.runSupplyConsumer(supplier, timeout, timeoutAction, consumer, handler);
+				// Run actions, cancelling any decompile still running for the prior view
+				if (pendingDecompile != null)
+					pendingDecompile.cancel(true);
+				CompletableFuture<DecompileResult> future = startDecompile(decompiler);
+				pendingDecompile = future;
+				future.whenComplete((result, error) -> {
+					if (future.isCancelled())
+						return;
+					Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+					if (cause == null) {
+						String decompile = formatDecompile(result);
+						Platform.runLater(() -> consumer.accept(decompile));
+						if (controller.config().decompile().prefetch)
+							controller.getDecompileService().getPrefetcher()
+									.prefetchRelated(resource, path, decompiler);
+					} else if (cause instanceof DecompileAbortException) {
+						timeoutAction.accept((DecompileAbortException) cause);
+					} else {
+						handler.accept(cause);
+					}
+				});
 				break;
 			}
 			case TABLE: {
@@ -215,7 +234,6 @@ public class ClassViewport extends EditorViewport {
 			case HEX:
 			default:
 				HexEditor hex = new HexEditor(last);
-				hex.setContentCallback(array -> current = array);
 				hex.setEditable(resource.isPrimary());
 				setCenter(hex);
 				break;
@@ -258,6 +276,63 @@ public class ClassViewport extends EditorViewport {
 		super.save();
 	}
 
+	/**
+	 * Large classes are decompiled with the bodies of methods not yet viewed omitted. Selecting a method
+	 * decompiles only that method, which is then included in later decompilations of the class.
+	 *
+	 * @param decompiler
+	 * 		Decompiler to use.
+	 *
+	 * @return Future of the decompilation.
+	 */
+	private CompletableFuture<DecompileResult> startDecompile(DecompileImpl decompiler) {
+		DecompileService service = controller.getDecompileService();
+		if (!isMethodScoped())
+			return service.decompile(path, decompiler);
+		if (scopedMethod == null)
+			return service.decompileFragments(path, decompiler);
+		CompletableFuture<DecompileResult> method =
+				service.decompileMethod(path, decompiler, scopedMethod.getKey(), scopedMethod.getValue());
+		CompletableFuture<DecompileResult> assembled =
+				method.thenCompose(result -> service.decompileFragments(path, decompiler));
+		assembled.whenComplete((value, error) -> {
+			if (assembled.isCancelled())
+				method.cancel(true);
+		});
+		return assembled;
+	}
+
+	/**
+	 * @return {@code true} when the class is large enough to be decompiled one method at a time.
+	 */
+	private boolean isMethodScoped() {
+		long threshold = controller.config().decompile().methodScope * 1024L;
+		byte[] code = controller.getWorkspace().getRawClass(path);
+		return threshold > 0 && code != null && code.length > threshold;
+	}
+
+	/**
+	 * @param result
+	 * 		Decompilation result.
+	 *
+	 * @return Decompiled text with header comments.
+	 */
+	private String formatDecompile(DecompileResult result) {
+		String decompilerPrefix = (controller.config().decompile().showName ?
+				"// Decompiled with: " + result.getImpl().getNameAndVersion() + "\n" : "");
+		StringBuilder fallbackPrefix = new StringBuilder();
+		for (DecompileAbortException abort : result.getAborted())
+			fallbackPrefix.append("// Fallback: ").append(abort.getImpl()).append(" aborted - ")
+					.append(abort.getMessage()).append('\n');
+		byte[] clazz = controller.getWorkspace().getRawClass(path);
+		int version = ClassUtil.getVersion(clazz) - ClassUtil.VERSION_OFFSET;
+		String classVersionPrefix = "// Class Version: " + version + "\n";
+		String scopePrefix = (isMethodScoped() && MethodFragments.hasStubs(result.getText()) ?
+				"// Large class: Only the bodies of selected methods are decompiled\n" : "");
+		String decompile = decompilerPrefix + fallbackPrefix + classVersionPrefix + scopePrefix + result.getText();
+		return EscapeUtil.unescapeUnicode(decompile);
+	}
+
 	/**
 	 * Jump to the definition of the given member.
 	 *
@@ -267,6 +342,12 @@ public class ClassViewport extends EditorViewport {
 	 * 		Member descriptor.
 	 */
 	public void selectMember(String name, String desc) {
+		// Decompile the selected method of large classes, selection is done once the decompile completes
+		if (desc.startsWith("(") && getClassMode() == ClassMode.DECOMPILE && isMethodScoped()) {
+			scopedMethod = new Pair<>(name, desc);
+			updateView();
+			return;
+		}
 		if (getCenter() instanceof  ClassEditor)
 			((ClassEditor)getCenter()).selectMember(name, desc);
 	}
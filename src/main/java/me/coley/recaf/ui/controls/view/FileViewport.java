@@ -28,6 +28,7 @@ import java.util.Map;
  */
 public class FileViewport extends EditorViewport {
 	private static final float TEXT_THRESHOLD = 0.9f;
+	private static final int TEXT_SAMPLE_LENGTH = 64 * 1024;
 	private static final Pattern TEXT_MATCHER = new Pattern(
 			"[\\w\\d\\s\\<\\>\\-\\\\\\/\\.:,!@#+$%^&*\"=\\[\\]?;\\{\\}\\(\\)|]+");
 	private FileMode overrideMode;
@@ -89,7 +90,8 @@ public class FileViewport extends EditorViewport {
 				// Determine which resource mode to use based on the % of the
 				// content matches common text symbols. Binary data will likely
 				// not contain a high % of legible text content.
-				String text = new String(last);
+				// Only the start of large files is checked.
+				String text = new String(last, 0, Math.min(last.length, TEXT_SAMPLE_LENGTH));
 				Matcher m = TEXT_MATCHER.matcher(text);
 				float size = 0;
 				while (m.find())
@@ -127,7 +129,6 @@ public class FileViewport extends EditorViewport {
 	private void updateHexMode() {
 		// Fallback: Hex editor
 		HexEditor hex = new HexEditor(last);
-		hex.setContentCallback(array -> current = array);
 		hex.setEditable(resource.isPrimary());
 		setCenter(hex);
 	}
@@ -0,0 +1,477 @@
+package me.coley.recaf.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Minimal ZIP writer. Unlike {@link java.util.zip.ZipOutputStream} entries are given already compressed,
+ * which allows compression to be done in parallel and allows compressed data to be copied as-is from
+ * another archive.
+ *
+ * @author Matt
+ */
+public class ArchiveWriter implements Closeable {
+	private static final int LOCAL_HEADER = 0x04034b50;
+	private static final int CENTRAL_HEADER = 0x02014b50;
+	private static final int END_HEADER = 0x06054b50;
+	private static final int ZIP64_END_HEADER = 0x06064b50;
+	private static final int ZIP64_LOCATOR = 0x07064b50;
+	private static final int ZIP64_EXTRA = 0x0001;
+	private static final int FLAG_ENCRYPTED = 0x0001;
+	private static final int FLAG_UTF8 = 0x0800;
+	private static final int VERSION = 20;
+	private static final int VERSION_ZIP64 = 45;
+	private static final long MAX_U16 = 0xFFFFL;
+	private static final long MAX_U32 = 0xFFFFFFFFL;
+	private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+	private final ByteArrayOutputStream central = new ByteArrayOutputStream();
+	private final FileChannel channel;
+	private final int dosTime;
+	private final int dosDate;
+	private long position;
+	private long count;
+
+	/**
+	 * @param output
+	 * 		File to write to.
+	 *
+	 * @throws IOException
+	 * 		When the file cannot be opened for writing.
+	 */
+	public ArchiveWriter(Path output) throws IOException {
+		this.channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		Calendar now = Calendar.getInstance();
+		this.dosTime = (now.get(Calendar.HOUR_OF_DAY) << 11) | (now.get(Calendar.MINUTE) << 5) |
+				(now.get(Calendar.SECOND) >> 1);
+		this.dosDate = ((now.get(Calendar.YEAR) - 1980) << 9) | ((now.get(Calendar.MONTH) + 1) << 5) |
+				now.get(Calendar.DAY_OF_MONTH);
+	}
+
+	/**
+	 * @param name
+	 * 		Directory entry name, ending with {@code /}.
+	 *
+	 * @throws IOException
+	 * 		When the entry cannot be written.
+	 */
+	public void addDirectory(String name) throws IOException {
+		addEntry(name, ZipEntry.STORED, 0, 0, new byte[0]);
+	}
+
+	/**
+	 * @param name
+	 * 		Entry name.
+	 * @param method
+	 * 		Either {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}.
+	 * @param crc
+	 * 		CRC32 of the uncompressed data.
+	 * @param size
+	 * 		Size of the uncompressed data.
+	 * @param data
+	 * 		Entry data, already compressed with the given method.
+	 *
+	 * @throws IOException
+	 * 		When the entry cannot be written.
+	 */
+	public void addEntry(String name, int method, long crc, long size, byte[] data) throws IOException {
+		long offset = writeLocalHeader(name, method, dosTime, dosDate, crc, data.length, size);
+		write(ByteBuffer.wrap(data));
+		addCentralHeader(name, method, dosTime, dosDate, crc, data.length, size, offset);
+	}
+
+	/**
+	 * Copy an entry from another archive without recompressing it.
+	 *
+	 * @param source
+	 * 		Archive containing the entry.
+	 * @param entry
+	 * 		Entry to copy.
+	 *
+	 * @throws IOException
+	 * 		When the entry cannot be read or written.
+	 */
+	public void copyEntry(Source source, Source.Entry entry) throws IOException {
+		long offset = writeLocalHeader(entry.name, entry.method, entry.time, entry.date, entry.crc,
+				entry.compressedSize, entry.size);
+		flush();
+		long copied = 0;
+		while (copied < entry.compressedSize) {
+			long transferred = source.channel.transferTo(entry.dataOffset + copied,
+					entry.compressedSize - copied, channel);
+			if (transferred <= 0)
+				throw new IOException("Failed to copy entry data: " + entry.name);
+			copied += transferred;
+		}
+		position += copied;
+		addCentralHeader(entry.name, entry.method, entry.time, entry.date, entry.crc,
+				entry.compressedSize, entry.size, offset);
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			long centralOffset = position;
+			long centralSize = central.size();
+			write(ByteBuffer.wrap(central.toByteArray()));
+			if (count >= MAX_U16 || centralOffset >= MAX_U32 || centralSize >= MAX_U32) {
+				long zip64Offset = position;
+				ByteBuffer record = allocate(56);
+				record.putInt(ZIP64_END_HEADER);
+				record.putLong(44);
+				record.putShort((short) VERSION_ZIP64);
+				record.putShort((short) VERSION_ZIP64);
+				record.putInt(0);
+				record.putInt(0);
+				record.putLong(count);
+				record.putLong(count);
+				record.putLong(centralSize);
+				record.putLong(centralOffset);
+				write(flip(record));
+				ByteBuffer locator = allocate(20);
+				locator.putInt(ZIP64_LOCATOR);
+				locator.putInt(0);
+				locator.putLong(zip64Offset);
+				locator.putInt(1);
+				write(flip(locator));
+			}
+			ByteBuffer end = allocate(22);
+			end.putInt(END_HEADER);
+			end.putShort((short) 0);
+			end.putShort((short) 0);
+			end.putShort((short) Math.min(count, MAX_U16));
+			end.putShort((short) Math.min(count, MAX_U16));
+			end.putInt((int) Math.min(centralSize, MAX_U32));
+			end.putInt((int) Math.min(centralOffset, MAX_U32));
+			end.putShort((short) 0);
+			write(flip(end));
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * @param data
+	 * 		Data to compress.
+	 *
+	 * @return Data compressed for a {@link ZipEntry#DEFLATED} entry.
+	 */
+	public static byte[] deflate(byte[] data) {
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+			byte[] chunk = new byte[8192];
+			while (!deflater.finished()) {
+				int len = deflater.deflate(chunk);
+				out.write(chunk, 0, len);
+			}
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private long writeLocalHeader(String name, int method, int time, int date, long crc,
+								  long compressedSize, long size) throws IOException {
+		long offset = position;
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		// Sizes that do not fit are moved to a zip64 extra field, which must then contain both sizes
+		boolean zip64 = size >= MAX_U32 || compressedSize >= MAX_U32;
+		ByteBuffer header = allocate(30 + nameBytes.length + (zip64 ? 20 : 0));
+		header.putInt(LOCAL_HEADER);
+		header.putShort((short) (zip64 ? VERSION_ZIP64 : VERSION));
+		header.putShort((short) FLAG_UTF8);
+		header.putShort((short) method);
+		header.putShort((short) time);
+		header.putShort((short) date);
+		header.putInt((int) crc);
+		header.putInt((int) (zip64 ? MAX_U32 : compressedSize));
+		header.putInt((int) (zip64 ? MAX_U32 : size));
+		header.putShort((short) nameBytes.length);
+		header.putShort((short) (zip64 ? 20 : 0));
+		header.put(nameBytes);
+		if (zip64) {
+			header.putShort((short) ZIP64_EXTRA);
+			header.putShort((short) 16);
+			header.putLong(size);
+			header.putLong(compressedSize);
+		}
+		write(flip(header));
+		return offset;
+	}
+
+	private void addCentralHeader(String name, int method, int time, int date, long crc,
+								  long compressedSize, long size, long offset) {
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		// Only values that do not fit are included in the zip64 extra field, in this order
+		boolean zip64Size = size >= MAX_U32;
+		boolean zip64CompressedSize = compressedSize >= MAX_U32;
+		boolean zip64Offset = offset >= MAX_U32;
+		int zip64Length = (zip64Size ? 8 : 0) + (zip64CompressedSize ? 8 : 0) + (zip64Offset ? 8 : 0);
+		boolean zip64 = zip64Length > 0;
+		int extraLength = zip64 ? 4 + zip64Length : 0;
+		ByteBuffer header = allocate(46 + nameBytes.length + extraLength);
+		header.putInt(CENTRAL_HEADER);
+		header.putShort((short) (zip64 ? VERSION_ZIP64 : VERSION));
+		header.putShort((short) (zip64 ? VERSION_ZIP64 : VERSION));
+		header.putShort((short) FLAG_UTF8);
+		header.putShort((short) method);
+		header.putShort((short) time);
+		header.putShort((short) date);
+		header.putInt((int) crc);
+		header.putInt((int) (zip64CompressedSize ? MAX_U32 : compressedSize));
+		header.putInt((int) (zip64Size ? MAX_U32 : size));
+		header.putShort((short) nameBytes.length);
+		header.putShort((short) extraLength);
+		header.putShort((short) 0);
+		header.putShort((short) 0);
+		header.putShort((short) 0);
+		header.putInt(0);
+		header.putInt((int) (zip64Offset ? MAX_U32 : offset));
+		header.put(nameBytes);
+		if (zip64) {
+			header.putShort((short) ZIP64_EXTRA);
+			header.putShort((short) zip64Length);
+			if (zip64Size)
+				header.putLong(size);
+			if (zip64CompressedSize)
+				header.putLong(compressedSize);
+			if (zip64Offset)
+				header.putLong(offset);
+		}
+		central.write(header.array(), 0, header.position());
+		count++;
+	}
+
+	private void write(ByteBuffer data) throws IOException {
+		int length = data.remaining();
+		if (length > buffer.remaining())
+			flush();
+		if (length > buffer.remaining()) {
+			while (data.hasRemaining())
+				channel.write(data);
+		} else {
+			buffer.put(data);
+		}
+		position += length;
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	private static ByteBuffer allocate(int size) {
+		return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static ByteBuffer flip(ByteBuffer buffer) {
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Existing archive to copy compressed entries from. Only the central directory is read up front.
+	 */
+	public static class Source implements Closeable {
+		private final Map<String, Entry> entries = new HashMap<>();
+		private final FileChannel channel;
+
+		/**
+		 * @param path
+		 * 		Archive file.
+		 *
+		 * @throws IOException
+		 * 		When the file cannot be read, or is not a valid archive.
+		 */
+		public Source(Path path) throws IOException {
+			this.channel = FileChannel.open(path, StandardOpenOption.READ);
+			try {
+				readCentralDirectory();
+			} catch(IOException | RuntimeException ex) {
+				channel.close();
+				throw ex instanceof IOException ? (IOException) ex : new IOException(ex);
+			}
+		}
+
+		/**
+		 * @param name
+		 * 		Entry name.
+		 *
+		 * @return Entry of the given name, or {@code null} when the archive has no such entry
+		 * that can be copied.
+		 */
+		public Entry get(String name) {
+			return entries.get(name);
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+
+		private void readCentralDirectory() throws IOException {
+			long fileSize = channel.size();
+			// Locate the end of central directory record, which may be followed by a comment
+			int tailSize = (int) Math.min(fileSize, 22 + MAX_U16);
+			ByteBuffer tail = read(fileSize - tailSize, tailSize);
+			int end = -1;
+			for (int i = tailSize - 22; i >= 0; i--) {
+				if (tail.getInt(i) == END_HEADER) {
+					end = i;
+					break;
+				}
+			}
+			if (end < 0)
+				throw new IOException("No end of central directory record");
+			long total = tail.getShort(end + 10) & MAX_U16;
+			long centralSize = tail.getInt(end + 12) & MAX_U32;
+			long centralOffset = tail.getInt(end + 16) & MAX_U32;
+			if (total == MAX_U16 || centralSize == MAX_U32 || centralOffset == MAX_U32) {
+				long locatorOffset = fileSize - tailSize + end - 20;
+				ByteBuffer locator = read(locatorOffset, 20);
+				if (locator.getInt(0) != ZIP64_LOCATOR)
+					throw new IOException("No zip64 end of central directory locator");
+				ByteBuffer record = read(locator.getLong(8), 56);
+				if (record.getInt(0) != ZIP64_END_HEADER)
+					throw new IOException("No zip64 end of central directory record");
+				total = record.getLong(32);
+				centralSize = record.getLong(40);
+				centralOffset = record.getLong(48);
+			}
+			if (centralSize > Integer.MAX_VALUE || centralOffset + centralSize > fileSize)
+				throw new IOException("Invalid central directory bounds");
+			ByteBuffer dir = read(centralOffset, (int) centralSize);
+			int pos = 0;
+			for (long i = 0; i < total && pos + 46 <= dir.limit(); i++) {
+				if (dir.getInt(pos) != CENTRAL_HEADER)
+					throw new IOException("Invalid central directory header");
+				int flags = dir.getShort(pos + 8) & 0xFFFF;
+				int method = dir.getShort(pos + 10) & 0xFFFF;
+				int time = dir.getShort(pos + 12) & 0xFFFF;
+				int date = dir.getShort(pos + 14) & 0xFFFF;
+				long crc = dir.getInt(pos + 16) & MAX_U32;
+				long compressedSize = dir.getInt(pos + 20) & MAX_U32;
+				long size = dir.getInt(pos + 24) & MAX_U32;
+				int nameLength = dir.getShort(pos + 28) & 0xFFFF;
+				int extraLength = dir.getShort(pos + 30) & 0xFFFF;
+				int commentLength = dir.getShort(pos + 32) & 0xFFFF;
+				long localOffset = dir.getInt(pos + 42) & MAX_U32;
+				byte[] nameBytes = new byte[nameLength];
+				dir.position(pos + 46);
+				dir.get(nameBytes);
+				String name = new String(nameBytes, StandardCharsets.UTF_8);
+				// Read zip64 values, which are only present for fields that overflowed
+				int extra = pos + 46 + nameLength;
+				int extraEnd = Math.min(extra + extraLength, dir.limit());
+				while (extra + 4 <= extraEnd) {
+					int id = dir.getShort(extra) & 0xFFFF;
+					int length = dir.getShort(extra + 2) & 0xFFFF;
+					if (id == ZIP64_EXTRA) {
+						int field = extra + 4;
+						if (size == MAX_U32 && field + 8 <= extraEnd) {
+							size = dir.getLong(field);
+							field += 8;
+						}
+						if (compressedSize == MAX_U32 && field + 8 <= extraEnd) {
+							compressedSize = dir.getLong(field);
+							field += 8;
+						}
+						if (localOffset == MAX_U32 && field + 8 <= extraEnd)
+							localOffset = dir.getLong(field);
+					}
+					extra += 4 + length;
+				}
+				pos += 46 + nameLength + extraLength + commentLength;
+				boolean supported = (flags & FLAG_ENCRYPTED) == 0 &&
+						(method == ZipEntry.STORED || method == ZipEntry.DEFLATED);
+				// First occurrence wins, matching how entries are loaded
+				if (supported && !entries.containsKey(name)) {
+					long dataOffset = dataOffset(localOffset, fileSize);
+					if (dataOffset >= 0 && dataOffset + compressedSize <= fileSize)
+						entries.put(name, new Entry(name, method, time, date, crc, compressedSize, size,
+								dataOffset));
+				}
+			}
+		}
+
+		private long dataOffset(long localOffset, long fileSize) throws IOException {
+			if (localOffset + 30 > fileSize)
+				return -1;
+			ByteBuffer header = read(localOffset, 30);
+			if (header.getInt(0) != LOCAL_HEADER)
+				return -1;
+			int nameLength = header.getShort(26) & 0xFFFF;
+			int extraLength = header.getShort(28) & 0xFFFF;
+			return localOffset + 30 + nameLength + extraLength;
+		}
+
+		private ByteBuffer read(long offset, int length) throws IOException {
+			ByteBuffer data = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+			while (data.hasRemaining()) {
+				if (channel.read(data, offset + data.position()) < 0)
+					throw new IOException("Unexpected end of archive");
+			}
+			data.flip();
+			return data;
+		}
+
+		/**
+		 * Compressed entry in a source archive.
+		 */
+		public static class Entry {
+			private final String name;
+			private final int method;
+			private final int time;
+			private final int date;
+			private final long crc;
+			private final long compressedSize;
+			private final long size;
+			private final long dataOffset;
+
+			private Entry(String name, int method, int time, int date, long crc, long compressedSize,
+						  long size, long dataOffset) {
+				this.name = name;
+				this.method = method;
+				this.time = time;
+				this.date = date;
+				this.crc = crc;
+				this.compressedSize = compressedSize;
+				this.size = size;
+				this.dataOffset = dataOffset;
+			}
+
+			/**
+			 * @param crc
+			 * 		CRC32 of the current data of the entry.
+			 * @param size
+			 * 		Size of the current data of the entry.
+			 * @param method
+			 * 		Compression method the entry should be written with.
+			 *
+			 * @return {@code true} when the compressed data of this entry matches the current data,
+			 * and can be copied as-is.
+			 */
+			public boolean matches(long crc, long size, int method) {
+				return this.crc == crc && this.size == size && this.method == method;
+			}
+		}
+	}
+}
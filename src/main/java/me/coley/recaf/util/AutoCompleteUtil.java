@@ -1,6 +1,7 @@
 package me.coley.recaf.util;
 
 import me.coley.recaf.Recaf;
+import me.coley.recaf.workspace.ClassNameIndex;
 import me.coley.recaf.workspace.Workspace;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
@@ -18,30 +19,29 @@ import java.util.stream.Stream;
  */
 public class AutoCompleteUtil {
 	/**
-	 * A sorted list of class names for auto-completion,
-	 * including {@linkplain ClasspathUtil#getSystemClassNames() the system's} and
-	 * {@linkplain Workspace#getClassNames()} the current input's}.
+	 * Index of class names used when there is no workspace.
 	 */
-	private static Set<String> cachedClassNames;
+	private static final ClassNameIndex SYSTEM_INDEX = new ClassNameIndex(null);
 
 	/**
-	 * Computes and/or returns a sorted list of class names available for completion.
+	 * @param key
+	 * 		Start of a class name, or of its simple name.
+	 *
+	 * @return Class names available for completion. Names starting with the key are first, ordered
+	 * alphabetically. If the key has no package, they are followed by names with a matching simple name,
+	 * and then names whose simple name's capital letters start with the key.
 	 */
-	private static Stream<String> classNames() {
-		Set<String> systemClassNames = ClasspathUtil.getSystemClassNames();
-		Optional<Workspace> opt = Optional.ofNullable(Recaf.getCurrentWorkspace());
-		if (opt.isPresent()) {
-			Set<String> inputClasses = opt.get().getClassNames();
-			int totalSize = inputClasses.size() + systemClassNames.size();
-			cachedClassNames = Collections.unmodifiableSet(Stream
-					.concat(inputClasses.stream(), systemClassNames.stream())
-					.distinct()
-					.sorted(Comparator.naturalOrder())  // Pre-sort to save some time
-					.collect(Collectors.toCollection(() -> new LinkedHashSet<>(totalSize))));
-		} else {
-			cachedClassNames = systemClassNames;
-		}
-		return cachedClassNames.stream();
+	private static List<String> classNames(String key) {
+		Workspace workspace = Recaf.getCurrentWorkspace();
+		ClassNameIndex index = workspace == null ? SYSTEM_INDEX : workspace.getClassNameIndex();
+		List<String> names = index.startingWith(key);
+		if (key.indexOf('/') >= 0)
+			return names;
+		Set<String> matches = new LinkedHashSet<>(names);
+		matches.addAll(index.bySimpleName(key));
+		if (key.length() > 1 && key.chars().allMatch(Character::isUpperCase))
+			matches.addAll(index.byCapitals(key));
+		return new ArrayList<>(matches);
 	}
 
 	// =================================================================== //
@@ -58,9 +58,9 @@ public class AutoCompleteUtil {
 		String key = part.trim();
 		if (part.isEmpty())
 			return Collections.emptyList();
-		return classNames()
-				.filter(name -> name.startsWith(key) && !name.equals(key))
-				.collect(Collectors.toList());
+		List<String> names = classNames(key);
+		names.remove(key);
+		return names;
 	}
 
 	/**
@@ -96,9 +96,7 @@ public class AutoCompleteUtil {
 		//
 		String prefix = prefixBuilder.toString();
 		String key = keyBuilder.toString();
-		return classNames()
-				.filter(name -> name.startsWith(key))
-				// .sorted()                       // Input stream is already sorted
+		return classNames(key).stream()
 				.map(name -> prefix + name + ";")  // Re-adds the prefix and the suffix to the suggestions
 				.collect(Collectors.toList());
 	}
@@ -7,7 +7,9 @@ import org.objectweb.asm.tree.*;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.objectweb.asm.ClassReader.*;
 
@@ -21,6 +23,7 @@ public class ClassUtil {
 	 * The offset from which a version and the version constant value is. For example, Java 8 is 52 <i>(44 + 8)</i>.
 	 */
 	public static final int VERSION_OFFSET = 44;
+	private static final int CONSTANT_CLASS_TAG = 7;
 
 	/**
 	 * @param name
@@ -165,6 +168,27 @@ public class ClassUtil {
 		return methods;
 	}
 
+	/**
+	 * @param reader
+	 * 		Class to read.
+	 *
+	 * @return Set of class names referenced in the class's constant pool. Array types are excluded.
+	 */
+	public static Set<String> getReferencedClasses(ClassReader reader) {
+		Set<String> names = new LinkedHashSet<>();
+		char[] buffer = new char[reader.getMaxStringLength()];
+		for (int i = 1; i < reader.getItemCount(); i++) {
+			int offset = reader.getItem(i);
+			// Second slots of wide constants have no offset
+			if (offset <= 0 || reader.readByte(offset - 1) != CONSTANT_CLASS_TAG)
+				continue;
+			String name = reader.readUTF8(offset, buffer);
+			if (name != null && !name.isEmpty() && name.charAt(0) != '[')
+				names.add(name);
+		}
+		return names;
+	}
+
 	/**
 	 * @param reader
 	 * 		Class to visit.
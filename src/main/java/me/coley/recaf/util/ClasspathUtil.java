@@ -13,11 +13,13 @@ import java.lang.reflect.Modifier;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.*;
 import java.util.*;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
 import static java.lang.Class.forName;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Classpath utility.
@@ -40,7 +42,7 @@ public class ClasspathUtil {
 
 	static {
 		try {
-			systemClassNames = Collections.unmodifiableSet(scanBootstrapClasses());
+			systemClassNames = Collections.unmodifiableSet(loadBootstrapClasses());
 		} catch (Exception ex) {
 			throw new ExceptionInInitializerError(ex);
 		}
@@ -185,6 +187,60 @@ public class ClasspathUtil {
 		return names.contains(name) || names.contains(name.replace('.', '/'));
 	}
 
+	/**
+	 * Listing the classes of the runtime is slow, so the names are stored in an index file for each runtime.
+	 *
+	 * @return Names of bootstrap classes, read from the index of the current runtime if it exists.
+	 */
+	private static Set<String> loadBootstrapClasses() throws Exception {
+		Path index = null;
+		try {
+			index = Recaf.getDirectory("classpath").resolve("bootstrap-" + getRuntimeKey() + ".txt");
+			if (Files.isRegularFile(index)) {
+				List<String> names = Files.readAllLines(index, UTF_8);
+				if (checkBootstrapClassExists(names))
+					return new LinkedHashSet<>(names);
+			}
+		} catch (Throwable t) {
+			Log.debug("Failed to read bootstrap class index: {}", t.toString());
+		}
+		Set<String> classes = scanBootstrapClasses();
+		if (index != null && checkBootstrapClassExists(classes)) {
+			Path temp = null;
+			try {
+				// Written to a temporary file first, so other instances never read a partial index
+				Files.createDirectories(index.getParent());
+				temp = Files.createTempFile(index.getParent(), "bootstrap", ".tmp");
+				Files.write(temp, classes, UTF_8);
+				Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING);
+			} catch (Throwable t) {
+				Log.debug("Failed to write bootstrap class index: {}", t.toString());
+			} finally {
+				// Left behind only if it could not be moved
+				if (temp != null)
+					deleteQuietly(temp);
+			}
+		}
+		return classes;
+	}
+
+	private static void deleteQuietly(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException ex) {
+			Log.debug("Failed to delete temporary file: {}", path);
+		}
+	}
+
+	/**
+	 * @return Identifier of the current runtime.
+	 */
+	private static String getRuntimeKey() {
+		String key = System.getProperty("java.home") + '|' + System.getProperty("java.runtime.version") +
+				'|' + System.getProperty("java.vm.version");
+		return Integer.toHexString(key.hashCode());
+	}
+
 	private static Set<String> scanBootstrapClasses() throws Exception {
 		int vmVersion = VMUtil.getVmVersion();
 		Set<String> classes = new LinkedHashSet<>(4096, 1F);
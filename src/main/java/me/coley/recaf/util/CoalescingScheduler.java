@@ -0,0 +1,98 @@
+package me.coley.recaf.util;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Scheduler where only the latest action is run. Actions are delayed, and scheduling a new action cancels
+ * the previous one. A burst of actions scheduled within the delay of each other only runs the last one.
+ * <br>
+ * Each action is given a generation number. Actions that are already running when they are superseded are
+ * interrupted, and can check {@link #isCurrent(long)} to drop their results.
+ *
+ * @author Matt
+ */
+public class CoalescingScheduler {
+	private final AtomicLong generation = new AtomicLong();
+	private volatile long delay;
+	private Future<?> pending;
+
+	/**
+	 * @param delay
+	 * 		Time in milliseconds to wait before running an action.
+	 */
+	public CoalescingScheduler(long delay) {
+		setDelay(delay);
+	}
+
+	/**
+	 * @param delay
+	 * 		Time in milliseconds to wait before running an action.
+	 */
+	public void setDelay(long delay) {
+		this.delay = Math.max(0, delay);
+	}
+
+	/**
+	 * @param action
+	 * 		Action to run, given its generation.
+	 *
+	 * @return Generation of the action.
+	 */
+	public synchronized long schedule(LongConsumer action) {
+		long current = generation.incrementAndGet();
+		if(pending != null)
+			pending.cancel(true);
+		pending = ThreadUtil.runDelayed(delay, () -> {
+			if(isCurrent(current))
+				action.accept(current);
+		});
+		return current;
+	}
+
+	/**
+	 * @param supplier
+	 * 		Value generator, run on a non-jfx thread.
+	 * @param consumer
+	 * 		JavaFx consumer thread, takes the supplied value. Not called if the action was superseded.
+	 * @param <T>
+	 * 		Type of value.
+	 *
+	 * @return Generation of the action.
+	 */
+	public <T> long schedule(Supplier<T> supplier, Consumer<T> consumer) {
+		return schedule(current -> {
+			T value = supplier.get();
+			if(isCurrent(current))
+				Platform.runLater(() -> {
+					if(isCurrent(current))
+						consumer.accept(value);
+				});
+		});
+	}
+
+	/**
+	 * Cancel the scheduled action.
+	 */
+	public synchronized void cancel() {
+		generation.incrementAndGet();
+		if(pending != null)
+			pending.cancel(true);
+		pending = null;
+	}
+
+	/**
+	 * @param generation
+	 * 		Generation of an action.
+	 *
+	 * @return {@code true} if no action has been scheduled since.
+	 */
+	public boolean isCurrent(long generation) {
+		return this.generation.get() == generation;
+	}
+}
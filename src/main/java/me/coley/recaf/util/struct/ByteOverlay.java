@@ -0,0 +1,95 @@
+package me.coley.recaf.util.struct;
+
+import java.util.*;
+
+/**
+ * Editable view of a byte array that does not modify the array. Changed bytes are kept in copies of the pages
+ * of the array they belong to, so that edits of large content only copy the pages that were edited.
+ *
+ * @author Matt
+ */
+public class ByteOverlay {
+	private static final int PAGE_BITS = 12;
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+	private final Map<Integer, byte[]> pages = new HashMap<>();
+	private final byte[] base;
+
+	/**
+	 * @param base
+	 * 		Original content.
+	 */
+	public ByteOverlay(byte[] base) {
+		this.base = base;
+	}
+
+	/**
+	 * @return Length of the content.
+	 */
+	public int size() {
+		return base.length;
+	}
+
+	/**
+	 * @param index
+	 * 		Offset in the content.
+	 *
+	 * @return Byte at the offset.
+	 */
+	public byte get(int index) {
+		byte[] page = pages.get(index >>> PAGE_BITS);
+		if (page == null)
+			return base[index];
+		return page[index & (PAGE_SIZE - 1)];
+	}
+
+	/**
+	 * @param index
+	 * 		Offset in the content.
+	 * @param value
+	 * 		New byte at the offset.
+	 */
+	public void set(int index, byte value) {
+		if (index < 0 || index >= base.length)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + base.length);
+		int pageIndex = index >>> PAGE_BITS;
+		byte[] page = pages.get(pageIndex);
+		if (page == null) {
+			if (base[index] == value)
+				return;
+			int start = pageIndex << PAGE_BITS;
+			page = Arrays.copyOfRange(base, start, Math.min(start + PAGE_SIZE, base.length));
+			pages.put(pageIndex, page);
+		}
+		page[index & (PAGE_SIZE - 1)] = value;
+	}
+
+	/**
+	 * @return {@code true} if any byte differs from the original content.
+	 */
+	public boolean isModified() {
+		for (Map.Entry<Integer, byte[]> e : pages.entrySet()) {
+			int start = e.getKey() << PAGE_BITS;
+			byte[] page = e.getValue();
+			for (int i = 0; i < page.length; i++)
+				if (page[i] != base[start + i])
+					return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return Copy of the content with all changes applied.
+	 */
+	public byte[] toArray() {
+		byte[] array = base.clone();
+		pages.forEach((pageIndex, page) -> System.arraycopy(page, 0, array, pageIndex << PAGE_BITS, page.length));
+		return array;
+	}
+
+	/**
+	 * Discard all changes.
+	 */
+	public void reset() {
+		pages.clear();
+	}
+}
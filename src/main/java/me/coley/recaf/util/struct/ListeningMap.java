@@ -1,6 +1,7 @@
 package me.coley.recaf.util.struct;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -10,13 +11,14 @@ import java.util.function.Consumer;
  * <li>{@link #getPutListeners()}</li>
  * <li>{@link #getRemoveListeners()}</li>
  * </ul>
+ * Listeners may be added and removed while other threads update the map.
  *
  * @param <K> Key type of map.
  * @param <V> Value type of map.
  */
 public class ListeningMap<K, V> implements Map<K, V> {
-	private final Set<BiConsumer<K, V>> putListeners = new HashSet<>();
-	private final Set<Consumer<Object>> removeListeners = new HashSet<>();
+	private final Set<BiConsumer<K, V>> putListeners = new CopyOnWriteArraySet<>();
+	private final Set<Consumer<Object>> removeListeners = new CopyOnWriteArraySet<>();
 	private Map<K, V> backing;
 
 	/**
@@ -0,0 +1,299 @@
+package me.coley.recaf.workspace;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static me.coley.recaf.util.Log.*;
+
+/**
+ * Map of class names to values parsed from the entries of an attachment archive, such as sources or
+ * documentation. Only the entry names are read when the map is created. Each entry is parsed when its class
+ * is first requested, and a bounded number of parsed values are cached. Iterating over the map parses all
+ * remaining entries in parallel.
+ *
+ * @param <V>
+ * 		Parsed value type.
+ *
+ * @author Matt
+ */
+class AttachmentMap<V> extends AbstractMap<String, V> {
+	private static final int CACHE_SIZE = 512;
+	private final Path path;
+	private final EntryParser<V> parser;
+	private final Map<String, String> entryNames = new HashMap<>();
+	private final Map<String, V> overrides = new HashMap<>();
+	private final Map<String, Optional<V>> cache = new LinkedHashMap<String, Optional<V>>(16, 0.75F, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Optional<V>> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+	private SoftReference<Map<String, V>> all = new SoftReference<>(null);
+
+	/**
+	 * @param path
+	 * 		Archive to read from.
+	 * @param namer
+	 * 		Provides the class names of entries.
+	 * @param parser
+	 * 		Parses the content of entries.
+	 *
+	 * @throws IOException
+	 * 		When the archive could not be read.
+	 */
+	AttachmentMap(Path path, EntryNamer namer, EntryParser<V> parser) throws IOException {
+		this.path = path;
+		this.parser = parser;
+		// Will throw IO exception if the file couldn't be opened as an archive
+		try (ZipFile zip = new ZipFile(path.toFile())) {
+			Map<String, String> names = run(Collections.list(zip.entries()), entry -> {
+				try {
+					return namer.getName(zip, entry);
+				} catch(IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+			// Entries with the same class name are resolved by their order in the archive
+			for (ZipEntry entry : Collections.list(zip.entries())) {
+				String name = names.get(entry.getName());
+				if (name != null)
+					entryNames.putIfAbsent(name, entry.getName());
+			}
+		} catch(UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+	}
+
+	@Override
+	public V get(Object key) {
+		String entryName;
+		synchronized (this) {
+			if (overrides.containsKey(key))
+				return overrides.get(key);
+			Map<String, V> loaded = all.get();
+			if (loaded != null)
+				return loaded.get(key);
+			Optional<V> cached = cache.get(key);
+			if (cached != null)
+				return cached.orElse(null);
+			entryName = entryNames.get(key);
+		}
+		if (entryName == null)
+			return null;
+		V value = null;
+		try (ZipFile zip = new ZipFile(path.toFile())) {
+			ZipEntry entry = zip.getEntry(entryName);
+			if (entry != null)
+				value = parse(zip, entry);
+		} catch(IOException ex) {
+			error(ex, "Failed to read attachment entry: {} in {}", entryName, path);
+		}
+		synchronized (this) {
+			// Skip caching if the entry was replaced while parsing
+			if (entryNames.containsKey(key) && !overrides.containsKey(key))
+				cache.put((String) key, Optional.ofNullable(value));
+		}
+		return value;
+	}
+
+	@Override
+	public synchronized boolean containsKey(Object key) {
+		return overrides.containsKey(key) || entryNames.containsKey(key);
+	}
+
+	@Override
+	public synchronized V put(String key, V value) {
+		V old = get(key);
+		overrides.put(key, value);
+		invalidate(key);
+		return old;
+	}
+
+	@Override
+	public synchronized V remove(Object key) {
+		V old = get(key);
+		overrides.remove(key);
+		entryNames.remove(key);
+		invalidate(key);
+		return old;
+	}
+
+	@Override
+	public synchronized void clear() {
+		overrides.clear();
+		entryNames.clear();
+		cache.clear();
+		all.clear();
+	}
+
+	@Override
+	public synchronized int size() {
+		int size = entryNames.size();
+		for (String key : overrides.keySet())
+			if (!entryNames.containsKey(key))
+				size++;
+		return size;
+	}
+
+	@Override
+	public synchronized Set<String> keySet() {
+		Set<String> keys = new HashSet<>(entryNames.keySet());
+		keys.addAll(overrides.keySet());
+		return Collections.unmodifiableSet(keys);
+	}
+
+	/**
+	 * Parses every entry that is not cached. Entries that failed to parse are not included.
+	 *
+	 * @return Snapshot of all entries.
+	 */
+	@Override
+	public synchronized Set<Entry<String, V>> entrySet() {
+		Map<String, V> loaded = all.get();
+		if (loaded == null) {
+			loaded = new HashMap<>();
+			List<String> missing = new ArrayList<>();
+			for (Map.Entry<String, String> e : entryNames.entrySet()) {
+				Optional<V> cached = cache.get(e.getKey());
+				if (cached == null)
+					missing.add(e.getValue());
+				else if (cached.isPresent())
+					loaded.put(e.getKey(), cached.get());
+			}
+			if (!missing.isEmpty()) {
+				try (ZipFile zip = new ZipFile(path.toFile())) {
+					Map<String, String> classNames = new HashMap<>();
+					entryNames.forEach((name, entry) -> classNames.put(entry, name));
+					List<ZipEntry> entries = new ArrayList<>();
+					for (String name : missing) {
+						ZipEntry entry = zip.getEntry(name);
+						if (entry != null)
+							entries.add(entry);
+					}
+					Map<String, V> values = run(entries, entry -> parse(zip, entry));
+					for (Map.Entry<String, V> e : values.entrySet())
+						loaded.put(classNames.get(e.getKey()), e.getValue());
+				} catch(IOException ex) {
+					error(ex, "Failed to read attachment: {}", path);
+				}
+			}
+			all = new SoftReference<>(loaded);
+		}
+		Map<String, V> snapshot = new HashMap<>(loaded);
+		snapshot.putAll(overrides);
+		return Collections.unmodifiableMap(snapshot).entrySet();
+	}
+
+	/**
+	 * Parses every entry that is not cached. Entries that failed to parse are not included.
+	 *
+	 * @return Snapshot of all values.
+	 */
+	@Override
+	public Collection<V> values() {
+		List<V> values = new ArrayList<>();
+		for (Entry<String, V> e : entrySet())
+			values.add(e.getValue());
+		return Collections.unmodifiableList(values);
+	}
+
+	private void invalidate(Object key) {
+		cache.remove(key);
+		all.clear();
+	}
+
+	private V parse(ZipFile zip, ZipEntry entry) {
+		try (InputStream in = zip.getInputStream(entry)) {
+			return parser.parse(entry.getName(), IOUtils.toString(in, StandardCharsets.UTF_8));
+		} catch(IOException ex) {
+			error(ex, "Failed to read attachment entry: {} in {}", entry.getName(), path);
+			return null;
+		}
+	}
+
+	/**
+	 * @param entries
+	 * 		Entries to process, in parallel.
+	 * @param action
+	 * 		Action to run on each entry. Results that are {@code null} are not included.
+	 * @param <T>
+	 * 		Result type.
+	 *
+	 * @return Map of entry names to results.
+	 */
+	private static <T> Map<String, T> run(List<? extends ZipEntry> entries, Function<ZipEntry, T> action) {
+		Map<String, T> results = new ConcurrentHashMap<>();
+		if (entries.isEmpty())
+			return results;
+		int threads = Math.min(entries.size(), Runtime.getRuntime().availableProcessors());
+		ExecutorService service = Executors.newFixedThreadPool(threads,
+				new ThreadFactoryBuilder()
+						.setNameFormat("Recaf Attachment Thread #%d")
+						.setDaemon(true).build());
+		try {
+			List<CompletableFuture<Void>> futures = new ArrayList<>();
+			for (ZipEntry entry : entries)
+				futures.add(CompletableFuture.runAsync(() -> {
+					T result = action.apply(entry);
+					if (result != null)
+						results.put(entry.getName(), result);
+				}, service));
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+		} catch(CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException)
+				throw (RuntimeException) ex.getCause();
+			throw ex;
+		} finally {
+			service.shutdownNow();
+		}
+		return results;
+	}
+
+	/**
+	 * Provides class names of archive entries.
+	 */
+	interface EntryNamer {
+		/**
+		 * @param zip
+		 * 		Archive containing the entry.
+		 * @param entry
+		 * 		Entry to name.
+		 *
+		 * @return Internal name of the class the entry belongs to, or {@code null} to skip the entry.
+		 *
+		 * @throws IOException
+		 * 		When the entry could not be read.
+		 */
+		String getName(ZipFile zip, ZipEntry entry) throws IOException;
+	}
+
+	/**
+	 * Parses content of archive entries.
+	 *
+	 * @param <V>
+	 * 		Parsed value type.
+	 */
+	interface EntryParser<V> {
+		/**
+		 * @param name
+		 * 		Entry name.
+		 * @param content
+		 * 		Entry text.
+		 *
+		 * @return Parsed value, or {@code null} if the content could not be parsed.
+		 */
+		V parse(String name, String content);
+	}
+}
@@ -0,0 +1,241 @@
+package me.coley.recaf.workspace;
+
+import me.coley.recaf.util.ClasspathUtil;
+import me.coley.recaf.util.struct.ListeningMap;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Sorted index of the class names in a workspace and the system classpath, for completions. Names are also
+ * indexed by their simple name and by the capital letters of their simple name.
+ * <br>
+ * The index is updated when classes are added to or removed from the workspace's resources, so lookups
+ * do not need to copy or sort the workspace's names.
+ *
+ * @author Matt
+ */
+public class ClassNameIndex {
+	private static final char SEPARATOR = '\0';
+	private static Names systemNames;
+	private final Names workspaceNames = new Names();
+	private final Map<JavaResource, Listener> listeners = new IdentityHashMap<>();
+	private final Workspace workspace;
+	private volatile List<JavaResource> resources = Collections.emptyList();
+
+	/**
+	 * @param workspace
+	 * 		Workspace to index. May be {@code null} to only index the system classpath.
+	 */
+	public ClassNameIndex(Workspace workspace) {
+		this.workspace = workspace;
+	}
+
+	/**
+	 * @return Sorted names of classes in the workspace.
+	 */
+	public NavigableSet<String> getWorkspaceNames() {
+		return getWorkspace().names;
+	}
+
+	/**
+	 * @param prefix
+	 * 		Start of the class names.
+	 *
+	 * @return Sorted names of classes in the workspace and system classpath starting with the prefix.
+	 */
+	public List<String> startingWith(String prefix) {
+		return merge(range(getWorkspace().names, prefix), range(getSystem().names, prefix));
+	}
+
+	/**
+	 * @param prefix
+	 * 		Start of the simple names.
+	 *
+	 * @return Names of classes in the workspace and system classpath whose simple name starts with the
+	 * prefix, sorted by simple name.
+	 */
+	public List<String> bySimpleName(String prefix) {
+		return names(merge(range(getWorkspace().simpleNames, prefix), range(getSystem().simpleNames, prefix)));
+	}
+
+	/**
+	 * @param capitals
+	 * 		Start of the capital letters of the simple names. For example {@code "AL"} for {@code ArrayList}.
+	 *
+	 * @return Names of classes in the workspace and system classpath whose simple name's capital letters
+	 * start with the given ones.
+	 */
+	public List<String> byCapitals(String capitals) {
+		return names(merge(range(getWorkspace().capitals, capitals), range(getSystem().capitals, capitals)));
+	}
+
+	/**
+	 * @return Names of the workspace, updated to include any resources added since the last lookup.
+	 */
+	private synchronized Names getWorkspace() {
+		if (workspace == null)
+			return workspaceNames;
+		List<JavaResource> current = new ArrayList<>();
+		current.add(workspace.getPrimary());
+		current.addAll(workspace.getLibraries());
+		if (current.equals(resources))
+			return workspaceNames;
+		// Resources are rarely changed, so the names are re-indexed entirely
+		listeners.forEach((resource, listener) -> listener.detach());
+		listeners.clear();
+		workspaceNames.clear();
+		for (JavaResource resource : current) {
+			Listener listener = new Listener(resource);
+			listeners.put(resource, listener);
+			listener.attach();
+		}
+		resources = current;
+		return workspaceNames;
+	}
+
+	/**
+	 * @return Names of the system classpath.
+	 */
+	private static synchronized Names getSystem() {
+		if (systemNames == null) {
+			systemNames = new Names();
+			systemNames.addAll(ClasspathUtil.getSystemClassNames());
+		}
+		return systemNames;
+	}
+
+	/**
+	 * @param name
+	 * 		Class name being removed from a resource.
+	 * @param removing
+	 * 		The resource the class is being removed from.
+	 *
+	 * @return {@code true} if another resource still contains the class.
+	 */
+	private boolean isDefinedElsewhere(String name, JavaResource removing) {
+		for (JavaResource resource : resources)
+			if (resource != removing && resource.getClasses().containsKey(name))
+				return true;
+		return false;
+	}
+
+	private static SortedSet<String> range(NavigableSet<String> set, String prefix) {
+		return set.subSet(prefix, true, prefix + Character.MAX_VALUE, false);
+	}
+
+	private static List<String> names(List<String> keys) {
+		keys.replaceAll(key -> key.substring(key.indexOf(SEPARATOR) + 1));
+		return keys;
+	}
+
+	/**
+	 * @param first
+	 * 		Sorted names.
+	 * @param second
+	 * 		Sorted names.
+	 *
+	 * @return Sorted names of both collections, without duplicates.
+	 */
+	private static List<String> merge(Collection<String> first, Collection<String> second) {
+		if (second.isEmpty())
+			return new ArrayList<>(first);
+		Set<String> names = new LinkedHashSet<>(first.size() + second.size());
+		Iterator<String> a = first.iterator();
+		Iterator<String> b = second.iterator();
+		String nextA = a.hasNext() ? a.next() : null;
+		String nextB = b.hasNext() ? b.next() : null;
+		while (nextA != null || nextB != null) {
+			if (nextB == null || (nextA != null && nextA.compareTo(nextB) <= 0)) {
+				names.add(nextA);
+				nextA = a.hasNext() ? a.next() : null;
+			} else {
+				names.add(nextB);
+				nextB = b.hasNext() ? b.next() : null;
+			}
+		}
+		return new ArrayList<>(names);
+	}
+
+	/**
+	 * Sorted sets of names, and of names keyed by their simple name and capitals.
+	 */
+	private static class Names {
+		private final NavigableSet<String> names = new ConcurrentSkipListSet<>();
+		private final NavigableSet<String> simpleNames = new ConcurrentSkipListSet<>();
+		private final NavigableSet<String> capitals = new ConcurrentSkipListSet<>();
+
+		private void addAll(Collection<String> all) {
+			for (String name : all)
+				add(name);
+		}
+
+		private void add(String name) {
+			if (!names.add(name))
+				return;
+			simpleNames.add(simpleKey(name));
+			capitals.add(capitalsKey(name));
+		}
+
+		private void remove(String name) {
+			if (!names.remove(name))
+				return;
+			simpleNames.remove(simpleKey(name));
+			capitals.remove(capitalsKey(name));
+		}
+
+		private void clear() {
+			names.clear();
+			simpleNames.clear();
+			capitals.clear();
+		}
+
+		private static String simpleKey(String name) {
+			return name.substring(name.lastIndexOf('/') + 1) + SEPARATOR + name;
+		}
+
+		private static String capitalsKey(String name) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = name.lastIndexOf('/') + 1; i < name.length(); i++) {
+				char c = name.charAt(i);
+				if (Character.isUpperCase(c))
+					sb.append(c);
+			}
+			return sb.append(SEPARATOR).append(name).toString();
+		}
+	}
+
+	/**
+	 * Updates the workspace names with the changes of a resource's classes.
+	 */
+	private class Listener {
+		private final JavaResource resource;
+		private final BiConsumer<String, byte[]> put = (name, value) -> workspaceNames.add(name);
+		private final Consumer<Object> remove;
+
+		private Listener(JavaResource resource) {
+			this.resource = resource;
+			this.remove = key -> {
+				String name = (String) key;
+				if (!isDefinedElsewhere(name, resource))
+					workspaceNames.remove(name);
+			};
+		}
+
+		private void attach() {
+			ListeningMap<String, byte[]> classes = resource.getClasses();
+			// Listener sets are concurrent, so they can be changed while the resource is being updated
+			classes.getPutListeners().add(put);
+			classes.getRemoveListeners().add(remove);
+			workspaceNames.addAll(classes.keySet());
+		}
+
+		private void detach() {
+			ListeningMap<String, byte[]> classes = resource.getClasses();
+			classes.getPutListeners().remove(put);
+			classes.getRemoveListeners().remove(remove);
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package me.coley.recaf.workspace;
+
+import me.coley.recaf.Recaf;
+import me.coley.recaf.util.CoalescingScheduler;
+import me.coley.recaf.util.Log;
+import me.coley.recaf.util.ThreadUtil;
+import me.coley.recaf.util.VMUtil;
+import me.coley.recaf.util.struct.ListeningMap;
+import org.objectweb.asm.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Redefines the classes of an {@link InstrumentationResource} as they are changed. Changes made within a short
+ * delay of each other are redefined together. Changes the JVM cannot apply to loaded classes, such as adding
+ * fields or changing the hierarchy, are reported instead of attempted, and hold back the other changes made
+ * with them.
+ *
+ * @author Matt
+ */
+public class HotPatcher {
+	private static final long DELAY = 250;
+	private static final String ADD_DELETE_METHODS_FLAG = "AllowRedefinitionToAddDeleteMethods";
+	// Since JDK 13 private static or final methods may only be added or removed with the flag above
+	private static final boolean ADD_DELETE_METHODS = VMUtil.getVmVersion() < 13 || isAddDeleteMethodsEnabled();
+	private final InstrumentationResource resource;
+	private final CoalescingScheduler scheduler = new CoalescingScheduler(DELAY);
+	// Class name to time of the first change not yet redefined
+	private final Map<String, Long> pending = new ConcurrentHashMap<>();
+	private final BiConsumer<String, byte[]> listener = this::onPut;
+	private boolean enabled;
+
+	/**
+	 * @param resource
+	 * 		Resource to redefine classes of.
+	 */
+	HotPatcher(InstrumentationResource resource) {
+		this.resource = resource;
+	}
+
+	/**
+	 * @param enabled
+	 * 		{@code true} to redefine classes when they are changed.
+	 */
+	synchronized void setEnabled(boolean enabled) {
+		if (this.enabled == enabled)
+			return;
+		this.enabled = enabled;
+		ListeningMap<String, byte[]> classes = resource.getClasses();
+		if (enabled)
+			classes.getPutListeners().add(listener);
+		else
+			classes.getPutListeners().remove(listener);
+		if (enabled) {
+			// Include changes made before being enabled
+			long now = System.currentTimeMillis();
+			for (String name : resource.getDirtyClasses())
+				pending.putIfAbsent(name, now);
+			if (!pending.isEmpty())
+				schedule();
+		} else {
+			scheduler.cancel();
+			pending.clear();
+		}
+	}
+
+	/**
+	 * @return {@code true} when classes are redefined when they are changed.
+	 */
+	synchronized boolean isEnabled() {
+		return enabled;
+	}
+
+	private void onPut(String name, byte[] value) {
+		// Classes captured from the JVM are already loaded
+		if (value == resource.getLoaded(name))
+			return;
+		pending.putIfAbsent(name, System.currentTimeMillis());
+		schedule();
+	}
+
+	private void schedule() {
+		// Redefinitions are run separately so a new change does not interrupt one
+		scheduler.schedule(generation -> ThreadUtil.run(() -> apply()));
+	}
+
+	/**
+	 * Redefine pending changes.
+	 */
+	private synchronized void apply() {
+		if (!enabled)
+			return;
+		Map<String, Long> changes = new HashMap<>();
+		for (String name : new ArrayList<>(pending.keySet())) {
+			Long time = pending.remove(name);
+			// Skip classes that have been redefined or reverted since
+			if (time != null && resource.getDirtyClasses().contains(name))
+				changes.put(name, time);
+		}
+		if (changes.isEmpty())
+			return;
+		// Changes may depend on each other, so none are redefined if any of them cannot be
+		boolean compatible = true;
+		for (String name : changes.keySet()) {
+			String reason = getIncompatibility(resource.getLoaded(name), resource.getClasses().get(name));
+			if (reason != null) {
+				Log.warn("Cannot hot-patch {}, {}", name, reason);
+				compatible = false;
+			}
+		}
+		if (!compatible) {
+			// Retried with the next change
+			changes.forEach(pending::putIfAbsent);
+			Log.warn("Held back {} changed classes until all of them can be hot-patched", changes.size());
+			return;
+		}
+		List<String> names = new ArrayList<>(changes.keySet());
+		long start = System.currentTimeMillis();
+		try {
+			resource.redefine(names);
+		} catch (Throwable t) {
+			changes.forEach(pending::putIfAbsent);
+			Log.error(t, "Failed to hot-patch {} classes", names.size());
+			return;
+		}
+		long end = System.currentTimeMillis();
+		for (String name : names)
+			Log.info("Hot-patched {} in {} ms after the change, redefinition took {} ms",
+					name, end - changes.get(name), end - start);
+	}
+
+	/**
+	 * The JVM only allows method bodies to be changed when redefining a class. Before JDK 13, or when the JVM
+	 * is started with {@code -XX:+AllowRedefinitionToAddDeleteMethods}, private methods that are static or
+	 * final may also be added or removed.
+	 *
+	 * @param loaded
+	 * 		Code of the class loaded in the JVM. May be {@code null} if not known.
+	 * @param changed
+	 * 		Changed code of the class.
+	 *
+	 * @return Description of the change that prevents the class from being redefined, or {@code null} if the
+	 * class can be redefined.
+	 */
+	public static String getIncompatibility(byte[] loaded, byte[] changed) {
+		return getIncompatibility(loaded, changed, ADD_DELETE_METHODS);
+	}
+
+	/**
+	 * @param loaded
+	 * 		Code of the class loaded in the JVM. May be {@code null} if not known.
+	 * @param changed
+	 * 		Changed code of the class.
+	 * @param addDeleteMethods
+	 * 		{@code true} if the JVM allows private methods that are static or final to be added or removed.
+	 *
+	 * @return Description of the change that prevents the class from being redefined, or {@code null} if the
+	 * class can be redefined.
+	 */
+	public static String getIncompatibility(byte[] loaded, byte[] changed, boolean addDeleteMethods) {
+		if (loaded == null || changed == null || loaded == changed)
+			return null;
+		Schema old = new Schema(loaded);
+		Schema now = new Schema(changed);
+		if (!old.name.equals(now.name))
+			return "the class was renamed";
+		if (old.access != now.access)
+			return "the class modifiers changed";
+		if (!Objects.equals(old.superName, now.superName) || !old.interfaces.equals(now.interfaces))
+			return "the class hierarchy changed";
+		if (!old.fields.equals(now.fields))
+			return "fields were added, removed or changed";
+		Set<String> added = new HashSet<>(now.methods.keySet());
+		added.removeAll(old.methods.keySet());
+		Set<String> removed = new HashSet<>(old.methods.keySet());
+		removed.removeAll(now.methods.keySet());
+		for (String method : added)
+			if (!addDeleteMethods || !isPrivateStaticOrFinal(now.methods.get(method)))
+				return "method " + method + " was added";
+		for (String method : removed)
+			if (!addDeleteMethods || !isPrivateStaticOrFinal(old.methods.get(method)))
+				return "method " + method + " was removed";
+		for (Map.Entry<String, Integer> e : old.methods.entrySet()) {
+			Integer access = now.methods.get(e.getKey());
+			if (access != null && !access.equals(e.getValue()))
+				return "the modifiers of method " + e.getKey() + " changed";
+		}
+		return null;
+	}
+
+	private static boolean isPrivateStaticOrFinal(int access) {
+		return (access & Opcodes.ACC_PRIVATE) != 0 && (access & (Opcodes.ACC_STATIC | Opcodes.ACC_FINAL)) != 0;
+	}
+
+	private static boolean isAddDeleteMethodsEnabled() {
+		try {
+			com.sun.management.HotSpotDiagnosticMXBean bean =
+					ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+			if (bean != null)
+				return Boolean.parseBoolean(bean.getVMOption(ADD_DELETE_METHODS_FLAG).getValue());
+		} catch(Throwable t) {
+			// Not a HotSpot JVM, or the option is not known to it
+		}
+		return ManagementFactory.getRuntimeMXBean().getInputArguments()
+				.contains("-XX:+" + ADD_DELETE_METHODS_FLAG);
+	}
+
+	/**
+	 * Declarations of a class that cannot be changed by a redefinition.
+	 */
+	private static class Schema extends ClassVisitor {
+		// Pseudo flags like deprecation, and the super flag which the JVM ignores, are not compared
+		private static final int CLASS_MASK = 0xFFFF & ~Opcodes.ACC_SUPER;
+		private final List<String> fields = new ArrayList<>();
+		private final Map<String, Integer> methods = new HashMap<>();
+		private List<String> interfaces;
+		private String name;
+		private String superName;
+		private int access;
+
+		private Schema(byte[] code) {
+			super(Recaf.ASM_VERSION);
+			new ClassReader(code).accept(this, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG |
+					ClassReader.SKIP_FRAMES);
+		}
+
+		@Override
+		public void visit(int version, int access, String name, String signature, String superName,
+						  String[] interfaces) {
+			this.access = access & CLASS_MASK;
+			this.name = name;
+			this.superName = superName;
+			this.interfaces = Arrays.asList(interfaces);
+		}
+
+		@Override
+		public FieldVisitor visitField(int access, String name, String descriptor, String signature,
+									   Object value) {
+			// Order matters, as fields are laid out in order
+			fields.add((access & 0xFFFF) + " " + name + " " + descriptor);
+			return null;
+		}
+
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+										 String[] exceptions) {
+			methods.put(name + descriptor, access & 0xFFFF);
+			return null;
+		}
+	}
+}
@@ -22,6 +22,7 @@ import java.lang.instrument.UnmodifiableClassException;
 import java.security.ProtectionDomain;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 /**
  * Importable instrumentation resource.
@@ -33,7 +34,12 @@ public class InstrumentationResource extends JavaResource {
 			ResourceKind.INSTRUMENTATION,
 			"Instrumentation");
 	public static Instrumentation instrumentation;
+	private static final int MIN_BATCH_SIZE = 64;
+	private static final int MAX_BATCH_SIZE = 4096;
 	private static InstrumentationResource instance;
+	// Class name to the code of the class currently loaded in the JVM
+	private final Map<String, byte[]> loaded = new ConcurrentHashMap<>();
+	private final HotPatcher hotPatcher = new HotPatcher(this);
 
 	/**
 	 * Constructs an instrumentation resource.
@@ -66,8 +72,9 @@ public class InstrumentationResource extends JavaResource {
 	public static Workspace setup(Controller controller) {
 		try {
 			// Add transformer to add new classes to the map
+			// It must be able to retransform, as live code is captured by retransforming classes
 			ClassFileTransformer transformer = new InstrumentationResourceTransformer();
-			instrumentation.addTransformer(transformer);
+			instrumentation.addTransformer(transformer, true);
 			// Setup hook for workspace.
 			PluginsManager.getInstance()
 					.addPlugin(new InstrumentationPlugin(instance, transformer));
@@ -96,22 +103,62 @@ public class InstrumentationResource extends JavaResource {
 			return;
 		}
 		Log.info("Preparing to redefine {} classes", dirty.size());
-		ClassDefinition[] definitions = new ClassDefinition[dirty.size()];
-		int i = 0;
-		for (String name : dirty) {
+		redefine(dirty);
+		Log.info("Successfully redefined {} classes", dirty.size());
+	}
+
+	/**
+	 * Redefines the given classes. All classes are redefined at once, so that changes across classes are
+	 * applied together. If any class cannot be redefined, none of them are. Classes with changes the JVM
+	 * cannot apply are logged, so they can be found without redefining the others separately.
+	 *
+	 * @param names
+	 * 		Names of classes to redefine with their current code.
+	 *
+	 * @throws ClassNotFoundException
+	 * 		When the modified class couldn't be found.
+	 * @throws UnmodifiableClassException
+	 * 		When the modified class is not allowed to be modified.
+	 * @throws ClassFormatError
+	 * 		When the modified class is not valid.
+	 */
+	public void redefine(Collection<String> names) throws ClassNotFoundException, UnmodifiableClassException,
+			ClassFormatError {
+		List<ClassDefinition> definitions = new ArrayList<>(names.size());
+		for (String name : names) {
 			String clsName = name.replace('/', '.');
 			Class<?> cls = Class.forName(clsName, false, ClasspathUtil.scl);
 			byte[] value = getClasses().get(name);
 			if (value == null)
 				throw new IllegalStateException("Failed to fetch code for class: " + name);
-			definitions[i] = new ClassDefinition(cls, value);
-			i++;
+			definitions.add(new ClassDefinition(cls, value));
 		}
 		// Apply new definitions
-		instrumentation.redefineClasses(definitions);
-		// We don't want to continually re-apply changes that don't need to be updated
-		getDirtyClasses().clear();
-		Log.info("Successfully redefined {} classes", definitions.length);
+		Map<String, byte[]> previous = new HashMap<>();
+		for (String name : names)
+			previous.put(name, loaded.get(name));
+		try {
+			instrumentation.redefineClasses(definitions.toArray(new ClassDefinition[0]));
+		} catch (Throwable t) {
+			Log.error("Failed to redefine {} classes, none were redefined: {}", names.size(), t.toString());
+			for (String name : names) {
+				// The transformer is given the code of failed attempts too, so the changes are restored
+				byte[] old = previous.get(name);
+				if (old != null)
+					loaded.put(name, old);
+				getDirtyClasses().add(name);
+				String reason = HotPatcher.getIncompatibility(old, getClasses().get(name));
+				if (reason != null)
+					Log.warn("Cannot redefine {}, {}", name, reason);
+			}
+			throw t;
+		}
+		for (ClassDefinition definition : definitions) {
+			String name = Type.getInternalName(definition.getDefinitionClass());
+			loaded.put(name, definition.getDefinitionClassFile());
+			// We don't want to continually re-apply changes that don't need to be updated
+			getDirtyClasses().remove(name);
+		}
 	}
 
 	@Override
@@ -135,11 +182,10 @@ public class InstrumentationResource extends JavaResource {
 	}
 
 	private void loadRuntimeClasses(Map<String, byte[]> map) throws IOException {
-		// iterate over loaded classes
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
-		byte[] buffer = new byte[8192];
-		Class<?>[] klass = {null};
-		int failedTransformations = 0;
+		long start = System.currentTimeMillis();
+		// Live code is captured by the transformer while classes are retransformed
+		List<Class<?>> modifiable = new ArrayList<>();
+		List<Class<?>> unmodifiable = new ArrayList<>();
 		// Let's skipp all Recaf's classes.
 		for(Class<?> c : instrumentation.getAllLoadedClasses()) {
 			if (ClasspathUtil.isRecafClass(c)) {
@@ -152,31 +198,131 @@ public class InstrumentationResource extends JavaResource {
 			// Skip array types
 			if (name.contains("["))
 				continue;
-			try {
-				klass[0] = c;
-				instrumentation.retransformClasses(klass);
-			} catch (UnmodifiableClassException ex) {
-				if (++failedTransformations < 5) {
-					Log.error("Could not get live version of a class {}:", name, ex);
-				}
-				String path = name.concat(".class");
-				ClassLoader loader = c.getClassLoader();
-				try(InputStream in = (loader != null) ?
-						loader.getResourceAsStream(path) :
-						ClassLoader.getSystemResourceAsStream(path)) {
-					if(in != null) {
-						out.reset();
-						getClasses().put(name, IOUtil.toByteArray(in, out, buffer));
-						getDirtyClasses().remove(name);
+			if (instrumentation.isModifiableClass(c))
+				modifiable.add(c);
+			else
+				unmodifiable.add(c);
+		}
+		int[] failedTransformations = {0};
+		runBatched(modifiable, batch -> instrumentation.retransformClasses(batch.toArray(new Class<?>[0])),
+				(c, t) -> {
+					if (++failedTransformations[0] < 5) {
+						Log.error("Could not get live version of a class {}:", Type.getInternalName(c), t);
 					}
+					unmodifiable.add(c);
+				});
+		if (failedTransformations[0] != 0) {
+			Log.error("Could not get live version for {} classes", failedTransformations[0]);
+		}
+		// Fall back to the code the classes were loaded from
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		for (Class<?> c : unmodifiable) {
+			String name = Type.getInternalName(c);
+			String path = name.concat(".class");
+			ClassLoader loader = c.getClassLoader();
+			try(InputStream in = (loader != null) ?
+					loader.getResourceAsStream(path) :
+					ClassLoader.getSystemResourceAsStream(path)) {
+				if(in != null) {
+					out.reset();
+					byte[] value = IOUtil.toByteArray(in, out, buffer);
+					loaded.put(name, value);
+					getClasses().put(name, value);
+					getDirtyClasses().remove(name);
 				}
 			}
 		}
-		if (failedTransformations != 0) {
-			Log.error("Could not get live version for {} classes", failedTransformations);
+		Log.debug("Retransformed {} classes and read {} unmodifiable classes in {} ms",
+				modifiable.size(), unmodifiable.size(), System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * Runs an action over items in batches. Batches grow while they succeed and shrink when they fail, and
+	 * failed batches are {@link #runBisecting(List, BatchAction, BiConsumer) split up} to find the failing items.
+	 * Only suitable for actions that may be applied to some items without the others, such as capturing code.
+	 *
+	 * @param items
+	 * 		Items to run the action on.
+	 * @param action
+	 * 		Action to run on a batch of items.
+	 * @param failure
+	 * 		Called with items the action fails on.
+	 * @param <T>
+	 * 		Item type.
+	 */
+	private static <T> void runBatched(List<T> items, BatchAction<T> action, BiConsumer<T, Throwable> failure) {
+		int size = MIN_BATCH_SIZE;
+		int i = 0;
+		while (i < items.size()) {
+			List<T> batch = items.subList(i, Math.min(items.size(), i + size));
+			i += batch.size();
+			if (runBisecting(batch, action, failure))
+				size = Math.min(MAX_BATCH_SIZE, size * 2);
+			else
+				size = Math.max(MIN_BATCH_SIZE, size / 2);
 		}
 	}
 
+	/**
+	 * Runs an action over all items at once. If it fails, the items are split in halves which are run
+	 * separately, until the items the action fails on are found.
+	 *
+	 * @param items
+	 * 		Items to run the action on.
+	 * @param action
+	 * 		Action to run on a batch of items. Must not have any effect when it fails.
+	 * @param failure
+	 * 		Called with items the action fails on.
+	 * @param <T>
+	 * 		Item type.
+	 *
+	 * @return {@code true} if the action succeeded for all items at once.
+	 */
+	private static <T> boolean runBisecting(List<T> items, BatchAction<T> action,
+											BiConsumer<T, Throwable> failure) {
+		if (items.isEmpty())
+			return true;
+		try {
+			action.run(items);
+			return true;
+		} catch (Throwable t) {
+			if (items.size() == 1) {
+				failure.accept(items.get(0), t);
+			} else {
+				int mid = items.size() / 2;
+				runBisecting(items.subList(0, mid), action, failure);
+				runBisecting(items.subList(mid, items.size()), action, failure);
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return Code of the class currently loaded in the JVM, or {@code null} if not known.
+	 */
+	byte[] getLoaded(String name) {
+		return loaded.get(name);
+	}
+
+	/**
+	 * @param hotPatching
+	 * 		{@code true} to redefine classes shortly after they are changed, instead of on {@link #save()}.
+	 */
+	public void setHotPatching(boolean hotPatching) {
+		hotPatcher.setEnabled(hotPatching);
+	}
+
+	/**
+	 * @return {@code true} when classes are redefined shortly after they are changed.
+	 */
+	public boolean isHotPatching() {
+		return hotPatcher.isEnabled();
+	}
+
 	/**
 	 * @return Instrumentation resource instance.
 	 *
@@ -223,19 +369,21 @@ public class InstrumentationResource extends JavaResource {
 						res.loadRuntimeClasses(getInstance().getClasses());
 					}
 				}
-			} catch(IOException ex) { return buffer; }
+			} catch(IOException ex) { return null; }
 			// Checks to skip class
 			if (ClasspathUtil.isRecafLoader(loader)) {
-				return buffer;
+				return null;
 			}
 			String internal = className.replace('.', '/');
 			if(res.shouldSkip(internal))
-				return buffer;
+				return null;
 			// Add to classes map
+			res.loaded.put(internal, buffer);
 			res.getClasses().put(internal, buffer);
 			// Make sure the class is NOT marked as dirty after initially registering it
 			res.getDirtyClasses().remove(internal);
-			return buffer;
+			// The class is not changed, which the JVM can skip re-parsing
+			return null;
 		}
 	}
 
@@ -249,6 +397,23 @@ public class InstrumentationResource extends JavaResource {
 		return LOCATION;
 	}
 
+	/**
+	 * Action applied to a batch of items.
+	 *
+	 * @param <T>
+	 * 		Item type.
+	 */
+	private interface BatchAction<T> {
+		/**
+		 * @param items
+		 * 		Items to apply the action to.
+		 *
+		 * @throws Exception
+		 * 		When the action fails for any of the items.
+		 */
+		void run(List<T> items) throws Exception;
+	}
+
 	@Plugin(name = "Instrumentation")
 	private static final class InstrumentationPlugin implements InternalPlugin,
 			StartupPlugin, ExitPlugin {
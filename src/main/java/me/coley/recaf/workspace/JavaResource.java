@@ -10,13 +10,12 @@ import me.coley.recaf.util.InternalElement;
 import me.coley.recaf.util.struct.InternalBiConsumer;
 import me.coley.recaf.util.struct.InternalConsumer;
 import me.coley.recaf.util.struct.ListeningMap;
-import org.apache.commons.io.IOUtils;
 
-import java.io.IOException;
+import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.zip.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static me.coley.recaf.util.Log.*;
 
@@ -33,10 +32,11 @@ public abstract class JavaResource {
 	private final ListeningMap<String, byte[]> cachedFiles = new ListeningMap<>();
 	private final Map<String, History> classHistory = new HashMap<>();
 	private final Map<String, History> fileHistory = new HashMap<>();
-	private final Set<String> dirtyClasses = new HashSet<>();
-	private final Set<String> dirtyFiles = new HashSet<>();
-	private final Map<String, SourceCode> classSource = new HashMap<>();
-	private final Map<String, Javadocs> classDocs = new HashMap<>();
+	// Modified while classes are redefined off the UI thread, see HotPatcher
+	private final Set<String> dirtyClasses = ConcurrentHashMap.newKeySet();
+	private final Set<String> dirtyFiles = ConcurrentHashMap.newKeySet();
+	private Map<String, SourceCode> classSource = new HashMap<>();
+	private Map<String, Javadocs> classDocs = new HashMap<>();
 	private Path classSourceFile;
 	private Path classDocsFile;
 	private boolean isPrimary;
@@ -300,8 +300,8 @@ public abstract class JavaResource {
 		cachedClasses.getRemoveListeners().removeIf(InternalElement.INTERNAL_PREDICATE);
 		cachedClasses.clear();
 		cachedClasses.setBacking(null);
-		classDocs.clear();
-		classSource.clear();
+		classDocs = new HashMap<>();
+		classSource = new HashMap<>();
 		classHistory.clear();
 	}
 
@@ -334,6 +334,9 @@ public abstract class JavaResource {
 	protected abstract Map<String, byte[]> loadFiles() throws IOException;
 
 	/**
+	 * Sources in archives are parsed when they are first requested. Only the package declaration of each
+	 * source file is read up front, to find the class name of the file.
+	 *
 	 * @param path
 	 * 		File containing source code.
 	 *
@@ -343,29 +346,35 @@ public abstract class JavaResource {
 	 * 		When the file could not be fetched or parsed.
 	 */
 	protected Map<String, SourceCode> loadSources(Path path) throws IOException {
-		Map<String, SourceCode> map = new HashMap<>();
-		// Will throw IO exception if the file couldn't be opened as an archive
-		try (ZipFile zip = new ZipFile(path.toFile())) {
-			Enumeration<? extends ZipEntry> entries = zip.entries();
-			while (entries.hasMoreElements()) {
-				ZipEntry entry = entries.nextElement();
-				String name = entry.getName();
-				if (!name.endsWith(".java"))
-					continue;
-				String src = IOUtils.toString(zip.getInputStream(entry), StandardCharsets.UTF_8);
-				try {
-					SourceCode code = new SourceCode(this, src);
-					code.analyze();
-					map.put(code.getInternalName(), code);
-				} catch(SourceCodeException ex) {
-					error(ex, "Failed to parse source: {} in {}", name, path);
-				}
+		return new AttachmentMap<>(path, (zip, entry) -> {
+			String name = entry.getName();
+			if (!name.endsWith(".java"))
+				return null;
+			String simpleName = name.substring(name.lastIndexOf('/') + 1, name.length() - ".java".length());
+			// Package and module declarations have no class
+			if (simpleName.contains("-"))
+				return null;
+			String packageName;
+			try (Reader reader = new BufferedReader(new InputStreamReader(zip.getInputStream(entry),
+					StandardCharsets.UTF_8))) {
+				packageName = readPackage(reader);
 			}
-		}
-		return map;
+			return packageName.isEmpty() ? simpleName : packageName + "/" + simpleName;
+		}, (name, src) -> {
+			try {
+				SourceCode code = new SourceCode(this, src);
+				code.analyze();
+				return code;
+			} catch(SourceCodeException ex) {
+				error(ex, "Failed to parse source: {} in {}", name, path);
+				return null;
+			}
+		});
 	}
 
 	/**
+	 * Documentation in archives is parsed when it is first requested.
+	 *
 	 * @param path
 	 * 		File containing documentation.
 	 *
@@ -375,28 +384,81 @@ public abstract class JavaResource {
 	 * 		When the file could not be fetched or parsed.
 	 */
 	protected Map<String, Javadocs> loadDocs(Path path) throws IOException {
-		Map<String, Javadocs> map = new HashMap<>(512, 1F);
-		// Will throw IO exception if the file couldn't be opened as an archive
-		try (ZipFile zip = new ZipFile(path.toFile())) {
-			Enumeration<? extends ZipEntry> entries = zip.entries();
-			while (entries.hasMoreElements()) {
-				ZipEntry entry = entries.nextElement();
-				String name = entry.getName();
-				if (!name.endsWith(".html"))
+		return new AttachmentMap<>(path, (zip, entry) -> {
+			String name = entry.getName();
+			if (!name.endsWith(".html"))
+				return null;
+			if (name.contains("-") || name.contains("index"))
+				return null;
+			return name.substring(0, name.lastIndexOf('.'));
+		}, (name, src) -> {
+			try {
+				Javadocs docs = new Javadocs(name, src);
+				docs.parse();
+				return docs;
+			} catch(DocumentationParseException ex) {
+				error(ex, "Failed to parse docs: {} in {}", name, path);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Reads the package declaration of a source file, skipping any comments before it.
+	 *
+	 * @param reader
+	 * 		Reader of source code.
+	 *
+	 * @return Internal name of the declared package, or an empty string for the default package.
+	 *
+	 * @throws IOException
+	 * 		When the source could not be read.
+	 */
+	private static String readPackage(Reader reader) throws IOException {
+		StringBuilder word = new StringBuilder();
+		boolean inPackage = false;
+		int c = reader.read();
+		while (c != -1) {
+			if (c == '/') {
+				int next = reader.read();
+				if (next == '/') {
+					// Line comment, ends at the next line
+					while ((c = reader.read()) != -1 && c != '\n') ;
 					continue;
-				if (name.contains("-") || name.contains("index"))
+				} else if (next == '*') {
+					// Block comment, treated as whitespace
+					int prev = 0;
+					while ((c = reader.read()) != -1 && !(prev == '*' && c == '/'))
+						prev = c;
+					c = ' ';
 					continue;
-				String src = IOUtils.toString(zip.getInputStream(entry), StandardCharsets.UTF_8);
-				try {
-					Javadocs docs = new Javadocs(name, src);
-					docs.parse();
-					map.put(docs.getInternalName(), docs);
-				} catch(DocumentationParseException ex) {
-					error(ex, "Failed to parse docs: {} in {}", name, path);
 				}
+				// Not valid before a package declaration
+				return "";
+			}
+			if (c == '\uFEFF') {
+				// Byte order mark
+			} else if (Character.isJavaIdentifierPart(c) || (inPackage && c == '.')) {
+				word.append((char) c);
+			} else if (inPackage) {
+				if (c == ';')
+					return word.toString().replace('.', '/');
+				if (!Character.isWhitespace(c))
+					return "";
+			} else if (word.length() > 0) {
+				// First word decides if there is a package declaration
+				if (!word.toString().equals("package"))
+					return "";
+				inPackage = true;
+				word.setLength(0);
+				if (!Character.isWhitespace(c))
+					return "";
+			} else if (!Character.isWhitespace(c)) {
+				return "";
 			}
+			c = reader.read();
 		}
-		return map;
+		return "";
 	}
 
 	/**
@@ -412,9 +474,10 @@ public abstract class JavaResource {
 	 * 		When the path could not be fetched or parsed.
 	 */
 	public boolean setClassSources(Path path) throws  IOException {
+		Map<String, SourceCode> sources = loadSources(path);
 		this.classSourceFile = path;
-		this.classSource.clear();
-		this.classSource.putAll(loadSources(path));
+		// Archives are kept as is, so that their entries are only parsed when requested
+		this.classSource = sources instanceof AttachmentMap ? sources : new HashMap<>(sources);
 		return !classSource.isEmpty();
 	}
 
@@ -431,9 +494,10 @@ public abstract class JavaResource {
 	 * 		When the path could not be fetched or parsed.
 	 */
 	public boolean setClassDocs(Path path) throws  IOException {
+		Map<String, Javadocs> docs = loadDocs(path);
 		this.classDocsFile = path;
-		this.classDocs.clear();
-		this.classDocs.putAll(loadDocs(path));
+		// Archives are kept as is, so that their entries are only parsed when requested
+		this.classDocs = docs instanceof AttachmentMap ? docs : new HashMap<>(docs);
 		return !classDocs.isEmpty();
 	}
 
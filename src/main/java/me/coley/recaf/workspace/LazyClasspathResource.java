@@ -1,5 +1,8 @@
 package me.coley.recaf.workspace;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import me.coley.recaf.util.ClasspathUtil;
 import me.coley.recaf.util.IOUtil;
 import me.coley.recaf.util.Log;
 
@@ -8,13 +11,20 @@ import java.io.InputStream;
 import java.util.*;
 
 /**
- * Resource for lazyily fetching classes via runtime lookups.
+ * Resource for lazyily fetching classes via runtime lookups. Runtime classes are checked against the
+ * {@link ClasspathUtil#getSystemClassNames() index of system classes}, so checking if they exist does not
+ * need to read them. A bounded number of fetched classes are cached.
+ * <br>
+ * Consumers such as the decompile cache compare code by identity, so a class is not read again while its
+ * code is still referenced elsewhere. The same array is returned for a class for as long as it is in use.
  *
  * @author Matt
  */
 public class LazyClasspathResource extends JavaResource {
 	private static final ResourceLocation LOCATION = LiteralResourceLocation.ofKind(ResourceKind.JAR, "ClassPath");
 	private static final LazyClasspathResource INSTANCE = new LazyClasspathResource();
+	private static final int CACHE_SIZE = 1024;
+	private static final int EXISTS_CACHE_SIZE = 8192;
 
 	private LazyClasspathResource() {
 		super(ResourceKind.JAR);
@@ -30,18 +40,26 @@ public class LazyClasspathResource extends JavaResource {
 	@Override
 	protected Map<String, byte[]> loadClasses() throws IOException {
 		return new HashMap<String, byte[]>() {
-			private final Map<String, byte[]> cache = new HashMap<>();
+			private final Map<String, byte[]> cache = createCache(CACHE_SIZE);
+			// All fetched classes, kept only while referenced by the cache or elsewhere
+			private final Cache<String, byte[]> fetched = CacheBuilder.newBuilder().weakValues().build();
+			private final Map<String, Boolean> exists = createCache(EXISTS_CACHE_SIZE);
 
 			@Override
 			public byte[] get(Object name) {
-				if (name == null)
+				String key = toKey(name);
+				if (key == null || !containsKey(key))
 					return null;
-				String key = name.toString();
-				if (key.contains("."))
-					key = key.replace('.', '/');
-				if(cache.containsKey(key))
-					return cache.get(key);
-				// Can't do "computeIfAbsent" since we also want to store null values.
+				synchronized(this) {
+					byte[] value = cache.get(key);
+					if (value == null) {
+						value = fetched.getIfPresent(key);
+						if (value != null)
+							cache.put(key, value);
+					}
+					if (value != null)
+						return value;
+				}
 				byte[] value = null;
 				try (InputStream in = ClassLoader.getSystemResourceAsStream(key + ".class")) {
 					if (in != null) {
@@ -50,13 +68,58 @@ public class LazyClasspathResource extends JavaResource {
 				} catch (IOException ex) {
 					Log.error(ex, "Failed to fetch runtime bytecode of class '{}'", key);
 				}
-				cache.put(key, value);
+				synchronized(this) {
+					if (value == null) {
+						exists.put(key, false);
+						return null;
+					}
+					// Another thread may have fetched the class in the meantime
+					byte[] current = fetched.getIfPresent(key);
+					if (current != null)
+						value = current;
+					else
+						fetched.put(key, value);
+					cache.put(key, value);
+				}
 				return value;
 			}
 
 			@Override
-			public boolean containsKey(Object key) {
-				return get(key) != null;
+			public boolean containsKey(Object name) {
+				String key = toKey(name);
+				if (key == null)
+					return false;
+				synchronized(this) {
+					Boolean known = exists.get(key);
+					if (known != null)
+						return known;
+				}
+				// Runtime classes are indexed, other classes only need their location to be found
+				if (ClasspathUtil.getSystemClassNames().contains(key))
+					return true;
+				boolean found = ClassLoader.getSystemResource(key + ".class") != null;
+				synchronized(this) {
+					exists.put(key, found);
+				}
+				return found;
+			}
+		};
+	}
+
+	private static String toKey(Object name) {
+		if (name == null)
+			return null;
+		String key = name.toString();
+		if (key.contains("."))
+			key = key.replace('.', '/');
+		return key;
+	}
+
+	private static <V> Map<String, V> createCache(int maxSize) {
+		return new LinkedHashMap<String, V>(16, 0.75F, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				return size() > maxSize;
 			}
 		};
 	}
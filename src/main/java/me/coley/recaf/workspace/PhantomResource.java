@@ -19,6 +19,7 @@ import org.objectweb.asm.tree.ClassNode;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Resource for holding phantom references.
@@ -32,6 +33,8 @@ public class PhantomResource extends JavaResource {
 	//  - assembling methods (just at startup?)
 
 	// TODO: Add a visual indicator when this passes / fails
+	// Classes of the last successful population
+	private Map<String, byte[]> analyzed = Collections.emptyMap();
 
 	/**
 	 * Constructs the phantom resource.
@@ -48,11 +51,15 @@ public class PhantomResource extends JavaResource {
 	 */
 	public void clear() throws IOException {
 		getClasses().clear();
+		analyzed = Collections.emptyMap();
 	}
 
 	/**
 	 * Populates the current resource with phantom classes
 	 * and dumps the classes into {@code [RECAF]/classpath/generated/output.jar}
+	 * <br>
+	 * JPhantom keeps its analysis state globally, so only one population runs at a time. If the given classes
+	 * are the same as the ones of the last population, the existing phantoms are kept.
 	 *
 	 * @param classes
 	 * 		Collection of classes to generate phantoms for.
@@ -60,24 +67,30 @@ public class PhantomResource extends JavaResource {
 	 * @throws IOException
 	 * 		Thrown when JPhantom cannot read from the temporary file where these classes are written to.
 	 */
-	public void populatePhantoms(Map<String, byte[]> classes) throws IOException {
-		Log.debug("Begin generating phantom classes, given {} input classes", classes.size());
+	public synchronized void populatePhantoms(Map<String, byte[]> classes) throws IOException {
+		Map<String, byte[]> input = new HashMap<>(classes);
+		if (isAnalyzed(input)) {
+			Log.debug("Skipping phantom generation, the {} input classes are unchanged", input.size());
+			return;
+		}
+		Log.debug("Begin generating phantom classes, given {} input classes", input.size());
 		// Clear old classes
 		clear();
-		// Write the parameter passed classes to a temp jar
-		Map<Type, ClassNode> nodes = new HashMap<>();
-		classes.forEach((name, c) -> {
-			ClassReader cr = new ClassReader(c);
+		// Parse each class once, the nodes are built in parallel
+		Map<String, ClassReader> readers = new ConcurrentHashMap<>();
+		Map<Type, ClassNode> nodes = new ConcurrentHashMap<>();
+		input.entrySet().parallelStream().forEach(e -> {
+			ClassReader cr = new ClassReader(e.getValue());
 			ClassNode node = ClassUtil.getNode(cr, 0);
+			readers.put(e.getKey(), cr);
 			nodes.put(Type.getObjectType(node.name), node);
 		});
 		// Read into JPhantom
 		Options.V().setSoftFail(true);
 		Options.V().setJavaVersion(8);
-		ClassHierarchy hierarchy = createHierarchy(classes);
-		ClassMembers members = createMembers(classes, hierarchy);
-		classes.forEach((name, c) -> {
-			ClassReader cr = new ClassReader(c);
+		ClassHierarchy hierarchy = createHierarchyFromReaders(readers);
+		ClassMembers members = createMembersFromReaders(readers, hierarchy);
+		readers.forEach((name, cr) -> {
 			if (cr.getClassName().contains("$"))
 				return;
 			try {
@@ -88,21 +101,36 @@ public class PhantomResource extends JavaResource {
 		});
 		// Remove duplicate constraints for faster analysis
 		Set<String> existingConstraints = new HashSet<>();
-		ClassAccessStateMachine.v().getConstraints().removeIf(c -> {
-			boolean isDuplicate = existingConstraints.contains(c.toString());
-			existingConstraints.add(c.toString());
-			return isDuplicate;
-		});
+		ClassAccessStateMachine.v().getConstraints().removeIf(c -> !existingConstraints.add(c.toString()));
 		// Execute and populate the current resource with generated classes
-		JPhantom phantom = new JPhantom(nodes, hierarchy, members);
-		phantom.run();
-		phantom.getGenerated().forEach((k, v) -> getClasses().put(k.getInternalName(), decorate(v)));
-		Log.debug("Phantom analysis complete, generated {} classes", classes.size());
-		// Cleanup
-		Phantoms.refresh();
-		ClassAccessStateMachine.refresh();
-		FieldAccessStateMachine.refresh();
-		MethodAccessStateMachine.refresh();
+		try {
+			JPhantom phantom = new JPhantom(new HashMap<>(nodes), hierarchy, members);
+			phantom.run();
+			phantom.getGenerated().forEach((k, v) -> getClasses().put(k.getInternalName(), decorate(v)));
+			analyzed = input;
+			Log.debug("Phantom analysis complete, generated {} classes", getClasses().size());
+		} finally {
+			// Cleanup
+			Phantoms.refresh();
+			ClassAccessStateMachine.refresh();
+			FieldAccessStateMachine.refresh();
+			MethodAccessStateMachine.refresh();
+		}
+	}
+
+	/**
+	 * @param classes
+	 * 		Classes to generate phantoms for.
+	 *
+	 * @return {@code true} if the classes are the same instances as the last analyzed classes.
+	 */
+	private boolean isAnalyzed(Map<String, byte[]> classes) {
+		if (analyzed.size() != classes.size())
+			return false;
+		for (Map.Entry<String, byte[]> e : classes.entrySet())
+			if (analyzed.get(e.getKey()) != e.getValue())
+				return false;
+		return true;
 	}
 
 	/**
@@ -114,6 +142,18 @@ public class PhantomResource extends JavaResource {
 	 * @return Members instance.
 	 */
 	public static ClassMembers createMembers(Map<String, byte[]> classMap, ClassHierarchy hierarchy) {
+		return createMembersFromReaders(readers(classMap), hierarchy);
+	}
+
+	/**
+	 * @param readers
+	 * 		Map of class names to readers of the classes.
+	 * @param hierarchy
+	 * 		Hierarchy to pass to {@link ClassMembers} constructor.
+	 *
+	 * @return Members instance.
+	 */
+	private static ClassMembers createMembersFromReaders(Map<String, ClassReader> readers, ClassHierarchy hierarchy) {
 		Class<?>[] argTypes = new Class[]{ClassHierarchy.class};
 		Object[] argVals = new Object[]{hierarchy};
 		ClassMembers repo = ReflectUtil.quietNew(ClassMembers.class, argTypes, argVals);
@@ -123,9 +163,9 @@ public class PhantomResource extends JavaResource {
 			Log.error("Failed to get initial reader ClassMembers, could not lookup 'java/lang/Object'");
 			throw new IllegalStateException();
 		}
-		for (Map.Entry<String, byte[]> e : classMap.entrySet()) {
+		for (Map.Entry<String, ClassReader> e : readers.entrySet()) {
 			try {
-				new ClassReader(e.getValue()).accept(repo.new Feeder(), 0);
+				e.getValue().accept(repo.new Feeder(), 0);
 			} catch (Throwable t) {
 				Log.debug("Could not supply {} to ClassMembers feeder", e.getKey(), t);
 			}
@@ -140,10 +180,20 @@ public class PhantomResource extends JavaResource {
 	 * @return Class hierarchy.
 	 */
 	public static ClassHierarchy createHierarchy(Map<String, byte[]> classMap) {
+		return createHierarchyFromReaders(readers(classMap));
+	}
+
+	/**
+	 * @param readers
+	 * 		Map of class names to readers of the classes.
+	 *
+	 * @return Class hierarchy.
+	 */
+	private static ClassHierarchy createHierarchyFromReaders(Map<String, ClassReader> readers) {
 		ClassHierarchy hierarchy = new IncrementalClassHierarchy();
-		for (Map.Entry<String, byte[]> e : classMap.entrySet()) {
+		for (Map.Entry<String, ClassReader> e : readers.entrySet()) {
 			try {
-				ClassReader reader = new ClassReader(e.getValue());
+				ClassReader reader = e.getValue();
 				String[] ifaceNames = reader.getInterfaces();
 				Type clazz = Type.getObjectType(reader.getClassName());
 				Type superclass = reader.getSuperName() == null ?
@@ -165,6 +215,24 @@ public class PhantomResource extends JavaResource {
 		return hierarchy;
 	}
 
+	/**
+	 * @param classMap
+	 * 		Map of class names to their bytecode.
+	 *
+	 * @return Map of class names to readers of the classes. Classes that cannot be read are skipped.
+	 */
+	private static Map<String, ClassReader> readers(Map<String, byte[]> classMap) {
+		Map<String, ClassReader> readers = new LinkedHashMap<>();
+		for (Map.Entry<String, byte[]> e : classMap.entrySet()) {
+			try {
+				readers.put(e.getKey(), new ClassReader(e.getValue()));
+			} catch (Exception ex) {
+				Log.error("JPhantom: Failed to read: {}", e.getKey(), ex);
+			}
+		}
+		return readers;
+	}
+
 	/**
 	 * Adds a note to the given class that it has been auto-generated.
 	 *
@@ -4,11 +4,9 @@ import com.github.javaparser.ParseResult;
 import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.symbolsolver.JavaSymbolSolver;
-import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
 import me.coley.recaf.Recaf;
 import me.coley.recaf.compiler.JavacCompiler;
 import me.coley.recaf.control.Controller;
-import me.coley.recaf.control.headless.HeadlessController;
 import me.coley.recaf.graph.flow.FlowGraph;
 import me.coley.recaf.graph.inheritance.HierarchyGraph;
 import me.coley.recaf.mapping.AsmMappingUtils;
@@ -37,7 +35,9 @@ public class Workspace {
 	private final List<JavaResource> libraries;
 	private HierarchyGraph hierarchyGraph;
 	private FlowGraph flowGraph;
+	private ClassNameIndex classNameIndex;
 	private ParserConfiguration config;
+	private WorkspaceTypeResolver typeResolver;
 
 	/**
 	 * Constructs a workspace.
@@ -102,6 +102,15 @@ public class Workspace {
 		return flowGraph;
 	}
 
+	/**
+	 * @return Index of class names for completions.
+	 */
+	public synchronized ClassNameIndex getClassNameIndex() {
+		if(classNameIndex == null)
+			classNameIndex = new ClassNameIndex(this);
+		return classNameIndex;
+	}
+
 	/**
 	 * @return Aggregated ASM mappings for the workspace.
 	 */
@@ -145,8 +154,9 @@ public class Workspace {
 	 */
 	public void analyzePhantoms() {
 		Controller controller = Recaf.getController();
-		if (controller == null || controller instanceof HeadlessController) {
-			// If we're using a headless controller, we very likely do not need to create phantom references.
+		if (controller == null || Recaf.isHeadless()) {
+			// If we're running headless (Including batch mode), we very likely do not need to create phantom
+			// references.
 			// (Realistically, I doubt people will use the assembler in CLI mode)
 			return;
 		}
@@ -407,7 +417,7 @@ public class Workspace {
 	/**
 	 * @return JavaParser config to assist in resolving symbols.
 	 */
-	public ParserConfiguration getSourceParseConfig() {
+	public synchronized ParserConfiguration getSourceParseConfig() {
 		if (config == null)
 			updateSourceConfig();
 		return config;
@@ -416,10 +426,13 @@ public class Workspace {
 	/**
 	 * Creates a source config with a type resolver that can access all types in the workspace.
 	 */
-	public void updateSourceConfig() {
-		TypeSolver solver = new WorkspaceTypeResolver(this);
+	public synchronized void updateSourceConfig() {
+		// The previous resolver is no longer updated by the resources
+		if (typeResolver != null)
+			typeResolver.close();
+		typeResolver = new WorkspaceTypeResolver(this);
 		config = new ParserConfiguration()
-				.setSymbolResolver(new JavaSymbolSolver(solver))
+				.setSymbolResolver(new JavaSymbolSolver(typeResolver))
 				.setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_16);
 	}
 
@@ -1,5 +1,7 @@
 package me.coley.recaf;
 
+import me.coley.recaf.parse.bytecode.IncrementalParser;
+import me.coley.recaf.parse.bytecode.LineTokens;
 import me.coley.recaf.parse.bytecode.Parse;
 import me.coley.recaf.parse.bytecode.ParseResult;
 import me.coley.recaf.parse.bytecode.exception.ASTParseException;
@@ -62,6 +64,17 @@ public class AssemblyAstTest {
 			assertEquals("LDC \"Hello World\"", ldc.print());
 		}
 
+		@Test
+		public void testAliasReferencingLaterAlias() {
+			// References in values are expanded by aliases declared after them
+			RootAST root = Parse.parse(
+					"ALIAS two \"\"Hello ${one}\"\"\n" +
+					"ALIAS one \"World\"\n" +
+					"LDC ${two}").getRoot();
+			LdcInsnAST ldc = (LdcInsnAST) root.getChildren().get(2);
+			assertEquals("LDC \"Hello World\"", ldc.print());
+		}
+
 		@Test
 		public void testParseCommentAfterNewline() {
 			String msg = "test";
@@ -176,6 +189,64 @@ public class AssemblyAstTest {
 			assertEquals(line, root.print());
 		}
 
+		@Test
+		public void testLineTokens() {
+			LineTokens tokens = LineTokens.of("  INVOKESTATIC \t a/B.c()V  ");
+			assertEquals(2, tokens.size());
+			assertEquals("INVOKESTATIC", tokens.get(0));
+			assertTrue(tokens.is(0, "invokestatic"));
+			assertEquals(2, tokens.start(0));
+			assertEquals("a/B.c()V", tokens.get(1));
+			assertEquals(17, tokens.start(1));
+			assertEquals(25, tokens.end(1));
+			assertEquals(0, LineTokens.of(" \t ").size());
+		}
+
+		@Test
+		public void testIncrementalParse() {
+			IncrementalParser parser = new IncrementalParser();
+			RootAST first = parser.parse("ALIAS one \"1\"\nLDC ${one}\nICONST_0\nPOP").getRoot();
+			assertTrue(parser.isStructureChanged());
+			// Only the edited line is parsed again, the others are copied without changing the previous tree
+			RootAST second = parser.parse("ALIAS one \"1\"\nLDC ${one}\nICONST_1\nPOP").getRoot();
+			assertEquals(1, parser.getReparsedLines());
+			assertTrue(parser.isStructureChanged());
+			assertEquals(first.getChildren().get(1).print(), second.getChildren().get(1).print());
+			assertNotSame(first.getChildren().get(1), second.getChildren().get(1));
+			assertEquals(first, first.getChildren().get(3).getParent());
+			assertEquals(first.getChildren().get(2), first.getChildren().get(3).getPrev());
+			assertEquals(second.getChildren().get(2), second.getChildren().get(3).getPrev());
+			assertNull(second.getChildren().get(3).getNext());
+			// Whitespace does not change the parsed nodes
+			parser.parse("ALIAS one \"1\"\nLDC ${one}\nICONST_1   \nPOP");
+			assertFalse(parser.isStructureChanged());
+			// Lines using an alias are parsed again when the alias changes
+			RootAST third = parser.parse("ALIAS one \"2\"\nLDC ${one}\nICONST_1   \nPOP").getRoot();
+			assertEquals(2, parser.getReparsedLines());
+			assertEquals("LDC 2", third.getChildren().get(1).print());
+			assertEquals(Parse.parse("ALIAS one \"2\"\nLDC ${one}\nICONST_1\nPOP").getRoot().print(), third.print());
+		}
+
+		@Test
+		public void testIncrementalParseInsertedLine() {
+			IncrementalParser parser = new IncrementalParser();
+			parser.parse("ICONST_0\nPOP\nBAD\nRETURN");
+			// Lines after the inserted one are moved instead of parsed again
+			ParseResult<RootAST> result = parser.parse("NOP\nICONST_0\nPOP\nBAD\nRETURN");
+			assertEquals(1, parser.getReparsedLines());
+			assertTrue(parser.isStructureChanged());
+			List<AST> children = result.getRoot().getChildren();
+			assertEquals("RETURN", children.get(3).print());
+			assertEquals(5, children.get(3).getLine());
+			assertEquals(5, children.get(3).getChildren().get(0).getLine());
+			assertEquals(4, result.getProblems().get(0).getLine());
+			// Removing a line moves the following lines back
+			result = parser.parse("NOP\nICONST_0\nBAD\nRETURN");
+			assertEquals(0, parser.getReparsedLines());
+			assertEquals(4, result.getRoot().getChildren().get(2).getLine());
+			assertEquals(3, result.getProblems().get(0).getLine());
+		}
+
 		@Test
 		public void testInsn() {
 			RootAST root = Parse.parse("ACONST_NULL\nARETURN").getRoot();
@@ -482,6 +553,14 @@ public class AssemblyAstTest {
 			assertTrue(suggestions.contains("java/lang/String"));
 		}
 
+		@Test
+		public void testTypeInsnSuggestSimpleName() {
+			List<String> suggestions = suggest(null, "NEW ArrayLi");
+			assertTrue(suggestions.contains("java/util/ArrayList"));
+			suggestions = suggest(null, "NEW AIOOBE");
+			assertTrue(suggestions.contains("java/lang/ArrayIndexOutOfBoundsException"));
+		}
+
 		@Test
 		public void testMultiANewArrayInsnSuggest() {
 			List<String> suggestions = suggest(null, "MULTIANEWARRAY [Ljava/lang/Stri");
@@ -537,6 +537,56 @@ public class AssemblyCasesTest {
 		}
 	}
 
+	@Nested
+	public class Disassembly {
+		@Test
+		public void testWindowMatchesFullDisassembly() {
+			try {
+				MethodNode node = compile(parse(
+						"ICONST_0\nISTORE k\n" +
+								"LOOP:\nIINC k 1\nILOAD k\nBIPUSH 10\nIF_ICMPLT LOOP\n" +
+								"ILOAD k\nPOP\n"));
+				Disassembler disassembler = new Disassembler();
+				String full = disassembler.disassemble(node);
+				// Reused instances must produce the same output
+				assertEquals(full, disassembler.disassemble(node));
+				// Windows contain the same lines as the full output
+				int size = node.instructions.size();
+				StringBuilder window = new StringBuilder();
+				disassembler.disassemble(node, 0, size / 2, window);
+				window.append('\n');
+				disassembler.disassemble(node, size / 2, size, window);
+				assertTrue(full.endsWith(window.toString()), window::toString);
+				// Single instructions resolve label names
+				for (AbstractInsnNode insn : node.instructions.toArray())
+					if (insn instanceof JumpInsnNode)
+						assertFalse(Disassembler.insn(insn).contains("?"));
+			} catch(Exception ex) {
+				fail(ex);
+			}
+		}
+
+		@Test
+		public void testSingleInsnAfterLabelInserted() {
+			try {
+				MethodNode node = compile(parse(
+						"ICONST_0\nISTORE k\n" +
+								"LOOP:\nIINC k 1\nILOAD k\nBIPUSH 10\nIF_ICMPLT LOOP\n" +
+								"ILOAD k\nPOP\n"));
+				AbstractInsnNode jump = null;
+				for (AbstractInsnNode insn : node.instructions.toArray())
+					if (insn instanceof JumpInsnNode)
+						jump = insn;
+				String before = Disassembler.insn(jump);
+				// Labels inserted after the first instruction shift the names of the labels after them
+				node.instructions.insert(node.instructions.getFirst(), new LabelNode());
+				assertNotEquals(before, Disassembler.insn(jump));
+			} catch(Exception ex) {
+				fail(ex);
+			}
+		}
+	}
+
 	@Nested
 	public class InvokeSimulation {
 		@Test
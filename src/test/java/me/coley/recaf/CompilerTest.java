@@ -1,10 +1,14 @@
 package me.coley.recaf;
 
 import me.coley.recaf.compiler.*;
+import me.coley.recaf.workspace.EmptyResource;
+import me.coley.recaf.workspace.Workspace;
 import org.junit.jupiter.api.Test;
 
 import javax.tools.Diagnostic;
 import javax.tools.DiagnosticListener;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -84,4 +88,54 @@ public class CompilerTest {
 		assertNotNull(nodebug);
 		assertTrue(debug.length > nodebug.length);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Tests reuse of the shared compiler state between compilations.
+	 */
+	@Test
+	public void testService() {
+		JavacService service = new JavacService();
+		try {
+			for (int i = 0; i < 3; i++) {
+				String name = "Unit" + i;
+				JavacCompiler c = new JavacCompiler();
+				c.addUnit(name, "public class " + name + " { java.util.List<String> list; }");
+				c.setCompileListener(FAIL_ON_ERROR);
+				assertTrue(service.compile(c));
+				assertNotNull(c.getUnitCode(name));
+			}
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	/**
+	 * Tests recompiling classes that depend on each other, including a reference cycle.
+	 */
+	@Test
+	public void testBatchRecompile() {
+		Workspace workspace = new Workspace(new EmptyResource());
+		Map<String, String> sources = new HashMap<>();
+		sources.put("batch/A", "package batch; public class A { public static int a() { return 1; } }");
+		sources.put("batch/B", "package batch; public class B { int b() { return A.a() + C.c(); } }");
+		sources.put("batch/C", "package batch; public class C { static int c() { return new B().b(); } }");
+		sources.put("batch/D", "package batch; public class D { class Inner { int d = A.a(); } }");
+		BatchRecompiler recompiler = new BatchRecompiler(workspace);
+		RecompileResult result = recompiler.recompile(sources);
+		assertTrue(result.isSuccess(), () -> result.getErrors().toString());
+		assertTrue(result.isMerged());
+		// A, the B/C cycle, and D
+		assertEquals(3, result.getComponents());
+		for (String name : new String[] {"batch/A", "batch/B", "batch/C", "batch/D", "batch/D$Inner"})
+			assertNotNull(workspace.getPrimary().getClasses().get(name), name);
+		// Recompiling with an error must leave the primary resource untouched
+		byte[] original = workspace.getPrimary().getClasses().get("batch/A");
+		sources.put("batch/A", "package batch; public class A { public static int a() { return 2; } }");
+		sources.put("batch/D", "package batch; public class D { int d = missing(); }");
+		RecompileResult failed = recompiler.recompile(sources);
+		assertFalse(failed.isSuccess());
+		assertFalse(failed.isMerged());
+		assertTrue(failed.getErrors().containsKey("batch/D"));
+		assertSame(original, workspace.getPrimary().getClasses().get("batch/A"));
+	}
+}
@@ -1,13 +1,23 @@
 package me.coley.recaf;
 
 import me.coley.recaf.control.Controller;
+import me.coley.recaf.decompile.*;
 import me.coley.recaf.decompile.cfr.CfrDecompiler;
 import me.coley.recaf.decompile.fernflower.FernFlowerDecompiler;
 import me.coley.recaf.decompile.procyon.ProcyonDecompiler;
+import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.util.struct.Pair;
 import me.coley.recaf.workspace.*;
 import org.junit.jupiter.api.*;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
 
 import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static me.coley.recaf.util.TestUtils.*;
@@ -65,6 +75,220 @@ public class DecompileTest extends Base {
 				assertNotNull(decomp);
 			}
 		}
+
+		@Test
+		public void testService() {
+			DecompileService service = controller.getDecompileService();
+			for (String name : controller.getWorkspace().getPrimaryClassNames()) {
+				try {
+					DecompileResult result = service.decompile(name, DecompileImpl.CFR).get();
+					assertEquals(DecompileImpl.CFR, result.getImpl());
+					assertFalse(result.isFallback());
+					assertNotNull(result.getText());
+				} catch(Exception ex) {
+					fail(ex);
+				}
+			}
+		}
+
+		@Test
+		public void testMethodScope() {
+			DecompileService service = controller.getDecompileService();
+			for (String name : controller.getWorkspace().getPrimaryClassNames()) {
+				ClassReader reader = controller.getWorkspace().getClassReader(name);
+				for (Pair<String, String> method : ClassUtil.getMethodDefs(reader)) {
+					if (method.getKey().startsWith("<"))
+						continue;
+					try {
+						// Chained like the class viewport, so the fragment must be cached before dependents run
+						String text = service
+								.decompileMethod(name, DecompileImpl.CFR, method.getKey(), method.getValue())
+								.thenCompose(result -> service.decompileFragments(name, DecompileImpl.CFR))
+								.get().getText();
+						// Body of the decompiled method should replace its stub
+						assertFalse(text.contains("recaf$stub:" + method.getKey() + method.getValue()));
+					} catch(Exception ex) {
+						fail(ex);
+					}
+				}
+			}
+		}
+	}
+
+	@Nested
+	public class Service {
+		private final CountDownLatch release = new CountDownLatch(1);
+		private DecompileService service;
+		private String name;
+
+		@BeforeEach
+		public void setup() {
+			try {
+				JavaResource resource = new JarResource(getClasspathFile("inherit.jar"));
+				resource.getClasses();
+				resource.getFiles();
+				controller = setupController(resource);
+				name = controller.getWorkspace().getPrimaryClassNames().iterator().next();
+			} catch(IOException ex) {
+				fail(ex);
+			}
+		}
+
+		@AfterEach
+		public void shutdown() {
+			release.countDown();
+			if (service != null)
+				service.shutdown();
+			removeController();
+		}
+
+		@Test
+		public void testTimeout() {
+			service = new DecompileService(controller, impl -> cooperative(null));
+			CompletableFuture<DecompileResult> future =
+					service.decompile(name, Collections.singletonList(DecompileImpl.CFR), 100, 0);
+			ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+			DecompileAbortException abort = assertInstanceOf(DecompileAbortException.class, ex.getCause());
+			assertEquals(DecompileImpl.CFR, abort.getImpl());
+			assertEquals(DecompileAbortException.Reason.TIMEOUT, abort.getReason());
+		}
+
+		@Test
+		public void testFallbackOrder() {
+			List<DecompileImpl> attempted = Collections.synchronizedList(new ArrayList<>());
+			service = new DecompileService(controller, impl -> {
+				attempted.add(impl);
+				return impl == DecompileImpl.FERNFLOWER ? completed("fallback") : cooperative(null);
+			});
+			List<DecompileImpl> order =
+					Arrays.asList(DecompileImpl.PROCYON, DecompileImpl.CFR, DecompileImpl.FERNFLOWER);
+			try {
+				DecompileResult result = service.decompile(name, order, 100, 0).get(10, TimeUnit.SECONDS);
+				assertEquals(DecompileImpl.FERNFLOWER, result.getImpl());
+				assertEquals("fallback", result.getText());
+				assertTrue(result.isFallback());
+				assertEquals(order, attempted);
+				assertEquals(2, result.getAborted().size());
+				assertEquals(DecompileImpl.PROCYON, result.getAborted().get(0).getImpl());
+				assertEquals(DecompileImpl.CFR, result.getAborted().get(1).getImpl());
+				// Requesting the class again uses the fallback's result rather than retrying the aborted ones
+				attempted.clear();
+				assertSame(result, service.decompile(name, order, 100, 0).get(10, TimeUnit.SECONDS));
+				assertTrue(attempted.isEmpty());
+			} catch(Exception ex) {
+				fail(ex);
+			}
+		}
+
+		@Test
+		public void testCancel() {
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch stopped = new CountDownLatch(1);
+			List<DecompileImpl> attempted = Collections.synchronizedList(new ArrayList<>());
+			service = new DecompileService(controller, impl -> {
+				attempted.add(impl);
+				started.countDown();
+				return cooperative(stopped);
+			});
+			List<DecompileImpl> order = Arrays.asList(DecompileImpl.CFR, DecompileImpl.FERNFLOWER);
+			CompletableFuture<DecompileResult> future = service.decompile(name, order, 60000, 0);
+			try {
+				assertTrue(started.await(10, TimeUnit.SECONDS));
+				future.cancel(true);
+				// The decompiler sees the cancellation at its next lookup, and no fallback is attempted
+				assertTrue(stopped.await(10, TimeUnit.SECONDS));
+				assertEquals(Collections.singletonList(DecompileImpl.CFR), attempted);
+			} catch(InterruptedException ex) {
+				fail(ex);
+			}
+		}
+
+		@Test
+		public void testAbandonUnresponsive() {
+			int count = Runtime.getRuntime().availableProcessors();
+			CountDownLatch finished = new CountDownLatch(count);
+			service = new DecompileService(controller, impl ->
+					impl == DecompileImpl.CFR ? unresponsive(finished) : completed("done"));
+			List<CompletableFuture<DecompileResult>> stuck = new ArrayList<>();
+			for (int i = 0; i < count; i++)
+				stuck.add(service.decompile(name, Collections.singletonList(DecompileImpl.CFR), 100, 0));
+			try {
+				// Every worker is stuck, so the decompile can only run once stuck threads are replaced
+				DecompileResult result = service.decompile(name, Collections.singletonList(DecompileImpl.FERNFLOWER),
+						60000, 0).get(20, TimeUnit.SECONDS);
+				assertEquals("done", result.getText());
+				for (CompletableFuture<DecompileResult> future : stuck)
+					assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+				// Abandoned threads are not killed, they finish on their own
+				release.countDown();
+				assertTrue(finished.await(10, TimeUnit.SECONDS));
+			} catch(Exception ex) {
+				fail(ex);
+			}
+		}
+
+		/**
+		 * @param stopped
+		 * 		Latch to count down when the decompiler is stopped. May be {@code null}.
+		 *
+		 * @return Decompiler that runs until it is cancelled, checking for cancellation like class lookups do.
+		 */
+		private Decompiler<?> cooperative(CountDownLatch stopped) {
+			return decompiler(() -> {
+				try {
+					while(true) {
+						DecompileService.checkCancelled();
+						try {
+							Thread.sleep(10);
+						} catch(InterruptedException ex) {
+							// Cancellation is checked at the next iteration
+						}
+					}
+				} catch(CancellationException ex) {
+					if (stopped != null)
+						stopped.countDown();
+					throw ex;
+				}
+			});
+		}
+
+		/**
+		 * @param finished
+		 * 		Latch to count down when the decompiler finishes.
+		 *
+		 * @return Decompiler that ignores cancellation and runs until the test releases it.
+		 */
+		private Decompiler<?> unresponsive(CountDownLatch finished) {
+			return decompiler(() -> {
+				while(release.getCount() > 0) {
+					try {
+						release.await();
+					} catch(InterruptedException ex) {
+						// Ignored, like decompilers do
+					}
+				}
+				finished.countDown();
+				return "";
+			});
+		}
+
+		private Decompiler<?> completed(String text) {
+			return decompiler(() -> text);
+		}
+
+		private Decompiler<?> decompiler(Supplier<String> body) {
+			return new Decompiler<Object>(controller) {
+				@Override
+				protected Map<String, Object> generateDefaultOptions() {
+					return Collections.emptyMap();
+				}
+
+				@Override
+				public String decompile(String name) {
+					return body.get();
+				}
+			};
+		}
 	}
 
 	@Nested
@@ -107,5 +331,57 @@ public class DecompileTest extends Base {
 		}
 	}
 
+	@Nested
+	public class Fragments {
+		private final byte[] code = create("m", "lambda$m$0", "other");
+
+		@Test
+		public void testSeparateLambda() {
+			// Lambdas of the kept method may be emitted as methods of their own rather than inlined
+			String text = "class Scoped {\n" +
+					"    void m() { Runnable r = Scoped::lambda$m$0; }\n" +
+					"    private static void lambda$m$0() { System.out.println(); }\n" +
+					"    void other() { throw new IllegalStateException(\"recaf$stub:other()V\"); }\n" +
+					"}";
+			Map<String, String> fragments = MethodFragments.extractFragments(text, code, "m", "()V");
+			assertNotNull(fragments);
+			assertEquals(2, fragments.size());
+			assertTrue(fragments.get("m()V").contains("lambda$m$0"));
+			assertTrue(fragments.get("lambda$m$0()V").contains("println"));
+		}
+
+		@Test
+		public void testUnexpectedBody() {
+			// Other bodies not being stubbed means the output does not match the stubbed class
+			String text = "class Scoped {\n" +
+					"    void m() { }\n" +
+					"    void other() { System.out.println(); }\n" +
+					"}";
+			assertNull(MethodFragments.extractFragments(text, code, "m", "()V"));
+		}
+
+		@Test
+		public void testMissingBody() {
+			String text = "class Scoped {\n" +
+					"    void other() { throw new IllegalStateException(\"recaf$stub:other()V\"); }\n" +
+					"}";
+			assertNull(MethodFragments.extractFragments(text, code, "m", "()V"));
+		}
+
+		private byte[] create(String... methods) {
+			ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+			cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "Scoped", null, "java/lang/Object", null);
+			for (String method : methods) {
+				MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC, method, "()V", null, null);
+				mv.visitCode();
+				mv.visitInsn(Opcodes.RETURN);
+				mv.visitMaxs(0, 0);
+				mv.visitEnd();
+			}
+			cw.visitEnd();
+			return cw.toByteArray();
+		}
+	}
+
 	// TODO: Test for options working by decompiling a synthetic member with differing options
 }
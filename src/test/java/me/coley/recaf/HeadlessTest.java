@@ -1,18 +1,31 @@
 package me.coley.recaf;
 
 import com.strobel.core.Mapping;
+import me.coley.recaf.control.headless.BatchController;
+import me.coley.recaf.control.headless.BatchResult;
 import me.coley.recaf.control.headless.HeadlessController;
 import me.coley.recaf.mapping.MappingImpl;
 import me.coley.recaf.mapping.Mappings;
+import me.coley.recaf.parse.bytecode.VerificationResult;
+import me.coley.recaf.parse.bytecode.WorkspaceVerifier;
+import me.coley.recaf.util.ClassUtil;
+import me.coley.recaf.util.IOUtil;
 import me.coley.recaf.workspace.JavaResource;
 import org.junit.jupiter.api.Test;
 import org.objectweb.asm.ClassReader;
 
 import java.io.ByteArrayInputStream;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import static me.coley.recaf.util.Log.info;
 import static org.junit.jupiter.api.Assertions.*;
@@ -57,6 +70,74 @@ public class HeadlessTest extends Base {
 		assertEquals(mainClass, "some/pkg/Main");
 	}
 
+	@Test
+	public void exportTest() throws Exception {
+		HeadlessController controller = new HeadlessController(null, null);
+		controller.setup();
+		Path input = getClasspathFile("calc.jar").normalize().toAbsolutePath();
+		invokeRun(controller, "loadworkspace " + input);
+		// Modify a class so both copied and recompressed entries are written
+		JavaResource primary = controller.getWorkspace().getPrimary();
+		String modified = primary.getClasses().keySet().iterator().next();
+		primary.getClasses().put(modified, ClassUtil.stripDebugForDecompile(primary.getClasses().get(modified)));
+		Path output = Files.createTempFile("recaf-export", ".jar");
+		try {
+			invokeRun(controller, "export " + output);
+			try (ZipFile zip = new ZipFile(output.toFile())) {
+				for (Map.Entry<String, byte[]> entry : primary.getClasses().entrySet()) {
+					ZipEntry zipEntry = zip.getEntry(entry.getKey() + ".class");
+					assertNotNull(zipEntry);
+					assertArrayEquals(entry.getValue(), IOUtil.toByteArray(zip.getInputStream(zipEntry)));
+				}
+			}
+		} finally {
+			Files.deleteIfExists(output);
+		}
+	}
+
+	@Test
+	public void verifyTest() throws Exception {
+		HeadlessController controller = new HeadlessController(null, null);
+		controller.setup();
+		invokeRun(controller, "loadworkspace " + getClasspathFile("calc.jar").normalize().toAbsolutePath());
+		WorkspaceVerifier verifier = controller.getWorkspaceVerifier();
+		VerificationResult first = verifier.verify(controller.getWorkspace());
+		assertTrue(first.isSuccess(), first::toString);
+		assertTrue(first.getVerified() > 0);
+		assertEquals(0, first.getReused());
+		// Nothing changed, so no methods are analyzed again
+		VerificationResult second = verifier.verify(controller.getWorkspace());
+		assertEquals(0, second.getVerified());
+		assertEquals(first.getVerified(), second.getReused());
+		// Only the methods of the modified class are analyzed again
+		JavaResource primary = controller.getWorkspace().getPrimary();
+		String modified = primary.getClasses().keySet().iterator().next();
+		primary.getClasses().put(modified, ClassUtil.stripDebugForDecompile(primary.getClasses().get(modified)));
+		VerificationResult third = verifier.verify(controller.getWorkspace());
+		assertTrue(third.isSuccess(), third::toString);
+		assertTrue(third.getVerified() > 0);
+		assertTrue(third.getVerified() < first.getVerified());
+		assertEquals(first.getVerified(), third.getVerified() + third.getReused());
+	}
+
+	@Test
+	public void batchTest() throws Exception {
+		BatchController controller = new BatchController(Collections.emptyList(), null, 2, null);
+		controller.setup();
+		List<Path> inputs = Arrays.asList(getClasspathFile("calc.jar"), getClasspathFile("Manifest.jar"),
+				getClasspathFile("inherit.jar"));
+		List<BatchResult> results = controller.runBatch(inputs, Arrays.asList("workspaceinfo", "nosuchcommand"));
+		assertEquals(inputs.size(), results.size());
+		for (int i = 0; i < inputs.size(); i++) {
+			BatchResult result = results.get(i);
+			assertEquals(inputs.get(i), result.getInput());
+			assertNull(result.getFailure());
+			// Unknown command should be logged as an error for each input
+			assertEquals(1, result.getErrors());
+			assertTrue(result.getLog().stream().anyMatch(line -> line.contains("nosuchcommand")));
+		}
+	}
+
 	private static void invokeRun(HeadlessController controller, String cmd) throws Exception {
 		Method m = controller.getClass().getDeclaredMethod("handle", String.class);
 		m.setAccessible(true);
@@ -0,0 +1,119 @@
+package me.coley.recaf;
+
+import me.coley.recaf.util.VMUtil;
+import me.coley.recaf.workspace.HotPatcher;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Tests for detecting changes the JVM cannot apply when hot-patching classes.
+ *
+ * @author Matt
+ */
+public class HotPatcherTest {
+	private static final byte[] BASE = create(ACC_PUBLIC | ACC_SUPER, "java/lang/Object", cw -> {
+		cw.visitField(ACC_PRIVATE, "value", "I", null, null).visitEnd();
+		method(cw, ACC_PUBLIC, "run", ICONST_0);
+	});
+
+	@Test
+	public void testMethodBodyChange() {
+		assertNull(HotPatcher.getIncompatibility(BASE, create(ACC_PUBLIC | ACC_SUPER, "java/lang/Object", cw -> {
+			cw.visitField(ACC_PRIVATE, "value", "I", null, null).visitEnd();
+			method(cw, ACC_PUBLIC, "run", ICONST_1);
+		})));
+		// Unknown loaded code cannot be compared
+		assertNull(HotPatcher.getIncompatibility(null, BASE));
+	}
+
+	@Test
+	public void testAddedField() {
+		String reason = HotPatcher.getIncompatibility(BASE, create(ACC_PUBLIC | ACC_SUPER, "java/lang/Object",
+				cw -> {
+					cw.visitField(ACC_PRIVATE, "value", "I", null, null).visitEnd();
+					cw.visitField(ACC_PRIVATE, "added", "I", null, null).visitEnd();
+					method(cw, ACC_PUBLIC, "run", ICONST_0);
+				}));
+		assertNotNull(reason);
+		assertTrue(reason.contains("fields"));
+	}
+
+	@Test
+	public void testPrivateStaticOrFinalMethods() {
+		byte[] added = create(ACC_PUBLIC | ACC_SUPER, "java/lang/Object", cw -> {
+			cw.visitField(ACC_PRIVATE, "value", "I", null, null).visitEnd();
+			method(cw, ACC_PUBLIC, "run", ICONST_0);
+			method(cw, ACC_PRIVATE | ACC_STATIC, "helper", ICONST_0);
+			method(cw, ACC_PRIVATE | ACC_FINAL, "other", ICONST_0);
+		});
+		// Private methods that are static or final may be added and removed where the JVM allows it
+		assertNull(HotPatcher.getIncompatibility(BASE, added, true));
+		assertNull(HotPatcher.getIncompatibility(added, BASE, true));
+		// Since JDK 13 that requires -XX:+AllowRedefinitionToAddDeleteMethods
+		assertTrue(HotPatcher.getIncompatibility(BASE, added, false).contains("was added"));
+		assertTrue(HotPatcher.getIncompatibility(added, BASE, false).contains("was removed"));
+		if (VMUtil.getVmVersion() >= 13 && !ManagementFactory.getRuntimeMXBean().getInputArguments()
+				.contains("-XX:+AllowRedefinitionToAddDeleteMethods"))
+			assertNotNull(HotPatcher.getIncompatibility(BASE, added));
+	}
+
+	@Test
+	public void testAddedOrRemovedMethods() {
+		byte[] added = create(ACC_PUBLIC | ACC_SUPER, "java/lang/Object", cw -> {
+			cw.visitField(ACC_PRIVATE, "value", "I", null, null).visitEnd();
+			method(cw, ACC_PUBLIC, "run", ICONST_0);
+			method(cw, ACC_PRIVATE, "helper", ICONST_0);
+		});
+		assertTrue(HotPatcher.getIncompatibility(BASE, added).contains("helper()I was added"));
+		assertTrue(HotPatcher.getIncompatibility(added, BASE).contains("helper()I was removed"));
+	}
+
+	@Test
+	public void testMethodModifierChange() {
+		String reason = HotPatcher.getIncompatibility(BASE, create(ACC_PUBLIC | ACC_SUPER, "java/lang/Object",
+				cw -> {
+					cw.visitField(ACC_PRIVATE, "value", "I", null, null).visitEnd();
+					method(cw, ACC_PROTECTED, "run", ICONST_0);
+				}));
+		assertNotNull(reason);
+		assertTrue(reason.contains("run()I"));
+	}
+
+	@Test
+	public void testClassChanges() {
+		Consumer<ClassWriter> members = cw -> {
+			cw.visitField(ACC_PRIVATE, "value", "I", null, null).visitEnd();
+			method(cw, ACC_PUBLIC, "run", ICONST_0);
+		};
+		assertEquals("the class modifiers changed", HotPatcher.getIncompatibility(BASE,
+				create(ACC_PUBLIC | ACC_FINAL | ACC_SUPER, "java/lang/Object", members)));
+		assertEquals("the class hierarchy changed", HotPatcher.getIncompatibility(BASE,
+				create(ACC_PUBLIC | ACC_SUPER, "java/lang/Number", members)));
+		// The super flag is ignored by the JVM
+		assertNull(HotPatcher.getIncompatibility(BASE, create(ACC_PUBLIC, "java/lang/Object", members)));
+	}
+
+	private static byte[] create(int access, String superName, Consumer<ClassWriter> members) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, access, "test/Patched", null, superName, null);
+		members.accept(cw);
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void method(ClassWriter cw, int access, String name, int constant) {
+		MethodVisitor mv = cw.visitMethod(access, name, "()I", null, null);
+		mv.visitCode();
+		mv.visitInsn(constant);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+}
@@ -9,17 +9,25 @@ import com.github.javaparser.resolution.declarations.*;
 import com.github.javaparser.resolution.types.ResolvedPrimitiveType;
 import com.github.javaparser.resolution.types.ResolvedReferenceType;
 import com.github.javaparser.resolution.types.ResolvedType;
+import com.github.javaparser.symbolsolver.model.resolution.SymbolReference;
 import com.google.common.collect.Sets;
 import me.coley.recaf.parse.source.SourceCode;
+import me.coley.recaf.parse.source.WorkspaceTypeResolver;
 import me.coley.recaf.workspace.*;
 import org.junit.jupiter.api.*;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static java.util.Collections.*;
@@ -300,6 +308,161 @@ public class SourceCodeTest extends Base {
 		}
 	}
 
+	@Nested
+	public class SourceArchives {
+		@Test
+		public void testPackageDeclarations() {
+			Map<String, String> entries = new LinkedHashMap<>();
+			entries.put("a/Block.java", "/* License\n * package wrong;\n */\npackage a.b;\npublic class Block {}");
+			entries.put("Line.java", "// package wrong;\n//\npackage c ;\nclass Line {}");
+			entries.put("Mixed.java", "/**/// x\n  /* y */package d.e.f;class Mixed {}");
+			entries.put("Bom.java", "\uFEFFpackage g;\nclass Bom {}");
+			entries.put("Default.java", "import java.util.List;\nclass Default {}");
+			entries.put("Empty.java", "// class Empty {}");
+			entries.put("h/package-info.java", "package h;");
+			JavaResource resource = sources(entries);
+			assertEquals(new HashSet<>(Arrays.asList("a/b/Block", "c/Line", "d/e/f/Mixed", "g/Bom", "Default",
+					"Empty")), resource.getClassSources().keySet());
+		}
+
+		@Test
+		public void testLookupBeforeIterate() {
+			JavaResource resource = sources(classes(3));
+			// Looked up sources are kept, and are not parsed again when iterating
+			SourceCode code = resource.getClassSource("p/C0");
+			assertNotNull(code);
+			assertSame(code, resource.getClassSource("p/C0"));
+			assertEquals(3, resource.getClassSources().size());
+			assertEquals(3, resource.getClassSources().values().size());
+			assertTrue(resource.getClassSources().values().stream().anyMatch(value -> value == code));
+			assertSame(resource.getClassSources().get("p/C1"), resource.getClassSources().get("p/C1"));
+		}
+
+		@Test
+		public void testCacheEviction() {
+			int count = 600;
+			JavaResource resource = sources(classes(count));
+			SourceCode first = resource.getClassSource("p/C0");
+			assertSame(first, resource.getClassSource("p/C0"));
+			// Least recently used sources are dropped once enough others are looked up
+			for(int i = 1; i < count; i++)
+				assertNotNull(resource.getClassSource("p/C" + i));
+			SourceCode reloaded = resource.getClassSource("p/C0");
+			assertNotSame(first, reloaded);
+			assertEquals(first.getInternalName(), reloaded.getInternalName());
+			assertSame(reloaded, resource.getClassSource("p/C0"));
+		}
+
+		@Test
+		public void testOverrides() {
+			JavaResource resource = sources(classes(2));
+			Map<String, SourceCode> sources = resource.getClassSources();
+			SourceCode original = sources.get("p/C0");
+			SourceCode replacement = new SourceCode(resource, "package p;\nclass C0 { int x; }");
+			assertSame(original, sources.put("p/C0", replacement));
+			assertSame(replacement, sources.get("p/C0"));
+			assertTrue(sources.values().contains(replacement));
+			assertFalse(sources.values().contains(original));
+			// New classes are added, and removed classes are no longer known
+			SourceCode added = new SourceCode(resource, "package p;\nclass C2 {}");
+			assertNull(sources.put("p/C2", added));
+			assertEquals(3, sources.size());
+			assertSame(added, sources.get("p/C2"));
+			assertSame(replacement, sources.remove("p/C0"));
+			assertNotNull(sources.remove("p/C1"));
+			assertFalse(sources.containsKey("p/C0"));
+			assertFalse(sources.containsKey("p/C1"));
+			assertNull(sources.get("p/C1"));
+			assertEquals(singleton("p/C2"), sources.keySet());
+			assertEquals(1, sources.values().size());
+		}
+
+		private Map<String, String> classes(int count) {
+			Map<String, String> entries = new LinkedHashMap<>();
+			for(int i = 0; i < count; i++)
+				entries.put("p/C" + i + ".java", "package p;\nclass C" + i + " {}");
+			return entries;
+		}
+
+		private JavaResource sources(Map<String, String> entries) {
+			try {
+				Path file = Files.createTempFile("recaf-sources", ".zip");
+				file.toFile().deleteOnExit();
+				try(ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(file))) {
+					for(Map.Entry<String, String> e : entries.entrySet()) {
+						zos.putNextEntry(new ZipEntry(e.getKey()));
+						zos.write(e.getValue().getBytes(StandardCharsets.UTF_8));
+						zos.closeEntry();
+					}
+				}
+				JavaResource resource = new JarResource(getClasspathFile("calc.jar"));
+				resource.getClasses();
+				resource.setClassSources(file);
+				return resource;
+			} catch(IOException ex) {
+				fail(ex);
+				return null;
+			}
+		}
+	}
+
+	@Nested
+	public class TypeResolving {
+		@Test
+		public void testInvalidationOnPut() {
+			JavaResource resource;
+			try {
+				resource = new JarResource(getClasspathFile("calc.jar"));
+				resource.getClasses();
+			} catch(IOException ex) {
+				fail(ex);
+				return;
+			}
+			Workspace workspace = new Workspace(resource);
+			WorkspaceTypeResolver resolver = new WorkspaceTypeResolver(workspace);
+			assertTrue(resolver.tryToSolveType("calc.Calculator").isSolved());
+			assertFalse(resolver.tryToSolveType("calc.Added").isSolved());
+			// Lookups made while the class is being written must not keep the old result
+			resource.getClasses().getPutListeners().add((name, value) -> resolver.tryToSolveType("calc.Added"));
+			ClassWriter cw = new ClassWriter(0);
+			cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "calc/Added", null, "java/lang/Object", null);
+			cw.visitEnd();
+			resource.getClasses().put("calc/Added", cw.toByteArray());
+			SymbolReference<ResolvedReferenceTypeDeclaration> ref = resolver.tryToSolveType("calc.Added");
+			assertTrue(ref.isSolved());
+			assertEquals("calc.Added", ref.getCorrespondingDeclaration().getQualifiedName());
+			resource.getClasses().remove("calc/Added");
+			assertFalse(resolver.tryToSolveType("calc.Added").isSolved());
+		}
+
+		@Test
+		public void testCloseRemovesListeners() {
+			JavaResource resource;
+			try {
+				resource = new JarResource(getClasspathFile("calc.jar"));
+				resource.getClasses();
+			} catch(IOException ex) {
+				fail(ex);
+				return;
+			}
+			Workspace workspace = new Workspace(resource);
+			int puts = resource.getClasses().getPutListeners().size();
+			int removes = resource.getClasses().getRemoveListeners().size();
+			WorkspaceTypeResolver resolver = new WorkspaceTypeResolver(workspace);
+			assertEquals(puts + 1, resource.getClasses().getPutListeners().size());
+			resolver.close();
+			assertEquals(puts, resource.getClasses().getPutListeners().size());
+			assertEquals(removes, resource.getClasses().getRemoveListeners().size());
+			// Replacing the workspace's config closes the resolver it replaces
+			workspace.getSourceParseConfig();
+			workspace.updateSourceConfig();
+			workspace.updateSourceConfig();
+			assertEquals(puts + 1, resource.getClasses().getPutListeners().size());
+			// Closed resolvers still check results against the workspace
+			assertTrue(resolver.tryToSolveType("calc.Calculator").isSolved());
+		}
+	}
+
 	/**
 	 * Asserts that the given resource's classes all have mappings to source files.<br>
 	 * The given resource must not have any inner classes.
@@ -1,14 +1,18 @@
 package me.coley.recaf;
 
+import me.coley.recaf.ui.controls.text.model.IncrementalStyler;
 import me.coley.recaf.ui.controls.text.model.LanguageStyler;
 import me.coley.recaf.ui.controls.text.model.Languages;
+import org.fxmisc.richtext.model.StyleSpan;
+import org.fxmisc.richtext.model.StyleSpans;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.*;
 
 import java.util.*;
 import java.util.stream.Stream;
 
-import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Regression tests to assert the odd load-order-based errors with the language styler don't resurface.
@@ -45,6 +49,80 @@ public class StylerTest {
 		}
 	}
 
+	@Test
+	public void testIncrementalMatchesFull() {
+		String text = "class Name {\n\tstatic int i = 0;\n\tString s = \"str\";\n}";
+		// Edits: insert a line, open a comment spanning later lines, close it, remove the line
+		assertIncrementalMatchesFull(text, new String[][] {
+				{"{\n", "{\n\tfinal int j = 1;\n"},
+				{"\tstatic", "\t/* static"},
+				{"\"str\";", "\"str\"; */"},
+				{"\tfinal int j = 1;\n", ""},
+		});
+	}
+
+	@Test
+	public void testIncrementalMultiLineRegion() {
+		String text = "/*\n * one\n * two\n * three\n */\nclass Name {\n\tint i = 0;\n}";
+		// Edits: close the comment early from within, reopen it, then edit after it
+		assertIncrementalMatchesFull(text, new String[][] {
+				{" * three", " */ int three"},
+				{" */ int three", " * int three"},
+				{"int i", "static int i"},
+				{" * two\n", ""},
+		});
+	}
+
+	@Test
+	public void testIncrementalCloseDistantComment() {
+		StringBuilder text = new StringBuilder("/* never closed\nclass Name {\n");
+		for(int i = 0; i < 20; i++)
+			text.append("\tstatic int i").append(i).append(" = ").append(i).append(";\n");
+		text.append("}");
+		// Edits: close the comment far below where it was opened, open it again, then close it closer to the top
+		assertIncrementalMatchesFull(text.toString(), new String[][] {
+				{"i19 = 19;", "i19 = 19; */"},
+				{"i19 = 19; */", "i19 = 19; *"},
+				{"i10 = 10;", "i10 = 10; */"},
+				{"never closed", "never"},
+		});
+	}
+
+	private static void assertIncrementalMatchesFull(String text, String[][] edits) {
+		IncrementalStyler styler = new IncrementalStyler(Languages.find("java"));
+		List<String> styles = new ArrayList<>(Collections.nCopies(text.length(), ""));
+		styler.submit(text, 0, 0, text.length());
+		styler.process(text.length(), update -> apply(styler, styles, update));
+		for(String[] edit : edits) {
+			int position = text.indexOf(edit[0]);
+			int removed = edit[0].length();
+			text = text.substring(0, position) + edit[1] + text.substring(position + removed);
+			// Text area shifts existing styles, and inserted text is not styled
+			for(int i = 0; i < removed; i++)
+				styles.remove(position);
+			for(int i = 0; i < edit[1].length(); i++)
+				styles.add(position, "");
+			styler.submit(text, position, removed, edit[1].length());
+			styler.process(text.length(), update -> apply(styler, styles, update));
+			assertEquals(expand(new LanguageStyler(Languages.find("java")).computeStyle(text)), styles);
+		}
+	}
+
+	private static void apply(IncrementalStyler styler, List<String> styles, IncrementalStyler.Update update) {
+		List<String> expanded = expand(update.getSpans());
+		for(int i = 0; i < expanded.size(); i++)
+			styles.set(update.getOffset() + i, expanded.get(i));
+		styler.applied(update);
+	}
+
+	private static List<String> expand(StyleSpans<Collection<String>> spans) {
+		List<String> styles = new ArrayList<>();
+		for(StyleSpan<Collection<String>> span : spans)
+			for(int i = 0; i < span.getLength(); i++)
+				styles.add(String.join(" ", span.getStyle()));
+		return styles;
+	}
+
 	public static Stream<Arguments> generateCombinations() {
 		List<Arguments> pairs = new ArrayList<>();
 		for (String first : langToExample.keySet())